@@ -22,8 +22,14 @@ import org.axonframework.spring.stereotype.Aggregate;
  * <p>
  * 상태 관리 방식: 1. 모든 상태 변경은 이벤트로 저장됨 (Axon Server에 영구 저장) 2. 현재 상태는 저장된 이벤트들을 순차적으로 적용하여 재구성 3.
  * balance 필드는 일시적인 메모리 상태이며, 이벤트 재생을 통해 언제든 복원 가능
+ * <p>
+ * 스냅샷: 이벤트가 임계값(study.axon.snapshot.thresholds.AccountAggregate)만큼 쌓이면 현재 상태를 스냅샷으로 저장하고, 이후 로드는 스냅샷과 그
+ * 뒤의 이벤트만 재생합니다.
+ * <p>
+ * 캐시: 최근 사용한 계좌는 accountAggregateCache에 보관되어 연속된 커맨드는 이벤트 저장소를 다시 읽지 않습니다.
  */
-@Aggregate
+@Aggregate(snapshotTriggerDefinition = "accountSnapshotTriggerDefinition",
+    cache = "accountAggregateCache")
 @NoArgsConstructor
 public class AccountAggregate {
 
@@ -0,0 +1,374 @@
+package kr.co.pincoin.study.audit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 링 버퍼 기반 비동기 감사 로그 기록기
+ * <p>
+ * 이벤트 처리 스레드는 미리 할당된 슬롯의 StringBuilder에 내용을 복사하고 바로 돌아가며, 파일 쓰기는 전용 스레드 하나가 모아서 수행합니다.
+ * <ul>
+ *   <li>슬롯과 쓰기용 char 버퍼를 재사용하므로 기록할 때마다 문자열을 새로 만들지 않음</li>
+ *   <li>여러 스레드가 슬롯 번호를 원자적으로 받아 동시에 기록하고, 기록이 끝난 슬롯만 순서대로 파일에 씀</li>
+ *   <li>버퍼가 가득 차면 기록하는 스레드가 빈 슬롯이 생길 때까지 최대 maxWait 동안 기다리고, 그래도 자리가 없으면 기록을 버리고 버린 수를 셈
+ *   (파일 쓰기가 막혀도 이벤트 처리 스레드가 무한히 멈추지 않도록)</li>
+ *   <li>파일이 maxFileSize(문자 수 기준)를 넘으면 audit.log → audit.log.1 → ... 순서로 밀어내고 maxFiles개까지 보관</li>
+ * </ul>
+ * 파일 쓰기가 실패하면 파일을 닫고, 같은 기록부터 다시 열어 쓰기를 재시도합니다(기록 순서 유지). 밀어내기가 실패하면 현재 파일을 다시 열어 계속
+ * 쓰고 {@link #ROLL_RETRY}가 지난 뒤 다시 밀어냅니다. 종료 중에도 쓰지 못하는 기록은 버린 수에 더하고 종료합니다.
+ */
+@Slf4j
+public class AuditLogAppender implements Closeable {
+
+  private static final long IDLE_PARK_NANOS = Duration.ofMillis(1).toNanos();
+  private static final long RETRY_PARK_NANOS = Duration.ofMillis(100).toNanos();
+  static final Duration DEFAULT_MAX_WAIT = Duration.ofSeconds(1);
+  static final Duration ROLL_RETRY = Duration.ofSeconds(10);
+
+  private final Path file;
+  private final long maxFileSize;
+  private final int maxFiles;
+  private final long maxWaitNanos;
+
+  private final int mask;
+  private final StringBuilder[] slots;
+
+  /**
+   * 슬롯별로 기록이 끝난 순번 (아직 없으면 -1)
+   */
+  private final AtomicLongArray published;
+  private final AtomicLong claimed = new AtomicLong(-1);
+  private volatile long consumed = -1;
+
+  private final Thread writerThread;
+  private volatile boolean running = true;
+  private Writer writer;
+  private long fileSize;
+  private char[] chars = new char[1024];
+  // 쓰기 실패가 이어지는 동안 true (실패마다 로그를 남기지 않도록)
+  private boolean failing;
+  // 밀어내기에 실패한 뒤 다시 시도할 시각 (System.nanoTime 기준)
+  private boolean rollSuspended;
+  private long rollRetryAt;
+  private volatile boolean dropping;
+
+  private final LongAdder lines = new LongAdder();
+  private final LongAdder fullWaits = new LongAdder();
+  private final LongAdder dropped = new LongAdder();
+  private final LongAdder writeFailures = new LongAdder();
+
+  /**
+   * @param file        감사 로그 파일
+   * @param capacity    링 버퍼 슬롯 수 (2의 거듭제곱으로 올림)
+   * @param maxFileSize 파일 하나의 최대 크기 (문자 수)
+   * @param maxFiles    보관할 이전 파일 수
+   */
+  public AuditLogAppender(Path file, int capacity, long maxFileSize, int maxFiles) {
+    this(file, capacity, maxFileSize, maxFiles, DEFAULT_MAX_WAIT);
+  }
+
+  /**
+   * @param maxWait 버퍼가 가득 찼을 때 기록하는 스레드가 기다리는 최대 시간 (넘으면 기록을 버림)
+   */
+  public AuditLogAppender(Path file, int capacity, long maxFileSize, int maxFiles,
+      Duration maxWait) {
+    if (capacity <= 0 || maxFileSize <= 0 || maxFiles < 0 || maxWait.isNegative()) {
+      throw new IllegalArgumentException("버퍼 크기, 파일 크기, 보관 파일 수, 대기 시간을 확인하세요");
+    }
+    this.file = file;
+    this.maxFileSize = maxFileSize;
+    this.maxFiles = maxFiles;
+    this.maxWaitNanos = maxWait.toNanos();
+
+    int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+    this.mask = size - 1;
+    this.slots = new StringBuilder[size];
+    this.published = new AtomicLongArray(size);
+    for (int i = 0; i < size; i++) {
+      slots[i] = new StringBuilder(256);
+      published.set(i, -1);
+    }
+
+    try {
+      openWriter();
+    } catch (IOException e) {
+      throw new UncheckedIOException("감사 로그 파일을 열 수 없습니다: " + file, e);
+    }
+    this.writerThread = new Thread(this::writeLoop, "audit-log-writer");
+    this.writerThread.setDaemon(true);
+    this.writerThread.start();
+  }
+
+  /**
+   * 기록 통계
+   *
+   * @param lines         파일에 쓴 기록 수
+   * @param fullWaits     버퍼가 가득 차서 기록하는 스레드가 기다린 횟수
+   * @param backlog       아직 파일에 쓰지 않은 기록 수
+   * @param dropped       버퍼 대기 시간을 넘겼거나 종료 중에 쓰지 못해 버린 기록 수
+   * @param writeFailures 파일 쓰기(열기, 밀어내기 포함)에 실패한 횟수
+   */
+  public record Statistics(long lines, long fullWaits, long backlog, long dropped,
+                           long writeFailures) {
+
+  }
+
+  public Statistics statistics() {
+    return new Statistics(lines.sum(), fullWaits.sum(), claimed.get() - consumed, dropped.sum(),
+        writeFailures.sum());
+  }
+
+  /**
+   * 기록 수, 버린 수, 쓰기 실패 수, 밀린 기록 수를 지표로 등록합니다.
+   */
+  public void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder("audit.log.lines", lines, LongAdder::sum)
+        .description("감사 로그 파일에 쓴 기록 수")
+        .register(registry);
+    FunctionCounter.builder("audit.log.full.waits", fullWaits, LongAdder::sum)
+        .description("버퍼가 가득 차서 기록하는 스레드가 기다린 횟수")
+        .register(registry);
+    FunctionCounter.builder("audit.log.dropped", dropped, LongAdder::sum)
+        .description("버퍼 대기 시간을 넘겼거나 종료 중에 쓰지 못해 버린 기록 수")
+        .register(registry);
+    FunctionCounter.builder("audit.log.write.failures", writeFailures, LongAdder::sum)
+        .description("감사 로그 파일 쓰기 실패 횟수")
+        .register(registry);
+    Gauge.builder("audit.log.backlog", this, appender -> appender.statistics().backlog())
+        .description("아직 파일에 쓰지 않은 기록 수")
+        .register(registry);
+  }
+
+  /**
+   * 기록을 버퍼에 복사합니다. 여러 줄을 한 번에 넘기면 슬롯 하나로 기록되며, 끝에 줄바꿈이 없으면 붙입니다.
+   *
+   * @return 버퍼가 maxWait 동안 가득 차 있어 기록을 버렸으면 false
+   */
+  public boolean append(CharSequence text) {
+    if (!running) {
+      throw new IllegalStateException("감사 로그 기록기가 종료되었습니다");
+    }
+    long sequence = claim();
+    if (sequence < 0) {
+      dropped.increment();
+      if (!dropping) {
+        dropping = true;
+        log.warn("감사 로그 버퍼가 {}ms 동안 가득 차 있어 기록을 버립니다 (누적 {}건)",
+            Duration.ofNanos(maxWaitNanos).toMillis(), dropped.sum());
+      }
+      return false;
+    }
+    if (dropping) {
+      dropping = false;
+    }
+
+    StringBuilder slot = slots[(int) (sequence & mask)];
+    slot.setLength(0);
+    slot.append(text);
+    if (slot.isEmpty() || slot.charAt(slot.length() - 1) != '\n') {
+      slot.append('\n');
+    }
+    published.set((int) (sequence & mask), sequence);
+    return true;
+  }
+
+  /**
+   * 빈 슬롯이 있을 때만 순번을 받습니다. 받은 순번은 반드시 기록되어야 하므로(기록기가 순서대로 기다림), 대기 시간을 넘기면 순번을 받지 않고 -1을
+   * 반환합니다.
+   */
+  private long claim() {
+    boolean waited = false;
+    long deadline = 0;
+    while (true) {
+      long current = claimed.get();
+      if (current + 1 - consumed <= mask) {
+        if (claimed.compareAndSet(current, current + 1)) {
+          return current + 1;
+        }
+        continue;
+      }
+      if (!waited) {
+        fullWaits.increment();
+        waited = true;
+        deadline = System.nanoTime() + maxWaitNanos;
+      } else if (System.nanoTime() - deadline >= 0) {
+        return -1;
+      }
+      LockSupport.parkNanos(IDLE_PARK_NANOS);
+    }
+  }
+
+  private void writeLoop() {
+    long next = consumed + 1;
+    while (true) {
+      int index = (int) (next & mask);
+      if (published.get(index) == next) {
+        boolean written = write(slots[index]);
+        if (!written && running) {
+          // 같은 기록부터 다시 시도 (버퍼가 차면 기록하는 스레드는 maxWait 뒤 기록을 버림)
+          LockSupport.parkNanos(RETRY_PARK_NANOS);
+          continue;
+        }
+        if (!written) {
+          dropped.increment();
+        }
+        consumed = next++;
+        continue;
+      }
+
+      flush();
+      if (!running && claimed.get() < next) {
+        return;
+      }
+      LockSupport.parkNanos(IDLE_PARK_NANOS);
+    }
+  }
+
+  /**
+   * @return 파일(버퍼)에 썼으면 true, 실패해 파일을 닫았으면 false
+   */
+  private boolean write(StringBuilder slot) {
+    int length = slot.length();
+    if (chars.length < length) {
+      chars = new char[Integer.highestOneBit(length) << 1];
+    }
+    slot.getChars(0, length, chars, 0);
+    try {
+      if (writer == null) {
+        openWriter();
+      }
+      if (fileSize + length > maxFileSize && fileSize > 0
+          && (!rollSuspended || System.nanoTime() - rollRetryAt >= 0)) {
+        roll();
+      }
+      writer.write(chars, 0, length);
+      fileSize += length;
+      lines.increment();
+      if (failing) {
+        failing = false;
+        log.info("감사 로그 기록을 재개했습니다: {}", file);
+      }
+      return true;
+    } catch (IOException | RuntimeException e) {
+      writeFailed("감사 로그를 기록하지 못했습니다. 파일을 다시 열어 재시도합니다", e);
+      return false;
+    }
+  }
+
+  private void flush() {
+    if (writer == null) {
+      return;
+    }
+    try {
+      writer.flush();
+    } catch (IOException | RuntimeException e) {
+      writeFailed("감사 로그를 디스크로 내보내지 못했습니다", e);
+    }
+  }
+
+  private void writeFailed(String message, Exception e) {
+    writeFailures.increment();
+    if (!failing) {
+      failing = true;
+      log.error(message + ": " + file, e);
+    }
+    closeWriter();
+  }
+
+  private void closeWriter() {
+    Writer current = writer;
+    writer = null;
+    if (current != null) {
+      try {
+        current.close();
+      } catch (IOException e) {
+        log.debug("감사 로그 파일을 닫지 못했습니다: {}", file, e);
+      }
+    }
+  }
+
+  private void openWriter() throws IOException {
+    if (file.getParent() != null) {
+      Files.createDirectories(file.getParent());
+    }
+    writer = new BufferedWriter(new OutputStreamWriter(openStream(file), StandardCharsets.UTF_8),
+        64 * 1024);
+    fileSize = Files.size(file);
+  }
+
+  /**
+   * 감사 로그 파일을 덧붙이기 모드로 엽니다. (테스트에서 쓰기 실패를 흉내 낼 수 있도록 분리)
+   */
+  OutputStream openStream(Path path) throws IOException {
+    return Files.newOutputStream(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+  }
+
+  /**
+   * 현재 파일을 밀어내고 새 파일을 엽니다. 밀어내기에 실패하면 현재 파일을 다시 열어 계속 쓰고 ROLL_RETRY 뒤에 다시 시도합니다.
+   */
+  private void roll() throws IOException {
+    Writer current = writer;
+    writer = null;
+    current.close();
+    try {
+      if (maxFiles == 0) {
+        Files.delete(file);
+      } else {
+        Files.deleteIfExists(rolled(maxFiles));
+        for (int i = maxFiles - 1; i >= 1; i--) {
+          if (Files.exists(rolled(i))) {
+            Files.move(rolled(i), rolled(i + 1), StandardCopyOption.REPLACE_EXISTING);
+          }
+        }
+        Files.move(file, rolled(1), StandardCopyOption.REPLACE_EXISTING);
+      }
+      rollSuspended = false;
+    } catch (IOException e) {
+      writeFailures.increment();
+      rollSuspended = true;
+      rollRetryAt = System.nanoTime() + ROLL_RETRY.toNanos();
+      log.warn("감사 로그 파일을 밀어내지 못해 현재 파일에 계속 씁니다: {}", file, e);
+    }
+    openWriter();
+  }
+
+  private Path rolled(int index) {
+    return file.resolveSibling(file.getFileName() + "." + index);
+  }
+
+  /**
+   * 버퍼에 남은 기록을 모두 파일에 쓴 뒤 종료합니다.
+   */
+  @Override
+  public void close() throws IOException {
+    running = false;
+    try {
+      writerThread.join(Duration.ofSeconds(10).toMillis());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    Writer current = writer;
+    if (current != null) {
+      current.close();
+    }
+  }
+}
@@ -0,0 +1,349 @@
+package kr.co.pincoin.study.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import org.axonframework.common.Registration;
+import org.axonframework.common.caching.Cache;
+
+/**
+ * 크기와 만료 시간으로 제한되는 애그리게잇 캐시
+ * <p>
+ * 커맨드를 처리할 때마다 애그리게잇을 이벤트 저장소에서 다시 읽지 않도록, 최근에 사용한 애그리게잇을 식별자(accountId) 기준으로 보관합니다.
+ * <ul>
+ *   <li>크기 제한: 접근 순서 LinkedHashMap으로 가장 오래 사용되지 않은 항목부터 제거 (LRU)</li>
+ *   <li>만료 시간 제한: 마지막 접근({@link Expiry#AFTER_ACCESS}, 기본) 또는 마지막 쓰기({@link Expiry#AFTER_WRITE}) 이후 timeout이
+ *   지난 항목은 조회 시 또는 다음 쓰기 때 만료</li>
+ *   <li>롤백 무효화: Axon의 CachingEventSourcingRepository가 작업 단위 롤백 시 {@link #remove(Object)}를 호출</li>
+ * </ul>
+ * 캐시 크기 조정을 위해 적중/미스/제거/만료 횟수를 {@link #statistics()}로 제공하고, {@link #bindTo}로 지표에 등록합니다.
+ */
+public class BoundedAggregateCache implements Cache {
+
+  /**
+   * 만료 기준 시각
+   */
+  public enum Expiry {
+    /**
+     * 마지막 조회 또는 쓰기 이후 (유휴 시간). 자주 조회되는 항목은 만료되지 않음
+     */
+    AFTER_ACCESS,
+    /**
+     * 마지막 쓰기 이후 (절대 TTL). 조회는 만료 시각을 늦추지 않음
+     */
+    AFTER_WRITE
+  }
+
+  private final int maxSize;
+  private final long timeoutMillis;
+  private final Expiry expiry;
+  private final Clock clock;
+
+  private final LinkedHashMap<Object, Entry> entries;
+  private final List<EntryListener> listeners = new CopyOnWriteArrayList<>();
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+  private final LongAdder expirations = new LongAdder();
+
+  public BoundedAggregateCache(int maxSize, Duration idleTimeout) {
+    this(maxSize, idleTimeout, Clock.systemUTC());
+  }
+
+  public BoundedAggregateCache(int maxSize, Duration idleTimeout, Clock clock) {
+    this(maxSize, idleTimeout, Expiry.AFTER_ACCESS, clock);
+  }
+
+  /**
+   * @param timeout 0이면 만료하지 않음
+   */
+  public BoundedAggregateCache(int maxSize, Duration timeout, Expiry expiry, Clock clock) {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("캐시 크기는 0보다 커야 합니다");
+    }
+    this.maxSize = maxSize;
+    this.timeoutMillis = timeout.toMillis();
+    this.expiry = expiry;
+    this.clock = clock;
+    this.entries = new LinkedHashMap<>(16, 0.75f, true);
+  }
+
+  private static final class Entry {
+
+    private final Object value;
+    // 만료 기준 시각 (AFTER_ACCESS: 마지막 접근, AFTER_WRITE: 쓰기)
+    private long lastAccess;
+
+    private Entry(Object value, long lastAccess) {
+      this.value = value;
+      this.lastAccess = lastAccess;
+    }
+  }
+
+  /**
+   * 캐시 통계
+   *
+   * @param size        현재 항목 수
+   * @param hits        적중 횟수
+   * @param misses      미스 횟수 (만료된 항목 조회 포함)
+   * @param evictions   크기 제한으로 제거된 횟수
+   * @param expirations 만료 시간 초과로 만료된 횟수
+   */
+  public record Statistics(int size, long hits, long misses, long evictions, long expirations) {
+
+    public double hitRatio() {
+      long total = hits + misses;
+      return total == 0 ? 0.0 : (double) hits / total;
+    }
+  }
+
+  public Statistics statistics() {
+    int size;
+    synchronized (entries) {
+      size = entries.size();
+    }
+    return new Statistics(size, hits.sum(), misses.sum(), evictions.sum(), expirations.sum());
+  }
+
+  /**
+   * 캐시 통계를 지표로 등록합니다. 값은 조회(scrape) 시점에 읽습니다.
+   * <ul>
+   *   <li>{prefix}.size (gauge): 현재 항목 수</li>
+   *   <li>{prefix}.gets (counter, result 태그 hit/miss): 조회 수</li>
+   *   <li>{prefix}.evictions (counter): 크기 제한으로 제거된 수</li>
+   *   <li>{prefix}.expirations (counter): 만료된 수</li>
+   *   <li>{prefix}.hit.ratio (gauge): 누적 적중률</li>
+   * </ul>
+   *
+   * @param prefix 지표 이름 접두사 (예: axon.aggregate.cache)
+   */
+  public void bindTo(MeterRegistry registry, String prefix) {
+    Gauge.builder(prefix + ".size", this, cache -> cache.statistics().size())
+        .description("캐시 항목 수")
+        .register(registry);
+    FunctionCounter.builder(prefix + ".gets", hits, LongAdder::sum)
+        .description("캐시 조회 수")
+        .tag("result", "hit")
+        .register(registry);
+    FunctionCounter.builder(prefix + ".gets", misses, LongAdder::sum)
+        .description("캐시 조회 수")
+        .tag("result", "miss")
+        .register(registry);
+    FunctionCounter.builder(prefix + ".evictions", evictions, LongAdder::sum)
+        .description("크기 제한으로 제거된 항목 수")
+        .register(registry);
+    FunctionCounter.builder(prefix + ".expirations", expirations, LongAdder::sum)
+        .description("만료된 항목 수")
+        .register(registry);
+    Gauge.builder(prefix + ".hit.ratio", this, cache -> cache.statistics().hitRatio())
+        .description("누적 캐시 적중률")
+        .register(registry);
+  }
+
+  private boolean isExpired(Entry entry, long now) {
+    return timeoutMillis > 0 && now - entry.lastAccess >= timeoutMillis;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <K, V> V get(K key) {
+    long now = clock.millis();
+    Entry entry;
+    boolean expired = false;
+    synchronized (entries) {
+      entry = entries.get(key);
+      if (entry != null && isExpired(entry, now)) {
+        entries.remove(key);
+        expired = true;
+        entry = null;
+      } else if (entry != null && expiry == Expiry.AFTER_ACCESS) {
+        entry.lastAccess = now;
+      }
+    }
+
+    if (expired) {
+      expirations.increment();
+      listeners.forEach(listener -> listener.onEntryExpired(key));
+    }
+    if (entry == null) {
+      misses.increment();
+      return null;
+    }
+    hits.increment();
+    listeners.forEach(listener -> listener.onEntryRead(key, entry.value));
+    return (V) entry.value;
+  }
+
+  @Override
+  public void put(Object key, Object value) {
+    if (value == null) {
+      remove(key);
+      return;
+    }
+
+    List<Map.Entry<Object, Object>> evicted = new ArrayList<>();
+    List<Object> expired = new ArrayList<>();
+    Entry previous;
+    synchronized (entries) {
+      previous = entries.put(key, new Entry(value, clock.millis()));
+      shrink(evicted, expired);
+    }
+    notifyRemoved(evicted, expired);
+
+    if (previous == null) {
+      listeners.forEach(listener -> listener.onEntryCreated(key, value));
+    } else {
+      listeners.forEach(listener -> listener.onEntryUpdated(key, value));
+    }
+  }
+
+  @Override
+  public boolean putIfAbsent(Object key, Object value) {
+    if (value == null) {
+      return false;
+    }
+
+    List<Map.Entry<Object, Object>> evicted = new ArrayList<>();
+    List<Object> expired = new ArrayList<>();
+    boolean added;
+    synchronized (entries) {
+      long now = clock.millis();
+      Entry current = entries.get(key);
+      if (current != null && isExpired(current, now)) {
+        entries.remove(key);
+        expired.add(key);
+        current = null;
+      }
+      added = current == null;
+      if (added) {
+        entries.put(key, new Entry(value, now));
+        shrink(evicted, expired);
+      }
+    }
+    notifyRemoved(evicted, expired);
+
+    if (added) {
+      listeners.forEach(listener -> listener.onEntryCreated(key, value));
+    }
+    return added;
+  }
+
+  /**
+   * 값이 없거나 만료되었으면 공급자로 값을 만들어 저장하고, 있으면 기존 값을 반환합니다.
+   */
+  @Override
+  public <T> T computeIfAbsent(Object key, Supplier<T> valueSupplier) {
+    T current = get(key);
+    if (current != null) {
+      return current;
+    }
+    T created = valueSupplier.get();
+    if (created != null && !putIfAbsent(key, created)) {
+      T raced = get(key);
+      return raced != null ? raced : created;
+    }
+    return created;
+  }
+
+  /**
+   * 값이 있으면 갱신 함수를 적용합니다. 갱신 결과가 null이면 항목을 제거합니다.
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public <V> void computeIfPresent(Object key, UnaryOperator<V> update) {
+    Object updated;
+    synchronized (entries) {
+      Entry current = entries.get(key);
+      if (current == null || isExpired(current, clock.millis())) {
+        return;
+      }
+      updated = update.apply((V) current.value);
+      if (updated == null) {
+        entries.remove(key);
+      } else {
+        entries.put(key, new Entry(updated, clock.millis()));
+      }
+    }
+
+    if (updated == null) {
+      listeners.forEach(listener -> listener.onEntryRemoved(key));
+    } else {
+      listeners.forEach(listener -> listener.onEntryUpdated(key, updated));
+    }
+  }
+
+  @Override
+  public boolean remove(Object key) {
+    boolean removed;
+    synchronized (entries) {
+      removed = entries.remove(key) != null;
+    }
+    if (removed) {
+      listeners.forEach(listener -> listener.onEntryRemoved(key));
+    }
+    return removed;
+  }
+
+  @Override
+  public void removeAll() {
+    List<Object> keys;
+    synchronized (entries) {
+      keys = new ArrayList<>(entries.keySet());
+      entries.clear();
+    }
+    keys.forEach(key -> listeners.forEach(listener -> listener.onEntryRemoved(key)));
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    synchronized (entries) {
+      Entry entry = entries.get(key);
+      return entry != null && !isExpired(entry, clock.millis());
+    }
+  }
+
+  @Override
+  public Registration registerCacheEntryListener(EntryListener cacheEntryListener) {
+    listeners.add(cacheEntryListener);
+    return () -> listeners.remove(cacheEntryListener);
+  }
+
+  /**
+   * 접근 순서상 가장 오래된 항목부터 만료된 항목을 정리하고, 그래도 크기를 넘으면 LRU 항목을 제거합니다. entries 잠금 안에서 호출합니다.
+   */
+  private void shrink(List<Map.Entry<Object, Object>> evicted, List<Object> expired) {
+    long now = clock.millis();
+    Iterator<Map.Entry<Object, Entry>> iterator = entries.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<Object, Entry> eldest = iterator.next();
+      if (isExpired(eldest.getValue(), now)) {
+        iterator.remove();
+        expired.add(eldest.getKey());
+      } else if (entries.size() > maxSize) {
+        iterator.remove();
+        evicted.add(Map.entry(eldest.getKey(), eldest.getValue().value));
+      } else {
+        break;
+      }
+    }
+  }
+
+  private void notifyRemoved(List<Map.Entry<Object, Object>> evicted, List<Object> expired) {
+    evictions.add(evicted.size());
+    expirations.add(expired.size());
+    evicted.forEach(entry -> listeners.forEach(listener -> listener.onEntryRemoved(entry.getKey())));
+    expired.forEach(key -> listeners.forEach(listener -> listener.onEntryExpired(key)));
+  }
+}
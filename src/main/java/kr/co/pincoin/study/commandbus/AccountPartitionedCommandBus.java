@@ -0,0 +1,489 @@
+package kr.co.pincoin.study.commandbus;
+
+import static org.axonframework.commandhandling.GenericCommandResultMessage.asCommandResultMessage;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import org.axonframework.commandhandling.CommandBus;
+import org.axonframework.commandhandling.CommandCallback;
+import org.axonframework.commandhandling.CommandMessage;
+import org.axonframework.commandhandling.CommandResultMessage;
+import org.axonframework.commandhandling.distributed.AnnotationRoutingStrategy;
+import org.axonframework.commandhandling.distributed.RoutingStrategy;
+import org.axonframework.commandhandling.distributed.UnresolvedRoutingKeyPolicy;
+import org.axonframework.common.Registration;
+import org.axonframework.common.transaction.NoTransactionManager;
+import org.axonframework.common.transaction.TransactionManager;
+import org.axonframework.messaging.MessageDispatchInterceptor;
+import org.axonframework.messaging.MessageHandler;
+import org.axonframework.messaging.MessageHandlerInterceptor;
+import org.axonframework.messaging.ResultMessage;
+import org.axonframework.messaging.unitofwork.DefaultUnitOfWork;
+
+/**
+ * 계좌별로 커맨드를 분할해 단일 스레드 레인에서 실행하는 커맨드 버스
+ * <p>
+ * 기본 SimpleCommandBus는 호출한 스레드에서 바로 커맨드를 처리하므로, 같은 핫 계좌에 대한 커맨드가 여러 스레드에서 동시에 들어오면 애그리게잇 잠금을 두고
+ * 경합합니다. 이 버스는 {@code @TargetAggregateIdentifier}(accountId)를 해시해 N개의 레인 중 하나로 보내고, 각 레인은 고정 크기 배열 큐(링
+ * 버퍼)를 전용 스레드 하나가 순서대로 비웁니다.
+ * <ul>
+ *   <li>같은 계좌의 커맨드는 항상 같은 스레드에서 도착 순서대로 처리되므로 애그리게잇 잠금 경합이 없음</li>
+ *   <li>서로 다른 계좌는 레인 수(기본: 코어 수)만큼 병렬 처리</li>
+ *   <li>큐가 가득 차면 호출 스레드가 대기 (배압). 단, 레인 스레드가 다른 레인으로 보내는 커맨드는 레인끼리 서로의 큐를 기다리는 교착을 피하기
+ *   위해 {@link #CROSS_LANE_TIMEOUT_MILLIS}까지만 기다리고 {@link RejectedExecutionException}으로 실패</li>
+ *   <li>종료({@link #shutdown})가 시작된 뒤 접수된 커맨드와 종료 표시 뒤에 남은 커맨드는 실패 결과로 완료</li>
+ * </ul>
+ * 실제 핸들러 호출, 핸들러 인터셉터, 트랜잭션은 위임 버스(SimpleCommandBus)가 담당하고, 디스패치 인터셉터는 호출 스레드에서 먼저 적용합니다.
+ * <p>
+ * 레인 수는 프로세스 안에서 고정이므로 링 구조의 일관된 해싱 대신 키 해시를 레인 수로 나눈 나머지를 사용합니다. 레인 스레드에서 다시 같은 레인으로
+ * 보내는 커맨드는 교착을 피하기 위해 그 자리에서 바로 실행합니다.
+ * <p>
+ * 병합 처리(coalescedCommandTypes): 레인은 큐에 쌓인 커맨드를 최대 maxBatchSize개까지 한 번에 꺼내고, 같은 계좌에 대한 병합 대상 커맨드(입금 등
+ * 잔액 검사가 없는 커맨드)를 하나의 작업 단위 안에서 차례로 실행합니다.
+ * <ul>
+ *   <li>애그리게잇은 작업 단위마다 한 번만 로드하고 잠금도 한 번만 획득</li>
+ *   <li>각 커맨드의 이벤트는 그대로 남고, 이벤트 저장소에는 커밋 시 한 번에 추가</li>
+ *   <li>결과는 커밋 후 커맨드마다 자기 결과로 전달 (개별 검증 실패는 해당 커맨드만 실패)</li>
+ *   <li>같은 계좌의 병합 대상이 아닌 커맨드(출금 등)를 넘어서 병합하지 않으므로 계좌별 처리 순서는 유지</li>
+ *   <li>커밋이 실패하면(동시성 충돌, 트랜잭션 롤백 표시 등) 묶음의 커맨드를 하나씩 다시 실행해 커맨드별 결과를 보장</li>
+ * </ul>
+ */
+@Slf4j
+public class AccountPartitionedCommandBus implements CommandBus {
+
+  /**
+   * 외부 스레드가 가득 찬 큐를 기다리는 동안 종료 여부를 확인하는 간격
+   */
+  private static final long ENQUEUE_CHECK_MILLIS = 100;
+
+  /**
+   * 레인 스레드가 다른 레인의 가득 찬 큐를 기다리는 최대 시간
+   */
+  static final long CROSS_LANE_TIMEOUT_MILLIS = 1000;
+
+  private final CommandBus delegate;
+  private final RoutingStrategy routingStrategy;
+  private final Lane[] lanes;
+  private final List<MessageDispatchInterceptor<? super CommandMessage<?>>> dispatchInterceptors =
+      new CopyOnWriteArrayList<>();
+
+  private final TransactionManager transactionManager;
+  private final Set<Class<?>> coalescedCommandTypes;
+  private final int maxBatchSize;
+
+  private final LongAdder coalescedBatches = new LongAdder();
+  private final LongAdder coalescedCommands = new LongAdder();
+  private final LongAdder coalescingFallbacks = new LongAdder();
+
+  private volatile boolean running = true;
+
+  public AccountPartitionedCommandBus(CommandBus delegate, int laneCount, int queueCapacity) {
+    this(delegate, laneCount, queueCapacity, NoTransactionManager.INSTANCE, Set.of(), 1);
+  }
+
+  /**
+   * @param transactionManager    병합 처리 작업 단위에 연결할 트랜잭션 관리자
+   * @param coalescedCommandTypes 같은 계좌끼리 하나의 작업 단위로 병합할 커맨드 페이로드 타입
+   * @param maxBatchSize          레인이 한 번에 꺼내는 최대 커맨드 수
+   */
+  public AccountPartitionedCommandBus(CommandBus delegate, int laneCount, int queueCapacity,
+      TransactionManager transactionManager, Set<Class<?>> coalescedCommandTypes,
+      int maxBatchSize) {
+    if (laneCount <= 0 || queueCapacity <= 0 || maxBatchSize <= 0) {
+      throw new IllegalArgumentException("레인 수, 큐 크기, 배치 크기는 0보다 커야 합니다");
+    }
+    this.delegate = delegate;
+    this.transactionManager = transactionManager;
+    this.coalescedCommandTypes = Set.copyOf(coalescedCommandTypes);
+    this.maxBatchSize = maxBatchSize;
+    this.routingStrategy = AnnotationRoutingStrategy.builder()
+        .fallbackRoutingStrategy(UnresolvedRoutingKeyPolicy.RANDOM_KEY)
+        .build();
+    this.lanes = new Lane[laneCount];
+    for (int i = 0; i < laneCount; i++) {
+      lanes[i] = new Lane(i, queueCapacity);
+    }
+  }
+
+  @Override
+  public <C, R> void dispatch(CommandMessage<C> command,
+      CommandCallback<? super C, ? super R> callback) {
+    CommandMessage<C> intercepted = intercept(command);
+    String routingKey = routingStrategy.getRoutingKey(intercepted);
+    Lane lane = laneFor(routingKey);
+
+    if (Thread.currentThread() == lane.thread) {
+      delegate.dispatch(intercepted, callback);
+      return;
+    }
+
+    Task<C, R> task = new Task<>(intercepted, callback, routingKey);
+    if (!running) {
+      task.fail(stoppedException());
+      return;
+    }
+
+    try {
+      if (!enqueue(lane, task)) {
+        return;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      task.fail(e);
+      return;
+    }
+
+    // 종료와 경합해 종료 표시 뒤에 들어간 커맨드는 레인이 처리하지 않으므로, 레인이 아직 꺼내지 않았으면 여기서 실패 처리
+    if (!running && lane.queue.remove(task)) {
+      task.fail(stoppedException());
+    }
+  }
+
+  /**
+   * 레인 큐에 커맨드를 넣습니다. 넣지 못하면 결과 콜백을 실패로 완료하고 false를 반환합니다.
+   */
+  private boolean enqueue(Lane lane, Task<?, ?> task) throws InterruptedException {
+    if (isLaneThread()) {
+      if (lane.queue.offer(task, CROSS_LANE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+        return true;
+      }
+      task.fail(new RejectedExecutionException("레인 큐가 가득 찼습니다: " + lane.index));
+      return false;
+    }
+
+    while (!lane.queue.offer(task, ENQUEUE_CHECK_MILLIS, TimeUnit.MILLISECONDS)) {
+      if (!running) {
+        task.fail(stoppedException());
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean isLaneThread() {
+    Thread current = Thread.currentThread();
+    for (Lane lane : lanes) {
+      if (lane.thread == current) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static IllegalStateException stoppedException() {
+    return new IllegalStateException("커맨드 버스가 종료되었습니다");
+  }
+
+  @SuppressWarnings("unchecked")
+  private <C> CommandMessage<C> intercept(CommandMessage<C> command) {
+    CommandMessage<C> intercepted = command;
+    for (MessageDispatchInterceptor<? super CommandMessage<?>> interceptor : dispatchInterceptors) {
+      intercepted = (CommandMessage<C>) interceptor.handle(intercepted);
+    }
+    return intercepted;
+  }
+
+  /**
+   * 라우팅 키를 레인 번호로 변환합니다. String.hashCode의 하위 비트 편중을 줄이기 위해 한 번 섞은 뒤 나머지를 구합니다.
+   */
+  int laneIndex(String routingKey) {
+    int hash = routingKey == null ? 0 : routingKey.hashCode();
+    hash ^= (hash >>> 16);
+    hash *= 0x85ebca6b;
+    hash ^= (hash >>> 13);
+    return Math.floorMod(hash, lanes.length);
+  }
+
+  private Lane laneFor(String routingKey) {
+    return lanes[laneIndex(routingKey)];
+  }
+
+  public int laneCount() {
+    return lanes.length;
+  }
+
+  /**
+   * 병합 처리 통계
+   *
+   * @param batches   둘 이상의 커맨드를 하나의 작업 단위로 실행한 횟수
+   * @param commands  병합 실행된 커맨드 수
+   * @param fallbacks 커밋 실패로 묶음을 하나씩 다시 실행한 횟수
+   */
+  public record CoalescingStatistics(long batches, long commands, long fallbacks) {
+
+    public double averageBatchSize() {
+      return batches == 0 ? 0 : (double) commands / batches;
+    }
+  }
+
+  public CoalescingStatistics coalescingStatistics() {
+    return new CoalescingStatistics(coalescedBatches.sum(), coalescedCommands.sum(),
+        coalescingFallbacks.sum());
+  }
+
+  /**
+   * 병합 처리 통계와 레인 큐에 쌓인 커맨드 수를 지표로 등록합니다.
+   */
+  public void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder("commandbus.partitioned.coalesced.batches", coalescedBatches,
+            LongAdder::sum)
+        .description("둘 이상의 커맨드를 하나의 작업 단위로 실행한 횟수")
+        .register(registry);
+    FunctionCounter.builder("commandbus.partitioned.coalesced.commands", coalescedCommands,
+            LongAdder::sum)
+        .description("병합 실행된 커맨드 수")
+        .register(registry);
+    FunctionCounter.builder("commandbus.partitioned.coalescing.fallbacks", coalescingFallbacks,
+            LongAdder::sum)
+        .description("커밋 실패로 묶음을 하나씩 다시 실행한 횟수")
+        .register(registry);
+    Gauge.builder("commandbus.partitioned.coalesced.batch.size", this,
+            bus -> bus.coalescingStatistics().averageBatchSize())
+        .description("병합 실행 한 번의 평균 커맨드 수")
+        .register(registry);
+    Gauge.builder("commandbus.partitioned.queued", this, AccountPartitionedCommandBus::queued)
+        .description("모든 레인 큐에 쌓인 커맨드 수")
+        .register(registry);
+  }
+
+  private int queued() {
+    int queued = 0;
+    for (Lane lane : lanes) {
+      queued += lane.queue.size();
+    }
+    return queued;
+  }
+
+  /**
+   * 레인별 대기 중인 커맨드 수
+   */
+  public int[] queueDepths() {
+    int[] depths = new int[lanes.length];
+    for (int i = 0; i < lanes.length; i++) {
+      depths[i] = lanes[i].queue.size();
+    }
+    return depths;
+  }
+
+  @Override
+  public Registration subscribe(String commandName,
+      MessageHandler<? super CommandMessage<?>> handler) {
+    return delegate.subscribe(commandName, handler);
+  }
+
+  @Override
+  public Registration registerDispatchInterceptor(
+      MessageDispatchInterceptor<? super CommandMessage<?>> dispatchInterceptor) {
+    dispatchInterceptors.add(dispatchInterceptor);
+    return () -> dispatchInterceptors.remove(dispatchInterceptor);
+  }
+
+  @Override
+  public Registration registerHandlerInterceptor(
+      MessageHandlerInterceptor<? super CommandMessage<?>> handlerInterceptor) {
+    return delegate.registerHandlerInterceptor(handlerInterceptor);
+  }
+
+  /**
+   * 새 커맨드 접수를 중단하고, 이미 큐에 들어간 커맨드를 모두 처리한 뒤 레인 스레드를 종료합니다. 종료 표시 뒤에 들어간 커맨드는 실패 결과로
+   * 완료됩니다.
+   */
+  public void shutdown() {
+    running = false;
+    for (Lane lane : lanes) {
+      lane.stop();
+    }
+    for (Lane lane : lanes) {
+      try {
+        lane.thread.join(TimeUnit.SECONDS.toMillis(10));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  private boolean isCoalesced(Task<?, ?> task) {
+    return !coalescedCommandTypes.isEmpty()
+        && coalescedCommandTypes.contains(task.command().getPayloadType());
+  }
+
+  /**
+   * 레인에서 꺼낸 커맨드들을 실행합니다. 병합 대상 커맨드는 뒤따르는 같은 계좌의 병합 대상 커맨드와 묶어 한 번에 실행합니다.
+   */
+  private void process(List<Task<?, ?>> tasks) {
+    boolean[] consumed = new boolean[tasks.size()];
+    for (int i = 0; i < tasks.size(); i++) {
+      if (consumed[i]) {
+        continue;
+      }
+      Task<?, ?> task = tasks.get(i);
+      if (!isCoalesced(task)) {
+        task.dispatchTo(delegate);
+        continue;
+      }
+
+      List<Task<?, ?>> group = new ArrayList<>();
+      group.add(task);
+      for (int j = i + 1; j < tasks.size(); j++) {
+        Task<?, ?> next = tasks.get(j);
+        if (consumed[j] || !task.routingKey().equals(next.routingKey())) {
+          continue;
+        }
+        if (!isCoalesced(next)) {
+          // 같은 계좌의 다른 커맨드를 앞지르지 않음
+          break;
+        }
+        group.add(next);
+        consumed[j] = true;
+      }
+
+      if (group.size() == 1) {
+        task.dispatchTo(delegate);
+      } else {
+        dispatchCoalesced(group);
+      }
+    }
+  }
+
+  private void dispatchCoalesced(List<Task<?, ?>> group) {
+    List<CommandResultMessage<?>> results = new ArrayList<>(group.size());
+    CommandCallback<Object, Object> collector = (command, result) -> results.add(result);
+
+    // 위임 버스가 커맨드마다 중첩 작업 단위를 만들어 핸들러 인터셉터와 핸들러를 실행하고, 이벤트와 애그리게잇은 바깥 작업 단위가 커밋할 때 반영됨
+    Throwable failure;
+    try {
+      DefaultUnitOfWork<CommandMessage<?>> unitOfWork =
+          DefaultUnitOfWork.startAndGet(group.get(0).command());
+      unitOfWork.attachTransaction(transactionManager);
+      ResultMessage<?> outcome = unitOfWork.executeWithResult(() -> {
+        group.forEach(task -> task.dispatchTo(delegate, collector));
+        return null;
+      });
+      failure = outcome.optionalExceptionResult().orElse(null);
+    } catch (Exception e) {
+      failure = e;
+    }
+
+    if (failure != null || results.size() != group.size()) {
+      coalescingFallbacks.increment();
+      log.debug("병합 실행한 커맨드 {}개의 커밋이 실패해 하나씩 다시 실행합니다", group.size(), failure);
+      group.forEach(task -> task.dispatchTo(delegate));
+      return;
+    }
+
+    coalescedBatches.increment();
+    coalescedCommands.add(group.size());
+    for (int i = 0; i < group.size(); i++) {
+      group.get(i).complete(results.get(i));
+    }
+  }
+
+  /**
+   * 레인 큐에 들어가는 커맨드와 결과 콜백
+   */
+  private record Task<C, R>(CommandMessage<C> command, CommandCallback<? super C, ? super R> callback,
+                            String routingKey) {
+
+    private static final Task<?, ?> STOP = new Task<>(null, null, null);
+
+    void dispatchTo(CommandBus commandBus) {
+      dispatchTo(commandBus, callback);
+    }
+
+    void dispatchTo(CommandBus commandBus, CommandCallback<? super C, ? super R> resultCallback) {
+      try {
+        commandBus.dispatch(command, resultCallback);
+      } catch (Exception e) {
+        resultCallback.onResult(command, asCommandResultMessage(e));
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    void complete(CommandResultMessage<?> result) {
+      callback.onResult(command, (CommandResultMessage<? extends R>) result);
+    }
+
+    void fail(Throwable failure) {
+      callback.onResult(command, asCommandResultMessage(failure));
+    }
+  }
+
+  private final class Lane implements Runnable {
+
+    private final int index;
+    private final BlockingQueue<Task<?, ?>> queue;
+    private final Thread thread;
+
+    private Lane(int index, int capacity) {
+      this.index = index;
+      this.queue = new ArrayBlockingQueue<>(capacity);
+      this.thread = new Thread(this, "command-lane-" + index);
+      this.thread.setDaemon(true);
+      this.thread.start();
+    }
+
+    @Override
+    public void run() {
+      List<Task<?, ?>> drained = new ArrayList<>(maxBatchSize);
+      while (true) {
+        try {
+          drained.add(queue.take());
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          break;
+        }
+        queue.drainTo(drained, maxBatchSize - 1);
+
+        int stopAt = indexOfStop(drained);
+        try {
+          process(stopAt < 0 ? drained : drained.subList(0, stopAt));
+        } catch (Throwable e) {
+          log.error("커맨드 레인 처리 중 예외가 발생했습니다", e);
+        }
+        if (stopAt >= 0) {
+          drained.subList(0, stopAt + 1).clear();
+          break;
+        }
+        drained.clear();
+      }
+
+      // 종료 표시 뒤에 남은 커맨드는 처리하지 않고 실패로 완료
+      queue.drainTo(drained);
+      for (Task<?, ?> task : drained) {
+        if (task != Task.STOP) {
+          task.fail(stoppedException());
+        }
+      }
+    }
+
+    private int indexOfStop(List<Task<?, ?>> drained) {
+      for (int i = 0; i < drained.size(); i++) {
+        if (drained.get(i) == Task.STOP) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    private void stop() {
+      try {
+        queue.put(Task.STOP);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        thread.interrupt();
+      }
+    }
+  }
+}
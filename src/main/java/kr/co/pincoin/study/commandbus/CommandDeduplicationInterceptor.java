@@ -0,0 +1,168 @@
+package kr.co.pincoin.study.commandbus;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.LongAdder;
+import kr.co.pincoin.study.command.AccountCommands.CreditAccountCommand;
+import kr.co.pincoin.study.command.AccountCommands.DebitAccountCommand;
+import kr.co.pincoin.study.dedup.ShardedDedupWindow;
+import kr.co.pincoin.study.model.ProcessedCommand;
+import kr.co.pincoin.study.repository.ProcessedCommandRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.axonframework.commandhandling.CommandMessage;
+import org.axonframework.messaging.InterceptorChain;
+import org.axonframework.messaging.MessageHandlerInterceptor;
+import org.axonframework.messaging.unitofwork.UnitOfWork;
+import org.axonframework.modelling.command.ConcurrencyException;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * transactionId 기준 출금/입금 커맨드 중복 제거 인터셉터
+ * <p>
+ * 클라이언트 재시도로 같은 커맨드가 다시 들어오면 애그리게잇을 로드하지 않고 처리된 것으로 응답(null)합니다.
+ * <ol>
+ *   <li>메모리 창({@link ShardedDedupWindow}): 최근 처리한 커맨드는 여기서 바로 판정. 같은 커맨드가 처리 중이면
+ *   {@link ConcurrencyException}으로 거절해 커맨드 게이트웨이의 재시도가 완료 후 다시 확인하게 함</li>
+ *   <li>영속 인덱스(processed_command): 창에 없으면 기본 키 조회 한 번으로 확인. 재기동 후에도 같은 판정</li>
+ * </ol>
+ * 처리 기록은 커맨드의 작업 단위 커밋 직전에 같은 트랜잭션으로 저장하고, 커맨드가 실패하면 남기지 않으므로 실패한 커맨드는 다시 처리할 수 있습니다.
+ * 커맨드 버스의 트랜잭션 인터셉터 뒤에 등록되어야 합니다.
+ */
+@Slf4j
+public class CommandDeduplicationInterceptor
+    implements MessageHandlerInterceptor<CommandMessage<?>> {
+
+  private final ShardedDedupWindow window;
+  private final ProcessedCommandRepository repository;
+  private final Duration retention;
+  private final Clock clock;
+
+  private final LongAdder windowHits = new LongAdder();
+  private final LongAdder inFlightRejections = new LongAdder();
+  private final LongAdder persistentLookups = new LongAdder();
+  private final LongAdder persistentHits = new LongAdder();
+  private final LongAdder firstSeen = new LongAdder();
+
+  public CommandDeduplicationInterceptor(ShardedDedupWindow window,
+      ProcessedCommandRepository repository, Duration retention, Clock clock) {
+    this.window = window;
+    this.repository = repository;
+    this.retention = retention;
+    this.clock = clock;
+  }
+
+  /**
+   * 중복 제거 통계
+   *
+   * @param windowHits         메모리 창에서 중복으로 판정해 바로 응답한 횟수
+   * @param inFlightRejections 같은 커맨드가 처리 중이라 거절한 횟수
+   * @param persistentLookups  영속 인덱스를 조회한 횟수
+   * @param persistentHits     영속 인덱스에서 중복으로 판정한 횟수
+   * @param firstSeen          처음 처리한 커맨드 수
+   * @param windowSize         현재 메모리 창의 항목 수
+   */
+  public record Statistics(long windowHits, long inFlightRejections, long persistentLookups,
+                           long persistentHits, long firstSeen, int windowSize) {
+
+  }
+
+  public Statistics statistics() {
+    return new Statistics(windowHits.sum(), inFlightRejections.sum(), persistentLookups.sum(),
+        persistentHits.sum(), firstSeen.sum(), window.size());
+  }
+
+  /**
+   * 판정 결과별 커맨드 수, 영속 인덱스 조회 수, 메모리 창 크기를 지표로 등록합니다.
+   */
+  public void bindTo(MeterRegistry registry) {
+    checkCounter(registry, "window_hit", windowHits);
+    checkCounter(registry, "in_flight", inFlightRejections);
+    checkCounter(registry, "persistent_hit", persistentHits);
+    checkCounter(registry, "first_seen", firstSeen);
+    FunctionCounter.builder("dedup.commands.persistent.lookups", persistentLookups,
+            LongAdder::sum)
+        .description("processed_command 조회 수")
+        .register(registry);
+    Gauge.builder("dedup.commands.window.size", window, ShardedDedupWindow::size)
+        .description("커맨드 중복 제거 메모리 창의 항목 수")
+        .register(registry);
+  }
+
+  private static void checkCounter(MeterRegistry registry, String result, LongAdder counter) {
+    FunctionCounter.builder("dedup.commands.checks", counter, LongAdder::sum)
+        .description("출금/입금 커맨드 중복 확인 수")
+        .tag("result", result)
+        .register(registry);
+  }
+
+  /**
+   * 중복 판정 키 (커맨드 이름:계좌:transactionId). 대상이 아닌 커맨드는 null
+   */
+  static String keyOf(Object payload) {
+    if (payload instanceof DebitAccountCommand command && command.getTransactionId() != null) {
+      return "debit:" + command.getAccountId() + ":" + command.getTransactionId();
+    }
+    if (payload instanceof CreditAccountCommand command && command.getTransactionId() != null) {
+      return creditKey(command.getAccountId(), command.getTransactionId());
+    }
+    return null;
+  }
+
+  static String creditKey(String accountId, String transactionId) {
+    return "credit:" + accountId + ":" + transactionId;
+  }
+
+  @Override
+  public Object handle(UnitOfWork<? extends CommandMessage<?>> unitOfWork,
+      InterceptorChain interceptorChain) throws Exception {
+    String key = keyOf(unitOfWork.getMessage().getPayload());
+    if (key == null) {
+      return interceptorChain.proceed();
+    }
+
+    switch (window.reserve(key)) {
+      case COMPLETED -> {
+        windowHits.increment();
+        return null;
+      }
+      case IN_FLIGHT -> {
+        inFlightRejections.increment();
+        throw new ConcurrencyException("같은 커맨드가 처리 중입니다: " + key);
+      }
+      case RESERVED -> {
+        // 아래에서 영속 인덱스 확인 후 처리
+      }
+    }
+
+    try {
+      persistentLookups.increment();
+      if (repository.existsById(key)) {
+        persistentHits.increment();
+        window.complete(key);
+        return null;
+      }
+    } catch (RuntimeException e) {
+      window.release(key);
+      throw e;
+    }
+
+    unitOfWork.onPrepareCommit(
+        u -> repository.save(new ProcessedCommand(key, LocalDateTime.now(clock))));
+    unitOfWork.afterCommit(u -> window.complete(key));
+    unitOfWork.onRollback(u -> window.release(key));
+    firstSeen.increment();
+    return interceptorChain.proceed();
+  }
+
+  @Scheduled(fixedDelayString = "${study.command.dedup.purge-interval-ms:3600000}")
+  public void purgeExpired() {
+    int deleted = repository.deleteProcessedBefore(LocalDateTime.now(clock).minus(retention));
+    if (deleted > 0) {
+      log.info("보존 기간이 지난 커맨드 처리 기록 {}건을 삭제했습니다", deleted);
+    }
+  }
+}
@@ -0,0 +1,230 @@
+package kr.co.pincoin.study.commandbus;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import org.axonframework.commandhandling.CommandMessage;
+import org.axonframework.commandhandling.distributed.AnnotationRoutingStrategy;
+import org.axonframework.commandhandling.distributed.RoutingStrategy;
+import org.axonframework.commandhandling.distributed.UnresolvedRoutingKeyPolicy;
+import org.axonframework.commandhandling.gateway.RetryScheduler;
+import org.axonframework.modelling.command.ConcurrencyException;
+
+/**
+ * 애그리게잇 동시성 충돌만 재시도하는 커맨드 게이트웨이 재시도 스케줄러
+ * <p>
+ * 같은 계좌에 두 노드/스레드가 동시에 이벤트를 추가하면 뒤에 커밋한 쪽이 {@link ConcurrencyException}으로 실패합니다. 이 스케줄러는 해당 예외일
+ * 때만 커맨드를 다시 보냅니다.
+ * <ul>
+ *   <li>지수 백오프 + 지터: attempt번째 재시도는 [d/2, d) 사이에서 무작위 (d = initialDelay * 2^(attempt-1), 최대 maxDelay)</li>
+ *   <li>커맨드당 최대 maxRetries번</li>
+ *   <li>재시도 예산: 전체 재시도는 초당 budgetPerSecond개(최대 budgetBurst개 누적)로 제한해, 충돌이 폭증해도 재시도가 부하를 키우지 않음</li>
+ *   <li>그 외 예외(잔액 부족, 검증 실패 등)는 재시도하지 않고 바로 실패</li>
+ * </ul>
+ * 충돌/재시도/포기 횟수는 애그리게잇(accountId)별로 집계해 {@link #topContended(int)}로 경합이 심한 계좌를 찾을 수 있습니다.
+ */
+@Slf4j
+public class ConflictRetryScheduler implements RetryScheduler {
+
+  private final ScheduledExecutorService executor;
+  private final int maxRetries;
+  private final long initialDelayMillis;
+  private final long maxDelayMillis;
+  private final int maxTrackedAggregates;
+  private final RetryBudget budget;
+  private final RoutingStrategy routingStrategy = AnnotationRoutingStrategy.builder()
+      .fallbackRoutingStrategy(UnresolvedRoutingKeyPolicy.STATIC_KEY)
+      .build();
+
+  private final Map<String, Counters> contention = new ConcurrentHashMap<>();
+  private final LongAdder untrackedConflicts = new LongAdder();
+  private final LongAdder budgetRejections = new LongAdder();
+
+  private static final class Counters {
+
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+  }
+
+  /**
+   * 애그리게잇별 경합 통계
+   *
+   * @param aggregateId 애그리게잇 식별자 (accountId)
+   * @param conflicts   동시성 충돌로 실패한 횟수
+   * @param retries     다시 보낸 횟수
+   * @param exhausted   재시도 횟수 또는 예산을 다 써서 포기한 횟수
+   */
+  public record AggregateContention(String aggregateId, long conflicts, long retries,
+                                    long exhausted) {
+
+  }
+
+  public ConflictRetryScheduler(ScheduledExecutorService executor, int maxRetries,
+      Duration initialDelay, Duration maxDelay, double budgetPerSecond, int budgetBurst,
+      int maxTrackedAggregates) {
+    if (maxRetries < 0 || initialDelay.isNegative() || maxDelay.compareTo(initialDelay) < 0) {
+      throw new IllegalArgumentException("재시도 횟수와 지연 설정이 올바르지 않습니다");
+    }
+    this.executor = executor;
+    this.maxRetries = maxRetries;
+    this.initialDelayMillis = initialDelay.toMillis();
+    this.maxDelayMillis = maxDelay.toMillis();
+    this.budget = new RetryBudget(budgetPerSecond, budgetBurst);
+    this.maxTrackedAggregates = maxTrackedAggregates;
+  }
+
+  @Override
+  public boolean scheduleRetry(CommandMessage<?> commandMessage, RuntimeException lastFailure,
+      List<Class<? extends Throwable>[]> failures, Runnable commandDispatch) {
+    if (!isConflict(lastFailure, failures)) {
+      return false;
+    }
+
+    Counters counters = countersFor(routingStrategy.getRoutingKey(commandMessage));
+    if (counters != null) {
+      counters.conflicts.increment();
+    }
+
+    int attempt = failures.size();
+    if (attempt > maxRetries || !budget.tryAcquire()) {
+      if (attempt <= maxRetries) {
+        budgetRejections.increment();
+      }
+      if (counters != null) {
+        counters.exhausted.increment();
+      }
+      log.debug("{} 커맨드의 동시성 충돌 재시도를 포기합니다 ({}회 실패)",
+          commandMessage.getCommandName(), attempt);
+      return false;
+    }
+
+    long delay = backoffMillis(attempt, initialDelayMillis, maxDelayMillis,
+        ThreadLocalRandom.current().nextDouble());
+    try {
+      executor.schedule(commandDispatch, delay, TimeUnit.MILLISECONDS);
+    } catch (RuntimeException e) {
+      log.warn("재시도를 예약하지 못했습니다: {}", commandMessage.getCommandName(), e);
+      return false;
+    }
+    if (counters != null) {
+      counters.retries.increment();
+    }
+    return true;
+  }
+
+  /**
+   * attempt번째 재시도 지연 (지수 백오프, [d/2, d) 범위의 지터)
+   *
+   * @param random [0, 1) 범위의 난수
+   */
+  static long backoffMillis(int attempt, long initialDelayMillis, long maxDelayMillis,
+      double random) {
+    int shift = Math.min(Math.max(attempt - 1, 0), 30);
+    long delay = Math.min(maxDelayMillis, initialDelayMillis << shift);
+    long half = delay / 2;
+    return half + (long) ((delay - half) * random);
+  }
+
+  private static boolean isConflict(Throwable failure,
+      List<Class<? extends Throwable>[]> failures) {
+    for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+      if (cause instanceof ConcurrencyException) {
+        return true;
+      }
+      if (cause.getCause() == cause) {
+        break;
+      }
+    }
+    // 원격 노드에서 처리된 커맨드는 예외 객체 대신 원인 클래스 체인만 남는 경우가 있음
+    if (failures.isEmpty()) {
+      return false;
+    }
+    for (Class<? extends Throwable> type : failures.get(failures.size() - 1)) {
+      if (ConcurrencyException.class.isAssignableFrom(type)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private Counters countersFor(String aggregateId) {
+    Counters counters = contention.get(aggregateId);
+    if (counters != null) {
+      return counters;
+    }
+    if (contention.size() >= maxTrackedAggregates) {
+      untrackedConflicts.increment();
+      return null;
+    }
+    return contention.computeIfAbsent(aggregateId, key -> new Counters());
+  }
+
+  /**
+   * 충돌이 많은 순서로 애그리게잇별 경합 통계를 반환합니다.
+   */
+  public List<AggregateContention> topContended(int limit) {
+    return contention.entrySet().stream()
+        .map(entry -> new AggregateContention(entry.getKey(),
+            entry.getValue().conflicts.sum(), entry.getValue().retries.sum(),
+            entry.getValue().exhausted.sum()))
+        .sorted(Comparator.comparingLong(AggregateContention::conflicts).reversed())
+        .limit(limit)
+        .toList();
+  }
+
+  /**
+   * 집계 대상 수(maxTrackedAggregates)를 넘어 계좌별로 기록하지 못한 충돌 수
+   */
+  public long untrackedConflicts() {
+    return untrackedConflicts.sum();
+  }
+
+  /**
+   * 재시도 예산이 부족해 재시도하지 않은 횟수
+   */
+  public long budgetRejections() {
+    return budgetRejections.sum();
+  }
+
+  public void resetStatistics() {
+    contention.clear();
+    untrackedConflicts.reset();
+    budgetRejections.reset();
+  }
+
+  /**
+   * 토큰 버킷 방식 재시도 예산
+   */
+  private static final class RetryBudget {
+
+    private final double tokensPerNano;
+    private final double capacity;
+    private double tokens;
+    private long lastRefill = System.nanoTime();
+
+    private RetryBudget(double perSecond, int burst) {
+      this.tokensPerNano = perSecond / TimeUnit.SECONDS.toNanos(1);
+      this.capacity = Math.max(burst, 1);
+      this.tokens = capacity;
+    }
+
+    private synchronized boolean tryAcquire() {
+      long now = System.nanoTime();
+      tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+      lastRefill = now;
+      if (tokens < 1) {
+        return false;
+      }
+      tokens--;
+      return true;
+    }
+  }
+}
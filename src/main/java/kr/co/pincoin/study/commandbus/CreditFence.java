@@ -0,0 +1,17 @@
+package kr.co.pincoin.study.commandbus;
+
+/**
+ * 입금 커맨드 차단
+ * <p>
+ * 결과를 알 수 없는 입금(타임아웃, 응답 유실)을 보상하기 전에, 원래 입금이 나중에 도착해도 반영되지 않도록 막습니다.
+ */
+@FunctionalInterface
+public interface CreditFence {
+
+  /**
+   * accountId 계좌에 대한 transactionId 입금을 이후 처리되지 않도록 막습니다.
+   *
+   * @return true: 입금이 아직 처리되지 않았고 이제 처리될 수 없음 (보상해도 안전), false: 입금이 이미 처리됨
+   */
+  boolean fence(String accountId, String transactionId);
+}
@@ -0,0 +1,48 @@
+package kr.co.pincoin.study.commandbus;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import kr.co.pincoin.study.model.ProcessedCommand;
+import kr.co.pincoin.study.repository.ProcessedCommandRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * processed_command 처리 기록으로 입금을 막는 {@link CreditFence}
+ * <p>
+ * 입금 커맨드의 처리 기록 키(credit:계좌:transactionId)를 별도 트랜잭션으로 먼저 삽입합니다.
+ * <ul>
+ *   <li>삽입 성공: 이후 도착한 원래 입금은 {@link CommandDeduplicationInterceptor}가 이미 처리된 커맨드로 보고 건너뛰며, 처리 중이던
+ *   입금은 커밋 직전 같은 키 삽입이 실패해 롤백됨</li>
+ *   <li>기본 키 중복: 원래 입금이 이미 커밋됨</li>
+ * </ul>
+ * 중복 제거 인터셉터가 입금 커맨드를 거칠 때만 의미가 있으므로 study.command.dedup.enabled=true일 때만 등록됩니다.
+ */
+public class ProcessedCommandCreditFence implements CreditFence {
+
+  private final ProcessedCommandRepository repository;
+  private final TransactionTemplate requiresNew;
+  private final Clock clock;
+
+  public ProcessedCommandCreditFence(ProcessedCommandRepository repository,
+      PlatformTransactionManager transactionManager, Clock clock) {
+    this.repository = repository;
+    this.requiresNew = new TransactionTemplate(transactionManager);
+    this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.clock = clock;
+  }
+
+  @Override
+  public boolean fence(String accountId, String transactionId) {
+    String key = CommandDeduplicationInterceptor.creditKey(accountId, transactionId);
+    try {
+      requiresNew.executeWithoutResult(status ->
+          repository.saveAndFlush(new ProcessedCommand(key, LocalDateTime.now(clock))));
+      return true;
+    } catch (DataIntegrityViolationException e) {
+      return false;
+    }
+  }
+}
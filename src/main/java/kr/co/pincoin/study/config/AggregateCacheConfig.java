@@ -0,0 +1,30 @@
+package kr.co.pincoin.study.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import kr.co.pincoin.study.cache.BoundedAggregateCache;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 애그리게잇 캐시 설정
+ * <p>
+ * {@code @Aggregate(cache = "accountAggregateCache")}로 지정하면 Axon은 CachingEventSourcingRepository를 구성합니다. 캐시에
+ * 애그리게잇이 있으면 이벤트 저장소를 읽지 않고 바로 커맨드를 처리하고, 작업 단위가 롤백되면 해당 항목을 캐시에서 제거해 다음 로드 때 저장소에서
+ * 다시 읽습니다.
+ * <p>
+ * 캐시 적중/미스/제거/만료 횟수는 axon.aggregate.cache.* 지표로 노출됩니다.
+ */
+@Configuration
+@EnableConfigurationProperties(AggregateCacheProperties.class)
+public class AggregateCacheConfig {
+
+  @Bean
+  public BoundedAggregateCache accountAggregateCache(AggregateCacheProperties properties,
+      MeterRegistry registry) {
+    BoundedAggregateCache cache =
+        new BoundedAggregateCache(properties.getMaxSize(), properties.getIdleTimeout());
+    cache.bindTo(registry, "axon.aggregate.cache");
+    return cache;
+  }
+}
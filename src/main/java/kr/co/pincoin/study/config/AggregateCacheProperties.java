@@ -0,0 +1,30 @@
+package kr.co.pincoin.study.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 애그리게잇 캐시 설정
+ *
+ * <pre>
+ * study.axon.cache.max-size=4096
+ * study.axon.cache.idle-timeout=10m
+ * </pre>
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "study.axon.cache")
+public class AggregateCacheProperties {
+
+  /**
+   * 캐시에 보관할 최대 애그리게잇 수 (핫 계좌 수보다 약간 크게)
+   */
+  private int maxSize = 4096;
+
+  /**
+   * 마지막 접근 이후 이 시간 동안 사용되지 않은 애그리게잇은 캐시에서 만료 (0이면 만료하지 않음)
+   */
+  private Duration idleTimeout = Duration.ofMinutes(10);
+}
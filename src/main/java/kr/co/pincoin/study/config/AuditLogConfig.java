@@ -0,0 +1,34 @@
+package kr.co.pincoin.study.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.file.Path;
+import java.time.Duration;
+import kr.co.pincoin.study.audit.AuditLogAppender;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * 감사 로그 설정
+ * <p>
+ * AccountEventHandler가 배치 단위로 모은 감사 기록을 {@link AuditLogAppender}가 전용 스레드에서 롤링 파일로 씁니다. 종료 시 버퍼에 남은
+ * 기록을 모두 쓴 뒤 파일을 닫습니다. 파일 쓰기가 막혀 버퍼가 study.audit.max-wait 동안 가득 차 있으면 기록을 버리고 audit.log.dropped로
+ * 셉니다.
+ */
+@Configuration
+public class AuditLogConfig {
+
+  @Bean(destroyMethod = "close")
+  public AuditLogAppender auditLogAppender(
+      @Value("${study.audit.file:./logs/audit.log}") Path file,
+      @Value("${study.audit.ring-size:1024}") int ringSize,
+      @Value("${study.audit.max-file-size:64MB}") DataSize maxFileSize,
+      @Value("${study.audit.max-files:10}") int maxFiles,
+      @Value("${study.audit.max-wait:1s}") Duration maxWait, MeterRegistry registry) {
+    AuditLogAppender appender = new AuditLogAppender(file, ringSize, maxFileSize.toBytes(),
+        maxFiles, maxWait);
+    appender.bindTo(registry);
+    return appender;
+  }
+}
@@ -0,0 +1,60 @@
+package kr.co.pincoin.study.config;
+
+import kr.co.pincoin.study.aggregate.AccountAggregate;
+import org.axonframework.eventsourcing.EventCountSnapshotTriggerDefinition;
+import org.axonframework.eventsourcing.SnapshotTriggerDefinition;
+import org.axonframework.eventsourcing.Snapshotter;
+import org.axonframework.spring.eventsourcing.SpringAggregateSnapshotterFactoryBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * 애그리게잇 스냅샷 설정
+ * <p>
+ * 이벤트 소싱 애그리게잇은 로드할 때마다 저장된 이벤트를 처음부터 재생합니다. 이벤트가 수십만 건 쌓인 계좌는 커맨드 하나를 처리할 때도 전체 이력을 읽어야
+ * 하므로, 일정 개수의 이벤트마다 스냅샷을 저장해 두고 로드 시에는 "최신 스냅샷 + 이후 이벤트"만 재생하도록 합니다.
+ * <p>
+ * 스냅샷 페이로드는 이벤트 직렬화기(axon.serializer.events)로 저장되며, EventStore.readEvents()가 스냅샷을 먼저 찾아 주므로 로딩 경로는
+ * 별도 변경 없이 스냅샷을 인식합니다.
+ */
+@Configuration
+@EnableConfigurationProperties(SnapshotProperties.class)
+public class AxonSnapshotConfig {
+
+  /**
+   * 스냅샷 생성 전용 실행기
+   * <p>
+   * 기본 스냅샷터는 커맨드를 처리한 스레드에서 커밋 직후 바로 스냅샷을 만듭니다. 전용 스레드로 분리해 커맨드 응답 시간에 스냅샷 비용이 더해지지 않게 합니다.
+   */
+  @Bean
+  public ThreadPoolTaskExecutor snapshotExecutor(SnapshotProperties properties) {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(properties.getSnapshotterThreads());
+    executor.setMaxPoolSize(properties.getSnapshotterThreads());
+    executor.setThreadNamePrefix("snapshotter-");
+    return executor;
+  }
+
+  @Bean
+  public SpringAggregateSnapshotterFactoryBean aggregateSnapshotter(
+      @Qualifier("snapshotExecutor") ThreadPoolTaskExecutor snapshotExecutor) {
+    SpringAggregateSnapshotterFactoryBean factoryBean = new SpringAggregateSnapshotterFactoryBean();
+    factoryBean.setExecutor(snapshotExecutor);
+    return factoryBean;
+  }
+
+  /**
+   * AccountAggregate 스냅샷 트리거
+   * <p>
+   * 애그리게잇 로드 이후 적용된 이벤트 수가 임계값을 넘으면 작업 단위(Unit of Work) 커밋 후 스냅샷을 예약합니다.
+   */
+  @Bean
+  public SnapshotTriggerDefinition accountSnapshotTriggerDefinition(Snapshotter snapshotter,
+      SnapshotProperties properties) {
+    return new EventCountSnapshotTriggerDefinition(snapshotter,
+        properties.thresholdFor(AccountAggregate.class));
+  }
+}
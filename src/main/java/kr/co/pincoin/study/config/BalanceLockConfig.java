@@ -0,0 +1,28 @@
+package kr.co.pincoin.study.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import kr.co.pincoin.study.service.OptimisticLockRetryTemplate;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * MyBalance 송금 동시성 제어 설정
+ * <p>
+ * TransactionFacade, TransactionEventService, MyTransactionServiceV1/V2는 트랜잭션 경계를
+ * {@link OptimisticLockRetryTemplate}로 감싸 낙관적 락 충돌을 재시도합니다. study.balance.lock.mode=pessimistic이면
+ * FundTransferService가 두 계좌를 accountId 오름차순으로 잠그고 변경합니다.
+ */
+@Configuration
+@EnableConfigurationProperties(BalanceLockProperties.class)
+public class BalanceLockConfig {
+
+  @Bean
+  public OptimisticLockRetryTemplate optimisticLockRetryTemplate(
+      BalanceLockProperties properties, MeterRegistry registry) {
+    OptimisticLockRetryTemplate retryTemplate = new OptimisticLockRetryTemplate(
+        properties.getMaxAttempts(), properties.getInitialBackoff(), properties.getMaxBackoff());
+    retryTemplate.bindTo(registry);
+    return retryTemplate;
+  }
+}
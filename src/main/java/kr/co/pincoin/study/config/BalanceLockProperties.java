@@ -0,0 +1,44 @@
+package kr.co.pincoin.study.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * MyBalance 송금 동시성 제어 설정
+ *
+ * <pre>
+ * study.balance.lock.mode=optimistic
+ * study.balance.lock.max-attempts=5
+ * study.balance.lock.initial-backoff=10ms
+ * study.balance.lock.max-backoff=200ms
+ * </pre>
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "study.balance.lock")
+public class BalanceLockProperties {
+
+  public enum Mode {
+    /**
+     * 잠금 없이 읽고 @Version으로 충돌을 감지 (충돌 시 재시도)
+     */
+    OPTIMISTIC,
+    /**
+     * SELECT ... FOR UPDATE로 두 계좌를 accountId 오름차순으로 잠근 뒤 변경
+     */
+    PESSIMISTIC
+  }
+
+  private Mode mode = Mode.OPTIMISTIC;
+
+  /**
+   * 낙관적 락 충돌 시 최대 실행 횟수 (1이면 재시도하지 않음)
+   */
+  private int maxAttempts = 5;
+
+  private Duration initialBackoff = Duration.ofMillis(10);
+
+  private Duration maxBackoff = Duration.ofMillis(200);
+}
@@ -0,0 +1,28 @@
+package kr.co.pincoin.study.config;
+
+import kr.co.pincoin.study.service.StripedBalanceRebalancer;
+import kr.co.pincoin.study.service.StripedBalanceService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 핫 계좌 잔액 분할 설정
+ * <p>
+ * study.balance.striping.enabled=true이면 기동 시 hot-accounts의 잔액을 슬롯으로 나누고, {@link StripedBalanceRebalancer}가
+ * 분할된 계좌의 슬롯 잔액을 주기적으로 다시 고르게 나눕니다. 분할 여부는 계좌별로 슬롯 테이블에 남으므로, 비활성화해도 이미 분할된 계좌는
+ * 계속 슬롯으로 송금됩니다.
+ */
+@Configuration
+@EnableConfigurationProperties(BalanceStripingProperties.class)
+public class BalanceStripingConfig {
+
+  @Bean
+  @ConditionalOnProperty(prefix = "study.balance.striping", name = "enabled", havingValue = "true")
+  public StripedBalanceRebalancer stripedBalanceRebalancer(StripedBalanceService stripedBalances,
+      BalanceStripingProperties properties) {
+    return new StripedBalanceRebalancer(stripedBalances, properties.getHotAccounts(),
+        properties.getSlots(), properties.getMinShareRatio());
+  }
+}
@@ -0,0 +1,44 @@
+package kr.co.pincoin.study.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 핫 계좌 잔액 분할 설정
+ *
+ * <pre>
+ * study.balance.striping.enabled=false
+ * study.balance.striping.hot-accounts=1,2
+ * study.balance.striping.slots=8
+ * study.balance.striping.min-share-ratio=0.5
+ * study.balance.striping.rebalance-interval-ms=60000
+ * </pre>
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "study.balance.striping")
+public class BalanceStripingProperties {
+
+  /**
+   * 기동 시 hot-accounts를 분할하고 재분배를 주기적으로 실행할지 여부
+   */
+  private boolean enabled = false;
+
+  /**
+   * 기동 시 분할할 계좌 (MyBalance accountId)
+   */
+  private List<Long> hotAccounts = new ArrayList<>();
+
+  /**
+   * 계좌 하나의 슬롯 수
+   */
+  private int slots = 8;
+
+  /**
+   * 가장 적은 슬롯이 고른 몫의 이 비율 미만이면 재분배
+   */
+  private double minShareRatio = 0.5;
+}
@@ -0,0 +1,51 @@
+package kr.co.pincoin.study.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import kr.co.pincoin.study.commandbus.CommandDeduplicationInterceptor;
+import kr.co.pincoin.study.commandbus.CreditFence;
+import kr.co.pincoin.study.commandbus.ProcessedCommandCreditFence;
+import kr.co.pincoin.study.dedup.ShardedDedupWindow;
+import kr.co.pincoin.study.repository.ProcessedCommandRepository;
+import org.axonframework.commandhandling.CommandBus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * 출금/입금 커맨드 중복 제거 설정
+ * <p>
+ * {@link CommandDeduplicationInterceptor}를 커맨드 버스의 핸들러 인터셉터로 등록합니다. Axon Server를 사용하면 로컬 세그먼트(분할 커맨드
+ * 버스 포함)에 등록되어, 커맨드를 실제로 처리하는 노드에서 애그리게잇을 로드하기 전에 중복을 걸러냅니다.
+ * <p>
+ * 같은 처리 기록으로 송금 사가가 보상 전에 원래 입금을 막는 {@link CreditFence}도 등록합니다.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "study.command.dedup", name = "enabled", havingValue = "true",
+    matchIfMissing = true)
+public class CommandDedupConfig {
+
+  @Bean
+  public CommandDeduplicationInterceptor commandDeduplicationInterceptor(CommandBus commandBus,
+      ProcessedCommandRepository repository, MeterRegistry registry,
+      @Value("${study.command.dedup.shards:64}") int shards,
+      @Value("${study.command.dedup.window-max-entries:200000}") int windowMaxEntries,
+      @Value("${study.command.dedup.retention:7d}") Duration retention) {
+    CommandDeduplicationInterceptor interceptor = new CommandDeduplicationInterceptor(
+        new ShardedDedupWindow(shards, windowMaxEntries), repository, retention,
+        Clock.systemDefaultZone());
+    commandBus.registerHandlerInterceptor(interceptor);
+    interceptor.bindTo(registry);
+    return interceptor;
+  }
+
+  @Bean
+  public CreditFence creditFence(ProcessedCommandRepository repository,
+      PlatformTransactionManager transactionManager) {
+    return new ProcessedCommandCreditFence(repository, transactionManager,
+        Clock.systemDefaultZone());
+  }
+}
@@ -0,0 +1,53 @@
+package kr.co.pincoin.study.config;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import kr.co.pincoin.study.commandbus.ConflictRetryScheduler;
+import org.axonframework.commandhandling.CommandBus;
+import org.axonframework.commandhandling.gateway.CommandGateway;
+import org.axonframework.commandhandling.gateway.DefaultCommandGateway;
+import org.axonframework.common.AxonThreadFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 커맨드 재시도 설정
+ * <p>
+ * Axon 기본 CommandGateway 대신 {@link ConflictRetryScheduler}를 사용하는 게이트웨이를 등록합니다. 핫 계좌에서 동시성 충돌로 실패한 커맨드는
+ * 백오프 후 자동으로 다시 보내고, 그 외 실패는 그대로 호출자에게 전달합니다.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "study.command.retry", name = "enabled", havingValue = "true",
+    matchIfMissing = true)
+public class CommandRetryConfig {
+
+  @Bean(destroyMethod = "shutdown")
+  public ScheduledExecutorService commandRetryExecutor() {
+    return Executors.newSingleThreadScheduledExecutor(new AxonThreadFactory("command-retry"));
+  }
+
+  @Bean
+  public ConflictRetryScheduler conflictRetryScheduler(
+      ScheduledExecutorService commandRetryExecutor,
+      @Value("${study.command.retry.max-retries:5}") int maxRetries,
+      @Value("${study.command.retry.initial-delay:20ms}") Duration initialDelay,
+      @Value("${study.command.retry.max-delay:1s}") Duration maxDelay,
+      @Value("${study.command.retry.budget-per-second:200}") double budgetPerSecond,
+      @Value("${study.command.retry.budget-burst:500}") int budgetBurst,
+      @Value("${study.command.retry.max-tracked-aggregates:10000}") int maxTrackedAggregates) {
+    return new ConflictRetryScheduler(commandRetryExecutor, maxRetries, initialDelay, maxDelay,
+        budgetPerSecond, budgetBurst, maxTrackedAggregates);
+  }
+
+  @Bean
+  public CommandGateway commandGateway(CommandBus commandBus,
+      ConflictRetryScheduler conflictRetryScheduler) {
+    return DefaultCommandGateway.builder()
+        .commandBus(commandBus)
+        .retryScheduler(conflictRetryScheduler)
+        .build();
+  }
+}
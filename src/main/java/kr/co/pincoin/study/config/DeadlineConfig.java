@@ -0,0 +1,60 @@
+package kr.co.pincoin.study.config;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import kr.co.pincoin.study.deadline.HashedWheelDeadlineManager;
+import kr.co.pincoin.study.deadline.HashedWheelTimer;
+import kr.co.pincoin.study.repository.DeadlineEntryRepository;
+import org.axonframework.common.transaction.TransactionManager;
+import org.axonframework.config.ConfigurationScopeAwareProvider;
+import org.axonframework.serialization.Serializer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 데드라인 관리자 설정
+ * <p>
+ * Axon 기본 SimpleDeadlineManager(ScheduledExecutorService 우선순위 큐, 메모리 전용) 대신
+ * {@link HashedWheelDeadlineManager}를 deadlineManager 빈으로 등록합니다. 송금 사가의 타임아웃 데드라인이 이 관리자로
+ * 예약되며, 예약된 데드라인은 deadline_entry 테이블에 저장되어 재시작 후에도 복구됩니다.
+ */
+@Configuration
+@EnableConfigurationProperties(TransferSagaProperties.class)
+public class DeadlineConfig {
+
+  @Bean(destroyMethod = "shutdown")
+  public ExecutorService deadlineExecutor(@Value("${study.deadline.threads:4}") int threads) {
+    AtomicInteger sequence = new AtomicInteger();
+    return Executors.newFixedThreadPool(threads, task -> {
+      Thread thread = new Thread(task, "deadline-" + sequence.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  @Bean(destroyMethod = "stop")
+  public HashedWheelTimer deadlineTimer(
+      @Qualifier("deadlineExecutor") ExecutorService deadlineExecutor,
+      @Value("${study.deadline.tick:100ms}") Duration tick,
+      @Value("${study.deadline.ticks-per-wheel:512}") int ticksPerWheel) {
+    return new HashedWheelTimer(tick, ticksPerWheel, deadlineExecutor);
+  }
+
+  @Bean
+  public HashedWheelDeadlineManager deadlineManager(HashedWheelTimer deadlineTimer,
+      org.axonframework.config.Configuration axonConfiguration,
+      TransactionManager transactionManager,
+      DeadlineEntryRepository deadlineEntryRepository,
+      @Qualifier("serializer") Serializer serializer,
+      @Value("${study.deadline.retry-delay:30s}") Duration retryDelay,
+      @Value("${study.deadline.max-attempts:5}") int maxAttempts) {
+    return new HashedWheelDeadlineManager(deadlineTimer,
+        new ConfigurationScopeAwareProvider(axonConfiguration), transactionManager,
+        deadlineEntryRepository, serializer, retryDelay, maxAttempts);
+  }
+}
@@ -0,0 +1,42 @@
+package kr.co.pincoin.study.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import kr.co.pincoin.study.dedup.GenerationalBloomFilter;
+import kr.co.pincoin.study.dedup.ProcessedTransactionTracker;
+import kr.co.pincoin.study.dedup.TimeBucketedWindow;
+import kr.co.pincoin.study.repository.ProcessedTransactionRepository;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 처리한 트랜잭션 중복 제거 설정 (AccountEventHandler에서 사용)
+ * <p>
+ * 블룸 필터는 처리기가 시작되기 전, 추적기를 만들 때 processed_transaction의 기록으로 채웁니다. 중복 확인 통계는
+ * dedup.transactions.* 지표로 노출됩니다.
+ */
+@Configuration
+@EnableConfigurationProperties(DedupProperties.class)
+public class DedupConfig {
+
+  @Bean
+  public ProcessedTransactionTracker processedTransactionTracker(DedupProperties properties,
+      ProcessedTransactionRepository repository, MeterRegistry registry) {
+    Clock clock = Clock.systemDefaultZone();
+    TimeBucketedWindow window = new TimeBucketedWindow(properties.getWindowTtl(),
+        properties.getWindowBuckets(), properties.getWindowMaxEntries(), clock);
+
+    DedupProperties.Bloom bloom = properties.getBloom();
+    GenerationalBloomFilter bloomFilter = bloom.isEnabled()
+        ? new GenerationalBloomFilter(bloom.getExpectedInsertions(),
+        bloom.getFalsePositiveRate(), properties.getRetention(), clock)
+        : null;
+
+    ProcessedTransactionTracker tracker = new ProcessedTransactionTracker(window, bloomFilter,
+        repository, properties.getRetention(), clock);
+    tracker.loadBloomFilter();
+    tracker.bindTo(registry);
+    return tracker;
+  }
+}
@@ -0,0 +1,61 @@
+package kr.co.pincoin.study.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 처리한 트랜잭션 중복 제거 설정
+ *
+ * <pre>
+ * study.dedup.window-ttl=10m
+ * study.dedup.window-buckets=10
+ * study.dedup.window-max-entries=200000
+ * study.dedup.retention=7d
+ * study.dedup.bloom.enabled=true
+ * study.dedup.bloom.expected-insertions=2000000
+ * study.dedup.bloom.false-positive-rate=0.01
+ * </pre>
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "study.dedup")
+public class DedupProperties {
+
+  /**
+   * 메모리 창에 트랜잭션 ID를 기억하는 시간
+   */
+  private Duration windowTtl = Duration.ofMinutes(10);
+
+  /**
+   * 메모리 창을 나누는 시간 구간 수 (만료 단위 = window-ttl / window-buckets)
+   */
+  private int windowBuckets = 10;
+
+  /**
+   * 메모리 창의 최대 항목 수 (넘으면 가장 오래된 구간부터 비움)
+   */
+  private int windowMaxEntries = 200_000;
+
+  /**
+   * 영속 저장소에 처리 기록을 보존하는 기간 (블룸 필터 세대 교체 주기로도 사용)
+   */
+  private Duration retention = Duration.ofDays(7);
+
+  private Bloom bloom = new Bloom();
+
+  @Getter
+  @Setter
+  public static class Bloom {
+
+    private boolean enabled = true;
+
+    /**
+     * 한 세대(retention) 동안 기대하는 트랜잭션 수
+     */
+    private long expectedInsertions = 2_000_000;
+
+    private double falsePositiveRate = 0.01;
+  }
+}
@@ -0,0 +1,49 @@
+package kr.co.pincoin.study.config;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import kr.co.pincoin.study.aggregate.AccountAggregate;
+import kr.co.pincoin.study.eventstore.ColdStreamTiering;
+import kr.co.pincoin.study.eventstore.MappedFileEventStorageEngine;
+import org.axonframework.eventsourcing.Snapshotter;
+import org.axonframework.serialization.Serializer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * 임베디드 이벤트 저장소 설정
+ * <p>
+ * study.eventstore.mmap.enabled=true 이고 axon.axonserver.enabled=false 이면 Axon Server 대신 메모리 매핑 파일 기반
+ * 저장소를 사용합니다. Axon은 EventStorageEngine 빈을 발견하면 EmbeddedEventStore를 구성하므로 애그리게잇, 사가, 이벤트 처리기는 그대로
+ * 동작합니다. (embedded 프로파일 참고)
+ * <p>
+ * 휴면 계좌의 스냅샷 이전 이벤트는 {@link ColdStreamTiering}이 압축 아카이브로 옮깁니다. (study.eventstore.tiering.*)
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "study.eventstore.mmap", name = "enabled", havingValue = "true")
+public class EmbeddedEventStoreConfig {
+
+  @Bean(destroyMethod = "close")
+  public MappedFileEventStorageEngine eventStorageEngine(
+      @Qualifier("eventSerializer") Serializer eventSerializer,
+      @Value("${study.eventstore.mmap.directory:./data/events}") Path directory,
+      @Value("${study.eventstore.mmap.segment-size:64MB}") DataSize segmentSize,
+      @Value("${study.eventstore.mmap.flush-interval:2ms}") Duration flushInterval) {
+    return new MappedFileEventStorageEngine(directory, (int) segmentSize.toBytes(),
+        flushInterval, eventSerializer, eventSerializer);
+  }
+
+  @Bean
+  public ColdStreamTiering coldStreamTiering(MappedFileEventStorageEngine eventStorageEngine,
+      Snapshotter snapshotter,
+      @Value("${study.eventstore.tiering.dormant-after:90d}") Duration dormantAfter,
+      @Value("${study.eventstore.tiering.batch-size:1000}") int batchSize,
+      @Value("${study.eventstore.tiering.enabled:false}") boolean enabled) {
+    return new ColdStreamTiering(eventStorageEngine, snapshotter, AccountAggregate.class,
+        dormantAfter, batchSize, enabled);
+  }
+}
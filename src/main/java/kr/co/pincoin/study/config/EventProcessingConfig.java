@@ -0,0 +1,44 @@
+package kr.co.pincoin.study.config;
+
+import kr.co.pincoin.study.processor.AccountSequencingPolicy;
+import kr.co.pincoin.study.processor.EventProcessorLagService;
+import kr.co.pincoin.study.processor.SegmentRebalancer;
+import org.axonframework.config.EventProcessingConfiguration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * 이벤트 처리기 설정
+ * <p>
+ * AccountEventHandler(account-events 처리 그룹)는 풀링 스트리밍 처리기(pooled)로 실행됩니다. 처리 모드, 세그먼트 수, 스레드 수는
+ * axon.eventhandling.processors.account-events.* 속성으로 지정하고, 순서 보장 정책은 accountSequencingPolicy 빈을
+ * 참조합니다. 세그먼트 사이의 지연이 불균형해지면 {@link SegmentRebalancer}가 주기적으로 지연이 큰 세그먼트를 분할합니다.
+ */
+@Configuration
+@EnableScheduling
+public class EventProcessingConfig {
+
+  public static final String ACCOUNT_EVENTS = "account-events";
+  public static final String ACCOUNT_BALANCE = "account-balance";
+
+  @Bean
+  public AccountSequencingPolicy accountSequencingPolicy() {
+    return new AccountSequencingPolicy();
+  }
+
+  @Bean
+  @ConditionalOnProperty(prefix = "study.processor.rebalance", name = "enabled",
+      havingValue = "true", matchIfMissing = true)
+  public SegmentRebalancer accountEventsRebalancer(
+      EventProcessingConfiguration processingConfiguration,
+      EventProcessorLagService lagService,
+      @Value("${study.processor.rebalance.max-segments:32}") int maxSegments,
+      @Value("${study.processor.rebalance.lag-ratio:4.0}") double lagRatio,
+      @Value("${study.processor.rebalance.min-lag:1000}") long minLag) {
+    return new SegmentRebalancer(processingConfiguration, lagService, ACCOUNT_EVENTS,
+        maxSegments, lagRatio, minLag);
+  }
+}
@@ -0,0 +1,16 @@
+package kr.co.pincoin.study.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 퍼사드 송금 설정
+ * <p>
+ * study.facade.single-transaction=true이면 TransactionFacade가 거래 기록, 송금, 완료 처리를 트랜잭션 하나로 실행하고, 실패 기록만
+ * 별도 트랜잭션으로 남깁니다.
+ */
+@Configuration
+@EnableConfigurationProperties(FacadeProperties.class)
+public class FacadeConfig {
+
+}
@@ -0,0 +1,23 @@
+package kr.co.pincoin.study.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 퍼사드 송금 설정
+ *
+ * <pre>
+ * study.facade.single-transaction=false
+ * </pre>
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "study.facade")
+public class FacadeProperties {
+
+  /**
+   * 거래 기록, 송금, 완료 처리를 트랜잭션 하나로 실행 (false: 단계마다 별도 트랜잭션)
+   */
+  private boolean singleTransaction = false;
+}
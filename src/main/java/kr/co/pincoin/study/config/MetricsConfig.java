@@ -0,0 +1,41 @@
+package kr.co.pincoin.study.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import kr.co.pincoin.study.metrics.TransferMetrics;
+import kr.co.pincoin.study.processor.EventProcessorLagService;
+import kr.co.pincoin.study.processor.ProcessorLagMetrics;
+import kr.co.pincoin.study.saga.MoneyTransferSaga;
+import org.axonframework.common.jpa.EntityManagerProvider;
+import org.axonframework.config.EventProcessingConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 송금/이벤트 처리기 지표 설정
+ * <p>
+ * 지표는 actuator의 /actuator/metrics, /actuator/prometheus로 조회합니다. (management.endpoints.* 속성 참고)
+ * <ul>
+ *   <li>{@link TransferMetrics}: 송금 사가 완료 지연, 진행 중인 사가 수, 보상 입금 수</li>
+ *   <li>{@link ProcessorLagMetrics}: 스트리밍 이벤트 처리기별 토큰 지연</li>
+ * </ul>
+ */
+@Configuration
+public class MetricsConfig {
+
+  @Bean
+  public TransferMetrics transferMetrics(MeterRegistry registry,
+      EntityManagerProvider entityManagerProvider) {
+    // 노드별 시작/종료 수가 아니라 조회할 때마다 saga_entry에서 셈 (재기동 전 사가, 다른 노드의 사가 포함)
+    return new TransferMetrics(registry, () -> entityManagerProvider.getEntityManager()
+        .createQuery("SELECT COUNT(s) FROM SagaEntry s WHERE s.sagaType = :sagaType", Long.class)
+        .setParameter("sagaType", MoneyTransferSaga.class.getName())
+        .getSingleResult());
+  }
+
+  @Bean
+  public ProcessorLagMetrics processorLagMetrics(
+      EventProcessingConfiguration processingConfiguration, EventProcessorLagService lagService,
+      MeterRegistry registry) {
+    return new ProcessorLagMetrics(processingConfiguration, lagService, registry);
+  }
+}
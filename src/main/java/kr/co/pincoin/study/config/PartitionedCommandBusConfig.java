@@ -0,0 +1,53 @@
+package kr.co.pincoin.study.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Set;
+import kr.co.pincoin.study.command.AccountCommands.CreditAccountCommand;
+import kr.co.pincoin.study.commandbus.AccountPartitionedCommandBus;
+import org.axonframework.commandhandling.CommandBus;
+import org.axonframework.commandhandling.SimpleCommandBus;
+import org.axonframework.common.transaction.TransactionManager;
+import org.axonframework.config.Configuration;
+import org.axonframework.messaging.interceptors.CorrelationDataInterceptor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * 계좌 분할 커맨드 버스 설정
+ * <p>
+ * study.commandbus.partitioned.enabled=true 이면 로컬 커맨드 버스(localSegment)를 {@link AccountPartitionedCommandBus}로
+ * 교체합니다. Axon Server를 사용하면 서버에서 라우팅된 커맨드가, 사용하지 않으면 모든 커맨드가 이 버스의 레인을 거쳐 처리됩니다.
+ * <p>
+ * study.commandbus.partitioned.coalesce-credits=true 이면 같은 계좌에 쌓인 입금 커맨드를 하나의 작업 단위로 묶어 처리합니다. 입금은 잔액
+ * 검사가 없으므로 묶어도 커맨드별 결과가 달라지지 않고, 정산 계좌처럼 입금이 몰리는 계좌의 애그리게잇 로드와 이벤트 저장 횟수가 줄어듭니다.
+ */
+@org.springframework.context.annotation.Configuration
+@ConditionalOnProperty(prefix = "study.commandbus.partitioned", name = "enabled", havingValue = "true")
+public class PartitionedCommandBusConfig {
+
+  @Bean(destroyMethod = "shutdown")
+  @Qualifier("localSegment")
+  public AccountPartitionedCommandBus commandBus(TransactionManager transactionManager,
+      Configuration axonConfiguration, MeterRegistry registry,
+      @Value("${study.commandbus.partitioned.lanes:0}") int lanes,
+      @Value("${study.commandbus.partitioned.queue-capacity:1024}") int queueCapacity,
+      @Value("${study.commandbus.partitioned.coalesce-credits:false}") boolean coalesceCredits,
+      @Value("${study.commandbus.partitioned.max-batch-size:256}") int maxBatchSize) {
+    SimpleCommandBus delegate = SimpleCommandBus.builder()
+        .transactionManager(transactionManager)
+        .messageMonitor(axonConfiguration.messageMonitor(CommandBus.class, "commandBus"))
+        .build();
+    delegate.registerHandlerInterceptor(
+        new CorrelationDataInterceptor<>(axonConfiguration.correlationDataProviders()));
+
+    int laneCount = lanes > 0 ? lanes : Runtime.getRuntime().availableProcessors();
+    AccountPartitionedCommandBus commandBus = coalesceCredits
+        ? new AccountPartitionedCommandBus(delegate, laneCount, queueCapacity, transactionManager,
+        Set.of(CreditAccountCommand.class), maxBatchSize)
+        : new AccountPartitionedCommandBus(delegate, laneCount, queueCapacity);
+    commandBus.bindTo(registry);
+    return commandBus;
+  }
+}
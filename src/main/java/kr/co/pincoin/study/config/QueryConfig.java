@@ -0,0 +1,33 @@
+package kr.co.pincoin.study.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import kr.co.pincoin.study.cache.BoundedAggregateCache;
+import kr.co.pincoin.study.cache.BoundedAggregateCache.Expiry;
+import kr.co.pincoin.study.query.AccountBalanceNearCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 조회 설정
+ * <p>
+ * 잔액 조회 근접 캐시는 AccountBalanceProjection이 커밋 후 갱신합니다. TTL은 다른 노드가 반영한 잔액처럼 이 노드에서 갱신을 받지 못하는 항목이
+ * 오래 남지 않게 하는 안전장치로, 마지막 쓰기 기준의 절대 시간이라 자주 조회되는 계좌도 ttl이 지나면 account_balance_view에서 다시 읽습니다.
+ * <p>
+ * 캐시 적중/미스/제거/만료 횟수는 query.balance.cache.* 지표로 노출됩니다.
+ */
+@Configuration
+public class QueryConfig {
+
+  @Bean
+  public AccountBalanceNearCache accountBalanceNearCache(
+      @Value("${study.query.balance-cache.max-size:100000}") int maxSize,
+      @Value("${study.query.balance-cache.ttl:5m}") Duration ttl, MeterRegistry registry) {
+    BoundedAggregateCache cache =
+        new BoundedAggregateCache(maxSize, ttl, Expiry.AFTER_WRITE, Clock.systemUTC());
+    cache.bindTo(registry, "query.balance.cache");
+    return new AccountBalanceNearCache(cache);
+  }
+}
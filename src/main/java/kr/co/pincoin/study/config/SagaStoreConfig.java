@@ -0,0 +1,51 @@
+package kr.co.pincoin.study.config;
+
+import java.time.Duration;
+import kr.co.pincoin.study.cache.BoundedAggregateCache;
+import kr.co.pincoin.study.sagastore.WriteBehindSagaStore;
+import org.axonframework.common.jpa.EntityManagerProvider;
+import org.axonframework.modelling.saga.repository.CachingSagaStore;
+import org.axonframework.modelling.saga.repository.SagaStore;
+import org.axonframework.modelling.saga.repository.jpa.JpaSagaStore;
+import org.axonframework.serialization.Serializer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * MoneyTransferSaga 저장소 설정
+ * <p>
+ * 저장소는 세 단계로 구성됩니다.
+ * <ol>
+ *   <li>CachingSagaStore: 진행 중인 사가 인스턴스와 연관 값(transactionId → sagaId)을 메모리에 보관해, 이벤트마다 사가를
+ *   역직렬화하거나 연관 테이블을 조회하지 않음</li>
+ *   <li>{@link WriteBehindSagaStore}: 배치 안의 사가 쓰기를 합쳐 커밋 직전에 한 번 반영</li>
+ *   <li>JpaSagaStore: saga_entry 테이블과 (sagaType, associationKey, associationValue) 인덱스가 있는
+ *   association_value_entry 테이블</li>
+ * </ol>
+ * {@code @Saga(sagaStore = "moneyTransferSagaStore")}로 지정합니다.
+ */
+@Configuration
+public class SagaStoreConfig {
+
+  @Bean
+  public SagaStore<Object> moneyTransferSagaStore(EntityManagerProvider entityManagerProvider,
+      @Qualifier("serializer") Serializer serializer,
+      @Value("${study.saga.cache.max-size:100000}") int maxSize,
+      @Value("${study.saga.cache.idle-timeout:30m}") Duration idleTimeout) {
+    JpaSagaStore jpaSagaStore = JpaSagaStore.builder()
+        .entityManagerProvider(entityManagerProvider)
+        .serializer(serializer)
+        .build();
+
+    BoundedAggregateCache sagaCache = new BoundedAggregateCache(maxSize, idleTimeout);
+    BoundedAggregateCache associationsCache = new BoundedAggregateCache(maxSize, idleTimeout);
+
+    return CachingSagaStore.builder()
+        .delegateSagaStore(new WriteBehindSagaStore(jpaSagaStore, sagaCache, associationsCache))
+        .sagaCache(sagaCache)
+        .associationsCache(associationsCache)
+        .build();
+  }
+}
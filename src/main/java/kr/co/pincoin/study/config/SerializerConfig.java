@@ -0,0 +1,31 @@
+package kr.co.pincoin.study.config;
+
+import kr.co.pincoin.study.serializer.AccountBinarySerializer;
+import org.axonframework.serialization.Serializer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 바이너리 직렬화 설정
+ * <p>
+ * study.serializer.binary.enabled=true 이면 이벤트/메시지 직렬화기를 {@link AccountBinarySerializer}로 교체합니다. 계좌
+ * 이벤트/커맨드가 아닌 타입과 스냅샷, 사가, 토큰은 기존 범용 직렬화기(serializer 빈)가 그대로 처리합니다.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "study.serializer.binary", name = "enabled", havingValue = "true")
+public class SerializerConfig {
+
+  @Bean
+  @Qualifier("eventSerializer")
+  public Serializer eventSerializer(@Qualifier("serializer") Serializer serializer) {
+    return new AccountBinarySerializer(serializer);
+  }
+
+  @Bean
+  @Qualifier("messageSerializer")
+  public Serializer messageSerializer(@Qualifier("serializer") Serializer serializer) {
+    return new AccountBinarySerializer(serializer);
+  }
+}
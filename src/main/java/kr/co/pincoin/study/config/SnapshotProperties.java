@@ -0,0 +1,42 @@
+package kr.co.pincoin.study.config;
+
+import java.util.HashMap;
+import java.util.Map;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 애그리게잇 스냅샷 설정
+ * <p>
+ * 애그리게잇 타입(단순 클래스명)별로 스냅샷을 생성할 이벤트 개수 임계값을 지정합니다. 타입별 값이 없으면 기본 임계값을 사용합니다.
+ *
+ * <pre>
+ * study.axon.snapshot.default-threshold=250
+ * study.axon.snapshot.thresholds.AccountAggregate=100
+ * </pre>
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "study.axon.snapshot")
+public class SnapshotProperties {
+
+  /**
+   * 타입별 설정이 없을 때 사용할 이벤트 개수 임계값
+   */
+  private int defaultThreshold = 250;
+
+  /**
+   * 애그리게잇 타입별 이벤트 개수 임계값
+   */
+  private Map<String, Integer> thresholds = new HashMap<>();
+
+  /**
+   * 스냅샷 생성을 담당할 스레드 수 (커맨드 처리 스레드와 분리)
+   */
+  private int snapshotterThreads = 1;
+
+  public int thresholdFor(Class<?> aggregateType) {
+    return thresholds.getOrDefault(aggregateType.getSimpleName(), defaultThreshold);
+  }
+}
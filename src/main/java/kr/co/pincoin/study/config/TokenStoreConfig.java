@@ -0,0 +1,52 @@
+package kr.co.pincoin.study.config;
+
+import java.time.Duration;
+import lombok.extern.slf4j.Slf4j;
+import org.axonframework.common.jpa.EntityManagerProvider;
+import org.axonframework.eventhandling.tokenstore.TokenStore;
+import org.axonframework.eventhandling.tokenstore.jpa.JpaTokenStore;
+import org.axonframework.serialization.Serializer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+/**
+ * 추적 토큰 저장소 설정
+ * <p>
+ * 스트리밍 이벤트 처리기(AccountEventHandler, MoneyTransferSaga)는 마지막으로 처리한 위치를 토큰으로 저장하고, 재시작하면 저장된 토큰부터
+ * 이어서 처리합니다. 토큰이 없으면 이벤트 저장소의 처음부터 다시 읽으므로, 토큰은 애플리케이션 데이터와 같은 데이터소스(token_entry 테이블)에
+ * 저장합니다.
+ * <ul>
+ *   <li>토큰은 이벤트 처리 배치마다 한 번 갱신 (axon.eventhandling.processors.*.batch-size)</li>
+ *   <li>claim-timeout 동안 갱신되지 않은 세그먼트는 다른 노드가 가져갈 수 있음</li>
+ * </ul>
+ * 토큰은 데이터소스만큼만 오래 남습니다. 기본 프로파일의 데이터소스는 메모리 H2이므로 재시작하면 토큰이 사라지고, Axon Server에 남아 있는 이벤트를
+ * 처음부터 다시 처리합니다. 재시작 후에도 이어서 처리하려면 embedded 프로파일처럼 spring.datasource.url을 파일이나 외부 데이터베이스로
+ * 지정해야 하며, 메모리 데이터소스로 기동하면 경고를 남깁니다.
+ */
+@Slf4j
+@Configuration
+public class TokenStoreConfig {
+
+  @Bean
+  public TokenStore tokenStore(EntityManagerProvider entityManagerProvider,
+      @Qualifier("serializer") Serializer serializer,
+      @Value("${study.tokenstore.claim-timeout:10s}") Duration claimTimeout,
+      @Value("${study.tokenstore.node-id:}") String nodeId,
+      @Value("${spring.datasource.url:}") String datasourceUrl) {
+    if (!StringUtils.hasText(datasourceUrl) || datasourceUrl.contains(":mem:")) {
+      log.warn("추적 토큰이 메모리 데이터소스에 저장되어 재시작하면 사라집니다. 처리기는 재시작 후 이벤트를 처음부터 다시 처리합니다. "
+          + "(spring.datasource.url={})", StringUtils.hasText(datasourceUrl) ? datasourceUrl : "내장 H2");
+    }
+    JpaTokenStore.Builder builder = JpaTokenStore.builder()
+        .entityManagerProvider(entityManagerProvider)
+        .serializer(serializer)
+        .claimTimeout(claimTimeout);
+    if (StringUtils.hasText(nodeId)) {
+      builder.nodeId(nodeId);
+    }
+    return builder.build();
+  }
+}
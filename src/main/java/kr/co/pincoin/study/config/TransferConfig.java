@@ -0,0 +1,16 @@
+package kr.co.pincoin.study.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 송금 흐름 설정
+ * <p>
+ * study.transfer.orchestration으로 입금 단계를 담당할 구성 요소(saga, event-handler, service)를 하나만 지정합니다. 나머지 구성
+ * 요소는 출금 이벤트를 받아도 입금 커맨드를 보내지 않습니다. (AccountService, AccountEventHandler, MoneyTransferSaga 참고)
+ */
+@Configuration
+@EnableConfigurationProperties(TransferProperties.class)
+public class TransferConfig {
+
+}
@@ -0,0 +1,41 @@
+package kr.co.pincoin.study.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 송금 흐름 설정
+ *
+ * <pre>
+ * study.transfer.orchestration=saga
+ * </pre>
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "study.transfer")
+public class TransferProperties {
+
+  /**
+   * 송금의 입금 단계를 담당하는 구성 요소
+   * <p>
+   * 출금 후 CreditAccountCommand는 여기서 지정한 한 곳에서만 발행됩니다. 여러 곳에서 발행하면 같은 송금이 여러 번 입금되고 애그리게잇 로드와 이벤트
+   * 저장도 그만큼 늘어납니다.
+   */
+  public enum Orchestration {
+    /**
+     * MoneyTransferSaga가 입금, 타임아웃, 보상을 모두 담당 (기본값)
+     */
+    SAGA,
+    /**
+     * AccountEventHandler가 MoneyDebitedEvent를 받아 입금 (타임아웃/보상 없음)
+     */
+    EVENT_HANDLER,
+    /**
+     * AccountService가 출금 커맨드 완료 후 바로 입금 (타임아웃/보상 없음)
+     */
+    SERVICE
+  }
+
+  private Orchestration orchestration = Orchestration.SAGA;
+}
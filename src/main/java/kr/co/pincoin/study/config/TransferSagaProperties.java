@@ -0,0 +1,26 @@
+package kr.co.pincoin.study.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 송금 사가 설정
+ *
+ * <pre>
+ * study.saga.transfer.timeout=5m
+ * </pre>
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "study.saga.transfer")
+public class TransferSagaProperties {
+
+  public static final Duration DEFAULT_TIMEOUT = Duration.ofMinutes(5);
+
+  /**
+   * 출금 후 이 시간 안에 입금이 확인되지 않으면 출금 계좌로 보상 입금
+   */
+  private Duration timeout = DEFAULT_TIMEOUT;
+}
@@ -0,0 +1,40 @@
+package kr.co.pincoin.study.controller;
+
+import java.util.concurrent.CompletableFuture;
+import kr.co.pincoin.study.query.AccountQueries.AccountBalance;
+import kr.co.pincoin.study.service.AccountQueryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+/**
+ * 계좌 잔액 조회
+ * <p>
+ * GET /accounts/{accountId}/balance: 현재 잔액
+ * <p>
+ * GET /accounts/{accountId}/balance/stream: 현재 잔액 후 변경될 때마다 새 잔액 (Server-Sent Events)
+ */
+@RestController
+@RequestMapping("/accounts")
+@RequiredArgsConstructor
+public class AccountBalanceController {
+
+  private final AccountQueryService accountQueryService;
+
+  @GetMapping("/{accountId}/balance")
+  public CompletableFuture<ResponseEntity<AccountBalance>> balance(@PathVariable String accountId) {
+    return accountQueryService.findBalance(accountId)
+        .thenApply(balance -> balance.map(ResponseEntity::ok)
+            .orElseGet(() -> ResponseEntity.notFound().build()));
+  }
+
+  @GetMapping(value = "/{accountId}/balance/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public Flux<AccountBalance> balanceStream(@PathVariable String accountId) {
+    return accountQueryService.subscribeBalance(accountId);
+  }
+}
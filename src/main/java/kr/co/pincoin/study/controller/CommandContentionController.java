@@ -0,0 +1,31 @@
+package kr.co.pincoin.study.controller;
+
+import java.util.List;
+import kr.co.pincoin.study.commandbus.ConflictRetryScheduler;
+import kr.co.pincoin.study.commandbus.ConflictRetryScheduler.AggregateContention;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 커맨드 동시성 충돌 통계 조회
+ * <p>
+ * GET /commands/contention?limit=20: 충돌이 많은 계좌 순서로 충돌/재시도/포기 횟수
+ */
+@RestController
+@RequestMapping("/commands")
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "study.command.retry", name = "enabled", havingValue = "true",
+    matchIfMissing = true)
+public class CommandContentionController {
+
+  private final ConflictRetryScheduler conflictRetryScheduler;
+
+  @GetMapping("/contention")
+  public List<AggregateContention> contention(@RequestParam(defaultValue = "20") int limit) {
+    return conflictRetryScheduler.topContended(limit);
+  }
+}
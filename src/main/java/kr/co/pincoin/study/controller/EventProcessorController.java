@@ -0,0 +1,39 @@
+package kr.co.pincoin.study.controller;
+
+import java.util.List;
+import kr.co.pincoin.study.projection.AccountBalanceRebuilder;
+import kr.co.pincoin.study.projection.ProjectionRebuildService;
+import kr.co.pincoin.study.processor.EventProcessorLagService;
+import kr.co.pincoin.study.processor.SegmentLag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 이벤트 처리기 상태 조회
+ * <p>
+ * GET /processors/account-events/segments: 세그먼트별 처리 위치와 지연
+ * <p>
+ * POST /processors/account-balance/rebuild: 계좌 잔액 조회 모델 재구축 후 실시간 처리로 전환
+ */
+@RestController
+@RequestMapping("/processors")
+@RequiredArgsConstructor
+public class EventProcessorController {
+
+  private final EventProcessorLagService lagService;
+  private final ProjectionRebuildService rebuildService;
+
+  @GetMapping("/{processorName}/segments")
+  public List<SegmentLag> segments(@PathVariable String processorName) {
+    return lagService.segmentLags(processorName);
+  }
+
+  @PostMapping("/account-balance/rebuild")
+  public AccountBalanceRebuilder.Result rebuildAccountBalances() {
+    return rebuildService.rebuildAccountBalances();
+  }
+}
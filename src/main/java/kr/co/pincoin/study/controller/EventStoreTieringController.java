@@ -0,0 +1,49 @@
+package kr.co.pincoin.study.controller;
+
+import java.time.Instant;
+import java.util.List;
+import kr.co.pincoin.study.eventstore.ColdStreamTiering;
+import kr.co.pincoin.study.eventstore.MappedFileEventStorageEngine;
+import kr.co.pincoin.study.eventstore.TieringResult;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 임베디드 이벤트 저장소 티어링
+ * <p>
+ * POST /eventstore/tiering: 휴면 계좌의 스냅샷 이전 이벤트를 아카이브로 옮기고 절감한 이벤트 로그 크기를 반환
+ * <p>
+ * GET /eventstore/aggregates/{aggregateId}/history: 보관된 이벤트를 포함한 전체 이력 (감사용 재생)
+ */
+@RestController
+@RequestMapping("/eventstore")
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "study.eventstore.mmap", name = "enabled", havingValue = "true")
+public class EventStoreTieringController {
+
+  private final ColdStreamTiering coldStreamTiering;
+  private final MappedFileEventStorageEngine storageEngine;
+
+  public record HistoryEvent(long sequenceNumber, Instant timestamp, String payloadType,
+                             Object payload) {
+
+  }
+
+  @PostMapping("/tiering")
+  public TieringResult tier() {
+    return coldStreamTiering.tierDormantStreams();
+  }
+
+  @GetMapping("/aggregates/{aggregateId}/history")
+  public List<HistoryEvent> history(@PathVariable String aggregateId) {
+    return storageEngine.readEventsWithArchive(aggregateId).asStream()
+        .map(event -> new HistoryEvent(event.getSequenceNumber(), event.getTimestamp(),
+            event.getPayloadType().getSimpleName(), event.getPayload()))
+        .toList();
+  }
+}
@@ -0,0 +1,267 @@
+package kr.co.pincoin.study.deadline;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import kr.co.pincoin.study.model.DeadlineEntry;
+import kr.co.pincoin.study.repository.DeadlineEntryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.axonframework.common.transaction.TransactionManager;
+import org.axonframework.deadline.AbstractDeadlineManager;
+import org.axonframework.deadline.DeadlineException;
+import org.axonframework.deadline.DeadlineMessage;
+import org.axonframework.deadline.GenericDeadlineMessage;
+import org.axonframework.messaging.DefaultInterceptorChain;
+import org.axonframework.messaging.InterceptorChain;
+import org.axonframework.messaging.MetaData;
+import org.axonframework.messaging.ResultMessage;
+import org.axonframework.messaging.ScopeAwareProvider;
+import org.axonframework.messaging.ScopeDescriptor;
+import org.axonframework.messaging.unitofwork.CurrentUnitOfWork;
+import org.axonframework.messaging.unitofwork.DefaultUnitOfWork;
+import org.axonframework.serialization.SerializedObject;
+import org.axonframework.serialization.Serializer;
+import org.axonframework.serialization.SimpleSerializedObject;
+import org.axonframework.serialization.SimpleSerializedType;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+
+/**
+ * 해시 휠 타이머 기반 데드라인 관리자
+ * <p>
+ * 데드라인은 deadline_entry 테이블에 저장한 뒤 {@link HashedWheelTimer}에 식별자와 만료 시각만 등록합니다. 만료되면 저장된 페이로드와 스코프를
+ * 읽어 대상 사가/애그리게잇의 {@code @DeadlineHandler}를 작업 단위와 트랜잭션 안에서 호출하고, 성공하면 같은 트랜잭션에서 행을 삭제합니다.
+ * <ul>
+ *   <li>예약/취소: 타이머 O(1) + 행 하나 삽입/삭제 (사가 작업 단위와 같은 트랜잭션)</li>
+ *   <li>재시작: 애플리케이션 기동 시 저장된 데드라인을 모두 타이머에 다시 등록 (이미 지난 데드라인은 바로 실행)</li>
+ *   <li>실패: 핸들러가 실패하면 행을 남겨 두고 retryDelay 뒤 다시 시도, maxAttempts를 넘으면 삭제</li>
+ * </ul>
+ */
+@Slf4j
+public class HashedWheelDeadlineManager extends AbstractDeadlineManager {
+
+  private static final int RESTORE_BATCH = 1000;
+
+  private final HashedWheelTimer timer;
+  private final ScopeAwareProvider scopeAwareProvider;
+  private final TransactionManager transactionManager;
+  private final DeadlineEntryRepository repository;
+  private final Serializer serializer;
+  private final Clock clock;
+  private final Duration retryDelay;
+  private final int maxAttempts;
+
+  private final Map<String, Scheduled> scheduled = new ConcurrentHashMap<>();
+
+  private record Scheduled(String deadlineName, String scopeDescription,
+                           HashedWheelTimer.Timeout timeout, int attempt) {
+
+  }
+
+  public HashedWheelDeadlineManager(HashedWheelTimer timer, ScopeAwareProvider scopeAwareProvider,
+      TransactionManager transactionManager, DeadlineEntryRepository repository,
+      Serializer serializer, Duration retryDelay, int maxAttempts) {
+    this.timer = timer;
+    this.scopeAwareProvider = scopeAwareProvider;
+    this.transactionManager = transactionManager;
+    this.repository = repository;
+    this.serializer = serializer;
+    this.clock = Clock.systemUTC();
+    this.retryDelay = retryDelay;
+    this.maxAttempts = maxAttempts;
+  }
+
+  /**
+   * 타이머에 등록되어 만료를 기다리는 데드라인 수
+   */
+  public int pendingDeadlines() {
+    return scheduled.size();
+  }
+
+  @Override
+  public String schedule(Instant triggerDateTime, String deadlineName, Object messageOrPayload,
+      ScopeDescriptor deadlineScope) {
+    DeadlineMessage<Object> deadlineMessage = processDispatchInterceptors(
+        GenericDeadlineMessage.asDeadlineMessage(deadlineName, messageOrPayload, triggerDateTime));
+    String scheduleId = deadlineMessage.getIdentifier();
+    String scopeDescription = deadlineScope.scopeDescription();
+
+    SerializedObject<byte[]> payload = deadlineMessage.getPayload() == null
+        ? null : serializer.serialize(deadlineMessage.getPayload(), byte[].class);
+    SerializedObject<byte[]> scope = serializer.serialize(deadlineScope, byte[].class);
+    repository.save(DeadlineEntry.builder()
+        .scheduleId(scheduleId)
+        .deadlineName(deadlineName)
+        .scopeDescription(scopeDescription)
+        .triggerTime(triggerDateTime)
+        .payloadType(payload == null ? null : payload.getType().getName())
+        .payloadRevision(payload == null ? null : payload.getType().getRevision())
+        .payload(payload == null ? null : payload.getData())
+        .metaData(serializer.serialize(deadlineMessage.getMetaData(), byte[].class).getData())
+        .scopeType(scope.getType().getName())
+        .scope(scope.getData())
+        .build());
+
+    // 저장이 커밋된 뒤에 타이머에 등록해야 만료 시점에 행을 읽을 수 있음
+    if (CurrentUnitOfWork.isStarted()) {
+      CurrentUnitOfWork.get().afterCommit(
+          u -> register(scheduleId, deadlineName, scopeDescription, triggerDateTime, 1));
+    } else {
+      register(scheduleId, deadlineName, scopeDescription, triggerDateTime, 1);
+    }
+    return scheduleId;
+  }
+
+  private void register(String scheduleId, String deadlineName, String scopeDescription,
+      Instant triggerTime, int attempt) {
+    HashedWheelTimer.Timeout timeout = timer.schedule(() -> execute(scheduleId),
+        Duration.between(clock.instant(), triggerTime));
+    Scheduled previous = scheduled.put(scheduleId,
+        new Scheduled(deadlineName, scopeDescription, timeout, attempt));
+    if (previous != null) {
+      previous.timeout().cancel();
+    }
+  }
+
+  @Override
+  public void cancelSchedule(String deadlineName, String scheduleId) {
+    runOnPrepareCommitOrNow(() -> {
+      Scheduled removed = scheduled.remove(scheduleId);
+      if (removed != null) {
+        removed.timeout().cancel();
+      }
+      repository.deleteByScheduleId(scheduleId);
+    });
+  }
+
+  @Override
+  public void cancelAll(String deadlineName) {
+    runOnPrepareCommitOrNow(() -> {
+      cancelMatching(deadlineName, null);
+      repository.deleteByDeadlineName(deadlineName);
+    });
+  }
+
+  @Override
+  public void cancelAllWithinScope(String deadlineName, ScopeDescriptor scope) {
+    String scopeDescription = scope.scopeDescription();
+    runOnPrepareCommitOrNow(() -> {
+      cancelMatching(deadlineName, scopeDescription);
+      repository.deleteByDeadlineNameAndScope(deadlineName, scopeDescription);
+    });
+  }
+
+  private void cancelMatching(String deadlineName, String scopeDescription) {
+    scheduled.entrySet().removeIf(entry -> {
+      Scheduled candidate = entry.getValue();
+      boolean matches = candidate.deadlineName().equals(deadlineName)
+          && (scopeDescription == null || scopeDescription.equals(candidate.scopeDescription()));
+      if (matches) {
+        candidate.timeout().cancel();
+      }
+      return matches;
+    });
+  }
+
+  /**
+   * 저장된 데드라인을 모두 타이머에 다시 등록합니다. (애플리케이션 기동 완료 시)
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void restore() {
+    String lastScheduleId = "";
+    int restored = 0;
+    while (true) {
+      List<DeadlineEntryRepository.Schedule> batch =
+          repository.findTop1000ByScheduleIdGreaterThanOrderByScheduleIdAsc(lastScheduleId);
+      for (DeadlineEntryRepository.Schedule schedule : batch) {
+        if (!scheduled.containsKey(schedule.getScheduleId())) {
+          register(schedule.getScheduleId(), schedule.getDeadlineName(),
+              schedule.getScopeDescription(), schedule.getTriggerTime(), 1);
+          restored++;
+        }
+        lastScheduleId = schedule.getScheduleId();
+      }
+      if (batch.size() < RESTORE_BATCH) {
+        break;
+      }
+    }
+    if (restored > 0) {
+      log.info("저장된 데드라인 {}건을 타이머에 다시 등록했습니다", restored);
+    }
+  }
+
+  private void execute(String scheduleId) {
+    Scheduled current = scheduled.get(scheduleId);
+    int attempt = current == null ? 1 : current.attempt();
+
+    Optional<DeadlineEntry> found = transactionManager.fetchInTransaction(
+        () -> repository.findById(scheduleId));
+    if (found.isEmpty()) {
+      // 실행 직전에 취소된 경우
+      scheduled.remove(scheduleId);
+      return;
+    }
+    DeadlineEntry entry = found.get();
+
+    Object payload = entry.getPayload() == null ? null : serializer.deserialize(
+        new SimpleSerializedObject<>(entry.getPayload(), byte[].class,
+            new SimpleSerializedType(entry.getPayloadType(), entry.getPayloadRevision())));
+    MetaData metaData = serializer.deserialize(new SimpleSerializedObject<>(
+        entry.getMetaData(), byte[].class, serializer.typeForClass(MetaData.class)));
+    ScopeDescriptor scope = serializer.deserialize(new SimpleSerializedObject<>(
+        entry.getScope(), byte[].class, new SimpleSerializedType(entry.getScopeType(), null)));
+
+    DeadlineMessage<?> deadlineMessage =
+        new GenericDeadlineMessage<>(entry.getDeadlineName(), payload, metaData);
+    DefaultUnitOfWork<DeadlineMessage<?>> unitOfWork =
+        DefaultUnitOfWork.startAndGet(deadlineMessage);
+    unitOfWork.attachTransaction(transactionManager);
+    unitOfWork.onPrepareCommit(u -> repository.deleteByScheduleId(scheduleId));
+    InterceptorChain chain = new DefaultInterceptorChain<>(unitOfWork, handlerInterceptors(),
+        message -> {
+          executeScheduledDeadline(message, scope);
+          return null;
+        });
+
+    ResultMessage<?> result = unitOfWork.executeWithResult(chain::proceed);
+    if (!result.isExceptional()) {
+      scheduled.remove(scheduleId);
+      return;
+    }
+
+    if (attempt >= maxAttempts) {
+      log.error("데드라인 {}({}) 처리가 {}회 실패해 삭제합니다", entry.getDeadlineName(), scheduleId,
+          attempt, result.exceptionResult());
+      scheduled.remove(scheduleId);
+      transactionManager.executeInTransaction(() -> repository.deleteByScheduleId(scheduleId));
+      return;
+    }
+    log.warn("데드라인 {}({}) 처리에 실패해 {} 뒤 다시 시도합니다 ({}회째)", entry.getDeadlineName(),
+        scheduleId, retryDelay, attempt, result.exceptionResult());
+    register(scheduleId, entry.getDeadlineName(), entry.getScopeDescription(),
+        clock.instant().plus(retryDelay), attempt + 1);
+  }
+
+  private void executeScheduledDeadline(DeadlineMessage<?> deadlineMessage,
+      ScopeDescriptor deadlineScope) {
+    scopeAwareProvider.provideScopeAwareStream(deadlineScope)
+        .filter(scopeAware -> scopeAware.canResolve(deadlineScope))
+        .forEach(scopeAware -> {
+          try {
+            scopeAware.send(deadlineMessage, deadlineScope);
+          } catch (Exception e) {
+            throw new DeadlineException(
+                "데드라인 메시지를 " + deadlineScope.scopeDescription() + " 에 전달하지 못했습니다", e);
+          }
+        });
+  }
+
+  @Override
+  public void shutdown() {
+    timer.stop();
+  }
+}
@@ -0,0 +1,262 @@
+package kr.co.pincoin.study.deadline;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 해시 휠 타이머
+ * <p>
+ * 시간을 tick 단위로 나눈 원형 버킷 배열(휠)에 타임아웃을 걸어 둡니다. 타임아웃은 (만료 tick % 버킷 수) 위치의 버킷에 남은 회전 수와 함께 들어가고, 작업
+ * 스레드는 tick마다 버킷 하나만 훑습니다.
+ * <ul>
+ *   <li>등록/취소: O(1) (큐에 넣어 두고 다음 tick에 작업 스레드가 반영)</li>
+ *   <li>정밀도: tick 단위 (분 단위 송금 타임아웃에는 100ms tick이면 충분)</li>
+ *   <li>수백만 개의 대기 타임아웃도 버킷 연결 리스트로 보관하므로 우선순위 큐 재정렬 비용이 없음</li>
+ * </ul>
+ * 만료된 작업은 작업 스레드를 막지 않도록 taskExecutor에서 실행합니다.
+ */
+@Slf4j
+public class HashedWheelTimer {
+
+  private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+  private final long tickNanos;
+  private final Bucket[] wheel;
+  private final int mask;
+  private final Executor taskExecutor;
+
+  private final Queue<Timeout> pendingAdds = new ConcurrentLinkedQueue<>();
+  private final Queue<Timeout> pendingCancels = new ConcurrentLinkedQueue<>();
+  private final AtomicLong pendingTimeouts = new AtomicLong();
+
+  private final Thread worker;
+  private final long startTime;
+  private volatile boolean running = true;
+
+  public HashedWheelTimer(Duration tickDuration, int ticksPerWheel, Executor taskExecutor) {
+    if (tickDuration.toMillis() <= 0 || ticksPerWheel <= 0) {
+      throw new IllegalArgumentException("tick 간격과 버킷 수는 0보다 커야 합니다");
+    }
+    int size = Integer.highestOneBit(ticksPerWheel - 1) << 1;
+    this.wheel = new Bucket[Math.max(size, 1)];
+    for (int i = 0; i < wheel.length; i++) {
+      wheel[i] = new Bucket();
+    }
+    this.mask = wheel.length - 1;
+    this.tickNanos = tickDuration.toNanos();
+    this.taskExecutor = taskExecutor;
+    this.startTime = System.nanoTime();
+    this.worker = new Thread(this::run, "hashed-wheel-timer");
+    this.worker.setDaemon(true);
+    this.worker.start();
+  }
+
+  /**
+   * delay 뒤에 task를 실행하도록 등록합니다. 음수 지연은 다음 tick에 실행됩니다.
+   */
+  public Timeout schedule(Runnable task, Duration delay) {
+    if (!running) {
+      throw new IllegalStateException("타이머가 종료되었습니다");
+    }
+    long deadline = System.nanoTime() + Math.max(0, delay.toNanos()) - startTime;
+    Timeout timeout = new Timeout(task, deadline);
+    pendingTimeouts.incrementAndGet();
+    pendingAdds.add(timeout);
+    return timeout;
+  }
+
+  /**
+   * 아직 만료되지 않은 타임아웃 수
+   */
+  public long pendingTimeouts() {
+    return pendingTimeouts.get();
+  }
+
+  public void stop() {
+    running = false;
+    worker.interrupt();
+    try {
+      worker.join(TimeUnit.SECONDS.toMillis(5));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void run() {
+    long tick = 0;
+    while (running) {
+      long deadline = waitForNextTick(tick);
+      if (deadline < 0) {
+        return;
+      }
+      removeCancelled();
+      transferPending(tick);
+      wheel[(int) (tick & mask)].expire(deadline);
+      tick++;
+    }
+  }
+
+  private long waitForNextTick(long tick) {
+    long deadline = tickNanos * (tick + 1);
+    while (true) {
+      long current = System.nanoTime() - startTime;
+      long sleepMillis = (deadline - current + 999_999) / 1_000_000;
+      if (sleepMillis <= 0) {
+        return current;
+      }
+      try {
+        Thread.sleep(sleepMillis);
+      } catch (InterruptedException e) {
+        if (!running) {
+          return -1;
+        }
+      }
+    }
+  }
+
+  private void transferPending(long tick) {
+    for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+      Timeout timeout = pendingAdds.poll();
+      if (timeout == null) {
+        return;
+      }
+      if (timeout.state.get() == Timeout.CANCELLED) {
+        continue;
+      }
+      long expiryTick = timeout.deadline / tickNanos;
+      timeout.remainingRounds = (expiryTick - tick) / wheel.length;
+      // 이미 지난 타임아웃은 현재 버킷에 넣어 이번 tick에 만료
+      long ticks = Math.max(expiryTick, tick);
+      wheel[(int) (ticks & mask)].add(timeout);
+    }
+  }
+
+  private void removeCancelled() {
+    Timeout timeout;
+    while ((timeout = pendingCancels.poll()) != null) {
+      if (timeout.bucket != null) {
+        timeout.bucket.remove(timeout);
+      }
+    }
+  }
+
+  /**
+   * 등록된 타임아웃 핸들
+   */
+  public final class Timeout {
+
+    private static final int INIT = 0;
+    private static final int CANCELLED = 1;
+    private static final int EXPIRED = 2;
+
+    private final Runnable task;
+    private final long deadline;
+    private final AtomicInteger state = new AtomicInteger(INIT);
+
+    // 작업 스레드에서만 접근
+    private long remainingRounds;
+    private Timeout next;
+    private Timeout prev;
+    private Bucket bucket;
+
+    private Timeout(Runnable task, long deadline) {
+      this.task = task;
+      this.deadline = deadline;
+    }
+
+    /**
+     * 타임아웃을 취소합니다. 이미 만료되었거나 취소된 경우 false
+     */
+    public boolean cancel() {
+      if (!state.compareAndSet(INIT, CANCELLED)) {
+        return false;
+      }
+      pendingTimeouts.decrementAndGet();
+      pendingCancels.add(this);
+      return true;
+    }
+
+    public boolean isCancelled() {
+      return state.get() == CANCELLED;
+    }
+
+    private void expire() {
+      if (!state.compareAndSet(INIT, EXPIRED)) {
+        return;
+      }
+      pendingTimeouts.decrementAndGet();
+      try {
+        taskExecutor.execute(task);
+      } catch (RuntimeException e) {
+        log.error("만료된 타임아웃 작업을 실행하지 못했습니다", e);
+      }
+    }
+  }
+
+  /**
+   * 버킷: 타임아웃의 이중 연결 리스트 (작업 스레드에서만 접근)
+   */
+  private final class Bucket {
+
+    private Timeout head;
+    private Timeout tail;
+
+    private void add(Timeout timeout) {
+      timeout.bucket = this;
+      if (head == null) {
+        head = tail = timeout;
+      } else {
+        tail.next = timeout;
+        timeout.prev = tail;
+        tail = timeout;
+      }
+    }
+
+    private Timeout remove(Timeout timeout) {
+      Timeout next = timeout.next;
+      if (timeout.prev != null) {
+        timeout.prev.next = next;
+      }
+      if (timeout.next != null) {
+        timeout.next.prev = timeout.prev;
+      }
+      if (timeout == head) {
+        head = next;
+      }
+      if (timeout == tail) {
+        tail = timeout.prev;
+      }
+      timeout.prev = null;
+      timeout.next = null;
+      timeout.bucket = null;
+      return next;
+    }
+
+    private void expire(long deadline) {
+      Timeout timeout = head;
+      while (timeout != null) {
+        if (timeout.isCancelled()) {
+          timeout = remove(timeout);
+        } else if (timeout.remainingRounds <= 0) {
+          Timeout next = remove(timeout);
+          if (timeout.deadline <= deadline) {
+            timeout.expire();
+          } else {
+            // tick 경계 오차로 아직 만료 전이면 다시 등록
+            pendingAdds.add(timeout);
+          }
+          timeout = next;
+        } else {
+          timeout.remainingRounds--;
+          timeout = timeout.next;
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,126 @@
+package kr.co.pincoin.study.dedup;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 세대 교체 방식 블룸 필터
+ * <p>
+ * 현재/이전 두 세대의 비트 배열을 두고, generation 시간이 지나면 이전 세대를 버리고 현재 세대를 이전 세대로 넘깁니다. 비트 배열 크기는 고정이므로 메모리
+ * 사용량이 일정하고, 한 세대 동안 기대 삽입 수를 넘어서면 오탐률만 높아질 뿐 한 번 기록한 키를 generation 시간 안에 놓치지는 않습니다.
+ * <ul>
+ *   <li>mightContain == false: 최소 generation 시간 안에는 기록된 적 없는 키 (영속 저장소 조회 생략 가능)</li>
+ *   <li>mightContain == true: 기록되었을 수도 있는 키 (영속 저장소로 확인)</li>
+ * </ul>
+ */
+public class GenerationalBloomFilter {
+
+  private final int bitCount;
+  private final int hashCount;
+  private final long generationMillis;
+  private final Clock clock;
+
+  private volatile AtomicLongArray current;
+  private volatile AtomicLongArray previous;
+  private volatile long generationStart;
+
+  public GenerationalBloomFilter(long expectedInsertions, double falsePositiveRate,
+      Duration generation, Clock clock) {
+    // 최적 비트 수 m = -n ln p / (ln 2)^2, 해시 수 k = m/n ln 2
+    long bits = (long) Math.ceil(
+        -expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+    this.bitCount = (int) Math.max(64, Math.min(bits, Integer.MAX_VALUE - 63));
+    this.hashCount = Math.max(1,
+        (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+    this.generationMillis = generation.toMillis();
+    this.clock = clock;
+    this.current = newBits();
+    this.previous = newBits();
+    this.generationStart = clock.millis();
+  }
+
+  private AtomicLongArray newBits() {
+    return new AtomicLongArray((bitCount + 63) / 64);
+  }
+
+  private void rotateIfNeeded() {
+    long now = clock.millis();
+    if (now - generationStart < generationMillis) {
+      return;
+    }
+    synchronized (this) {
+      if (now - generationStart < generationMillis) {
+        return;
+      }
+      // 두 세대 이상 지났으면 이전 세대도 비움
+      previous = now - generationStart >= 2 * generationMillis ? newBits() : current;
+      current = newBits();
+      generationStart = now;
+    }
+  }
+
+  public void put(String key) {
+    rotateIfNeeded();
+    AtomicLongArray bits = current;
+    long hash = hash64(key);
+    int h1 = (int) hash;
+    int h2 = (int) (hash >>> 32);
+    for (int i = 0; i < hashCount; i++) {
+      int bit = Math.floorMod(h1 + i * h2, bitCount);
+      int index = bit >>> 6;
+      long mask = 1L << bit;
+      long word;
+      do {
+        word = bits.get(index);
+        if ((word & mask) != 0) {
+          break;
+        }
+      } while (!bits.compareAndSet(index, word, word | mask));
+    }
+  }
+
+  public boolean mightContain(String key) {
+    rotateIfNeeded();
+    long hash = hash64(key);
+    return contains(current, hash) || contains(previous, hash);
+  }
+
+  private boolean contains(AtomicLongArray bits, long hash) {
+    int h1 = (int) hash;
+    int h2 = (int) (hash >>> 32);
+    for (int i = 0; i < hashCount; i++) {
+      int bit = Math.floorMod(h1 + i * h2, bitCount);
+      if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public int bitCount() {
+    return bitCount;
+  }
+
+  public int hashCount() {
+    return hashCount;
+  }
+
+  /**
+   * FNV-1a 64비트 해시에 최종 섞기(murmur3 fmix64)를 적용합니다. 상/하위 32비트를 이중 해싱의 두 해시로 사용합니다.
+   */
+  private static long hash64(String key) {
+    long hash = 0xcbf29ce484222325L;
+    for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+      hash ^= b;
+      hash *= 0x100000001b3L;
+    }
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+}
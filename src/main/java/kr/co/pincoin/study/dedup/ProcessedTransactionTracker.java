@@ -0,0 +1,254 @@
+package kr.co.pincoin.study.dedup;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import kr.co.pincoin.study.repository.ProcessedTransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.axonframework.messaging.unitofwork.CurrentUnitOfWork;
+import org.axonframework.messaging.unitofwork.UnitOfWork;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * 이벤트 처리기가 처리한 트랜잭션 ID 추적기
+ * <p>
+ * 크기가 계속 늘어나는 맵 대신 다음 세 단계로 중복을 확인합니다.
+ * <ol>
+ *   <li>시간 구간 TTL 창(메모리): 최근 ttl 동안 처리한 트랜잭션은 여기서 바로 중복으로 판정</li>
+ *   <li>블룸 필터(선택): 창을 벗어났고 필터에도 없으면 처음 보는 트랜잭션이므로 저장소 조회 생략</li>
+ *   <li>영속 저장소(processed_transaction): 필터가 "있을 수도 있음"이라고 답한 경우에만 조회</li>
+ * </ol>
+ * 블룸 필터는 메모리에만 있으므로 {@link #loadBloomFilter()}로 저장소의 기록을 모두 적재한 뒤에만 조회 생략에 사용하고, 그 전에는 항상
+ * 저장소를 조회합니다. 적재 뒤 다른 노드가 남긴 기록은 필터에 없으므로, 처리 기록 삽입이 기본 키 중복으로 실패하면 이미 처리된 트랜잭션으로
+ * 판정합니다. (재시작이나 세그먼트 이전 뒤 다시 전달된 이벤트가 배치를 실패시키지 않음)
+ * 창과 필터 모두 크기가 고정되어 있어 처리한 트랜잭션 수와 관계없이 메모리 사용량이 일정하고, 영속 저장소는 retention이 지난 기록을 주기적으로
+ * 삭제합니다. 이벤트 처리기의 트랜잭션 안에서 호출되므로 처리 기록은 토큰 갱신과 함께 커밋됩니다.
+ * <p>
+ * 창과 필터는 작업 단위가 커밋된 뒤에만 갱신합니다. 배치가 롤백되면 처리 기록도 남지 않으므로, 다시 전달된 이벤트는 처음 보는 트랜잭션으로
+ * 판정됩니다. 커밋 전까지 같은 배치 안의 중복은 작업 단위에 묶인 대기 목록으로 판정합니다.
+ */
+@Slf4j
+public class ProcessedTransactionTracker {
+
+  private static final String PENDING = ProcessedTransactionTracker.class.getName() + ".pending";
+  private static final int LOAD_BATCH_SIZE = 10_000;
+
+  private final TimeBucketedWindow window;
+  private final GenerationalBloomFilter bloomFilter;
+  private final ProcessedTransactionRepository repository;
+  private final Duration retention;
+  private final Clock clock;
+
+  // 저장소의 기록을 블룸 필터에 모두 적재했는지 (적재 전에는 필터로 조회를 생략하지 않음)
+  private volatile boolean bloomLoaded;
+
+  private final LongAdder windowHits = new LongAdder();
+  private final LongAdder bloomSkips = new LongAdder();
+  private final LongAdder persistentLookups = new LongAdder();
+  private final LongAdder persistentHits = new LongAdder();
+  private final LongAdder firstSeen = new LongAdder();
+
+  /**
+   * @param bloomFilter null이면 창을 벗어난 모든 트랜잭션을 영속 저장소에서 확인
+   */
+  public ProcessedTransactionTracker(TimeBucketedWindow window,
+      GenerationalBloomFilter bloomFilter, ProcessedTransactionRepository repository,
+      Duration retention, Clock clock) {
+    this.window = window;
+    this.bloomFilter = bloomFilter;
+    this.repository = repository;
+    this.retention = retention;
+    this.clock = clock;
+  }
+
+  /**
+   * 중복 확인 통계
+   *
+   * @param windowHits        메모리 창에서 중복으로 판정한 횟수
+   * @param bloomSkips        블룸 필터로 저장소 조회를 생략한 횟수
+   * @param persistentLookups 저장소를 조회한 횟수
+   * @param persistentHits    저장소에서 중복으로 판정한 횟수
+   * @param firstSeen         처음 처리한 트랜잭션 수
+   * @param windowSize        현재 메모리 창의 항목 수
+   */
+  public record Statistics(long windowHits, long bloomSkips, long persistentLookups,
+                           long persistentHits, long firstSeen, int windowSize) {
+
+    /**
+     * 전체 확인 중 중복으로 판정된 비율
+     */
+    public double duplicateRate() {
+      long duplicates = windowHits + persistentHits;
+      long total = duplicates + firstSeen;
+      return total == 0 ? 0.0 : (double) duplicates / total;
+    }
+
+    /**
+     * 중복 판정 중 메모리 창에서 끝난 비율
+     */
+    public double windowHitRate() {
+      long duplicates = windowHits + persistentHits;
+      return duplicates == 0 ? 0.0 : (double) windowHits / duplicates;
+    }
+  }
+
+  public Statistics statistics() {
+    return new Statistics(windowHits.sum(), bloomSkips.sum(), persistentLookups.sum(),
+        persistentHits.sum(), firstSeen.sum(), window.size());
+  }
+
+  /**
+   * 중복 확인 통계를 지표로 등록합니다. 값은 조회(scrape) 시점에 읽습니다.
+   * <ul>
+   *   <li>dedup.transactions.checks (counter, result 태그): window_hit, persistent_hit, first_seen</li>
+   *   <li>dedup.transactions.bloom.skips, dedup.transactions.persistent.lookups (counter): 저장소 조회 생략/조회 수</li>
+   *   <li>dedup.transactions.window.size (gauge): 메모리 창의 항목 수</li>
+   *   <li>dedup.transactions.duplicate.rate, dedup.transactions.window.hit.rate (gauge): 누적 중복률, 중복 중 창 적중률</li>
+   * </ul>
+   */
+  public void bindTo(MeterRegistry registry) {
+    checkCounter(registry, "window_hit", windowHits);
+    checkCounter(registry, "persistent_hit", persistentHits);
+    checkCounter(registry, "first_seen", firstSeen);
+    FunctionCounter.builder("dedup.transactions.bloom.skips", bloomSkips, LongAdder::sum)
+        .description("블룸 필터로 저장소 조회를 생략한 수")
+        .register(registry);
+    FunctionCounter.builder("dedup.transactions.persistent.lookups", persistentLookups,
+            LongAdder::sum)
+        .description("처리 기록 저장소 조회 수")
+        .register(registry);
+    Gauge.builder("dedup.transactions.window.size", window, TimeBucketedWindow::size)
+        .description("중복 확인 메모리 창의 항목 수")
+        .register(registry);
+    Gauge.builder("dedup.transactions.duplicate.rate", this,
+            tracker -> tracker.statistics().duplicateRate())
+        .description("전체 확인 중 중복으로 판정된 비율")
+        .register(registry);
+    Gauge.builder("dedup.transactions.window.hit.rate", this,
+            tracker -> tracker.statistics().windowHitRate())
+        .description("중복 판정 중 메모리 창에서 끝난 비율")
+        .register(registry);
+  }
+
+  private static void checkCounter(MeterRegistry registry, String result, LongAdder counter) {
+    FunctionCounter.builder("dedup.transactions.checks", counter, LongAdder::sum)
+        .description("처리한 트랜잭션 중복 확인 수")
+        .tag("result", result)
+        .register(registry);
+  }
+
+  /**
+   * 처음 보는 트랜잭션이면 처리 기록을 남기고 true를, 이미 처리한 트랜잭션이면 false를 반환합니다.
+   */
+  public boolean markIfFirst(String transactionId) {
+    Set<String> pending = pending();
+    if (window.contains(transactionId)
+        || (pending != null && pending.contains(transactionId))) {
+      windowHits.increment();
+      return false;
+    }
+
+    if (!bloomLoaded || bloomFilter.mightContain(transactionId)) {
+      persistentLookups.increment();
+      if (repository.existsById(transactionId)) {
+        return persistentHit(transactionId);
+      }
+    } else {
+      bloomSkips.increment();
+    }
+
+    if (!repository.insertIfAbsent(transactionId, LocalDateTime.now(clock))) {
+      // 필터에 없는 다른 노드의 기록이거나 동시에 삽입된 기록
+      return persistentHit(transactionId);
+    }
+    if (pending != null) {
+      pending.add(transactionId);
+    } else {
+      remember(transactionId);
+    }
+    return true;
+  }
+
+  private boolean persistentHit(String transactionId) {
+    persistentHits.increment();
+    // 같은 트랜잭션이 곧 다시 들어오면 메모리에서 판정되도록 창에 다시 기록 (이미 커밋된 기록)
+    window.add(transactionId);
+    return false;
+  }
+
+  /**
+   * 저장소에 남아 있는 처리 기록을 모두 블룸 필터에 적재합니다. 적재를 마친 뒤부터 필터로 저장소 조회를 생략합니다.
+   */
+  public void loadBloomFilter() {
+    if (bloomFilter == null) {
+      return;
+    }
+    long loaded = 0;
+    String after = "";
+    List<String> transactionIds;
+    do {
+      transactionIds = repository.findTransactionIdsAfter(after,
+          PageRequest.of(0, LOAD_BATCH_SIZE));
+      transactionIds.forEach(bloomFilter::put);
+      loaded += transactionIds.size();
+      if (!transactionIds.isEmpty()) {
+        after = transactionIds.get(transactionIds.size() - 1);
+      }
+    } while (transactionIds.size() == LOAD_BATCH_SIZE);
+    bloomLoaded = true;
+    log.info("처리 기록 {}건을 블룸 필터에 적재했습니다", loaded);
+  }
+
+  /**
+   * 실패한 트랜잭션의 처리 기록을 지워 다시 처리할 수 있게 합니다. (블룸 필터는 지울 수 없지만 저장소에 기록이 없으므로 처음 보는 트랜잭션으로 판정)
+   */
+  public void forget(String transactionId) {
+    Set<String> pending = pending();
+    if (pending != null) {
+      pending.remove(transactionId);
+    }
+    window.remove(transactionId);
+    repository.deleteById(transactionId);
+  }
+
+  /**
+   * 현재 작업 단위에서 기록했지만 아직 커밋되지 않은 트랜잭션 ID. 작업 단위 밖이면 null
+   * <p>
+   * 커밋되면 남아 있는 ID를 창과 필터에 반영하고, 롤백되면 버립니다.
+   */
+  private Set<String> pending() {
+    if (!CurrentUnitOfWork.isStarted()) {
+      return null;
+    }
+    UnitOfWork<?> root = CurrentUnitOfWork.get().root();
+    return root.getOrComputeResource(PENDING, key -> {
+      Set<String> transactionIds = new HashSet<>();
+      root.afterCommit(uow -> transactionIds.forEach(this::remember));
+      return transactionIds;
+    });
+  }
+
+  private void remember(String transactionId) {
+    window.add(transactionId);
+    if (bloomFilter != null) {
+      bloomFilter.put(transactionId);
+    }
+    firstSeen.increment();
+  }
+
+  @Scheduled(fixedDelayString = "${study.dedup.purge-interval-ms:3600000}")
+  public void purgeExpired() {
+    int deleted = repository.deleteProcessedBefore(LocalDateTime.now(clock).minus(retention));
+    if (deleted > 0) {
+      log.info("보존 기간이 지난 처리 기록 {}건을 삭제했습니다", deleted);
+    }
+  }
+}
@@ -0,0 +1,101 @@
+package kr.co.pincoin.study.dedup;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 키 해시로 샤드를 나눈 크기 제한 중복 제거 창
+ * <p>
+ * 샤드마다 삽입 순서를 유지하는 맵을 두고 샤드 용량을 넘으면 가장 오래된 키부터 잊습니다. 키는 처리 중(IN_FLIGHT)으로 예약한 뒤 성공하면 완료로,
+ * 실패하면 예약을 해제합니다. 샤드 단위로만 잠그므로 서로 다른 키를 확인하는 스레드는 거의 경합하지 않습니다. 잊힌 키는 호출자가 영속 저장소에서 다시
+ * 확인해야 합니다.
+ */
+public class ShardedDedupWindow {
+
+  public enum Status {
+    /**
+     * 창에 없던 키를 이번 호출이 처리 중으로 예약함
+     */
+    RESERVED,
+    /**
+     * 다른 호출이 같은 키를 처리 중
+     */
+    IN_FLIGHT,
+    /**
+     * 이미 처리가 끝난 키
+     */
+    COMPLETED
+  }
+
+  private final Shard[] shards;
+
+  private static final class Shard {
+
+    private final Map<String, Boolean> completed;
+
+    private Shard(int capacity) {
+      this.completed = new LinkedHashMap<>(Math.min(capacity, 1024), 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+          return size() > capacity;
+        }
+      };
+    }
+  }
+
+  /**
+   * @param shardCount 샤드 수
+   * @param maxEntries 전체 최대 항목 수 (샤드마다 maxEntries / shardCount)
+   */
+  public ShardedDedupWindow(int shardCount, int maxEntries) {
+    if (shardCount <= 0 || maxEntries < shardCount) {
+      throw new IllegalArgumentException("샤드 수와 최대 항목 수를 확인하세요");
+    }
+    this.shards = new Shard[shardCount];
+    for (int i = 0; i < shardCount; i++) {
+      shards[i] = new Shard(maxEntries / shardCount);
+    }
+  }
+
+  private Shard shardOf(String key) {
+    return shards[Math.floorMod(key.hashCode(), shards.length)];
+  }
+
+  public Status reserve(String key) {
+    Shard shard = shardOf(key);
+    synchronized (shard) {
+      Boolean done = shard.completed.putIfAbsent(key, Boolean.FALSE);
+      if (done == null) {
+        return Status.RESERVED;
+      }
+      return done ? Status.COMPLETED : Status.IN_FLIGHT;
+    }
+  }
+
+  public void complete(String key) {
+    Shard shard = shardOf(key);
+    synchronized (shard) {
+      shard.completed.put(key, Boolean.TRUE);
+    }
+  }
+
+  /**
+   * 처리 중 예약을 해제합니다. (이미 완료된 키는 그대로 둠)
+   */
+  public void release(String key) {
+    Shard shard = shardOf(key);
+    synchronized (shard) {
+      shard.completed.remove(key, Boolean.FALSE);
+    }
+  }
+
+  public int size() {
+    int size = 0;
+    for (Shard shard : shards) {
+      synchronized (shard) {
+        size += shard.completed.size();
+      }
+    }
+    return size;
+  }
+}
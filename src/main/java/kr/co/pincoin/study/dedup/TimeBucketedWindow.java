@@ -0,0 +1,123 @@
+package kr.co.pincoin.study.dedup;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 시간 구간(버킷)으로 나눈 TTL 중복 제거 창
+ * <p>
+ * ttl을 bucketCount개의 버킷으로 나누고, 키는 현재 시간 구간의 버킷에 기록합니다. 시간이 흘러 버킷을 다시 사용할 차례가 되면 버킷 전체를 비우므로
+ * 항목별 만료 시각을 따로 관리하지 않아도 ttl ~ ttl + 버킷 폭 동안만 기억합니다. 전체 항목 수가 maxEntries를 넘으면 가장 오래된 버킷부터 비워
+ * 메모리 사용량을 일정하게 유지합니다.
+ */
+public class TimeBucketedWindow {
+
+  private final Bucket[] buckets;
+  private final long bucketMillis;
+  private final int maxEntries;
+  private final Clock clock;
+
+  private static final class Bucket {
+
+    private final Set<String> keys = ConcurrentHashMap.newKeySet();
+    private volatile long epoch = -1;
+  }
+
+  public TimeBucketedWindow(Duration ttl, int bucketCount, int maxEntries, Clock clock) {
+    if (bucketCount <= 0 || maxEntries <= 0 || ttl.toMillis() < bucketCount) {
+      throw new IllegalArgumentException("버킷 수, 최대 항목 수, TTL을 확인하세요");
+    }
+    // 현재 버킷은 채워지는 중이므로 하나를 더 두어 ttl 전체를 보존
+    this.buckets = new Bucket[bucketCount + 1];
+    for (int i = 0; i < buckets.length; i++) {
+      buckets[i] = new Bucket();
+    }
+    this.bucketMillis = ttl.toMillis() / bucketCount;
+    this.maxEntries = maxEntries;
+    this.clock = clock;
+  }
+
+  private long currentEpoch() {
+    return clock.millis() / bucketMillis;
+  }
+
+  public boolean contains(String key) {
+    long epoch = currentEpoch();
+    for (Bucket bucket : buckets) {
+      if (isLive(bucket, epoch) && bucket.keys.contains(key)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * 키를 기록합니다.
+   *
+   * @return 창 안에 없던 키이면 true
+   */
+  public boolean add(String key) {
+    if (contains(key)) {
+      return false;
+    }
+
+    long epoch = currentEpoch();
+    Bucket bucket = buckets[(int) (epoch % buckets.length)];
+    if (bucket.epoch != epoch) {
+      synchronized (bucket) {
+        if (bucket.epoch != epoch) {
+          bucket.keys.clear();
+          bucket.epoch = epoch;
+        }
+      }
+    }
+    boolean added = bucket.keys.add(key);
+    while (added && size() > maxEntries) {
+      evictOldest(epoch);
+    }
+    return added;
+  }
+
+  public boolean remove(String key) {
+    boolean removed = false;
+    for (Bucket bucket : buckets) {
+      removed |= bucket.keys.remove(key);
+    }
+    return removed;
+  }
+
+  /**
+   * 현재 유효한 버킷의 항목 수
+   */
+  public int size() {
+    long epoch = currentEpoch();
+    int size = 0;
+    for (Bucket bucket : buckets) {
+      if (isLive(bucket, epoch)) {
+        size += bucket.keys.size();
+      }
+    }
+    return size;
+  }
+
+  private boolean isLive(Bucket bucket, long epoch) {
+    return bucket.epoch >= 0 && epoch - bucket.epoch < buckets.length;
+  }
+
+  private void evictOldest(long epoch) {
+    Bucket oldest = null;
+    for (Bucket bucket : buckets) {
+      if (bucket.epoch != epoch && isLive(bucket, epoch)
+          && (oldest == null || bucket.epoch < oldest.epoch)) {
+        oldest = bucket;
+      }
+    }
+    // 현재 버킷 하나가 한도를 넘은 경우에는 현재 버킷을 비움 (이후 중복은 영속 저장소에서 확인)
+    Bucket target = oldest != null ? oldest : buckets[(int) (epoch % buckets.length)];
+    synchronized (target) {
+      target.keys.clear();
+    }
+  }
+}
@@ -0,0 +1,22 @@
+package kr.co.pincoin.study.eventstore;
+
+import java.util.stream.Stream;
+import org.axonframework.eventhandling.DomainEventMessage;
+
+/**
+ * 추적 스트림에서 빠진 보관 이벤트를 읽는 저장소
+ * <p>
+ * 추적 스트림을 처음부터 재생해 조회 모델을 다시 만들 때, 보관된 이벤트를 먼저 접어야 보관 이전 상태까지 되살릴 수 있습니다.
+ */
+public interface ArchivedEventSource {
+
+  /**
+   * 보관된 모든 이벤트 (애그리게잇마다 순번 오름차순, 원래 순번 유지)
+   */
+  Stream<DomainEventMessage<?>> readArchivedEvents();
+
+  /**
+   * 보관 작업으로 이벤트를 옮길 때마다 증가하는 세대 번호 (재생 도중에 보관이 실행되었는지 확인용)
+   */
+  long archiveGeneration();
+}
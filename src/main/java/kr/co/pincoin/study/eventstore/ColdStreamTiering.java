@@ -0,0 +1,67 @@
+package kr.co.pincoin.study.eventstore;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.axonframework.eventsourcing.Snapshotter;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * 휴면 애그리게잇의 이벤트 스트림을 아카이브로 옮기는 티어링 작업
+ * <p>
+ * 마지막 이벤트가 dormantAfter보다 오래된 애그리게잇을 골라 스냅샷 순번 이하의 이벤트를 {@link MappedFileEventStorageEngine#archive}로
+ * 보관합니다. 스냅샷이 마지막 이벤트보다 뒤처진 애그리게잇은 스냅샷을 예약하고, 스냅샷 이후의 나머지 이벤트는 다음 실행에서 보관합니다.
+ */
+@Slf4j
+public class ColdStreamTiering {
+
+  private final MappedFileEventStorageEngine storageEngine;
+  private final Snapshotter snapshotter;
+  private final Class<?> aggregateType;
+  private final Duration dormantAfter;
+  private final int batchSize;
+  private final boolean scheduled;
+
+  /**
+   * @param batchSize 한 번의 실행에서 보관할 최대 애그리게잇 수
+   * @param scheduled 주기 실행 여부 (false이면 {@link #tierDormantStreams()}를 직접 호출할 때만 실행)
+   */
+  public ColdStreamTiering(MappedFileEventStorageEngine storageEngine, Snapshotter snapshotter,
+      Class<?> aggregateType, Duration dormantAfter, int batchSize, boolean scheduled) {
+    this.storageEngine = storageEngine;
+    this.snapshotter = snapshotter;
+    this.aggregateType = aggregateType;
+    this.dormantAfter = dormantAfter;
+    this.batchSize = batchSize;
+    this.scheduled = scheduled;
+  }
+
+  @Scheduled(fixedDelayString = "${study.eventstore.tiering.interval-ms:3600000}",
+      initialDelayString = "${study.eventstore.tiering.interval-ms:3600000}")
+  public void scheduledTiering() {
+    if (scheduled) {
+      tierDormantStreams();
+    }
+  }
+
+  public synchronized TieringResult tierDormantStreams() {
+    List<String> dormant = storageEngine.dormantAggregates(aggregateType.getSimpleName(),
+        Instant.now().minus(dormantAfter), batchSize);
+
+    int snapshotsScheduled = 0;
+    for (String aggregateIdentifier : dormant) {
+      long lastSequence = storageEngine.lastSequenceNumberFor(aggregateIdentifier).orElse(-1L);
+      long snapshotSequence = storageEngine.snapshotSequenceFor(aggregateIdentifier).orElse(-1L);
+      if (snapshotSequence < lastSequence) {
+        snapshotter.scheduleSnapshot(aggregateType, aggregateIdentifier);
+        snapshotsScheduled++;
+      }
+    }
+
+    TieringResult result = storageEngine.archive(dormant);
+    log.info("휴면 {} {}개 중 스냅샷 예약 {}개, 이벤트 로그 {} bytes 절감", aggregateType.getSimpleName(),
+        dormant.size(), snapshotsScheduled, result.hotBytesSaved());
+    return result;
+  }
+}
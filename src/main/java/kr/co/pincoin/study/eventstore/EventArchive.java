@@ -0,0 +1,280 @@
+package kr.co.pincoin.study.eventstore;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+import org.axonframework.eventhandling.DomainEventMessage;
+import org.axonframework.eventsourcing.eventstore.EventStoreException;
+import org.axonframework.serialization.Serializer;
+
+/**
+ * 핫 이벤트 로그에서 옮긴 이벤트를 보관하는 압축 아카이브 세그먼트
+ * <p>
+ * 보관 작업 한 번이 파일 하나(archive-*.arc)를 만듭니다. 파일 형식:
+ * <pre>
+ * block*   애그리게잇 하나의 연속된 이벤트 레코드([int 길이][레코드]...)를 Deflate로 압축한 블록
+ * index    int 블록 수, 블록마다 (aggregateType, aggregateIdentifier, firstSequence, 전역 인덱스 목록, offset, length)
+ * footer   long index 위치, int MAGIC
+ * </pre>
+ * 기동 시에는 각 파일의 인덱스만 읽고, 블록은 감사용 재생이 해당 애그리게잇의 이력을 요청할 때 읽어서 압축을 풉니다. 레코드는 이벤트 로그와 같은
+ * {@link EventRecordCodec} 형식이므로 원래 전역 인덱스와 타임스탬프가 그대로 보존됩니다.
+ */
+class EventArchive {
+
+  private static final String FILE_PREFIX = "archive-";
+  private static final String FILE_SUFFIX = ".arc";
+  private static final int MAGIC = 0x41524331;
+  private static final int FOOTER_BYTES = Long.BYTES + Integer.BYTES;
+
+  private final Path directory;
+
+  /**
+   * 애그리게잇 식별자 → 보관된 블록 (firstSequence 오름차순, 교체 방식으로만 갱신)
+   */
+  private final Map<String, List<Block>> blocks = new ConcurrentHashMap<>();
+
+  private int nextFile;
+  private long storedBytes;
+
+  /**
+   * 애그리게잇 하나의 보관 블록
+   *
+   * @param globalIndexes 블록에 담긴 이벤트의 전역 인덱스 (순번 firstSequence + i 의 전역 인덱스 = globalIndexes[i])
+   */
+  record Block(Path file, String aggregateType, String aggregateIdentifier, long firstSequence,
+               long[] globalIndexes, long offset, int length) {
+
+    long lastSequence() {
+      return firstSequence + globalIndexes.length - 1;
+    }
+  }
+
+  /**
+   * 보관할 애그리게잇 하나의 이벤트
+   *
+   * @param records 순번 firstSequence부터 연속된 이벤트 레코드
+   */
+  record Entry(String aggregateType, String aggregateIdentifier, long firstSequence,
+               long[] globalIndexes, List<byte[]> records) {
+
+  }
+
+  EventArchive(Path directory) {
+    this.directory = directory;
+    try {
+      Files.createDirectories(directory);
+      List<Path> files;
+      try (Stream<Path> list = Files.list(directory)) {
+        files = list.filter(path -> path.getFileName().toString().startsWith(FILE_PREFIX)
+                && path.getFileName().toString().endsWith(FILE_SUFFIX))
+            .sorted()
+            .toList();
+      }
+      for (Path file : files) {
+        readIndex(file).forEach(this::register);
+        storedBytes += Files.size(file);
+      }
+      nextFile = files.size();
+    } catch (IOException e) {
+      throw new UncheckedIOException("아카이브 디렉터리를 열 수 없습니다: " + directory, e);
+    }
+  }
+
+  private void register(Block block) {
+    blocks.compute(block.aggregateIdentifier(), (id, existing) -> {
+      List<Block> updated = existing == null ? new ArrayList<>() : new ArrayList<>(existing);
+      updated.add(block);
+      updated.sort(Comparator.comparingLong(Block::firstSequence));
+      return List.copyOf(updated);
+    });
+  }
+
+  private static List<Block> readIndex(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long size = channel.size();
+      ByteBuffer footer = ByteBuffer.allocate(FOOTER_BYTES);
+      readFully(channel, footer, size - FOOTER_BYTES, file);
+      footer.flip();
+      long indexOffset = footer.getLong();
+      if (footer.getInt() != MAGIC) {
+        throw new EventStoreException("아카이브 파일 형식이 올바르지 않습니다: " + file);
+      }
+
+      ByteBuffer index = ByteBuffer.allocate((int) (size - FOOTER_BYTES - indexOffset));
+      readFully(channel, index, indexOffset, file);
+      DataInputStream in = new DataInputStream(new ByteArrayInputStream(index.array()));
+      int count = in.readInt();
+      List<Block> result = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        String aggregateType = in.readUTF();
+        String aggregateIdentifier = in.readUTF();
+        long firstSequence = in.readLong();
+        long[] globalIndexes = new long[in.readInt()];
+        for (int j = 0; j < globalIndexes.length; j++) {
+          globalIndexes[j] = in.readLong();
+        }
+        result.add(new Block(file, aggregateType, aggregateIdentifier, firstSequence,
+            globalIndexes, in.readLong(), in.readInt()));
+      }
+      return result;
+    }
+  }
+
+  /**
+   * 이벤트를 새 아카이브 파일에 압축해 기록하고 디스크에 동기화한 뒤 인덱스에 등록합니다.
+   *
+   * @return 기록한 파일 크기 (바이트)
+   */
+  synchronized long write(List<Entry> entries) {
+    Path file = directory.resolve(String.format("%s%08d%s", FILE_PREFIX, nextFile, FILE_SUFFIX));
+    Path temp = directory.resolve(file.getFileName() + ".tmp");
+    List<Block> written = new ArrayList<>(entries.size());
+
+    try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      long offset = 0;
+      for (Entry entry : entries) {
+        byte[] block = compress(entry.records());
+        writeFully(channel, ByteBuffer.wrap(block));
+        written.add(new Block(file, entry.aggregateType(), entry.aggregateIdentifier(),
+            entry.firstSequence(), entry.globalIndexes(), offset, block.length));
+        offset += block.length;
+      }
+
+      ByteArrayOutputStream index = new ByteArrayOutputStream();
+      try (DataOutputStream out = new DataOutputStream(index)) {
+        out.writeInt(written.size());
+        for (Block block : written) {
+          out.writeUTF(block.aggregateType());
+          out.writeUTF(block.aggregateIdentifier());
+          out.writeLong(block.firstSequence());
+          out.writeInt(block.globalIndexes().length);
+          for (long globalIndex : block.globalIndexes()) {
+            out.writeLong(globalIndex);
+          }
+          out.writeLong(block.offset());
+          out.writeInt(block.length());
+        }
+        out.writeLong(offset);
+        out.writeInt(MAGIC);
+      }
+      writeFully(channel, ByteBuffer.wrap(index.toByteArray()));
+      channel.force(true);
+    } catch (IOException e) {
+      throw new UncheckedIOException("아카이브 파일을 기록할 수 없습니다: " + file, e);
+    }
+
+    try {
+      Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+      long size = Files.size(file);
+      nextFile++;
+      storedBytes += size;
+      written.forEach(this::register);
+      return size;
+    } catch (IOException e) {
+      throw new UncheckedIOException("아카이브 파일을 확정할 수 없습니다: " + file, e);
+    }
+  }
+
+  private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+
+  private static void readFully(FileChannel channel, ByteBuffer buffer, long position, Path file)
+      throws IOException {
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) < 0) {
+        throw new EventStoreException("아카이브 파일이 잘렸습니다: " + file);
+      }
+    }
+  }
+
+  private static byte[] compress(List<byte[]> records) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes))) {
+      out.writeInt(records.size());
+      for (byte[] record : records) {
+        out.writeInt(record.length);
+        out.write(record);
+      }
+    }
+    return bytes.toByteArray();
+  }
+
+  List<Block> blocks(String aggregateIdentifier) {
+    return blocks.getOrDefault(aggregateIdentifier, List.of());
+  }
+
+  /**
+   * 보관된 모든 블록 (기동 시 인덱스 복구용, 애그리게잇별 firstSequence 오름차순)
+   */
+  Stream<Block> allBlocks() {
+    return blocks.values().stream().flatMap(List::stream);
+  }
+
+  /**
+   * 보관된 마지막 순번 (보관된 이벤트가 없으면 -1)
+   */
+  long lastArchivedSequence(String aggregateIdentifier) {
+    List<Block> archived = blocks(aggregateIdentifier);
+    return archived.isEmpty() ? -1L : archived.get(archived.size() - 1).lastSequence();
+  }
+
+  synchronized long storedBytes() {
+    return storedBytes;
+  }
+
+  /**
+   * 블록을 요청 시점에 하나씩 읽어 압축을 푸는 이벤트 스트림
+   */
+  static Stream<DomainEventMessage<?>> read(List<Block> archived, Serializer serializer) {
+    return archived.stream()
+        .flatMap(block -> readRecords(block).stream())
+        .map(record -> (DomainEventMessage<?>) EventRecordCodec.decode(record, serializer));
+  }
+
+  private static List<ByteBuffer> readRecords(Block block) {
+    ByteBuffer compressed = ByteBuffer.allocate(block.length());
+    try (FileChannel channel = FileChannel.open(block.file(), StandardOpenOption.READ)) {
+      readFully(channel, compressed, block.offset(), block.file());
+    } catch (IOException e) {
+      throw new UncheckedIOException("아카이브 블록을 읽을 수 없습니다: " + block.file(), e);
+    }
+
+    InputStream inflater = new InflaterInputStream(
+        new ByteArrayInputStream(compressed.array()));
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(inflater))) {
+      int count = in.readInt();
+      List<ByteBuffer> records = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        byte[] record = new byte[in.readInt()];
+        in.readFully(record);
+        records.add(ByteBuffer.wrap(record));
+      }
+      return records;
+    } catch (IOException e) {
+      throw new UncheckedIOException("아카이브 블록의 압축을 풀 수 없습니다: " + block.file(), e);
+    }
+  }
+}
@@ -0,0 +1,173 @@
+package kr.co.pincoin.study.eventstore;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import org.axonframework.eventhandling.DomainEventMessage;
+import org.axonframework.eventhandling.EventMessage;
+import org.axonframework.eventhandling.GenericDomainEventMessage;
+import org.axonframework.eventhandling.GenericEventMessage;
+import org.axonframework.messaging.MetaData;
+import org.axonframework.serialization.SerializedObject;
+import org.axonframework.serialization.Serializer;
+import org.axonframework.serialization.SimpleSerializedObject;
+
+/**
+ * 이벤트 메시지와 세그먼트 로그 레코드 사이의 변환기
+ * <p>
+ * 레코드 형식:
+ * <pre>
+ * long   globalIndex      (스냅샷은 -1)
+ * long   epochSecond
+ * int    nano
+ * byte   kind             (0: 일반 이벤트, 1: 도메인 이벤트)
+ * str    eventIdentifier
+ * [str   aggregateType, str aggregateIdentifier, long sequenceNumber]  (도메인 이벤트만)
+ * str    payloadType
+ * str    payloadRevision  (nullable)
+ * bytes  payload
+ * str    metaDataType
+ * bytes  metaData
+ * </pre>
+ * 헤더는 매핑된 버퍼에서 복사 없이 바로 읽고, 페이로드와 메타데이터만 직렬화기에 넘기기 위해 byte[]로 복사합니다.
+ */
+final class EventRecordCodec {
+
+  static final int GLOBAL_INDEX_OFFSET = 0;
+
+  private static final byte KIND_EVENT = 0;
+  private static final byte KIND_DOMAIN = 1;
+
+  private EventRecordCodec() {
+  }
+
+  /**
+   * 이벤트를 레코드로 직렬화합니다. globalIndex 자리는 0으로 채워지며, 저장 순서가 확정된 뒤 {@link #patchGlobalIndex}로 기록합니다.
+   */
+  static byte[] encode(EventMessage<?> event, Serializer serializer) {
+    SerializedObject<byte[]> payload = serializer.serialize(event.getPayload(), byte[].class);
+    SerializedObject<byte[]> metaData = serializer.serialize(event.getMetaData(), byte[].class);
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(
+        128 + payload.getData().length + metaData.getData().length);
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeLong(0L);
+      out.writeLong(event.getTimestamp().getEpochSecond());
+      out.writeInt(event.getTimestamp().getNano());
+
+      if (event instanceof DomainEventMessage<?> domainEvent) {
+        out.writeByte(KIND_DOMAIN);
+        writeString(out, event.getIdentifier());
+        writeString(out, domainEvent.getType());
+        writeString(out, domainEvent.getAggregateIdentifier());
+        out.writeLong(domainEvent.getSequenceNumber());
+      } else {
+        out.writeByte(KIND_EVENT);
+        writeString(out, event.getIdentifier());
+      }
+
+      writeString(out, payload.getType().getName());
+      writeString(out, payload.getType().getRevision());
+      writeBytes(out, payload.getData());
+      writeString(out, metaData.getType().getName());
+      writeBytes(out, metaData.getData());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  static void patchGlobalIndex(byte[] record, long globalIndex) {
+    ByteBuffer.wrap(record).putLong(GLOBAL_INDEX_OFFSET, globalIndex);
+  }
+
+  static long globalIndex(ByteBuffer record) {
+    return record.getLong(GLOBAL_INDEX_OFFSET);
+  }
+
+  static Instant timestamp(ByteBuffer record) {
+    return Instant.ofEpochSecond(record.getLong(Long.BYTES), record.getInt(Long.BYTES * 2));
+  }
+
+  /**
+   * 인덱스 복구에 필요한 헤더만 읽습니다. (페이로드는 건드리지 않음)
+   */
+  static Header header(ByteBuffer record) {
+    ByteBuffer in = record.duplicate();
+    long globalIndex = in.getLong();
+    Instant timestamp = Instant.ofEpochSecond(in.getLong(), in.getInt());
+    boolean domain = in.get() == KIND_DOMAIN;
+    String eventIdentifier = readString(in);
+    if (!domain) {
+      return new Header(globalIndex, timestamp, eventIdentifier, null, null, -1L, in.position());
+    }
+    String type = readString(in);
+    String aggregateIdentifier = readString(in);
+    long sequenceNumber = in.getLong();
+    return new Header(globalIndex, timestamp, eventIdentifier, type, aggregateIdentifier,
+        sequenceNumber, in.position());
+  }
+
+  static EventMessage<?> decode(ByteBuffer record, Serializer serializer) {
+    Header header = header(record);
+    ByteBuffer in = record.duplicate().position(header.bodyOffset());
+
+    String payloadType = readString(in);
+    String payloadRevision = readString(in);
+    byte[] payloadBytes = readBytes(in);
+    String metaDataType = readString(in);
+    byte[] metaDataBytes = readBytes(in);
+
+    Object payload = serializer.deserialize(
+        new SimpleSerializedObject<>(payloadBytes, byte[].class, payloadType, payloadRevision));
+    MetaData metaData = serializer.deserialize(
+        new SimpleSerializedObject<>(metaDataBytes, byte[].class, metaDataType, null));
+
+    if (!header.isDomain()) {
+      return new GenericEventMessage<>(header.eventIdentifier(), payload, metaData,
+          header.timestamp());
+    }
+    return new GenericDomainEventMessage<>(header.aggregateType(), header.aggregateIdentifier(),
+        header.sequenceNumber(), payload, metaData, header.eventIdentifier(), header.timestamp());
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    if (value == null) {
+      out.writeInt(-1);
+      return;
+    }
+    writeBytes(out, value.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static void writeBytes(DataOutputStream out, byte[] value) throws IOException {
+    out.writeInt(value.length);
+    out.write(value);
+  }
+
+  private static String readString(ByteBuffer in) {
+    byte[] bytes = readBytes(in);
+    return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static byte[] readBytes(ByteBuffer in) {
+    int length = in.getInt();
+    if (length < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    in.get(bytes);
+    return bytes;
+  }
+
+  record Header(long globalIndex, Instant timestamp, String eventIdentifier, String aggregateType,
+                String aggregateIdentifier, long sequenceNumber, int bodyOffset) {
+
+    boolean isDomain() {
+      return aggregateIdentifier != null;
+    }
+  }
+}
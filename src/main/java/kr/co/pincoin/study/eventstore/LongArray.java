@@ -0,0 +1,58 @@
+package kr.co.pincoin.study.eventstore;
+
+import java.util.Arrays;
+
+/**
+ * 박싱 없이 long 값을 담는 가변 길이 배열
+ * <p>
+ * 전역 인덱스 → 주소, 애그리게잇 순번 → 전역 인덱스 매핑처럼 수백만 건이 쌓이는 인덱스를 List&lt;Long&gt;보다 훨씬 적은 메모리로 보관합니다. 동기화는
+ * 호출자가 담당합니다.
+ */
+final class LongArray {
+
+  private long[] values;
+  private int size;
+
+  LongArray() {
+    this(16);
+  }
+
+  LongArray(int initialCapacity) {
+    this.values = new long[Math.max(1, initialCapacity)];
+  }
+
+  void add(long value) {
+    if (size == values.length) {
+      values = Arrays.copyOf(values, values.length * 2);
+    }
+    values[size++] = value;
+  }
+
+  long get(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException(index);
+    }
+    return values[index];
+  }
+
+  void set(int index, long value) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException(index);
+    }
+    values[index] = value;
+  }
+
+  /**
+   * 앞에서부터 newSize개만 남깁니다.
+   */
+  void truncate(int newSize) {
+    if (newSize < 0 || newSize > size) {
+      throw new IndexOutOfBoundsException(newSize);
+    }
+    size = newSize;
+  }
+
+  int size() {
+    return size;
+  }
+}
@@ -0,0 +1,867 @@
+package kr.co.pincoin.study.eventstore;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import kr.co.pincoin.study.eventstore.EventRecordCodec.Header;
+import lombok.extern.slf4j.Slf4j;
+import org.axonframework.eventhandling.DomainEventMessage;
+import org.axonframework.eventhandling.EventMessage;
+import org.axonframework.eventhandling.GenericTrackedDomainEventMessage;
+import org.axonframework.eventhandling.GenericTrackedEventMessage;
+import org.axonframework.eventhandling.GlobalSequenceTrackingToken;
+import org.axonframework.eventhandling.TrackedEventMessage;
+import org.axonframework.eventhandling.TrackingToken;
+import org.axonframework.eventsourcing.eventstore.DomainEventStream;
+import org.axonframework.eventsourcing.eventstore.EventStorageEngine;
+import org.axonframework.eventsourcing.eventstore.EventStoreException;
+import org.axonframework.modelling.command.AggregateStreamCreationException;
+import org.axonframework.modelling.command.ConcurrencyException;
+import org.axonframework.serialization.Serializer;
+
+/**
+ * 메모리 매핑 세그먼트 파일 기반의 임베디드 이벤트 저장소
+ * <p>
+ * 단일 노드 배포에서 Axon Server 없이 이벤트 소싱 경로(AccountAggregate, MoneyTransferSaga, AccountEventHandler)를 실행하기 위한
+ * {@link EventStorageEngine} 구현입니다.
+ * <p>
+ * 구조:
+ * <ul>
+ *   <li>이벤트 로그: 전역 순서대로 이벤트 레코드를 추가하는 세그먼트 파일 (events-*.seg)</li>
+ *   <li>스냅샷 로그: 스냅샷 레코드를 추가하는 별도 세그먼트 파일 (snapshots-*.seg)</li>
+ *   <li>메모리 인덱스: 전역 인덱스 → 파일 주소, 애그리게잇 식별자 → 순번별 전역 인덱스. 기동 시 로그를 스캔해 복구</li>
+ * </ul>
+ * <p>
+ * 그룹 커밋: 이벤트를 추가한 스레드는 레코드를 매핑 버퍼에 쓴 뒤 fsync가 끝날 때까지 기다립니다. fsync는 전용 스레드가 짧은 간격(flushInterval)
+ * 동안 쌓인 쓰기를 모아 한 번에 수행하므로, 동시에 커밋하는 커맨드가 많을수록 커맨드당 fsync 비용이 줄어듭니다. 읽기는 fsync가 끝난 이벤트까지만
+ * 노출되어, 장애 후 사라질 수 있는 이벤트를 이벤트 처리기가 먼저 처리하는 일이 없습니다.
+ * <p>
+ * fsync가 실패하면 아직 영속화되지 않은 레코드를 인덱스와 이벤트 로그에서 되돌리고, 그 레코드를 기다리던 추가 요청만 실패시킵니다. 그룹 커밋 스레드는
+ * 계속 실행되므로 이후 추가는 다시 시도할 수 있습니다.
+ * <p>
+ * 보관(티어링): {@link #archive}는 애그리게잇의 최신 스냅샷 순번 이하의 이벤트를 압축 아카이브(archive/archive-*.arc)로 옮기고, 쓰기가 끝난
+ * 세그먼트를 보관된 레코드 없이 다시 써서 이벤트 로그 크기를 줄입니다. 애그리게잇 로딩은 스냅샷 이후 이벤트만 읽으므로 영향이 없고, 보관된 이벤트는
+ * {@link #readEventsWithArchive}로 감사용 재생을 요청할 때만 읽습니다. 추적 스트림(이벤트 처리기)에는 보관된 이벤트가 나타나지 않으므로, 처리기를
+ * 처음부터 재생해 만드는 조회 모델은 보관 이전에 반영된 상태를 유지해야 합니다. 조회 모델을 한 번에 다시 만드는 재구축기는
+ * {@link ArchivedEventSource}로 보관된 이벤트를 먼저 읽어 접습니다. 머리 토큰은 마지막 핫 이벤트를 가리킵니다.
+ */
+@Slf4j
+public class MappedFileEventStorageEngine implements EventStorageEngine, ArchivedEventSource,
+    Closeable {
+
+  private static final String EVENT_LOG_PREFIX = "events";
+  private static final String SNAPSHOT_LOG_PREFIX = "snapshots";
+  private static final String ARCHIVE_DIRECTORY = "archive";
+
+  /**
+   * 이벤트 로그에 레코드가 없는 전역 인덱스의 주소 값
+   */
+  static final long NO_ADDRESS = -1L;
+
+  private final Serializer eventSerializer;
+  private final Serializer snapshotSerializer;
+  private final MappedSegmentLog eventLog;
+  private final MappedSegmentLog snapshotLog;
+  private final EventArchive archive;
+  private final Duration flushInterval;
+
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+  /**
+   * 전역 인덱스 → 이벤트 로그 주소
+   */
+  private final LongArray addresses = new LongArray(1024);
+
+  /**
+   * 애그리게잇 식별자 → 이벤트 스트림 인덱스
+   */
+  private final Map<String, AggregateStream> aggregates = new HashMap<>();
+
+  /**
+   * 애그리게잇 식별자 → 최신 스냅샷 주소
+   */
+  private final Map<String, Long> snapshots = new HashMap<>();
+
+  /**
+   * 보관되었지만 아직 레코드가 남아 있는 이벤트 로그 세그먼트 (다음 보관 작업에서 압축)
+   */
+  private final Set<Integer> compactionCandidates = new TreeSet<>();
+
+  /**
+   * 보관 작업과 감사용 이력 조회를 직렬화하는 모니터
+   */
+  private final Object archiveMonitor = new Object();
+  private volatile long archiveGeneration;
+
+  private final Object commitMonitor = new Object();
+  private final Thread flusher;
+  private long writtenIndex = -1;
+  private volatile long durableIndex = -1;
+  private volatile boolean running = true;
+
+  /**
+   * 추가 요청(appendEvents 호출)마다 붙는 번호. 전역 인덱스와 달리 되돌린 뒤에도 다시 쓰지 않으므로 대기 중인 요청의 성공/실패를 구분합니다.
+   */
+  private long writtenTicket;
+  private long durableTicket;
+
+  /**
+   * fsync 실패로 되돌린 요청 번호 범위 (첫 번호 → 실패). fsync 실패 횟수만큼만 늘어납니다.
+   */
+  private final NavigableMap<Long, FlushFailure> failedTickets = new TreeMap<>();
+
+  /**
+   * 되돌리기마저 실패해 더 이상 추가할 수 없게 만든 오류
+   */
+  private RuntimeException fatalFailure;
+
+  private record FlushFailure(long lastTicket, RuntimeException cause) {
+
+  }
+
+  public MappedFileEventStorageEngine(Path directory, int segmentSize, Duration flushInterval,
+      Serializer eventSerializer, Serializer snapshotSerializer) {
+    this.eventSerializer = eventSerializer;
+    this.snapshotSerializer = snapshotSerializer;
+    this.flushInterval = flushInterval;
+    this.eventLog = new MappedSegmentLog(directory, EVENT_LOG_PREFIX, segmentSize);
+    this.snapshotLog = new MappedSegmentLog(directory, SNAPSHOT_LOG_PREFIX, segmentSize);
+    this.archive = new EventArchive(directory.resolve(ARCHIVE_DIRECTORY));
+
+    rebuildIndex();
+
+    this.flusher = new Thread(this::flushLoop, "event-store-group-commit");
+    this.flusher.setDaemon(true);
+    this.flusher.start();
+  }
+
+  private void rebuildIndex() {
+    long start = System.nanoTime();
+
+    // 보관된 이벤트가 애그리게잇 스트림의 앞부분을 차지하므로 먼저 등록
+    Map<String, Long> archivedUpTo = new HashMap<>();
+    long[] lastArchivedIndex = {-1L};
+    archive.allBlocks().forEach(block -> {
+      AggregateStream stream = aggregates.computeIfAbsent(block.aggregateIdentifier(),
+          id -> new AggregateStream(block.aggregateType(), block.firstSequence()));
+      for (long globalIndex : block.globalIndexes()) {
+        stream.append(globalIndex);
+        lastArchivedIndex[0] = Math.max(lastArchivedIndex[0], globalIndex);
+      }
+      archivedUpTo.put(block.aggregateIdentifier(), block.lastSequence());
+    });
+
+    eventLog.scan((address, record) -> {
+      Header header = EventRecordCodec.header(record);
+      if (header.globalIndex() < addresses.size()) {
+        throw new EventStoreException(
+            "이벤트 로그의 전역 인덱스 순서가 올바르지 않습니다: " + header.globalIndex());
+      }
+      while (addresses.size() < header.globalIndex()) {
+        addresses.add(NO_ADDRESS);
+      }
+      if (header.isDomain() && header.sequenceNumber()
+          <= archivedUpTo.getOrDefault(header.aggregateIdentifier(), -1L)) {
+        // 아카이브에 기록된 뒤 세그먼트 압축 전에 종료된 경우: 보관된 것으로 보고 다음 작업에서 압축
+        addresses.add(NO_ADDRESS);
+        compactionCandidates.add(MappedSegmentLog.segmentOf(address));
+        return;
+      }
+      addresses.add(address);
+      if (header.isDomain()) {
+        aggregates.computeIfAbsent(header.aggregateIdentifier(),
+                id -> new AggregateStream(header.aggregateType(), header.sequenceNumber()))
+            .append(header.globalIndex());
+      }
+    });
+
+    while (addresses.size() <= lastArchivedIndex[0]) {
+      addresses.add(NO_ADDRESS);
+    }
+
+    Map<String, Long> snapshotSequences = new HashMap<>();
+    snapshotLog.scan((address, record) -> {
+      Header header = EventRecordCodec.header(record);
+      Long known = snapshotSequences.get(header.aggregateIdentifier());
+      if (known == null || known < header.sequenceNumber()) {
+        snapshotSequences.put(header.aggregateIdentifier(), header.sequenceNumber());
+        snapshots.put(header.aggregateIdentifier(), address);
+      }
+    });
+
+    writtenIndex = addresses.size() - 1;
+    durableIndex = writtenIndex;
+
+    log.info("이벤트 저장소 인덱스 복구 완료: 이벤트 {}건, 애그리게잇 {}개, 스냅샷 {}개, 보관된 애그리게잇 {}개 ({}ms)",
+        addresses.size(), aggregates.size(), snapshots.size(), archivedUpTo.size(),
+        (System.nanoTime() - start) / 1_000_000);
+  }
+
+  @Override
+  public void appendEvents(List<? extends EventMessage<?>> events) {
+    if (events.isEmpty()) {
+      return;
+    }
+
+    // 직렬화는 잠금 밖에서 수행
+    byte[][] records = new byte[events.size()][];
+    for (int i = 0; i < events.size(); i++) {
+      records[i] = EventRecordCodec.encode(events.get(i), eventSerializer);
+    }
+
+    long ticket;
+    lock.writeLock().lock();
+    try {
+      synchronized (commitMonitor) {
+        if (fatalFailure != null) {
+          throw new EventStoreException("이벤트 로그를 복구할 수 없어 추가를 거부합니다", fatalFailure);
+        }
+      }
+      validateSequences(events);
+
+      for (int i = 0; i < records.length; i++) {
+        long globalIndex = addresses.size();
+        EventRecordCodec.patchGlobalIndex(records[i], globalIndex);
+        addresses.add(eventLog.append(records[i]));
+
+        if (events.get(i) instanceof DomainEventMessage<?> event) {
+          aggregates.computeIfAbsent(event.getAggregateIdentifier(),
+                  id -> new AggregateStream(event.getType(), event.getSequenceNumber()))
+              .append(globalIndex);
+        }
+      }
+
+      synchronized (commitMonitor) {
+        writtenIndex = addresses.size() - 1;
+        ticket = ++writtenTicket;
+        commitMonitor.notifyAll();
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+
+    awaitDurable(ticket);
+  }
+
+  /**
+   * 애그리게잇별 순번이 이어지는지 검사합니다. 이미 저장된 순번이면 다른 노드/스레드가 먼저 추가한 것이므로 동시성 예외를 던집니다.
+   */
+  private void validateSequences(List<? extends EventMessage<?>> events) {
+    Map<String, Long> pending = new HashMap<>();
+    for (EventMessage<?> message : events) {
+      if (!(message instanceof DomainEventMessage<?> event)) {
+        continue;
+      }
+
+      String aggregateIdentifier = event.getAggregateIdentifier();
+      Long last = pending.containsKey(aggregateIdentifier)
+          ? pending.get(aggregateIdentifier)
+          : lastSequence(aggregateIdentifier);
+      long sequence = event.getSequenceNumber();
+
+      if (last != null && sequence <= last) {
+        if (sequence == 0) {
+          throw new AggregateStreamCreationException(
+              "이미 존재하는 애그리게잇입니다: " + aggregateIdentifier);
+        }
+        throw new ConcurrencyException(String.format(
+            "이벤트 순번 충돌: aggregate=%s, sequence=%d, last=%d",
+            aggregateIdentifier, sequence, last));
+      }
+      if (last != null && sequence != last + 1) {
+        throw new EventStoreException(String.format(
+            "이벤트 순번이 누락되었습니다: aggregate=%s, sequence=%d, last=%d",
+            aggregateIdentifier, sequence, last));
+      }
+      pending.put(aggregateIdentifier, sequence);
+    }
+  }
+
+  private Long lastSequence(String aggregateIdentifier) {
+    AggregateStream stream = aggregates.get(aggregateIdentifier);
+    return stream == null ? null : stream.lastSequence();
+  }
+
+  private void awaitDurable(long ticket) {
+    synchronized (commitMonitor) {
+      while (true) {
+        Map.Entry<Long, FlushFailure> failed = failedTickets.floorEntry(ticket);
+        if (failed != null && ticket <= failed.getValue().lastTicket()) {
+          throw new EventStoreException("이벤트를 디스크에 기록하지 못했습니다",
+              failed.getValue().cause());
+        }
+        if (durableTicket >= ticket) {
+          return;
+        }
+        if (fatalFailure != null) {
+          throw new EventStoreException("이벤트를 디스크에 기록하지 못했습니다", fatalFailure);
+        }
+        if (!running) {
+          throw new EventStoreException("이벤트 저장소가 종료되었습니다");
+        }
+        try {
+          commitMonitor.wait();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new EventStoreException("fsync 대기 중 인터럽트가 발생했습니다", e);
+        }
+      }
+    }
+  }
+
+  /**
+   * 그룹 커밋 루프
+   * <p>
+   * 새 쓰기가 생기면 flushInterval 동안 더 모은 뒤 한 번의 fsync로 영속화하고, 기다리던 모든 스레드를 깨웁니다. fsync가 실패하면
+   * 영속화되지 않은 레코드를 되돌리고 계속 실행합니다.
+   */
+  private void flushLoop() {
+    while (running) {
+      synchronized (commitMonitor) {
+        // 되돌리기에 실패했으면 로그와 인덱스가 어긋날 수 있으므로 더 이상 영속화 위치를 올리지 않음
+        while (running && (writtenIndex == durableIndex || fatalFailure != null)) {
+          try {
+            commitMonitor.wait();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+          }
+        }
+      }
+      if (!running) {
+        return;
+      }
+
+      if (!flushInterval.isZero()) {
+        LockSupport.parkNanos(flushInterval.toNanos());
+      }
+
+      long target;
+      long targetTicket;
+      synchronized (commitMonitor) {
+        target = writtenIndex;
+        targetTicket = writtenTicket;
+      }
+
+      try {
+        forceEventLog();
+      } catch (RuntimeException e) {
+        log.error("이벤트 로그 fsync 실패, 영속화되지 않은 이벤트를 되돌립니다", e);
+        rollbackUndurable(e);
+        continue;
+      }
+
+      synchronized (commitMonitor) {
+        durableIndex = target;
+        durableTicket = targetTicket;
+        commitMonitor.notifyAll();
+      }
+    }
+  }
+
+  /**
+   * 그룹 커밋 스레드의 fsync (테스트에서 실패를 주입할 수 있도록 분리)
+   */
+  void forceEventLog() {
+    eventLog.force();
+  }
+
+  /**
+   * 영속화되지 않은(durableIndex 이후) 레코드를 인덱스와 이벤트 로그에서 되돌리고, 해당 요청을 기다리는 스레드에 실패를 알립니다.
+   * <p>
+   * 읽기는 durableIndex까지만 노출되므로 되돌린 이벤트를 읽은 쪽은 없고, 되돌린 전역 인덱스는 다음 추가에서 다시 사용됩니다. 되돌리기에 실패하면
+   * 인덱스와 로그가 어긋날 수 있으므로 이후 추가를 모두 거부합니다.
+   */
+  private void rollbackUndurable(RuntimeException failure) {
+    lock.writeLock().lock();
+    try {
+      synchronized (commitMonitor) {
+        long firstLost = durableIndex + 1;
+        try {
+          if (firstLost < addresses.size()) {
+            eventLog.truncate(addresses.get((int) firstLost));
+            addresses.truncate((int) firstLost);
+            aggregates.values().removeIf(stream -> stream.truncateFrom(firstLost));
+          }
+        } catch (RuntimeException e) {
+          log.error("영속화되지 않은 이벤트를 되돌리지 못했습니다. 이후 추가를 거부합니다", e);
+          e.addSuppressed(failure);
+          fatalFailure = e;
+        }
+        if (writtenTicket > durableTicket) {
+          failedTickets.put(durableTicket + 1, new FlushFailure(writtenTicket, failure));
+        }
+        writtenIndex = addresses.size() - 1;
+        commitMonitor.notifyAll();
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void storeSnapshot(DomainEventMessage<?> snapshot) {
+    byte[] record = EventRecordCodec.encode(snapshot, snapshotSerializer);
+    EventRecordCodec.patchGlobalIndex(record, -1L);
+
+    lock.writeLock().lock();
+    try {
+      snapshots.put(snapshot.getAggregateIdentifier(), snapshotLog.append(record));
+    } finally {
+      lock.writeLock().unlock();
+    }
+    // 스냅샷은 커맨드 경로 밖(스냅샷 전용 스레드)에서 저장되므로 그룹 커밋을 기다리지 않고 바로 동기화
+    snapshotLog.force();
+  }
+
+  @Override
+  public Optional<DomainEventMessage<?>> readSnapshot(String aggregateIdentifier) {
+    Long address;
+    lock.readLock().lock();
+    try {
+      address = snapshots.get(aggregateIdentifier);
+    } finally {
+      lock.readLock().unlock();
+    }
+    if (address == null) {
+      return Optional.empty();
+    }
+    return Optional.of(
+        (DomainEventMessage<?>) EventRecordCodec.decode(snapshotLog.read(address),
+            snapshotSerializer));
+  }
+
+  /**
+   * 보관되지 않은 이벤트만 읽습니다. 레코드 버퍼는 잠금 안에서 얻으므로, 이후 세그먼트가 압축되어도 기존 매핑을 그대로 읽습니다.
+   */
+  @Override
+  public DomainEventStream readEvents(String aggregateIdentifier, long firstSequenceNumber) {
+    List<ByteBuffer> records;
+    Long lastSequence;
+
+    lock.readLock().lock();
+    try {
+      AggregateStream stream = aggregates.get(aggregateIdentifier);
+      if (stream == null) {
+        return DomainEventStream.empty();
+      }
+      long durable = durableIndex;
+      int from = (int) Math.max(0, firstSequenceNumber - stream.firstSequence);
+      int to = stream.globalIndexes.size();
+      while (to > from && stream.globalIndexes.get(to - 1) > durable) {
+        to--;
+      }
+
+      records = new ArrayList<>(Math.max(0, to - from));
+      for (int i = from; i < to; i++) {
+        long address = addresses.get((int) stream.globalIndexes.get(i));
+        if (address != NO_ADDRESS) {
+          records.add(eventLog.read(address));
+        }
+      }
+      lastSequence = to > from ? stream.firstSequence + to - 1 : null;
+    } finally {
+      lock.readLock().unlock();
+    }
+
+    Stream<DomainEventMessage<?>> events = records.stream()
+        .map(record -> (DomainEventMessage<?>) EventRecordCodec.decode(record, eventSerializer));
+    return DomainEventStream.of(events, () -> lastSequence);
+  }
+
+  /**
+   * 보관된 이벤트를 포함한 애그리게잇의 전체 이력을 순번 순서대로 읽습니다. (감사용 재생)
+   * <p>
+   * 아카이브 블록은 스트림이 해당 블록에 도달할 때 읽어서 압축을 풉니다.
+   */
+  public DomainEventStream readEventsWithArchive(String aggregateIdentifier) {
+    List<EventArchive.Block> archived;
+    DomainEventStream hot;
+    synchronized (archiveMonitor) {
+      archived = archive.blocks(aggregateIdentifier);
+      hot = readEvents(aggregateIdentifier, 0);
+    }
+    return DomainEventStream.concat(
+        DomainEventStream.of(EventArchive.read(archived, eventSerializer)), hot);
+  }
+
+  @Override
+  public Stream<DomainEventMessage<?>> readArchivedEvents() {
+    List<EventArchive.Block> archived;
+    synchronized (archiveMonitor) {
+      archived = archive.allBlocks().toList();
+    }
+    return EventArchive.read(archived, eventSerializer);
+  }
+
+  @Override
+  public long archiveGeneration() {
+    return archiveGeneration;
+  }
+
+  @Override
+  public Stream<? extends TrackedEventMessage<?>> readEvents(TrackingToken trackingToken,
+      boolean mayBlock) {
+    long from = trackingToken == null ? 0 : trackingToken.position().orElse(-1L) + 1;
+    long to = durableIndex;
+    return LongStream.rangeClosed(from, to)
+        .mapToObj(this::readTracked)
+        .filter(Objects::nonNull);
+  }
+
+  private TrackedEventMessage<?> readTracked(long globalIndex) {
+    ByteBuffer record = recordAt(globalIndex);
+    if (record == null) {
+      return null;
+    }
+
+    EventMessage<?> event = EventRecordCodec.decode(record, eventSerializer);
+    TrackingToken token = new GlobalSequenceTrackingToken(globalIndex);
+    if (event instanceof DomainEventMessage<?> domainEvent) {
+      return new GenericTrackedDomainEventMessage<>(token, domainEvent);
+    }
+    return new GenericTrackedEventMessage<>(token, event);
+  }
+
+  private long addressOf(long globalIndex) {
+    lock.readLock().lock();
+    try {
+      return addresses.get((int) globalIndex);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * 전역 인덱스의 레코드 버퍼 (보관된 이벤트면 null). 주소 조회와 버퍼 획득을 같은 잠금 안에서 수행해 세그먼트 압축과 겹치지 않게 합니다.
+   */
+  private ByteBuffer recordAt(long globalIndex) {
+    lock.readLock().lock();
+    try {
+      long address = addresses.get((int) globalIndex);
+      return address == NO_ADDRESS ? null : eventLog.read(address);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public Optional<Long> lastSequenceNumberFor(String aggregateIdentifier) {
+    lock.readLock().lock();
+    try {
+      return Optional.ofNullable(lastSequence(aggregateIdentifier));
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public TrackingToken createTailToken() {
+    return null;
+  }
+
+  /**
+   * 추적 스트림의 마지막 이벤트를 가리키는 토큰. 보관된 이벤트는 추적 스트림에 나타나지 않으므로 끝에 보관된 이벤트가 있으면 건너뜁니다.
+   */
+  @Override
+  public TrackingToken createHeadToken() {
+    lock.readLock().lock();
+    try {
+      long head = durableIndex;
+      while (head >= 0 && addresses.get((int) head) == NO_ADDRESS) {
+        head--;
+      }
+      return head < 0 ? null : new GlobalSequenceTrackingToken(head);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * 지정한 시각 이후의 첫 이벤트 바로 앞을 가리키는 토큰을 반환합니다. (전역 순서상 타임스탬프가 단조 증가한다고 가정한 이진 탐색)
+   */
+  @Override
+  public TrackingToken createTokenAt(Instant dateTime) {
+    long low = 0;
+    long high = durableIndex + 1;
+    while (low < high) {
+      long mid = (low + high) >>> 1;
+      Instant timestamp = timestampAtOrAfter(mid);
+      if (timestamp == null || !timestamp.isBefore(dateTime)) {
+        high = mid;
+      } else {
+        low = mid + 1;
+      }
+    }
+    if (low > durableIndex) {
+      return createHeadToken();
+    }
+    return low == 0 ? null : new GlobalSequenceTrackingToken(low - 1);
+  }
+
+  private Instant timestampAtOrAfter(long globalIndex) {
+    for (long index = globalIndex; index <= durableIndex; index++) {
+      ByteBuffer record = recordAt(index);
+      if (record != null) {
+        return EventRecordCodec.timestamp(record);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * 마지막 이벤트가 지정한 시각보다 오래되었고, 아직 보관되지 않은 이벤트가 남아 있는 애그리게잇을 찾습니다.
+   *
+   * @param aggregateType 애그리게잇 타입 (예: AccountAggregate)
+   * @param before        마지막 이벤트 시각의 상한
+   * @param limit         최대 개수
+   */
+  public List<String> dormantAggregates(String aggregateType, Instant before, int limit) {
+    List<String> dormant = new ArrayList<>();
+    lock.readLock().lock();
+    try {
+      long durable = durableIndex;
+      for (Map.Entry<String, AggregateStream> entry : aggregates.entrySet()) {
+        if (dormant.size() >= limit) {
+          break;
+        }
+        AggregateStream stream = entry.getValue();
+        long lastIndex = stream.globalIndexes.get(stream.globalIndexes.size() - 1);
+        if (!aggregateType.equals(stream.type) || lastIndex > durable
+            || archive.lastArchivedSequence(entry.getKey()) >= stream.lastSequence()) {
+          continue;
+        }
+        long lastAddress = addresses.get((int) lastIndex);
+        if (lastAddress != NO_ADDRESS
+            && EventRecordCodec.timestamp(eventLog.read(lastAddress)).isBefore(before)) {
+          dormant.add(entry.getKey());
+        }
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+    return dormant;
+  }
+
+  /**
+   * 최신 스냅샷의 순번 (스냅샷이 없으면 empty)
+   */
+  public Optional<Long> snapshotSequenceFor(String aggregateIdentifier) {
+    lock.readLock().lock();
+    try {
+      Long address = snapshots.get(aggregateIdentifier);
+      return address == null
+          ? Optional.empty()
+          : Optional.of(EventRecordCodec.header(snapshotLog.read(address)).sequenceNumber());
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * 애그리게잇별로 최신 스냅샷 순번 이하의 이벤트를 아카이브로 옮기고, 보관된 레코드가 있는 닫힌 세그먼트를 압축합니다.
+   * <p>
+   * 아카이브 파일을 디스크에 동기화한 뒤에 이벤트 로그에서 제외하므로, 중간에 종료되어도 이벤트가 사라지지 않습니다. (재기동 시 아카이브에 있는 이벤트는
+   * 보관된 것으로 보고 다음 작업에서 압축)
+   *
+   * @param aggregateIdentifiers 보관할 애그리게잇 (스냅샷이 없으면 건너뜀)
+   */
+  public TieringResult archive(Collection<String> aggregateIdentifiers) {
+    synchronized (archiveMonitor) {
+      long hotBytesBefore = eventLog.size();
+      List<EventArchive.Entry> entries = collectArchivable(aggregateIdentifiers);
+
+      long archiveBytes = 0;
+      long archivedEvents = 0;
+      if (!entries.isEmpty()) {
+        archiveBytes = archive.write(entries);
+        lock.writeLock().lock();
+        try {
+          for (EventArchive.Entry entry : entries) {
+            for (long globalIndex : entry.globalIndexes()) {
+              long address = addresses.get((int) globalIndex);
+              compactionCandidates.add(MappedSegmentLog.segmentOf(address));
+              addresses.set((int) globalIndex, NO_ADDRESS);
+            }
+            archivedEvents += entry.globalIndexes().length;
+          }
+          archiveGeneration++;
+        } finally {
+          lock.writeLock().unlock();
+        }
+      }
+
+      int compacted = compactSealedSegments();
+      if (entries.isEmpty() && compacted == 0) {
+        return TieringResult.empty(hotBytesBefore);
+      }
+      TieringResult result = new TieringResult(entries.size(), archivedEvents, compacted,
+          hotBytesBefore, eventLog.size(), archiveBytes);
+      log.info("이벤트 보관 완료: 애그리게잇 {}개, 이벤트 {}건, 압축 세그먼트 {}개, 이벤트 로그 {} → {} bytes (아카이브 {} bytes)",
+          result.aggregates(), result.archivedEvents(), result.compactedSegments(),
+          result.hotBytesBefore(), result.hotBytesAfter(), result.archiveBytes());
+      return result;
+    }
+  }
+
+  private List<EventArchive.Entry> collectArchivable(Collection<String> aggregateIdentifiers) {
+    List<EventArchive.Entry> entries = new ArrayList<>();
+    lock.readLock().lock();
+    try {
+      long durable = durableIndex;
+      for (String aggregateIdentifier : aggregateIdentifiers) {
+        AggregateStream stream = aggregates.get(aggregateIdentifier);
+        Long snapshotAddress = snapshots.get(aggregateIdentifier);
+        if (stream == null || snapshotAddress == null) {
+          continue;
+        }
+        long upTo = EventRecordCodec.header(snapshotLog.read(snapshotAddress)).sequenceNumber();
+        long from = Math.max(stream.firstSequence,
+            archive.lastArchivedSequence(aggregateIdentifier) + 1);
+
+        LongArray globalIndexes = new LongArray();
+        List<byte[]> records = new ArrayList<>();
+        for (long sequence = from; sequence <= Math.min(upTo, stream.lastSequence());
+            sequence++) {
+          long globalIndex = stream.globalIndexes.get((int) (sequence - stream.firstSequence));
+          long address = addresses.get((int) globalIndex);
+          if (globalIndex > durable || address == NO_ADDRESS) {
+            break;
+          }
+          ByteBuffer record = eventLog.read(address);
+          byte[] bytes = new byte[record.remaining()];
+          record.get(bytes);
+          globalIndexes.add(globalIndex);
+          records.add(bytes);
+        }
+        if (!records.isEmpty()) {
+          long[] indexes = new long[globalIndexes.size()];
+          for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = globalIndexes.get(i);
+          }
+          entries.add(new EventArchive.Entry(stream.type, aggregateIdentifier, from, indexes,
+              records));
+        }
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+    return entries;
+  }
+
+  /**
+   * 보관된 레코드가 남아 있는 닫힌 세그먼트를 압축합니다. 새 파일은 잠금 밖에서 쓰고, 세그먼트 교체와 주소 갱신만 쓰기 잠금 안에서 수행합니다.
+   */
+  private int compactSealedSegments() {
+    List<Integer> sealed = new ArrayList<>();
+    lock.readLock().lock();
+    try {
+      int writeSegment = eventLog.writeSegment();
+      compactionCandidates.stream().filter(segment -> segment < writeSegment)
+          .forEach(sealed::add);
+    } finally {
+      lock.readLock().unlock();
+    }
+
+    for (int segment : sealed) {
+      MappedSegmentLog.Compaction compaction = eventLog.compact(segment,
+          (address, record) -> addressOf(EventRecordCodec.globalIndex(record)) == address);
+      lock.writeLock().lock();
+      try {
+        eventLog.commit(compaction);
+        for (long address : compaction.newAddresses()) {
+          long globalIndex = EventRecordCodec.globalIndex(eventLog.read(address));
+          addresses.set((int) globalIndex, address);
+        }
+        compactionCandidates.remove(segment);
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+    return sealed.size();
+  }
+
+  /**
+   * 이벤트 로그(핫 저장소)에 기록된 데이터 크기
+   */
+  public long hotBytes() {
+    return eventLog.size();
+  }
+
+  /**
+   * 아카이브 파일 전체 크기
+   */
+  public long archiveBytes() {
+    return archive.storedBytes();
+  }
+
+  @Override
+  public void close() throws IOException {
+    running = false;
+    synchronized (commitMonitor) {
+      commitMonitor.notifyAll();
+    }
+    try {
+      flusher.join(Duration.ofSeconds(5));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    eventLog.close();
+    snapshotLog.close();
+  }
+
+  /**
+   * 애그리게잇 하나의 이벤트 스트림 인덱스 (순번 firstSequence + i 의 전역 인덱스 = globalIndexes[i])
+   */
+  private static final class AggregateStream {
+
+    private final String type;
+    private final long firstSequence;
+    private final LongArray globalIndexes = new LongArray(4);
+
+    private AggregateStream(String type, long firstSequence) {
+      this.type = type;
+      this.firstSequence = firstSequence;
+    }
+
+    private void append(long globalIndex) {
+      globalIndexes.add(globalIndex);
+    }
+
+    /**
+     * globalIndex 이상인 전역 인덱스를 스트림 끝에서 제거합니다.
+     *
+     * @return 스트림이 비었으면 true
+     */
+    private boolean truncateFrom(long globalIndex) {
+      int size = globalIndexes.size();
+      while (size > 0 && globalIndexes.get(size - 1) >= globalIndex) {
+        size--;
+      }
+      globalIndexes.truncate(size);
+      return size == 0;
+    }
+
+    private long lastSequence() {
+      return firstSequence + globalIndexes.size() - 1;
+    }
+  }
+}
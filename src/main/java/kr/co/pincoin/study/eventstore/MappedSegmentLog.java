@@ -0,0 +1,377 @@
+package kr.co.pincoin.study.eventstore;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
+import java.util.stream.Stream;
+
+/**
+ * 메모리 매핑된 세그먼트 파일 위에 구현한 추가 전용(append-only) 로그
+ * <p>
+ * 레코드는 [int 길이][본문] 형식으로 기록되며, 세그먼트 파일은 고정 크기로 미리 할당되어 0으로 채워져 있으므로 길이가 0인 위치가 곧 데이터의 끝입니다.
+ * 본문을 먼저 쓰고 길이를 마지막에 기록하기 때문에, 쓰는 도중 중단된 레코드는 재기동 시 스캔에서 자연스럽게 제외됩니다.
+ * <p>
+ * 주소(address)는 상위 32비트에 세그먼트 번호, 하위 32비트에 세그먼트 내 오프셋을 담은 long 값입니다.
+ * <p>
+ * 쓰기가 끝난(sealed) 세그먼트는 {@link #compact}로 필요 없는 레코드를 뺀 파일로 교체할 수 있습니다. 압축된 세그먼트 파일은 남은 데이터 크기만큼만
+ * 차지하며, 세그먼트 번호는 그대로이고 남은 레코드의 오프셋만 바뀝니다.
+ * <p>
+ * 쓰기는 호출자(스토리지 엔진)가 직렬화한다는 전제로 동작하며, 읽기는 매핑된 버퍼의 절대 위치 접근만 사용하므로 잠금 없이 여러 스레드에서 호출할 수
+ * 있습니다.
+ */
+class MappedSegmentLog implements Closeable {
+
+  private static final int LENGTH_BYTES = Integer.BYTES;
+
+  private final Path directory;
+  private final String prefix;
+  private final int segmentSize;
+
+  private final List<FileChannel> channels = new ArrayList<>();
+  private final List<MappedByteBuffer> segments = new CopyOnWriteArrayList<>();
+
+  private int writeSegment;
+  private int writeOffset;
+
+  /**
+   * 쓰기가 끝난 세그먼트들에 기록된 데이터 바이트 수
+   */
+  private long sealedBytes;
+
+  /**
+   * 마지막 force() 이후 변경된 첫 세그먼트 번호
+   */
+  private int firstDirtySegment;
+
+  MappedSegmentLog(Path directory, String prefix, int segmentSize) {
+    this.directory = directory;
+    this.prefix = prefix;
+    this.segmentSize = segmentSize;
+    open();
+  }
+
+  static int segmentOf(long address) {
+    return (int) (address >>> 32);
+  }
+
+  static int offsetOf(long address) {
+    return (int) address;
+  }
+
+  private static long address(int segment, int offset) {
+    return ((long) segment << 32) | (offset & 0xFFFFFFFFL);
+  }
+
+  /**
+   * 압축 결과 (아직 교체 전)
+   *
+   * @param segment      대상 세그먼트 번호
+   * @param file         남길 레코드만 기록한 임시 파일
+   * @param oldAddresses 남긴 레코드의 기존 주소
+   * @param newAddresses 남긴 레코드의 교체 후 주소 (oldAddresses와 같은 순서)
+   * @param oldBytes     기존 세그먼트의 데이터 바이트 수
+   * @param newBytes     압축된 세그먼트의 데이터 바이트 수
+   */
+  record Compaction(int segment, Path file, long[] oldAddresses, long[] newAddresses,
+                    int oldBytes, int newBytes) {
+
+  }
+
+  private void open() {
+    try {
+      Files.createDirectories(directory);
+      List<Path> files;
+      try (Stream<Path> list = Files.list(directory)) {
+        files = list.filter(path -> path.getFileName().toString().startsWith(prefix + "-"))
+            .sorted()
+            .toList();
+      }
+
+      for (int i = 0; i < files.size(); i++) {
+        // 마지막 파일만 쓰기 대상이며, 그 앞의 파일은 압축되었을 수 있으므로 파일 크기만큼 매핑
+        boolean last = i == files.size() - 1;
+        map(files.get(i), last ? segmentSize : Math.min(Files.size(files.get(i)), segmentSize));
+      }
+      if (segments.isEmpty()) {
+        map(segmentPath(0), segmentSize);
+      }
+
+      writeSegment = segments.size() - 1;
+      writeOffset = endOf(segments.get(writeSegment));
+      firstDirtySegment = writeSegment;
+      for (int segment = 0; segment < writeSegment; segment++) {
+        sealedBytes += endOf(segments.get(segment));
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("세그먼트 로그를 열 수 없습니다: " + directory, e);
+    }
+  }
+
+  private Path segmentPath(int segment) {
+    return directory.resolve(String.format("%s-%08d.seg", prefix, segment));
+  }
+
+  private void map(Path file, long size) throws IOException {
+    FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+        StandardOpenOption.READ, StandardOpenOption.WRITE);
+    channels.add(channel);
+    segments.add(channel.map(MapMode.READ_WRITE, 0, size));
+  }
+
+  private static int endOf(MappedByteBuffer segment) {
+    int capacity = segment.capacity();
+    int offset = 0;
+    while (offset + LENGTH_BYTES <= capacity) {
+      int length = segment.getInt(offset);
+      if (length <= 0 || offset + LENGTH_BYTES + length > capacity) {
+        break;
+      }
+      offset += LENGTH_BYTES + length;
+    }
+    return offset;
+  }
+
+  /**
+   * 레코드를 로그 끝에 추가하고 주소를 반환합니다.
+   *
+   * @throws IllegalArgumentException 레코드가 세그먼트 하나보다 큰 경우
+   */
+  synchronized long append(byte[] record) {
+    int required = LENGTH_BYTES + record.length;
+    if (required > segmentSize) {
+      throw new IllegalArgumentException(
+          "레코드 크기(" + record.length + ")가 세그먼트 크기를 초과합니다");
+    }
+
+    if (writeOffset + required > segmentSize) {
+      roll();
+    }
+
+    MappedByteBuffer segment = segments.get(writeSegment);
+    segment.put(writeOffset + LENGTH_BYTES, record);
+    segment.putInt(writeOffset, record.length);
+
+    long address = address(writeSegment, writeOffset);
+    writeOffset += required;
+    return address;
+  }
+
+  private void roll() {
+    try {
+      map(segmentPath(segments.size()), segmentSize);
+      sealedBytes += writeOffset;
+      writeSegment = segments.size() - 1;
+      writeOffset = 0;
+    } catch (IOException e) {
+      throw new UncheckedIOException("새 세그먼트를 만들 수 없습니다", e);
+    }
+  }
+
+  /**
+   * address부터 끝까지의 레코드를 버리고 그 위치부터 다시 씁니다. (영속화에 실패한 레코드 되돌리기)
+   * <p>
+   * 버린 영역은 0으로 채워 재기동 시 스캔에 나타나지 않게 하고, 이후 세그먼트 파일은 삭제합니다. 0으로 채운 내용은 다음 force()로 디스크에 반영됩니다.
+   * 호출자는 버리는 레코드를 읽는 스레드가 없음을 보장해야 합니다.
+   */
+  synchronized void truncate(long address) {
+    int segment = segmentOf(address);
+    int offset = offsetOf(address);
+    try {
+      while (segments.size() - 1 > segment) {
+        int last = segments.size() - 1;
+        if (last != writeSegment) {
+          sealedBytes -= endOf(segments.get(last));
+        }
+        segments.remove(last);
+        channels.remove(last).close();
+        Files.deleteIfExists(segmentPath(last));
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("세그먼트를 삭제할 수 없습니다", e);
+    }
+
+    MappedByteBuffer buffer = segments.get(segment);
+    int end = segment == writeSegment ? writeOffset : endOf(buffer);
+    if (segment != writeSegment) {
+      // 다시 쓰기 대상이 되므로 닫힌 세그먼트 크기에서 제외
+      sealedBytes -= end;
+    }
+    for (int i = offset; i < end; i++) {
+      buffer.put(i, (byte) 0);
+    }
+    writeSegment = segment;
+    writeOffset = offset;
+    firstDirtySegment = Math.min(firstDirtySegment, segment);
+  }
+
+  /**
+   * 주소가 가리키는 레코드 본문을 복사 없이 읽기 전용 뷰로 반환합니다.
+   */
+  ByteBuffer read(long address) {
+    MappedByteBuffer segment = segments.get(segmentOf(address));
+    int offset = offsetOf(address);
+    int length = segment.getInt(offset);
+    return segment.slice(offset + LENGTH_BYTES, length).asReadOnlyBuffer();
+  }
+
+  /**
+   * 저장된 모든 레코드를 기록 순서대로 순회합니다. (재기동 시 인덱스 복구용)
+   */
+  void scan(BiConsumer<Long, ByteBuffer> consumer) {
+    for (int segment = 0; segment < segments.size(); segment++) {
+      MappedByteBuffer buffer = segments.get(segment);
+      int end = segment == writeSegment ? writeOffset : endOf(buffer);
+      int offset = 0;
+      while (offset < end) {
+        long address = address(segment, offset);
+        consumer.accept(address, read(address));
+        offset += LENGTH_BYTES + buffer.getInt(offset);
+      }
+    }
+  }
+
+  /**
+   * 쓰기가 끝난 세그먼트에서 keep이 true인 레코드만 임시 파일에 복사합니다. 기존 세그먼트는 {@link #commit}할 때까지 그대로 읽을 수 있습니다.
+   *
+   * @param keep (주소, 레코드 본문) → 남길지 여부
+   * @throws IllegalArgumentException 쓰기 중인 세그먼트를 지정한 경우
+   */
+  Compaction compact(int segment, BiPredicate<Long, ByteBuffer> keep) {
+    synchronized (this) {
+      if (segment < 0 || segment >= writeSegment) {
+        throw new IllegalArgumentException("쓰기가 끝난 세그먼트만 압축할 수 있습니다: " + segment);
+      }
+    }
+
+    MappedByteBuffer buffer = segments.get(segment);
+    int end = endOf(buffer);
+    LongArray oldAddresses = new LongArray();
+    LongArray newAddresses = new LongArray();
+    Path file = directory.resolve(String.format("compact-%s-%08d.tmp", prefix, segment));
+    int newOffset = 0;
+    try (DataOutputStream out = new DataOutputStream(
+        new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024))) {
+      int offset = 0;
+      while (offset < end) {
+        long address = address(segment, offset);
+        ByteBuffer record = read(address);
+        int length = record.remaining();
+        if (keep.test(address, record)) {
+          byte[] bytes = new byte[length];
+          record.get(bytes);
+          out.writeInt(length);
+          out.write(bytes);
+          oldAddresses.add(address);
+          newAddresses.add(address(segment, newOffset));
+          newOffset += LENGTH_BYTES + length;
+        }
+        offset += LENGTH_BYTES + length;
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("세그먼트를 압축할 수 없습니다: " + segment, e);
+    }
+
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+      channel.force(true);
+    } catch (IOException e) {
+      throw new UncheckedIOException("압축한 세그먼트를 동기화할 수 없습니다: " + segment, e);
+    }
+    return new Compaction(segment, file, toArray(oldAddresses), toArray(newAddresses), end,
+        newOffset);
+  }
+
+  private static long[] toArray(LongArray values) {
+    long[] array = new long[values.size()];
+    for (int i = 0; i < array.length; i++) {
+      array[i] = values.get(i);
+    }
+    return array;
+  }
+
+  /**
+   * 압축한 파일로 세그먼트를 교체합니다.
+   * <p>
+   * 교체 전에 {@link #read}로 얻은 버퍼는 기존 매핑을 계속 참조하므로 유효하지만, 기존 주소로 새로 읽으면 다른 레코드를 가리킬 수 있습니다. 호출자는 주소
+   * 인덱스를 같은 잠금 안에서 함께 갱신해야 합니다.
+   */
+  synchronized void commit(Compaction compaction) {
+    int segment = compaction.segment();
+    try {
+      Files.move(compaction.file(), segmentPath(segment), StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+      FileChannel channel = FileChannel.open(segmentPath(segment), StandardOpenOption.READ,
+          StandardOpenOption.WRITE);
+      MappedByteBuffer buffer = channel.map(MapMode.READ_WRITE, 0, compaction.newBytes());
+      FileChannel previous = channels.set(segment, channel);
+      segments.set(segment, buffer);
+      // 채널을 닫아도 기존 매핑은 참조가 남아 있는 동안 유효
+      previous.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException("압축한 세그먼트로 교체할 수 없습니다: " + segment, e);
+    }
+    sealedBytes -= compaction.oldBytes() - compaction.newBytes();
+  }
+
+  /**
+   * 현재 쓰기 중인 세그먼트 번호 (이보다 작은 세그먼트는 더 이상 쓰지 않음)
+   */
+  synchronized int writeSegment() {
+    return writeSegment;
+  }
+
+  /**
+   * 마지막 force() 이후 변경된 세그먼트를 디스크에 동기화합니다.
+   * <p>
+   * 여러 쓰기가 한 번의 force()로 함께 영속화되도록 그룹 커밋 스레드에서만 호출합니다.
+   */
+  void force() {
+    int from;
+    int to;
+    synchronized (this) {
+      from = firstDirtySegment;
+      to = writeSegment;
+      firstDirtySegment = writeSegment;
+    }
+    try {
+      for (int segment = from; segment <= to; segment++) {
+        segments.get(segment).force();
+      }
+    } catch (RuntimeException e) {
+      // 실패한 범위는 다음 force()에서 다시 동기화
+      synchronized (this) {
+        firstDirtySegment = Math.min(firstDirtySegment, from);
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * 기록된 데이터의 총 바이트 수
+   */
+  synchronized long size() {
+    return sealedBytes + writeOffset;
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    force();
+    for (FileChannel channel : channels) {
+      channel.close();
+    }
+  }
+}
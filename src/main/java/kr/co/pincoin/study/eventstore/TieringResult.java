@@ -0,0 +1,28 @@
+package kr.co.pincoin.study.eventstore;
+
+/**
+ * 이벤트 보관(티어링) 작업 결과
+ *
+ * @param aggregates        이벤트를 보관한 애그리게잇 수
+ * @param archivedEvents    핫 이벤트 로그에서 아카이브로 옮긴 이벤트 수
+ * @param compactedSegments 보관된 레코드를 빼고 다시 쓴 이벤트 로그 세그먼트 수
+ * @param hotBytesBefore    작업 전 이벤트 로그 데이터 크기
+ * @param hotBytesAfter     작업 후 이벤트 로그 데이터 크기
+ * @param archiveBytes      이번 작업으로 기록한 아카이브 파일 크기
+ */
+public record TieringResult(int aggregates, long archivedEvents, int compactedSegments,
+                            long hotBytesBefore, long hotBytesAfter, long archiveBytes) {
+
+  static TieringResult empty(long hotBytes) {
+    return new TieringResult(0, 0, 0, hotBytes, hotBytes, 0);
+  }
+
+  /**
+   * 핫 이벤트 로그에서 줄어든 바이트 수
+   * <p>
+   * 보관한 이벤트가 아직 쓰기 중인 세그먼트에 있으면 그 세그먼트가 닫힌 뒤 다음 작업에서 압축되므로, 이번 결과에는 반영되지 않을 수 있습니다.
+   */
+  public long hotBytesSaved() {
+    return hotBytesBefore - hotBytesAfter;
+  }
+}
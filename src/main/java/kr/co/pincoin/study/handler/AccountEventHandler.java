@@ -1,8 +1,12 @@
 package kr.co.pincoin.study.handler;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import kr.co.pincoin.study.audit.AuditLogAppender;
 import kr.co.pincoin.study.command.AccountCommands.CreditAccountCommand;
+import kr.co.pincoin.study.config.TransferProperties;
+import kr.co.pincoin.study.config.TransferProperties.Orchestration;
+import kr.co.pincoin.study.dedup.ProcessedTransactionTracker;
 import kr.co.pincoin.study.event.AccountEvents.AccountCreatedEvent;
 import kr.co.pincoin.study.event.AccountEvents.MoneyCreditedEvent;
 import kr.co.pincoin.study.event.AccountEvents.MoneyDebitedEvent;
@@ -10,17 +14,40 @@ import kr.co.pincoin.study.event.AccountEvents.TransferCompletedEvent;
 import kr.co.pincoin.study.event.AccountEvents.TransferFailedEvent;
 import lombok.RequiredArgsConstructor;
 import org.axonframework.commandhandling.gateway.CommandGateway;
+import org.axonframework.config.ProcessingGroup;
 import org.axonframework.eventhandling.EventHandler;
+import org.axonframework.eventhandling.Timestamp;
+import org.axonframework.messaging.unitofwork.CurrentUnitOfWork;
+import org.axonframework.messaging.unitofwork.UnitOfWork;
 import org.springframework.stereotype.Component;
 
+/**
+ * 계좌 이벤트 부수 효과 처리기
+ * <p>
+ * account-events 처리 그룹으로 실행되며, 이벤트는 accountId 기준으로 세그먼트에 나뉘어 병렬 처리됩니다. 같은 계좌의 이벤트는 항상 같은
+ * 세그먼트에서 순서대로 처리됩니다. (EventProcessingConfig 참고)
+ * <p>
+ * 감사 기록은 이벤트마다 콘솔에 출력하지 않고, 배치 단위로 모아 {@link AuditLogAppender}로 넘깁니다. 파일 쓰기는 처리 스레드가 아닌 기록기의
+ * 전용 스레드에서 이루어집니다.
+ */
 @Component
+@ProcessingGroup("account-events")
 @RequiredArgsConstructor
 public class AccountEventHandler {
 
+  private static final String AUDIT_BUFFER = AccountEventHandler.class.getName() + ".audit";
+  private static final int BUFFER_CAPACITY = 16 * 1024;
+
   private final CommandGateway commandGateway;
 
-  // 처리된 트랜잭션 ID를 추적하기 위한 맵 (실제로는 DB를 사용해야 함)
-  private final Map<String, Boolean> processedTransactions = new ConcurrentHashMap<>();
+  // 처리된 트랜잭션 ID 추적 (메모리 TTL 창 + 블룸 필터 + DB, 메모리 사용량 일정)
+  private final ProcessedTransactionTracker processedTransactions;
+
+  // 입금 단계 담당 구성 요소 (EVENT_HANDLER일 때만 여기서 입금 커맨드 발행)
+  private final TransferProperties transferProperties;
+
+  // 감사 로그 기록기 (링 버퍼 → 전용 스레드가 롤링 파일로 기록)
+  private final AuditLogAppender auditLog;
 
   // AccountEventHandler: 부수 효과 처리 (@EventHandler)
   // - 도메인 이벤트의 부수 효과 처리
@@ -29,52 +56,88 @@ public class AccountEventHandler {
   // - 감사 로그 생성
 
   @EventHandler
-  public void on(AccountCreatedEvent event) {
-    System.out.println("Account created: " + event.getAccountId() +
-        " with balance: " + event.getInitialBalance());
+  public void on(AccountCreatedEvent event, @Timestamp Instant timestamp) {
+    endLine(audit(timestamp, "ACCOUNT_CREATED").append(" account=").append(event.getAccountId())
+        .append(" balance=").append(event.getInitialBalance()));
   }
 
   @EventHandler
-  public void on(MoneyDebitedEvent event) {
-    // 1. 출금이 성공하면 입금 커맨드를 발행
-    if (!processedTransactions.containsKey(event.getTransactionId())) {
+  public void on(MoneyDebitedEvent event, @Timestamp Instant timestamp) {
+    // 1. 출금이 성공하면 입금 커맨드를 발행 (입금 담당이 이벤트 처리기인 경우)
+    if (transferProperties.getOrchestration() == Orchestration.EVENT_HANDLER
+        && processedTransactions.markIfFirst(event.getTransactionId())) {
       commandGateway.send(new CreditAccountCommand(
           event.getTargetAccountId(),
           event.getAccountId(),
           event.getAmount(),
           event.getTransactionId()
       ));
-      processedTransactions.put(event.getTransactionId(), true);
     }
 
-    System.out.println("Money debited from account: " + event.getAccountId() +
-        " amount: " + event.getAmount());
+    endLine(audit(timestamp, "MONEY_DEBITED").append(" account=").append(event.getAccountId())
+        .append(" amount=").append(event.getAmount())
+        .append(" tx=").append(event.getTransactionId()));
   }
 
   @EventHandler
-  public void on(MoneyCreditedEvent event) {
-    System.out.println("Money credited to account: " + event.getAccountId() +
-        " amount: " + event.getAmount());
-
-    // 입금이 완료되면 전체 송금 완료 이벤트를 발행할 수 있음
-    System.out.println("Transfer completed for transaction: " + event.getTransactionId());
+  public void on(MoneyCreditedEvent event, @Timestamp Instant timestamp) {
+    // 입금이 완료되면 해당 트랜잭션의 송금이 끝난 것으로 기록
+    endLine(audit(timestamp, "MONEY_CREDITED").append(" account=").append(event.getAccountId())
+        .append(" amount=").append(event.getAmount())
+        .append(" tx=").append(event.getTransactionId()));
   }
 
   @EventHandler
-  public void on(TransferCompletedEvent event) {
-    System.out.println("Transfer completed from " + event.getSourceAccountId() +
-        " to " + event.getTargetAccountId() +
-        " amount: " + event.getAmount());
+  public void on(TransferCompletedEvent event, @Timestamp Instant timestamp) {
+    endLine(audit(timestamp, "TRANSFER_COMPLETED")
+        .append(" from=").append(event.getSourceAccountId())
+        .append(" to=").append(event.getTargetAccountId())
+        .append(" amount=").append(event.getAmount())
+        .append(" tx=").append(event.getTransactionId()));
   }
 
   @EventHandler
-  public void on(TransferFailedEvent event) {
-    System.out.println("Transfer failed from " + event.getSourceAccountId() +
-        " to " + event.getTargetAccountId() +
-        " amount: " + event.getAmount() +
-        " reason: " + event.getReason());
+  public void on(TransferFailedEvent event, @Timestamp Instant timestamp) {
+    endLine(audit(timestamp, "TRANSFER_FAILED")
+        .append(" from=").append(event.getSourceAccountId())
+        .append(" to=").append(event.getTargetAccountId())
+        .append(" amount=").append(event.getAmount())
+        .append(" tx=").append(event.getTransactionId())
+        .append(" reason=").append(event.getReason()));
 
     // 실패한 트랜잭션 ID 제거
-    processedTransactions.remove(event.getTransactionId());
+    processedTransactions.forget(event.getTransactionId());
+  }
+
+  /**
+   * 감사 기록 한 줄을 시작합니다.
+   * <p>
+   * 처리기는 배치(batch-size) 전체를 하나의 작업 단위로 처리하므로, 배치의 기록을 작업 단위에 묶인 버퍼 하나에 모았다가 커밋 후 한 번에
+   * 기록기로 넘깁니다. 롤백되어 다시 처리되는 배치의 기록은 남지 않습니다.
+   */
+  private StringBuilder audit(Instant timestamp, String type) {
+    StringBuilder lines;
+    if (CurrentUnitOfWork.isStarted()) {
+      UnitOfWork<?> root = CurrentUnitOfWork.get().root();
+      lines = root.getOrComputeResource(AUDIT_BUFFER, key -> {
+        StringBuilder buffer = new StringBuilder(BUFFER_CAPACITY);
+        root.afterCommit(uow -> auditLog.append(buffer));
+        return buffer;
+      });
+    } else {
+      lines = new StringBuilder(128);
+    }
+    DateTimeFormatter.ISO_INSTANT.formatTo(timestamp, lines);
+    return lines.append(' ').append(type);
+  }
+
+  /**
+   * 감사 기록 한 줄을 끝냅니다. 작업 단위 밖에서 호출된 경우에는 바로 기록기로 넘깁니다.
+   */
+  private void endLine(StringBuilder lines) {
+    lines.append('\n');
+    if (!CurrentUnitOfWork.isStarted()) {
+      auditLog.append(lines);
+    }
   }
-}
\ No newline at end of file
+}
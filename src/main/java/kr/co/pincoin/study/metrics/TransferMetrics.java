@@ -0,0 +1,98 @@
+package kr.co.pincoin.study.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import org.axonframework.messaging.unitofwork.CurrentUnitOfWork;
+
+/**
+ * 송금 사가 지표
+ * <ul>
+ *   <li>transfer.saga.completion (timer, outcome 태그): 출금 이벤트부터 사가 종료 이벤트까지 걸린 시간. 이벤트 타임스탬프 기준이므로
+ *   처리기 지연까지 포함한 종단 간 송금 지연이며, 백분위 히스토그램으로 내보냄</li>
+ *   <li>transfer.saga.active (gauge): 진행 중인 MoneyTransferSaga 수. 조회(scrape)할 때마다 사가 저장소에서 세므로 재기동이나 다른
+ *   노드의 사가 시작/종료와 관계없이 저장소 전체(클러스터) 기준 값이며, 노드별 값을 합산하면 안 됨</li>
+ *   <li>transfer.saga.compensations (counter, reason 태그): 보상 입금 수. 완료 수와의 비율로 보상률을 계산</li>
+ * </ul>
+ * 사가는 배치 단위로 처리되고 실패하면 배치 전체를 다시 처리하므로, 완료 지연과 보상 입금 수는 작업 단위가 커밋된 뒤에만 반영합니다.
+ */
+public class TransferMetrics {
+
+  static final String COMPLETION = "transfer.saga.completion";
+  static final String ACTIVE = "transfer.saga.active";
+  static final String COMPENSATIONS = "transfer.saga.compensations";
+
+  /**
+   * 사가 종료 사유
+   */
+  public enum Outcome {
+    CREDITED, COMPENSATED, TIMED_OUT
+  }
+
+  /**
+   * 보상 입금 사유
+   */
+  public enum CompensationReason {
+    CREDIT_FAILED, TIMEOUT
+  }
+
+  private final MeterRegistry registry;
+  private final Map<Outcome, Timer> completionTimers = new ConcurrentHashMap<>();
+  private final Map<CompensationReason, Counter> compensationCounters = new ConcurrentHashMap<>();
+
+  /**
+   * @param activeSagaCount 사가 저장소에 남아 있는 사가 수 (게이지를 조회할 때마다 호출)
+   */
+  public TransferMetrics(MeterRegistry registry, LongSupplier activeSagaCount) {
+    this.registry = registry;
+    Gauge.builder(ACTIVE, activeSagaCount, LongSupplier::getAsLong)
+        .description("진행 중인 송금 사가 수 (사가 저장소 기준)")
+        .register(registry);
+  }
+
+  /**
+   * @param debitedAt 출금 이벤트 시각 (모르면 null, 지연을 기록하지 않음)
+   * @param endedAt   사가를 끝낸 이벤트(또는 데드라인) 시각
+   */
+  public void sagaEnded(Outcome outcome, Instant debitedAt, Instant endedAt) {
+    if (debitedAt == null) {
+      return;
+    }
+    Duration latency = Duration.between(debitedAt, endedAt);
+    afterCommit(() -> completionTimer(outcome)
+        .record(latency.isNegative() ? Duration.ZERO : latency));
+  }
+
+  public void compensated(CompensationReason reason) {
+    afterCommit(() -> compensationCounters.computeIfAbsent(reason, key -> Counter
+        .builder(COMPENSATIONS)
+        .description("송금 보상 입금 수")
+        .tag("reason", key.name().toLowerCase())
+        .register(registry)).increment());
+  }
+
+  private Timer completionTimer(Outcome outcome) {
+    return completionTimers.computeIfAbsent(outcome, key -> Timer.builder(COMPLETION)
+        .description("출금부터 송금 사가 종료까지 걸린 시간")
+        .tag("outcome", key.name().toLowerCase())
+        .publishPercentiles(0.5, 0.95, 0.99)
+        .publishPercentileHistogram()
+        .minimumExpectedValue(Duration.ofMillis(1))
+        .maximumExpectedValue(Duration.ofMinutes(10))
+        .register(registry));
+  }
+
+  private static void afterCommit(Runnable update) {
+    if (CurrentUnitOfWork.isStarted()) {
+      CurrentUnitOfWork.get().root().afterCommit(uow -> update.run());
+    } else {
+      update.run();
+    }
+  }
+}
@@ -0,0 +1,74 @@
+package kr.co.pincoin.study.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Transient;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * 계좌 잔액 조회 모델 (AccountBalanceProjection이 계좌 이벤트로 갱신)
+ * <p>
+ * AccountAggregate를 로드하지 않고 기본 키 조회만으로 잔액을 읽기 위한 테이블입니다. lastSequence는 마지막으로 반영한 애그리게잇 이벤트 순번으로, 같은
+ * 이벤트가 다시 전달되어도 두 번 반영하지 않게 합니다.
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class AccountBalanceView implements Persistable<String> {
+
+    @Id
+    private String accountId;
+
+    private BigDecimal balance;
+
+    private long lastSequence;
+
+    private LocalDateTime updatedAt;
+
+    @Transient
+    private boolean newEntity = true;
+
+    public AccountBalanceView(String accountId) {
+        this.accountId = accountId;
+        this.balance = BigDecimal.ZERO;
+        this.lastSequence = -1;
+    }
+
+    /**
+     * 아직 반영하지 않은 순번의 이벤트만 적용합니다.
+     *
+     * @return 적용했으면 true, 이미 반영된 순번이면 false
+     */
+    public boolean apply(long sequence, BigDecimal amount, boolean absolute, LocalDateTime now) {
+        if (sequence <= lastSequence) {
+            return false;
+        }
+        this.balance = absolute ? amount : balance.add(amount);
+        this.lastSequence = sequence;
+        this.updatedAt = now;
+        return true;
+    }
+
+    @Override
+    public String getId() {
+        return accountId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newEntity;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newEntity = false;
+    }
+}
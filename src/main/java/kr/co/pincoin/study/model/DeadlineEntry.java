@@ -0,0 +1,91 @@
+package kr.co.pincoin.study.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Lob;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import java.time.Instant;
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * 예약된 데드라인 (재시작 후 타이머에 다시 등록하기 위해 저장)
+ * <p>
+ * 페이로드, 메타데이터, 스코프(어느 사가/애그리게잇에 전달할지)는 직렬화해서 보관하고, 타이머에는 식별자와 만료 시각만 올려 메모리를 적게 씁니다.
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Table(indexes = {
+    @Index(name = "idx_deadline_entry_name", columnList = "deadlineName"),
+    @Index(name = "idx_deadline_entry_trigger_time", columnList = "triggerTime")
+})
+public class DeadlineEntry implements Persistable<String> {
+
+    @Id
+    private String scheduleId;
+
+    private String deadlineName;
+
+    @Column(length = 1024)
+    private String scopeDescription;
+
+    private Instant triggerTime;
+
+    private String payloadType;
+    private String payloadRevision;
+
+    @Lob
+    private byte[] payload;
+
+    @Lob
+    private byte[] metaData;
+
+    private String scopeType;
+
+    @Lob
+    private byte[] scope;
+
+    @Transient
+    private boolean newEntity = true;
+
+    @Builder
+    public DeadlineEntry(String scheduleId, String deadlineName, String scopeDescription,
+        Instant triggerTime, String payloadType, String payloadRevision, byte[] payload,
+        byte[] metaData, String scopeType, byte[] scope) {
+        this.scheduleId = scheduleId;
+        this.deadlineName = deadlineName;
+        this.scopeDescription = scopeDescription;
+        this.triggerTime = triggerTime;
+        this.payloadType = payloadType;
+        this.payloadRevision = payloadRevision;
+        this.payload = payload;
+        this.metaData = metaData;
+        this.scopeType = scopeType;
+        this.scope = scope;
+    }
+
+    @Override
+    public String getId() {
+        return scheduleId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newEntity;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newEntity = false;
+    }
+}
@@ -0,0 +1,58 @@
+package kr.co.pincoin.study.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * 핫 계좌 잔액의 분할 슬롯
+ * <p>
+ * 분할된 계좌의 논리 잔액은 MyBalance 행의 금액과 모든 슬롯 금액의 합입니다.
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"accountId", "slot"}))
+public class MyBalanceSlot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long accountId;
+    private int slot;
+    private BigDecimal amount;
+    private LocalDateTime updatedAt;
+
+    @Version
+    private Long version;
+
+    public MyBalanceSlot(Long accountId, int slot, BigDecimal amount) {
+        this.accountId = accountId;
+        this.slot = slot;
+        this.amount = amount;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public void decrease(BigDecimal amount) {
+        if (this.amount.compareTo(amount) < 0) {
+            throw new IllegalStateException("잔액이 부족합니다.");
+        }
+        this.amount = this.amount.subtract(amount);
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public void changeAmount(BigDecimal amount) {
+        this.amount = amount;
+        this.updatedAt = LocalDateTime.now();
+    }
+}
@@ -1,5 +1,6 @@
 package kr.co.pincoin.study.model;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
@@ -21,7 +22,8 @@ public class MyTransaction {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    private String transactionId; // 멱등성을 위한 식별자
+    @Column(unique = true)
+    private String transactionId; // 멱등성을 위한 식별자 (중복 INSERT는 유니크 제약으로 거부)
     private Long fromAccountId;
     private Long toAccountId;
     private BigDecimal amount;
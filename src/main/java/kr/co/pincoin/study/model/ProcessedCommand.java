@@ -0,0 +1,56 @@
+package kr.co.pincoin.study.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import java.time.LocalDateTime;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * 커맨드 버스가 처리를 마친 출금/입금 커맨드 (커맨드 이름:계좌:transactionId)
+ * <p>
+ * 재기동 후나 메모리 중복 제거 창을 벗어난 재전송을 애그리게잇 로드 없이 걸러내기 위한 영속 인덱스입니다. 기본 키가 같으면 삽입이 실패하므로 여러
+ * 노드에서 같은 커맨드를 동시에 처리해도 한쪽만 커밋됩니다.
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Table(indexes = @Index(name = "idx_processed_command_processed_at", columnList = "processedAt"))
+public class ProcessedCommand implements Persistable<String> {
+
+    @Id
+    private String commandKey;
+
+    private LocalDateTime processedAt;
+
+    @Transient
+    private boolean newEntity = true;
+
+    public ProcessedCommand(String commandKey, LocalDateTime processedAt) {
+        this.commandKey = commandKey;
+        this.processedAt = processedAt;
+    }
+
+    @Override
+    public String getId() {
+        return commandKey;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newEntity;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newEntity = false;
+    }
+}
@@ -0,0 +1,55 @@
+package kr.co.pincoin.study.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import java.time.LocalDateTime;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * 이벤트 처리기가 이미 처리한 트랜잭션 ID (메모리 중복 제거 창을 벗어난 이벤트의 최종 확인용)
+ * <p>
+ * 식별자를 직접 지정하는 엔티티이므로 Persistable로 새 엔티티임을 알려 save() 시 불필요한 SELECT 없이 바로 INSERT 합니다.
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Table(indexes = @Index(name = "idx_processed_transaction_processed_at", columnList = "processedAt"))
+public class ProcessedTransaction implements Persistable<String> {
+
+    @Id
+    private String transactionId;
+
+    private LocalDateTime processedAt;
+
+    @Transient
+    private boolean newEntity = true;
+
+    public ProcessedTransaction(String transactionId, LocalDateTime processedAt) {
+        this.transactionId = transactionId;
+        this.processedAt = processedAt;
+    }
+
+    @Override
+    public String getId() {
+        return transactionId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newEntity;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newEntity = false;
+    }
+}
@@ -0,0 +1,46 @@
+package kr.co.pincoin.study.processor;
+
+import kr.co.pincoin.study.event.AccountEvents.AccountCreatedEvent;
+import kr.co.pincoin.study.event.AccountEvents.MoneyCreditedEvent;
+import kr.co.pincoin.study.event.AccountEvents.MoneyDebitedEvent;
+import kr.co.pincoin.study.event.AccountEvents.TransferCompletedEvent;
+import kr.co.pincoin.study.event.AccountEvents.TransferFailedEvent;
+import kr.co.pincoin.study.event.TransferCompensatedEvent;
+import org.axonframework.eventhandling.EventMessage;
+import org.axonframework.eventhandling.async.SequencingPolicy;
+import org.axonframework.eventhandling.async.SequentialPerAggregatePolicy;
+
+/**
+ * 계좌(accountId) 단위 순서 보장 정책
+ * <p>
+ * 세그먼트로 나뉜 이벤트 처리기는 이 정책이 반환한 값의 해시로 이벤트를 세그먼트에 배정합니다. 같은 계좌의 이벤트는 항상 같은 세그먼트에서 순서대로
+ * 처리되고, 다른 계좌의 이벤트는 여러 세그먼트에서 병렬로 처리됩니다. 계좌 이벤트가 아니면 애그리게잇 식별자 기준으로 배정합니다.
+ */
+public class AccountSequencingPolicy implements SequencingPolicy<EventMessage<?>> {
+
+  private final SequencingPolicy<EventMessage<?>> fallback = new SequentialPerAggregatePolicy();
+
+  @Override
+  public Object getSequenceIdentifierFor(EventMessage<?> event) {
+    Object payload = event.getPayload();
+    if (payload instanceof AccountCreatedEvent created) {
+      return created.getAccountId();
+    }
+    if (payload instanceof MoneyDebitedEvent debited) {
+      return debited.getAccountId();
+    }
+    if (payload instanceof MoneyCreditedEvent credited) {
+      return credited.getAccountId();
+    }
+    if (payload instanceof TransferCompletedEvent completed) {
+      return completed.getSourceAccountId();
+    }
+    if (payload instanceof TransferFailedEvent failed) {
+      return failed.getSourceAccountId();
+    }
+    if (payload instanceof TransferCompensatedEvent compensated) {
+      return compensated.getAccountId();
+    }
+    return fallback.getSequenceIdentifierFor(event);
+  }
+}
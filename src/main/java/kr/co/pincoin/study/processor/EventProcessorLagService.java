@@ -0,0 +1,42 @@
+package kr.co.pincoin.study.processor;
+
+import java.util.Comparator;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.axonframework.config.EventProcessingConfiguration;
+import org.axonframework.eventhandling.StreamingEventProcessor;
+import org.axonframework.eventhandling.TrackingToken;
+import org.axonframework.eventsourcing.eventstore.EventStore;
+import org.springframework.stereotype.Service;
+
+/**
+ * 스트리밍 이벤트 처리기의 세그먼트별 처리 지연 조회
+ * <p>
+ * 처리 지연(lag)은 이벤트 저장소의 최신(head) 토큰 위치와 각 세그먼트가 마지막으로 처리한 위치의 차이입니다. 이 노드가 점유(claim)한 세그먼트만
+ * 조회되므로, 여러 노드로 확장한 경우 노드별 결과를 합쳐서 보아야 합니다.
+ */
+@Service
+@RequiredArgsConstructor
+public class EventProcessorLagService {
+
+  private final EventProcessingConfiguration processingConfiguration;
+  private final EventStore eventStore;
+
+  public List<SegmentLag> segmentLags(String processorName) {
+    StreamingEventProcessor processor = processingConfiguration
+        .eventProcessor(processorName, StreamingEventProcessor.class)
+        .orElseThrow(() -> new IllegalArgumentException(
+            "스트리밍 이벤트 처리기를 찾을 수 없습니다: " + processorName));
+
+    long head = headPosition();
+    return processor.processingStatus().values().stream()
+        .map(status -> SegmentLag.of(status, head))
+        .sorted(Comparator.comparingInt(SegmentLag::segmentId))
+        .toList();
+  }
+
+  public long headPosition() {
+    TrackingToken head = eventStore.createHeadToken();
+    return head == null ? -1 : head.position().orElse(-1L);
+  }
+}
@@ -0,0 +1,60 @@
+package kr.co.pincoin.study.processor;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import org.axonframework.config.EventProcessingConfiguration;
+import org.axonframework.eventhandling.StreamingEventProcessor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+
+/**
+ * 스트리밍 이벤트 처리기별 토큰 지연 지표
+ * <ul>
+ *   <li>axon.processor.lag (processor 태그): 이 노드가 점유한 세그먼트 중 가장 큰 지연 (이벤트 수)</li>
+ *   <li>axon.processor.segments.claimed (processor 태그): 이 노드가 점유한 세그먼트 수. 0이면 지연 값이 의미 없으므로 함께 경보에 사용</li>
+ * </ul>
+ * 값은 조회(scrape) 시점에 {@link EventProcessorLagService}로 계산합니다.
+ */
+public class ProcessorLagMetrics {
+
+  static final String LAG = "axon.processor.lag";
+  static final String CLAIMED_SEGMENTS = "axon.processor.segments.claimed";
+
+  private final EventProcessingConfiguration processingConfiguration;
+  private final EventProcessorLagService lagService;
+  private final MeterRegistry registry;
+
+  public ProcessorLagMetrics(EventProcessingConfiguration processingConfiguration,
+      EventProcessorLagService lagService, MeterRegistry registry) {
+    this.processingConfiguration = processingConfiguration;
+    this.lagService = lagService;
+    this.registry = registry;
+  }
+
+  /**
+   * 등록된 스트리밍 이벤트 처리기마다 지표를 등록합니다. 처리기 구성이 끝난 뒤(애플리케이션 기동 후) 호출됩니다.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void bindProcessors() {
+    processingConfiguration.eventProcessors().forEach((name, processor) -> {
+      if (!(processor instanceof StreamingEventProcessor)) {
+        return;
+      }
+      Gauge.builder(LAG, () -> maxLag(name))
+          .description("이벤트 저장소 최신 위치와 처리 위치의 차이")
+          .tag("processor", name)
+          .baseUnit("events")
+          .register(registry);
+      Gauge.builder(CLAIMED_SEGMENTS, () -> lagService.segmentLags(name).size())
+          .description("이 노드가 점유한 세그먼트 수")
+          .tag("processor", name)
+          .register(registry);
+    });
+  }
+
+  private long maxLag(String processorName) {
+    List<SegmentLag> lags = lagService.segmentLags(processorName);
+    return lags.stream().mapToLong(SegmentLag::lag).max().orElse(0);
+  }
+}
@@ -0,0 +1,30 @@
+package kr.co.pincoin.study.processor;
+
+import org.axonframework.eventhandling.EventTrackerStatus;
+
+/**
+ * 세그먼트 하나의 처리 지연
+ *
+ * @param segmentId 세그먼트 번호
+ * @param mask      세그먼트 마스크 (마스크 + 1 = 이 세그먼트가 담당하는 해시 공간의 분모)
+ * @param position  마지막으로 처리한 전역 위치 (-1: 아직 처리 전)
+ * @param lag       이벤트 저장소 최신 위치와의 차이 (이벤트 수)
+ * @param caughtUp  최신 이벤트까지 따라잡았는지 여부
+ * @param replaying 재처리(replay) 중인지 여부
+ * @param error     오류로 처리가 중단된 상태인지 여부
+ */
+public record SegmentLag(int segmentId, int mask, long position, long lag, boolean caughtUp,
+                         boolean replaying, boolean error) {
+
+  static SegmentLag of(EventTrackerStatus status, long headPosition) {
+    long position = status.getCurrentPosition().orElse(-1L);
+    return new SegmentLag(
+        status.getSegment().getSegmentId(),
+        status.getSegment().getMask(),
+        position,
+        Math.max(0, headPosition - position),
+        status.isCaughtUp(),
+        status.isReplaying(),
+        status.isErrorState());
+  }
+}
@@ -0,0 +1,85 @@
+package kr.co.pincoin.study.processor;
+
+import java.util.Comparator;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.axonframework.config.EventProcessingConfiguration;
+import org.axonframework.eventhandling.StreamingEventProcessor;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * 처리 지연이 한쪽 세그먼트에 몰리면 해당 세그먼트를 분할하는 재조정기
+ * <p>
+ * 핫 계좌가 특정 세그먼트에 몰리면 그 세그먼트만 지연이 커집니다. 가장 지연이 큰 세그먼트가 나머지 세그먼트 평균의 lagRatio배를 넘고 minLag 이상이면
+ * 세그먼트를 둘로 나눕니다. 분할된 절반은 점유되지 않은 상태가 되어 여유 있는 스레드(또는 다른 노드)가 가져가 처리합니다. 세그먼트 수는 maxSegments를
+ * 넘지 않습니다.
+ */
+@Slf4j
+public class SegmentRebalancer {
+
+  private final EventProcessingConfiguration processingConfiguration;
+  private final EventProcessorLagService lagService;
+  private final String processorName;
+  private final int maxSegments;
+  private final double lagRatio;
+  private final long minLag;
+
+  public SegmentRebalancer(EventProcessingConfiguration processingConfiguration,
+      EventProcessorLagService lagService, String processorName, int maxSegments,
+      double lagRatio, long minLag) {
+    this.processingConfiguration = processingConfiguration;
+    this.lagService = lagService;
+    this.processorName = processorName;
+    this.maxSegments = maxSegments;
+    this.lagRatio = lagRatio;
+    this.minLag = minLag;
+  }
+
+  /**
+   * 분할 대상 세그먼트를 고릅니다. 없으면 -1
+   */
+  static int selectSegmentToSplit(List<SegmentLag> lags, int maxSegments, double lagRatio,
+      long minLag) {
+    if (lags.isEmpty()) {
+      return -1;
+    }
+    SegmentLag busiest = lags.stream().max(Comparator.comparingLong(SegmentLag::lag)).get();
+    if (busiest.lag() < minLag || busiest.error()) {
+      return -1;
+    }
+    // 마스크가 m 인 세그먼트는 전체의 1/(m+1)을 담당하므로, 분할하면 1/(2(m+1))이 된다
+    if ((busiest.mask() + 1) * 2 > maxSegments) {
+      return -1;
+    }
+    double othersAverage = lags.stream()
+        .filter(lag -> lag != busiest)
+        .mapToLong(SegmentLag::lag)
+        .average()
+        .orElse(0);
+    return busiest.lag() > othersAverage * lagRatio ? busiest.segmentId() : -1;
+  }
+
+  @Scheduled(fixedDelayString = "${study.processor.rebalance.interval-ms:30000}")
+  public void rebalance() {
+    StreamingEventProcessor processor = processingConfiguration
+        .eventProcessor(processorName, StreamingEventProcessor.class)
+        .orElse(null);
+    if (processor == null || !processor.isRunning()) {
+      return;
+    }
+
+    List<SegmentLag> lags = lagService.segmentLags(processorName);
+    int segmentId = selectSegmentToSplit(lags, maxSegments, lagRatio, minLag);
+    if (segmentId < 0) {
+      return;
+    }
+
+    log.info("세그먼트 지연 불균형으로 {} 처리기의 세그먼트 {} 을(를) 분할합니다: {}", processorName,
+        segmentId, lags);
+    processor.splitSegment(segmentId).whenComplete((split, error) -> {
+      if (error != null || !Boolean.TRUE.equals(split)) {
+        log.warn("세그먼트 {} 분할에 실패했습니다", segmentId, error);
+      }
+    });
+  }
+}
@@ -0,0 +1,176 @@
+package kr.co.pincoin.study.projection;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import kr.co.pincoin.study.event.AccountEvents.AccountCreatedEvent;
+import kr.co.pincoin.study.event.AccountEvents.MoneyCreditedEvent;
+import kr.co.pincoin.study.event.AccountEvents.MoneyDebitedEvent;
+import kr.co.pincoin.study.model.AccountBalanceView;
+import kr.co.pincoin.study.query.AccountBalanceNearCache;
+import kr.co.pincoin.study.query.AccountQueries.AccountBalance;
+import kr.co.pincoin.study.query.AccountQueries.FindAccountBalanceQuery;
+import kr.co.pincoin.study.repository.AccountBalanceViewRepository;
+import org.axonframework.config.ProcessingGroup;
+import org.axonframework.eventhandling.EventHandler;
+import org.axonframework.eventhandling.SequenceNumber;
+import org.axonframework.messaging.unitofwork.CurrentUnitOfWork;
+import org.axonframework.messaging.unitofwork.UnitOfWork;
+import org.axonframework.queryhandling.QueryUpdateEmitter;
+import org.springframework.stereotype.Component;
+
+/**
+ * 계좌 잔액 프로젝션
+ * <p>
+ * account-balance 처리 그룹으로 실행되어 계좌 이벤트를 account_balance_view 테이블에 반영합니다. 이벤트마다 행을 읽고 쓰지 않고, 이벤트 처리기의
+ * 배치(작업 단위) 동안 계좌별 변경분을 모았다가 커밋 직전에 한 번에 반영합니다.
+ * <ul>
+ *   <li>배치에 등장한 계좌의 행을 한 번의 조회(IN)로 읽고, 계좌마다 한 번만 삽입 또는 갱신</li>
+ *   <li>이벤트의 애그리게잇 순번이 행의 lastSequence 이하이면 이미 반영된 이벤트로 보고 건너뜀 (재전달/재처리에 안전)</li>
+ *   <li>반영은 토큰 저장과 같은 트랜잭션 안에서 일어나므로 처리 위치와 잔액이 어긋나지 않음</li>
+ * </ul>
+ * 커밋되면 바뀐 잔액으로 근접 캐시를 갱신하고, 해당 계좌의 잔액 구독 쿼리에 갱신을 보냅니다.
+ * <p>
+ * 반영/건너뛴 이벤트 수와 쓴 행 수는 {@link MeterBinder}로 projection.balance.* 지표에 등록됩니다.
+ */
+@Component
+@ProcessingGroup("account-balance")
+public class AccountBalanceProjection implements MeterBinder {
+
+  private final AccountBalanceViewRepository repository;
+  private final AccountBalanceNearCache nearCache;
+  private final QueryUpdateEmitter queryUpdateEmitter;
+  private final String resourceKey = getClass().getName() + "@" + System.identityHashCode(this);
+
+  private final LongAdder appliedEvents = new LongAdder();
+  private final LongAdder skippedEvents = new LongAdder();
+  private final LongAdder writtenRows = new LongAdder();
+
+  private record Change(long sequence, BigDecimal amount, boolean absolute) {
+
+  }
+
+  /**
+   * @param appliedEvents 잔액에 반영한 이벤트 수
+   * @param skippedEvents 이미 반영된 순번이라 건너뛴 이벤트 수
+   * @param writtenRows   삽입/갱신한 행 수 (appliedEvents보다 작을수록 배치 병합 효과가 큼)
+   */
+  public record Statistics(long appliedEvents, long skippedEvents, long writtenRows) {
+
+  }
+
+  public AccountBalanceProjection(AccountBalanceViewRepository repository,
+      AccountBalanceNearCache nearCache, QueryUpdateEmitter queryUpdateEmitter) {
+    this.repository = repository;
+    this.nearCache = nearCache;
+    this.queryUpdateEmitter = queryUpdateEmitter;
+  }
+
+  public Statistics statistics() {
+    return new Statistics(appliedEvents.sum(), skippedEvents.sum(), writtenRows.sum());
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder("projection.balance.events", appliedEvents, LongAdder::sum)
+        .description("잔액 프로젝션이 처리한 이벤트 수")
+        .tag("result", "applied")
+        .register(registry);
+    FunctionCounter.builder("projection.balance.events", skippedEvents, LongAdder::sum)
+        .description("잔액 프로젝션이 처리한 이벤트 수")
+        .tag("result", "skipped")
+        .register(registry);
+    FunctionCounter.builder("projection.balance.rows.written", writtenRows, LongAdder::sum)
+        .description("잔액 프로젝션이 삽입/갱신한 행 수")
+        .register(registry);
+  }
+
+  @EventHandler
+  public void on(AccountCreatedEvent event, @SequenceNumber long sequence) {
+    record(event.getAccountId(), new Change(sequence, event.getInitialBalance(), true));
+  }
+
+  @EventHandler
+  public void on(MoneyDebitedEvent event, @SequenceNumber long sequence) {
+    record(event.getAccountId(), new Change(sequence, event.getAmount().negate(), false));
+  }
+
+  @EventHandler
+  public void on(MoneyCreditedEvent event, @SequenceNumber long sequence) {
+    record(event.getAccountId(), new Change(sequence, event.getAmount(), false));
+  }
+
+  private void record(String accountId, Change change) {
+    if (!CurrentUnitOfWork.isStarted()) {
+      flush(Map.of(accountId, List.of(change)));
+      return;
+    }
+    pending().computeIfAbsent(accountId, key -> new ArrayList<>()).add(change);
+  }
+
+  private Map<String, List<Change>> pending() {
+    UnitOfWork<?> root = CurrentUnitOfWork.get().root();
+    return root.getOrComputeResource(resourceKey, key -> {
+      Map<String, List<Change>> changes = new LinkedHashMap<>();
+      root.onPrepareCommit(u -> flush(changes));
+      return changes;
+    });
+  }
+
+  private void flush(Map<String, List<Change>> changes) {
+    if (changes.isEmpty()) {
+      return;
+    }
+
+    Map<String, AccountBalanceView> rows = repository.findAllById(changes.keySet()).stream()
+        .collect(Collectors.toMap(AccountBalanceView::getAccountId, Function.identity()));
+    LocalDateTime now = LocalDateTime.now();
+    List<AccountBalanceView> modified = new ArrayList<>(changes.size());
+
+    changes.forEach((accountId, accountChanges) -> {
+      AccountBalanceView row = rows.computeIfAbsent(accountId, AccountBalanceView::new);
+      boolean applied = false;
+      for (Change change : accountChanges) {
+        if (row.apply(change.sequence(), change.amount(), change.absolute(), now)) {
+          appliedEvents.increment();
+          applied = true;
+        } else {
+          skippedEvents.increment();
+        }
+      }
+      if (applied) {
+        modified.add(row);
+      }
+    });
+
+    repository.saveAll(modified);
+    writtenRows.add(modified.size());
+    publish(modified);
+  }
+
+  private void publish(List<AccountBalanceView> modified) {
+    List<AccountBalance> balances = modified.stream()
+        .map(row -> new AccountBalance(row.getAccountId(), row.getBalance(),
+            row.getLastSequence()))
+        .toList();
+
+    // 작업 단위 안에서 보낸 갱신은 커밋된 뒤에 구독자에게 전달됨
+    balances.forEach(balance -> queryUpdateEmitter.emit(FindAccountBalanceQuery.class,
+        query -> balance.getAccountId().equals(query.getAccountId()), balance));
+
+    if (CurrentUnitOfWork.isStarted()) {
+      CurrentUnitOfWork.get().root().afterCommit(u -> balances.forEach(nearCache::offer));
+    } else {
+      balances.forEach(nearCache::offer);
+    }
+  }
+}
@@ -0,0 +1,326 @@
+package kr.co.pincoin.study.projection;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+import kr.co.pincoin.study.event.AccountEvents.AccountCreatedEvent;
+import kr.co.pincoin.study.event.AccountEvents.MoneyCreditedEvent;
+import kr.co.pincoin.study.event.AccountEvents.MoneyDebitedEvent;
+import kr.co.pincoin.study.eventstore.ArchivedEventSource;
+import lombok.extern.slf4j.Slf4j;
+import org.axonframework.common.stream.BlockingStream;
+import org.axonframework.eventhandling.DomainEventMessage;
+import org.axonframework.eventhandling.TrackedEventMessage;
+import org.axonframework.eventhandling.TrackingToken;
+import org.axonframework.messaging.StreamableMessageSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * 계좌 잔액 조회 모델을 이벤트 저장소에서 한 번에 다시 만드는 재구축기
+ * <p>
+ * 이벤트 처리기로 처음부터 재생하면 이벤트마다 핸들러 호출, 행 조회/갱신, 토큰 저장이 반복됩니다. 재구축기는 다음과 같이 처리합니다.
+ * <ol>
+ *   <li>시작 시점의 머리(head) 토큰을 기록하고 준비 테이블(account_balance_view_rebuild)을 비움</li>
+ *   <li>보관된 이벤트({@link ArchivedEventSource})가 있으면 먼저 읽어 분배. 추적 스트림에는 보관된 이벤트가 나타나지 않으므로, 이 단계가
+ *   없으면 보관된 계좌의 잔액이 보관 이후 이벤트만으로 계산됨</li>
+ *   <li>이벤트 저장소를 처음부터 순서대로 읽어 accountId 해시로 세그먼트 작업 스레드에 묶음 단위로 분배</li>
+ *   <li>각 작업 스레드는 계좌별 최종 잔액과 마지막 순번만 메모리에 접어(fold) 두고, 머리에 도달하면 준비 테이블에 JDBC 배치 INSERT로
+ *   한 번씩 기록</li>
+ *   <li>{@link #publish()}: 준비 테이블의 행으로 account_balance_view를 바꿈</li>
+ * </ol>
+ * 계좌 수만큼 메모리를 사용하며(계좌당 수십 바이트), 이벤트 수와 관계없이 행마다 INSERT 한 번입니다. 재구축하는 동안에도 조회 모델은 이전
+ * 내용을 그대로 보여 주고, 재구축이 실패하면 조회 모델은 바뀌지 않습니다. publish와 실시간 처리기로의 전환(토큰 이동)은
+ * {@link ProjectionRebuildService}가 한 트랜잭션으로 실행합니다.
+ * <p>
+ * 읽는 도중에 보관 작업이 실행되면 이미 읽은 보관 이벤트와 추적 스트림 사이에 빠지는 이벤트가 생길 수 있으므로, 행을 기록하기 전에 실패시킵니다.
+ */
+@Slf4j
+public class AccountBalanceRebuilder {
+
+  static final String INSERT_SQL = "INSERT INTO account_balance_view "
+      + "(account_id, balance, last_sequence, updated_at) VALUES (?, ?, ?, ?)";
+  static final String STAGING_TABLE = "account_balance_view_rebuild";
+
+  private static final String STAGING_INSERT_SQL = "INSERT INTO " + STAGING_TABLE
+      + " (account_id, balance, last_sequence, updated_at) VALUES (?, ?, ?, ?)";
+
+  private static final int DISPATCH_CHUNK = 1024;
+  private static final List<DomainEventMessage<?>> END = List.of();
+
+  private final StreamableMessageSource<TrackedEventMessage<?>> eventSource;
+  private final ArchivedEventSource archivedEvents;
+  private final JdbcTemplate jdbcTemplate;
+  private final int segments;
+  private final int insertBatchSize;
+
+  /**
+   * @param segments        병렬로 접고 기록할 세그먼트(작업 스레드) 수
+   * @param insertBatchSize JDBC 배치 INSERT 한 번에 보낼 행 수
+   */
+  public AccountBalanceRebuilder(StreamableMessageSource<TrackedEventMessage<?>> eventSource,
+      JdbcTemplate jdbcTemplate, int segments, int insertBatchSize) {
+    this(eventSource, null, jdbcTemplate, segments, insertBatchSize);
+  }
+
+  /**
+   * @param archivedEvents  추적 스트림에서 빠진 보관 이벤트 (보관을 사용하지 않으면 null)
+   * @param segments        병렬로 접고 기록할 세그먼트(작업 스레드) 수
+   * @param insertBatchSize JDBC 배치 INSERT 한 번에 보낼 행 수
+   */
+  public AccountBalanceRebuilder(StreamableMessageSource<TrackedEventMessage<?>> eventSource,
+      ArchivedEventSource archivedEvents, JdbcTemplate jdbcTemplate, int segments,
+      int insertBatchSize) {
+    if (segments <= 0 || insertBatchSize <= 0) {
+      throw new IllegalArgumentException("세그먼트 수와 배치 크기는 0보다 커야 합니다");
+    }
+    this.eventSource = eventSource;
+    this.archivedEvents = archivedEvents;
+    this.jdbcTemplate = jdbcTemplate;
+    this.segments = segments;
+    this.insertBatchSize = insertBatchSize;
+  }
+
+  /**
+   * 재구축 결과
+   *
+   * @param events    읽은 이벤트 수 (보관된 이벤트 포함)
+   * @param accounts  기록한 계좌 행 수
+   * @param lastToken 마지막으로 읽은 이벤트의 토큰 (실시간 처리기는 여기서부터 이어서 처리, 이벤트가 없으면 null)
+   * @param elapsed   걸린 시간
+   */
+  public record Result(long events, long accounts, TrackingToken lastToken, Duration elapsed) {
+
+    public long eventsPerSecond() {
+      long millis = Math.max(elapsed.toMillis(), 1);
+      return events * 1000 / millis;
+    }
+  }
+
+  private static final class Balance {
+
+    private BigDecimal amount = BigDecimal.ZERO;
+    private long lastSequence = -1;
+  }
+
+  public Result rebuild() {
+    long start = System.nanoTime();
+    long archiveGeneration = archivedEvents == null ? 0 : archivedEvents.archiveGeneration();
+    TrackingToken head = eventSource.createHeadToken();
+    jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + STAGING_TABLE
+        + " AS SELECT * FROM account_balance_view WITH NO DATA");
+    jdbcTemplate.update("DELETE FROM " + STAGING_TABLE);
+    if (head == null && archivedEvents == null) {
+      return new Result(0, 0, null, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    Segment[] workers = new Segment[segments];
+    for (int i = 0; i < segments; i++) {
+      workers[i] = new Segment(i);
+      workers[i].thread.start();
+    }
+
+    long events = 0;
+    TrackingToken lastToken = null;
+    try {
+      List<List<DomainEventMessage<?>>> chunks = new ArrayList<>(segments);
+      for (int i = 0; i < segments; i++) {
+        chunks.add(new ArrayList<>(DISPATCH_CHUNK));
+      }
+
+      // 보관된 이벤트는 같은 계좌의 추적 스트림 이벤트보다 순번이 앞서므로 먼저 분배
+      if (archivedEvents != null) {
+        try (Stream<DomainEventMessage<?>> archived = archivedEvents.readArchivedEvents()) {
+          for (DomainEventMessage<?> event : (Iterable<DomainEventMessage<?>>) archived::iterator) {
+            events++;
+            dispatch(event, chunks, workers);
+          }
+        }
+      }
+
+      if (head != null) {
+        try (BlockingStream<TrackedEventMessage<?>> stream = eventSource.openStream(null)) {
+          while (lastToken == null || !lastToken.covers(head)) {
+            TrackedEventMessage<?> event = stream.nextAvailable();
+            lastToken = event.trackingToken();
+            events++;
+            if (event instanceof DomainEventMessage<?> domainEvent) {
+              dispatch(domainEvent, chunks, workers);
+            }
+          }
+        }
+      }
+
+      if (archivedEvents != null && archivedEvents.archiveGeneration() != archiveGeneration) {
+        interrupt(workers);
+        throw new IllegalStateException("재구축 중에 이벤트 보관이 실행되었습니다. 다시 재구축해야 합니다");
+      }
+
+      for (int i = 0; i < segments; i++) {
+        if (!chunks.get(i).isEmpty()) {
+          workers[i].queue.put(chunks.get(i));
+        }
+        workers[i].queue.put(END);
+      }
+      long accounts = 0;
+      for (Segment worker : workers) {
+        worker.thread.join();
+        if (worker.failure.get() != null) {
+          throw new IllegalStateException("잔액 재구축 세그먼트 " + worker.index + " 처리에 실패했습니다",
+              worker.failure.get());
+        }
+        accounts += worker.written;
+      }
+
+      Result result = new Result(events, accounts, lastToken,
+          Duration.ofNanos(System.nanoTime() - start));
+      log.info("계좌 잔액 조회 모델 재구축 완료: 이벤트 {}건, 계좌 {}개, {}ms ({} events/s)", events,
+          accounts, result.elapsed().toMillis(), result.eventsPerSecond());
+      return result;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      interrupt(workers);
+      throw new IllegalStateException("잔액 재구축이 중단되었습니다", e);
+    }
+  }
+
+  /**
+   * 마지막 {@link #rebuild()}가 준비 테이블에 기록한 행으로 account_balance_view의 내용을 바꿉니다.
+   * <p>
+   * 호출자의 트랜잭션 안에서 실행해야 조회 모델이 비거나 일부만 바뀐 상태가 다른 트랜잭션에 보이지 않습니다.
+   */
+  public void publish() {
+    jdbcTemplate.update("DELETE FROM account_balance_view");
+    jdbcTemplate.update("INSERT INTO account_balance_view "
+        + "(account_id, balance, last_sequence, updated_at) "
+        + "SELECT account_id, balance, last_sequence, updated_at FROM " + STAGING_TABLE);
+    jdbcTemplate.update("DELETE FROM " + STAGING_TABLE);
+  }
+
+  private void dispatch(DomainEventMessage<?> event, List<List<DomainEventMessage<?>>> chunks,
+      Segment[] workers) throws InterruptedException {
+    String accountId = accountIdOf(event.getPayload());
+    if (accountId == null) {
+      return;
+    }
+    int segment = Math.floorMod(accountId.hashCode(), segments);
+    List<DomainEventMessage<?>> chunk = chunks.get(segment);
+    chunk.add(event);
+    if (chunk.size() >= DISPATCH_CHUNK) {
+      workers[segment].queue.put(chunk);
+      chunks.set(segment, new ArrayList<>(DISPATCH_CHUNK));
+    }
+  }
+
+  private static void interrupt(Segment[] workers) {
+    for (Segment worker : workers) {
+      worker.thread.interrupt();
+    }
+  }
+
+  private static String accountIdOf(Object payload) {
+    if (payload instanceof AccountCreatedEvent event) {
+      return event.getAccountId();
+    } else if (payload instanceof MoneyDebitedEvent event) {
+      return event.getAccountId();
+    } else if (payload instanceof MoneyCreditedEvent event) {
+      return event.getAccountId();
+    }
+    return null;
+  }
+
+  private static void fold(Map<String, Balance> balances, DomainEventMessage<?> event) {
+    Object payload = event.getPayload();
+    Balance balance = balances.computeIfAbsent(accountIdOf(payload), key -> new Balance());
+    if (event.getSequenceNumber() <= balance.lastSequence) {
+      return;
+    }
+    if (payload instanceof AccountCreatedEvent created) {
+      balance.amount = created.getInitialBalance();
+    } else if (payload instanceof MoneyDebitedEvent debited) {
+      balance.amount = balance.amount.subtract(debited.getAmount());
+    } else if (payload instanceof MoneyCreditedEvent credited) {
+      balance.amount = balance.amount.add(credited.getAmount());
+    }
+    balance.lastSequence = event.getSequenceNumber();
+  }
+
+  /**
+   * accountId 해시가 같은 계좌를 전담하는 작업 스레드
+   */
+  private final class Segment implements Runnable {
+
+    private final int index;
+    private final BlockingQueue<List<DomainEventMessage<?>>> queue = new ArrayBlockingQueue<>(64);
+    private final Thread thread;
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private volatile long written;
+
+    private Segment(int index) {
+      this.index = index;
+      this.thread = new Thread(this, "balance-rebuild-" + index);
+      this.thread.setDaemon(true);
+    }
+
+    @Override
+    public void run() {
+      Map<String, Balance> balances = new HashMap<>();
+      try {
+        while (true) {
+          List<DomainEventMessage<?>> chunk = queue.take();
+          if (chunk == END) {
+            break;
+          }
+          chunk.forEach(event -> fold(balances, event));
+        }
+        written = insert(balances);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        failure.set(e);
+      } catch (Throwable e) {
+        failure.set(e);
+        // 분배 스레드가 큐에서 막히지 않도록 남은 묶음을 비움
+        drainUntilEnd();
+      }
+    }
+
+    private void drainUntilEnd() {
+      try {
+        List<DomainEventMessage<?>> chunk;
+        do {
+          chunk = queue.take();
+        } while (chunk != END);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    private long insert(Map<String, Balance> balances) {
+      Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+      List<Object[]> batch = new ArrayList<>(insertBatchSize);
+      long rows = 0;
+      for (Map.Entry<String, Balance> entry : balances.entrySet()) {
+        Balance balance = entry.getValue();
+        batch.add(new Object[]{entry.getKey(), balance.amount, balance.lastSequence, now});
+        if (batch.size() == insertBatchSize) {
+          jdbcTemplate.batchUpdate(STAGING_INSERT_SQL, batch);
+          rows += batch.size();
+          batch.clear();
+        }
+      }
+      if (!batch.isEmpty()) {
+        jdbcTemplate.batchUpdate(STAGING_INSERT_SQL, batch);
+        rows += batch.size();
+      }
+      return rows;
+    }
+  }
+}
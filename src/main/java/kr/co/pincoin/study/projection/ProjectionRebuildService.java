@@ -0,0 +1,92 @@
+package kr.co.pincoin.study.projection;
+
+import kr.co.pincoin.study.config.EventProcessingConfig;
+import kr.co.pincoin.study.eventstore.ArchivedEventSource;
+import kr.co.pincoin.study.query.AccountBalanceNearCache;
+import lombok.extern.slf4j.Slf4j;
+import org.axonframework.common.transaction.TransactionManager;
+import org.axonframework.config.EventProcessingConfiguration;
+import org.axonframework.eventhandling.StreamingEventProcessor;
+import org.axonframework.eventhandling.TrackingToken;
+import org.axonframework.eventhandling.tokenstore.TokenStore;
+import org.axonframework.eventsourcing.eventstore.EventStore;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * 계좌 잔액 조회 모델 재구축 모드
+ * <p>
+ * account-balance 처리기를 멈추고 {@link AccountBalanceRebuilder}로 준비 테이블에 잔액을 다시 만든 뒤, 한 트랜잭션 안에서 준비
+ * 테이블의 행으로 조회 모델을 바꾸고 처리기의 모든 세그먼트 토큰을 재구축이 마지막으로 읽은 위치로 옮기고 다시 시작합니다. 재구축 중에 추가된
+ * 이벤트는 처리기가 그 위치부터 이어서 실시간으로 반영합니다.
+ * <p>
+ * 재구축이 실패하면 조회 모델과 토큰 모두 바뀌지 않으므로, 처리기는 이전 토큰에서 그대로 이어서 처리합니다. 이벤트 보관을
+ * 사용하는 저장소({@link ArchivedEventSource}, embedded 프로파일)면 보관된 이벤트도 함께 읽습니다.
+ * <p>
+ * 토큰을 옮기려면 세그먼트를 점유해야 하므로, 여러 노드로 실행 중이면 다른 노드의 account-balance 처리기도 먼저 멈춰야 합니다.
+ */
+@Slf4j
+@Service
+public class ProjectionRebuildService {
+
+  private final EventProcessingConfiguration processingConfiguration;
+  private final TokenStore tokenStore;
+  private final TransactionManager transactionManager;
+  private final AccountBalanceNearCache nearCache;
+  private final AccountBalanceRebuilder rebuilder;
+  private final int initialSegmentCount;
+
+  public ProjectionRebuildService(EventProcessingConfiguration processingConfiguration,
+      EventStore eventStore, ObjectProvider<ArchivedEventSource> archivedEvents,
+      TokenStore tokenStore, TransactionManager transactionManager,
+      JdbcTemplate jdbcTemplate, AccountBalanceNearCache nearCache,
+      @Value("${study.projection.rebuild.segments:8}") int segments,
+      @Value("${study.projection.rebuild.insert-batch-size:1000}") int insertBatchSize,
+      @Value("${axon.eventhandling.processors.account-balance.initial-segment-count:4}")
+      int initialSegmentCount) {
+    this.processingConfiguration = processingConfiguration;
+    this.tokenStore = tokenStore;
+    this.transactionManager = transactionManager;
+    this.nearCache = nearCache;
+    this.rebuilder = new AccountBalanceRebuilder(eventStore, archivedEvents.getIfAvailable(),
+        jdbcTemplate, segments, insertBatchSize);
+    this.initialSegmentCount = initialSegmentCount;
+  }
+
+  public synchronized AccountBalanceRebuilder.Result rebuildAccountBalances() {
+    String name = EventProcessingConfig.ACCOUNT_BALANCE;
+    StreamingEventProcessor processor = processingConfiguration
+        .eventProcessor(name, StreamingEventProcessor.class)
+        .orElseThrow(() -> new IllegalStateException(
+            "스트리밍 이벤트 처리기를 찾을 수 없습니다: " + name));
+
+    log.info("{} 처리기를 멈추고 재구축을 시작합니다", name);
+    processor.shutDown();
+    try {
+      AccountBalanceRebuilder.Result result = rebuilder.rebuild();
+      transactionManager.executeInTransaction(() -> {
+        rebuilder.publish();
+        moveTokens(name, result.lastToken());
+      });
+      nearCache.invalidateAll();
+      return result;
+    } finally {
+      processor.start();
+      log.info("{} 처리기를 다시 시작했습니다", name);
+    }
+  }
+
+  private void moveTokens(String name, TrackingToken token) {
+    int[] segments = tokenStore.fetchSegments(name);
+    if (segments.length == 0) {
+      tokenStore.initializeTokenSegments(name, initialSegmentCount, token);
+      return;
+    }
+    for (int segment : segments) {
+      tokenStore.storeToken(token, name, segment);
+      tokenStore.releaseClaim(name, segment);
+    }
+  }
+}
@@ -0,0 +1,60 @@
+package kr.co.pincoin.study.query;
+
+import kr.co.pincoin.study.cache.BoundedAggregateCache;
+import kr.co.pincoin.study.query.AccountQueries.AccountBalance;
+
+/**
+ * 잔액 조회 근접 캐시
+ * <p>
+ * 잔액 조회는 먼저 이 캐시를 보고, 없을 때만 account_balance_view 테이블을 읽습니다. 프로젝션이 잔액을 반영하고 커밋하면 새 잔액으로 갱신되므로
+ * 조회자가 늘어도 DB 부하는 계좌 수와 이벤트 수에만 비례합니다.
+ * <p>
+ * 조회 결과 채우기와 이벤트 갱신이 경합해도 오래된 값이 최신 값을 덮어쓰지 않도록, 계좌별 잠금 안에서 version이 더 클 때만 값을 바꿉니다.
+ */
+public class AccountBalanceNearCache {
+
+  private static final int LOCK_STRIPES = 64;
+
+  private final BoundedAggregateCache cache;
+  private final Object[] locks = new Object[LOCK_STRIPES];
+
+  public AccountBalanceNearCache(BoundedAggregateCache cache) {
+    this.cache = cache;
+    for (int i = 0; i < locks.length; i++) {
+      locks[i] = new Object();
+    }
+  }
+
+  public AccountBalance get(String accountId) {
+    return cache.get(accountId);
+  }
+
+  /**
+   * 캐시된 값보다 새 버전이면 보관합니다.
+   *
+   * @return 보관했으면 true, 캐시에 같거나 더 새 버전이 있으면 false
+   */
+  public boolean offer(AccountBalance balance) {
+    String accountId = balance.getAccountId();
+    synchronized (locks[Math.floorMod(accountId.hashCode(), LOCK_STRIPES)]) {
+      AccountBalance current = cache.get(accountId);
+      if (current != null && current.getVersion() >= balance.getVersion()) {
+        return false;
+      }
+      cache.put(accountId, balance);
+      return true;
+    }
+  }
+
+  public void invalidate(String accountId) {
+    cache.remove(accountId);
+  }
+
+  public void invalidateAll() {
+    cache.removeAll();
+  }
+
+  public BoundedAggregateCache.Statistics statistics() {
+    return cache.statistics();
+  }
+}
@@ -0,0 +1,41 @@
+package kr.co.pincoin.study.query;
+
+import java.util.Optional;
+import kr.co.pincoin.study.model.AccountBalanceView;
+import kr.co.pincoin.study.query.AccountQueries.AccountBalance;
+import kr.co.pincoin.study.query.AccountQueries.FindAccountBalanceQuery;
+import kr.co.pincoin.study.repository.AccountBalanceViewRepository;
+import lombok.RequiredArgsConstructor;
+import org.axonframework.queryhandling.QueryHandler;
+import org.springframework.stereotype.Component;
+
+/**
+ * 계좌 잔액 조회 처리기
+ * <p>
+ * 근접 캐시 → account_balance_view 기본 키 조회 순서로 잔액을 찾습니다. 애그리게잇을 로드하지 않으므로 커맨드 처리에 부하를 주지 않습니다. 같은
+ * 조회로 구독 쿼리를 열면 초기 결과를 여기서 받고, 이후 변경은 AccountBalanceProjection이 커밋 후 보내는 갱신으로 받습니다.
+ */
+@Component
+@RequiredArgsConstructor
+public class AccountBalanceQueryHandler {
+
+  private final AccountBalanceViewRepository repository;
+  private final AccountBalanceNearCache nearCache;
+
+  @QueryHandler
+  public Optional<AccountBalance> handle(FindAccountBalanceQuery query) {
+    AccountBalance cached = nearCache.get(query.getAccountId());
+    if (cached != null) {
+      return Optional.of(cached);
+    }
+
+    Optional<AccountBalance> loaded = repository.findById(query.getAccountId())
+        .map(AccountBalanceQueryHandler::toBalance);
+    loaded.ifPresent(nearCache::offer);
+    return loaded;
+  }
+
+  static AccountBalance toBalance(AccountBalanceView view) {
+    return new AccountBalance(view.getAccountId(), view.getBalance(), view.getLastSequence());
+  }
+}
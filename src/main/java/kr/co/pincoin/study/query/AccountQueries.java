@@ -0,0 +1,26 @@
+package kr.co.pincoin.study.query;
+
+import java.math.BigDecimal;
+import lombok.Value;
+
+public class AccountQueries {
+
+  @Value
+  public static class FindAccountBalanceQuery {
+
+    String accountId;
+  }
+
+  /**
+   * 잔액 조회 결과 및 구독 갱신 메시지
+   * <p>
+   * version은 마지막으로 반영된 애그리게잇 이벤트 순번으로, 값이 클수록 최신입니다.
+   */
+  @Value
+  public static class AccountBalance {
+
+    String accountId;
+    BigDecimal balance;
+    long version;
+  }
+}
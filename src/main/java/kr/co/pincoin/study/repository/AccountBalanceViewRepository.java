@@ -0,0 +1,8 @@
+package kr.co.pincoin.study.repository;
+
+import kr.co.pincoin.study.model.AccountBalanceView;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface AccountBalanceViewRepository extends JpaRepository<AccountBalanceView, String> {
+
+}
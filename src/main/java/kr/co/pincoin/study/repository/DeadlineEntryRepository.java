@@ -0,0 +1,49 @@
+package kr.co.pincoin.study.repository;
+
+import java.time.Instant;
+import java.util.List;
+import kr.co.pincoin.study.model.DeadlineEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface DeadlineEntryRepository extends JpaRepository<DeadlineEntry, String> {
+
+    /**
+     * 타이머 복구에 필요한 컬럼만 읽는 프로젝션 (직렬화된 페이로드는 만료 시점에 읽음)
+     */
+    interface Schedule {
+
+        String getScheduleId();
+
+        String getDeadlineName();
+
+        String getScopeDescription();
+
+        Instant getTriggerTime();
+    }
+
+    /**
+     * 식별자 순서로 다음 묶음을 읽습니다. (키셋 페이지네이션)
+     */
+    List<Schedule> findTop1000ByScheduleIdGreaterThanOrderByScheduleIdAsc(String scheduleId);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM DeadlineEntry d WHERE d.scheduleId = :scheduleId")
+    int deleteByScheduleId(@Param("scheduleId") String scheduleId);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM DeadlineEntry d WHERE d.deadlineName = :deadlineName")
+    int deleteByDeadlineName(@Param("deadlineName") String deadlineName);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM DeadlineEntry d WHERE d.deadlineName = :deadlineName "
+        + "AND d.scopeDescription = :scopeDescription")
+    int deleteByDeadlineNameAndScope(@Param("deadlineName") String deadlineName,
+        @Param("scopeDescription") String scopeDescription);
+}
@@ -1,8 +1,13 @@
 package kr.co.pincoin.study.repository;
 
+import jakarta.persistence.LockModeType;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.Optional;
 import kr.co.pincoin.study.model.MyBalance;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -10,4 +15,37 @@ public interface MyBalanceRepository extends JpaRepository<MyBalance, Long> {
 
     @Query("SELECT b FROM MyBalance b WHERE b.accountId = :accountId")
     Optional<MyBalance> findByAccountId(@Param("accountId") Long accountId);
+
+    /**
+     * 계좌 행을 쓰기 잠금(SELECT ... FOR UPDATE)으로 읽습니다. 트랜잭션이 끝날 때까지 다른 트랜잭션의 잠금 요청은 대기합니다.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM MyBalance b WHERE b.accountId = :accountId")
+    Optional<MyBalance> findByAccountIdForUpdate(@Param("accountId") Long accountId);
+
+    boolean existsByAccountId(Long accountId);
+
+    /**
+     * 잔액이 충분할 때만 출금합니다. 엔티티를 읽지 않고 조건부 UPDATE 한 번으로 확인과 차감을 함께 처리합니다.
+     * <p>
+     * 낙관적 락으로 갱신하는 다른 경로와 함께 쓰일 수 있도록 version도 올립니다. 영속성 컨텍스트에 이미 올라온 MyBalance는 갱신되지 않습니다.
+     *
+     * @return 갱신된 행 수 (0: 잔액 부족 또는 계좌 없음)
+     */
+    @Modifying
+    @Query("UPDATE MyBalance b SET b.amount = b.amount - :amount, b.updatedAt = :now, "
+        + "b.version = b.version + 1 WHERE b.accountId = :accountId AND b.amount >= :amount")
+    int withdrawIfSufficient(@Param("accountId") Long accountId,
+        @Param("amount") BigDecimal amount, @Param("now") LocalDateTime now);
+
+    /**
+     * 엔티티를 읽지 않고 조건 없는 UPDATE 한 번으로 입금합니다.
+     *
+     * @return 갱신된 행 수 (0: 계좌 없음)
+     */
+    @Modifying
+    @Query("UPDATE MyBalance b SET b.amount = b.amount + :amount, b.updatedAt = :now, "
+        + "b.version = b.version + 1 WHERE b.accountId = :accountId")
+    int deposit(@Param("accountId") Long accountId, @Param("amount") BigDecimal amount,
+        @Param("now") LocalDateTime now);
 }
@@ -0,0 +1,54 @@
+package kr.co.pincoin.study.repository;
+
+import jakarta.persistence.LockModeType;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import kr.co.pincoin.study.model.MyBalanceSlot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface MyBalanceSlotRepository extends JpaRepository<MyBalanceSlot, Long> {
+
+    /**
+     * 계좌의 슬롯을 slot 오름차순으로 쓰기 잠금(SELECT ... FOR UPDATE)합니다.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM MyBalanceSlot s WHERE s.accountId = :accountId ORDER BY s.slot")
+    List<MyBalanceSlot> findAllByAccountIdForUpdate(@Param("accountId") Long accountId);
+
+    @Query("SELECT COALESCE(SUM(s.amount), 0) FROM MyBalanceSlot s WHERE s.accountId = :accountId")
+    BigDecimal sumByAccountId(@Param("accountId") Long accountId);
+
+    long countByAccountId(Long accountId);
+
+    /**
+     * 분할된 계좌별 슬롯 수 ([accountId, count])
+     */
+    @Query("SELECT s.accountId, COUNT(s) FROM MyBalanceSlot s GROUP BY s.accountId")
+    List<Object[]> countSlotsByAccountId();
+
+    /**
+     * 슬롯 하나의 잔액이 충분할 때만 출금합니다.
+     *
+     * @return 갱신된 행 수 (0: 잔액 부족 또는 슬롯 없음)
+     */
+    @Modifying
+    @Query("UPDATE MyBalanceSlot s SET s.amount = s.amount - :amount, s.updatedAt = :now, "
+        + "s.version = s.version + 1 "
+        + "WHERE s.accountId = :accountId AND s.slot = :slot AND s.amount >= :amount")
+    int withdrawIfSufficient(@Param("accountId") Long accountId, @Param("slot") int slot,
+        @Param("amount") BigDecimal amount, @Param("now") LocalDateTime now);
+
+    /**
+     * @return 갱신된 행 수 (0: 슬롯 없음)
+     */
+    @Modifying
+    @Query("UPDATE MyBalanceSlot s SET s.amount = s.amount + :amount, s.updatedAt = :now, "
+        + "s.version = s.version + 1 WHERE s.accountId = :accountId AND s.slot = :slot")
+    int deposit(@Param("accountId") Long accountId, @Param("slot") int slot,
+        @Param("amount") BigDecimal amount, @Param("now") LocalDateTime now);
+}
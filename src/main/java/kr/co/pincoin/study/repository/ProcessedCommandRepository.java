@@ -0,0 +1,17 @@
+package kr.co.pincoin.study.repository;
+
+import java.time.LocalDateTime;
+import kr.co.pincoin.study.model.ProcessedCommand;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface ProcessedCommandRepository extends JpaRepository<ProcessedCommand, String> {
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ProcessedCommand p WHERE p.processedAt < :cutoff")
+    int deleteProcessedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
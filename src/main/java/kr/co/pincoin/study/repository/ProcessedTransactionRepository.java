@@ -0,0 +1,27 @@
+package kr.co.pincoin.study.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import kr.co.pincoin.study.model.ProcessedTransaction;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface ProcessedTransactionRepository extends JpaRepository<ProcessedTransaction, String>,
+    ProcessedTransactionRepositoryCustom {
+
+    /**
+     * after보다 큰 트랜잭션 ID를 오름차순으로 읽습니다. (블룸 필터 적재용 키셋 페이지)
+     */
+    @Query("SELECT p.transactionId FROM ProcessedTransaction p WHERE p.transactionId > :after "
+        + "ORDER BY p.transactionId")
+    List<String> findTransactionIdsAfter(@Param("after") String after, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ProcessedTransaction p WHERE p.processedAt < :cutoff")
+    int deleteProcessedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
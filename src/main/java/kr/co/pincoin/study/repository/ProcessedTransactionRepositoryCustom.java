@@ -0,0 +1,13 @@
+package kr.co.pincoin.study.repository;
+
+import java.time.LocalDateTime;
+
+public interface ProcessedTransactionRepositoryCustom {
+
+    /**
+     * 처리 기록을 현재 트랜잭션 안에서 바로 삽입합니다.
+     *
+     * @return 삽입했으면 true, 같은 트랜잭션 ID의 기록이 이미 있으면 false
+     */
+    boolean insertIfAbsent(String transactionId, LocalDateTime processedAt);
+}
@@ -0,0 +1,31 @@
+package kr.co.pincoin.study.repository;
+
+import java.time.LocalDateTime;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * 처리 기록 삽입
+ * <p>
+ * JPA로 삽입하면 기본 키 중복이 커밋 시점의 flush에서야 드러나고, 영속성 컨텍스트가 트랜잭션을 롤백 전용으로 표시해 처리기 배치 전체가 실패합니다.
+ * 여기서는 JDBC로 바로 삽입하고, 기본 키 제약에 걸리면(재시작이나 세그먼트 이전 뒤 다시 전달된 이벤트, 다른 노드의 동시 삽입) 이미 처리된
+ * 것으로 판정합니다. 실패한 문장이 트랜잭션을 중단시키지 않는다고 가정합니다. (H2)
+ */
+@RequiredArgsConstructor
+public class ProcessedTransactionRepositoryImpl implements ProcessedTransactionRepositoryCustom {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public boolean insertIfAbsent(String transactionId, LocalDateTime processedAt) {
+        try {
+            jdbcTemplate.update(
+                "INSERT INTO processed_transaction (transaction_id, processed_at) VALUES (?, ?)",
+                transactionId, processedAt);
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+}
@@ -1,11 +1,24 @@
 package kr.co.pincoin.study.saga;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
 import kr.co.pincoin.study.command.AccountCommands.CreditAccountCommand;
+import kr.co.pincoin.study.commandbus.CreditFence;
+import kr.co.pincoin.study.config.TransferProperties;
+import kr.co.pincoin.study.config.TransferProperties.Orchestration;
+import kr.co.pincoin.study.config.TransferSagaProperties;
 import kr.co.pincoin.study.event.AccountEvents.MoneyCreditedEvent;
 import kr.co.pincoin.study.event.AccountEvents.MoneyDebitedEvent;
 import kr.co.pincoin.study.event.TransferCompensatedEvent;
+import kr.co.pincoin.study.metrics.TransferMetrics;
+import kr.co.pincoin.study.metrics.TransferMetrics.CompensationReason;
+import kr.co.pincoin.study.metrics.TransferMetrics.Outcome;
 import org.axonframework.commandhandling.gateway.CommandGateway;
+import org.axonframework.deadline.DeadlineManager;
+import org.axonframework.deadline.annotation.DeadlineHandler;
+import org.axonframework.eventhandling.Timestamp;
+import org.axonframework.messaging.ScopeDescriptor;
 import org.axonframework.modelling.saga.EndSaga;
 import org.axonframework.modelling.saga.SagaEventHandler;
 import org.axonframework.modelling.saga.SagaLifecycle;
@@ -15,53 +28,198 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 
-@Saga
+/**
+ * 송금 사가
+ * <p>
+ * 사가 인스턴스와 연관 값은 moneyTransferSagaStore(캐시 + 배치 단위 쓰기 + JPA)에 저장됩니다. (SagaStoreConfig 참고)
+ * <p>
+ * 출금 시 송금 타임아웃 데드라인을 예약하고, 시간 안에 입금이 확인되지 않으면 출금 계좌로 보상 입금합니다. (DeadlineConfig 참고)
+ * 보상하기 전에 {@link CreditFence}로 원래 입금을 막아, 늦게 도착한 입금이 보상 뒤에 반영되어 돈이 생기는 일을 막습니다.
+ * <ul>
+ *   <li>막기 성공: 원래 입금은 반영될 수 없으므로 보상 입금을 보내고, 보상 입금의 MoneyCreditedEvent를 받으면 종료</li>
+ *   <li>이미 입금됨: 보상하지 않고 원래 입금의 MoneyCreditedEvent를 기다림</li>
+ *   <li>CreditFence 없음 (study.command.dedup.enabled=false): 입금 결과를 알 수 없으므로 보상하지 않고 계속 기다림</li>
+ * </ul>
+ * 입금 커맨드가 실패하면 콜백에서 사가 상태를 바꾸지 않고, 즉시 실행되는 입금 실패 데드라인을 이 사가 범위로 예약해 같은 보상 경로를
+ * 탑니다. 보상 중에도 타임아웃 데드라인을 다시 예약해, 보상 입금 결과가 오지 않으면 같은 보상 입금(중복 제거됨)을 다시 보냅니다.
+ * <p>
+ * study.transfer.orchestration이 saga일 때만 입금을 담당합니다. 다른 구성 요소가 담당하면 사가는 시작하자마자 종료되며, 같은 배치 안에서
+ * 시작하고 끝난 사가는 저장소에 쓰지 않습니다.
+ * <p>
+ * 출금부터 종료까지 걸린 시간과 보상 입금 수를 {@link TransferMetrics}에 기록합니다. (진행 중인 사가 수는 사가 저장소에서 셈)
+ */
+@Saga(sagaStore = "moneyTransferSagaStore")
 public class MoneyTransferSaga {
 
   private static final Logger logger = LoggerFactory.getLogger(MoneyTransferSaga.class);
 
+  static final String TRANSFER_TIMEOUT_DEADLINE = "transfer-timeout";
+  static final String CREDIT_FAILED_DEADLINE = "credit-failed";
+  static final String COMPENSATION_SUFFIX = "-compensation";
+
   @Autowired
   private transient CommandGateway commandGateway;
 
+  @Autowired
+  private transient DeadlineManager deadlineManager;
+
+  @Autowired
+  private transient TransferSagaProperties transferSagaProperties;
+
+  @Autowired(required = false)
+  private transient CreditFence creditFence;
+
+  @Autowired(required = false)
+  private transient TransferProperties transferProperties;
+
+  @Autowired(required = false)
+  private transient TransferMetrics transferMetrics;
+
   private String sourceAccountId;
   private String targetAccountId;
   private BigDecimal amount;
   private String transactionId;
+  private String timeoutDeadlineId;
+  // 출금 이벤트 시각 (epoch millis, 완료 지연 측정용)
+  private long debitedAt;
+  // 보상 입금을 보낸 이유 (보상 중이 아니면 null)
+  private CompensationReason compensationReason;
 
   @StartSaga
   @SagaEventHandler(associationProperty = "transactionId")
-  public void handle(MoneyDebitedEvent event) {
+  public void handle(MoneyDebitedEvent event, @Timestamp Instant timestamp) {
+    if (transferProperties != null
+        && transferProperties.getOrchestration() != Orchestration.SAGA) {
+      SagaLifecycle.end();
+      return;
+    }
+
     this.sourceAccountId = event.getAccountId();
     this.targetAccountId = event.getTargetAccountId();
     this.amount = event.getAmount();
     this.transactionId = event.getTransactionId();
+    this.debitedAt = timestamp.toEpochMilli();
+
+    // 입금 결과가 오지 않는 경우에 대비해 입금 커맨드보다 먼저 타임아웃 예약
+    scheduleTimeout();
 
-    // CompletableFuture의 exceptionally() 핸들러가 보상 트랜잭션을 처리하도록 설정
+    // 콜백은 다른 스레드에서 실행될 수 있으므로 사가 상태를 바꾸지 않고, 이 사가로 입금 실패 데드라인만 예약
+    ScopeDescriptor scope = SagaLifecycle.describeCurrentScope();
     commandGateway.send(new CreditAccountCommand(
         targetAccountId,
         sourceAccountId,
         amount,
         transactionId
     )).exceptionally(throwable -> {
-      // 실패 시 보상 트랜잭션 실행
-      commandGateway.send(new CreditAccountCommand(
-          sourceAccountId,
-          targetAccountId,
-          amount,
-          transactionId + "-compensation"
-      ));
+      logger.warn("Credit failed for transaction {}: {}", transactionId, throwable.getMessage());
+      deadlineManager.schedule(Duration.ZERO, CREDIT_FAILED_DEADLINE, null, scope);
       return null;
     });
   }
 
   @SagaEventHandler(associationProperty = "transactionId")
-  public void handle(MoneyCreditedEvent event) {
+  public void handle(MoneyCreditedEvent event, @Timestamp Instant timestamp) {
+    cancelTimeout();
+    if (transactionId.equals(event.getTransactionId())) {
+      recordEnd(Outcome.CREDITED, timestamp);
+    } else {
+      // 보상 입금 완료
+      recordEnd(compensationReason == CompensationReason.TIMEOUT
+          ? Outcome.TIMED_OUT : Outcome.COMPENSATED, timestamp);
+      logger.info("Transfer compensated for transaction: {}", transactionId);
+    }
     SagaLifecycle.end();
   }
 
+  @DeadlineHandler(deadlineName = CREDIT_FAILED_DEADLINE)
+  public void onCreditFailed() {
+    if (compensationReason != null) {
+      return;
+    }
+    if (creditFence == null) {
+      // 입금 커맨드 핸들러가 실패를 응답했으므로 입금 트랜잭션은 롤백됨
+      compensate(CompensationReason.CREDIT_FAILED);
+      return;
+    }
+    fenceAndCompensate(CompensationReason.CREDIT_FAILED);
+  }
+
+  @DeadlineHandler(deadlineName = TRANSFER_TIMEOUT_DEADLINE)
+  public void onTransferTimeout() {
+    this.timeoutDeadlineId = null;
+    if (compensationReason != null) {
+      logger.warn("Compensation not confirmed, resending for transaction: {}", transactionId);
+      sendCompensation();
+      scheduleTimeout();
+      return;
+    }
+    if (creditFence == null) {
+      logger.error("Transfer timed out but credit cannot be fenced, waiting: {}", transactionId);
+      scheduleTimeout();
+      return;
+    }
+    logger.warn("Transfer timed out, compensating transaction: {}", transactionId);
+    fenceAndCompensate(CompensationReason.TIMEOUT);
+  }
+
   @EndSaga
   @SagaEventHandler(associationProperty = "transactionId")
-  public void handle(TransferCompensatedEvent event) {
+  public void handle(TransferCompensatedEvent event, @Timestamp Instant timestamp) {
+    cancelTimeout();
+    recordEnd(Outcome.COMPENSATED, timestamp);
     logger.info("Transfer compensated for transaction: {}", transactionId);
   }
-}
\ No newline at end of file
+
+  private void fenceAndCompensate(CompensationReason reason) {
+    if (creditFence.fence(targetAccountId, transactionId)) {
+      compensate(reason);
+      return;
+    }
+    // 원래 입금이 이미 처리됨: MoneyCreditedEvent를 기다림
+    logger.info("Credit already applied, awaiting credited event: {}", transactionId);
+    if (timeoutDeadlineId == null) {
+      scheduleTimeout();
+    }
+  }
+
+  private void compensate(CompensationReason reason) {
+    cancelTimeout();
+    this.compensationReason = reason;
+    // 보상 입금의 MoneyCreditedEvent를 받도록 연관
+    SagaLifecycle.associateWith("transactionId", transactionId + COMPENSATION_SUFFIX);
+    if (transferMetrics != null) {
+      transferMetrics.compensated(reason);
+    }
+    sendCompensation();
+    scheduleTimeout();
+  }
+
+  private void sendCompensation() {
+    commandGateway.send(new CreditAccountCommand(
+        sourceAccountId,
+        targetAccountId,
+        amount,
+        transactionId + COMPENSATION_SUFFIX
+    ));
+  }
+
+  private void scheduleTimeout() {
+    this.timeoutDeadlineId = deadlineManager.schedule(transferSagaProperties.getTimeout(),
+        TRANSFER_TIMEOUT_DEADLINE);
+  }
+
+  private void cancelTimeout() {
+    if (timeoutDeadlineId != null) {
+      deadlineManager.cancelSchedule(TRANSFER_TIMEOUT_DEADLINE, timeoutDeadlineId);
+      timeoutDeadlineId = null;
+    }
+  }
+
+  private void recordEnd(Outcome outcome, Instant endedAt) {
+    if (transferMetrics != null) {
+      // 출금 시각을 기록하기 전에 시작된 사가는 지연을 측정하지 않음
+      transferMetrics.sagaEnded(outcome, debitedAt == 0 ? null : Instant.ofEpochMilli(debitedAt),
+          endedAt);
+    }
+  }
+}
@@ -0,0 +1,242 @@
+package kr.co.pincoin.study.sagastore;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import org.axonframework.common.caching.Cache;
+import org.axonframework.messaging.unitofwork.CurrentUnitOfWork;
+import org.axonframework.messaging.unitofwork.UnitOfWork;
+import org.axonframework.modelling.saga.AssociationValue;
+import org.axonframework.modelling.saga.AssociationValues;
+import org.axonframework.modelling.saga.AssociationValuesImpl;
+import org.axonframework.modelling.saga.repository.SagaStore;
+
+/**
+ * 작업 단위(배치) 동안 사가 쓰기를 모았다가 한 번에 반영하는 사가 저장소
+ * <p>
+ * 이벤트 처리기는 여러 이벤트를 하나의 작업 단위(배치)로 처리합니다. 사가의 삽입/갱신/삭제를 작업 단위가 커밋을 준비하는 시점까지 미루고, 같은 사가에 대한
+ * 쓰기를 하나로 합칩니다.
+ * <ul>
+ *   <li>삽입 후 갱신: 최종 상태로 한 번 삽입</li>
+ *   <li>삽입 후 삭제 (배치 안에서 시작하고 끝난 사가): 저장소에 쓰지 않음</li>
+ *   <li>갱신 여러 번: 마지막 상태로 한 번 갱신</li>
+ * </ul>
+ * 반영은 토큰 저장과 같은 트랜잭션 안에서 일어나므로 장애가 나도 사가 상태와 처리 위치가 어긋나지 않습니다. 이미 저장된 사가의 연관 값(association)이
+ * 바뀌는 갱신은 연관 테이블 변경분을 잃지 않도록 즉시 반영합니다. 작업 단위 밖에서 호출되면 바로 위임 저장소에 씁니다.
+ * <p>
+ * 앞단 CachingSagaStore는 쓰기를 받는 즉시 사가 캐시와 연관 캐시를 고칩니다. 작업 단위가 롤백되면 이 배치에서 쓴(삽입/갱신/삭제) 사가의 캐시
+ * 항목과 그 연관 값의 캐시 항목을 제거해, 저장되지 않은 사가가 연관 캐시로 조회되거나 삭제가 취소된 사가가 조회되지 않는 일을 막습니다.
+ */
+public class WriteBehindSagaStore implements SagaStore<Object> {
+
+  private final SagaStore<Object> delegate;
+  private final Cache sagaCache;
+  private final Cache associationsCache;
+  private final String resourceKey = getClass().getName() + "@" + System.identityHashCode(this);
+
+  private final LongAdder bufferedWrites = new LongAdder();
+  private final LongAdder flushedWrites = new LongAdder();
+
+  private enum Kind {
+    INSERT, UPDATE, DELETE
+  }
+
+  private record Pending(Kind kind, Class<?> sagaType, Object saga,
+                         Set<AssociationValue> associationValues) {
+
+  }
+
+  /**
+   * 작업 단위 하나의 쓰기 상태
+   *
+   * @param writes          반영을 미룬 쓰기 (sagaId → 마지막 쓰기)
+   * @param sagaIdentifiers 이 작업 단위에서 쓴 사가 (즉시 반영한 갱신 포함, 롤백 시 캐시에서 제거)
+   * @param associations    이 작업 단위에서 쓴 사가의 연관 값 (롤백 시 연관 캐시에서 제거)
+   */
+  private record Batch(Map<String, Pending> writes, Set<String> sagaIdentifiers,
+                       Set<Association> associations) {
+
+    void touch(String sagaIdentifier, Class<?> sagaType, Set<AssociationValue> associationValues) {
+      sagaIdentifiers.add(sagaIdentifier);
+      associationValues.forEach(value -> associations.add(new Association(sagaType, value)));
+    }
+  }
+
+  private record Association(Class<?> sagaType, AssociationValue value) {
+
+    /**
+     * CachingSagaStore가 연관 캐시에 쓰는 키 ("사가 타입/키=값")
+     */
+    String cacheKey() {
+      return sagaType.getName() + "/" + value.getKey() + "=" + value.getValue();
+    }
+  }
+
+  private record PendingEntry<S>(Set<AssociationValue> associationValues, S saga)
+      implements Entry<S> {
+
+  }
+
+  /**
+   * @param delegate          실제 저장소 (JpaSagaStore)
+   * @param sagaCache         앞단 사가 캐시. 작업 단위가 롤백되면 이 배치에서 쓴 사가를 제거 (없으면 null)
+   * @param associationsCache 앞단 연관 캐시. 작업 단위가 롤백되면 이 배치에서 쓴 사가의 연관 값을 제거 (없으면 null)
+   */
+  public WriteBehindSagaStore(SagaStore<Object> delegate, Cache sagaCache,
+      Cache associationsCache) {
+    this.delegate = delegate;
+    this.sagaCache = sagaCache;
+    this.associationsCache = associationsCache;
+  }
+
+  /**
+   * 합쳐지거나 생략되어 저장소에 쓰지 않은 쓰기 수
+   */
+  public long savedWrites() {
+    return bufferedWrites.sum() - flushedWrites.sum();
+  }
+
+  private Batch batch() {
+    if (!CurrentUnitOfWork.isStarted()) {
+      return null;
+    }
+    UnitOfWork<?> root = CurrentUnitOfWork.get().root();
+    return root.getOrComputeResource(resourceKey, key -> {
+      Batch batch = new Batch(new LinkedHashMap<>(), new HashSet<>(), new HashSet<>());
+      root.onPrepareCommit(u -> flush(batch.writes()));
+      root.onRollback(u -> evict(batch));
+      return batch;
+    });
+  }
+
+  private Map<String, Pending> pending() {
+    Batch batch = batch();
+    return batch == null ? null : batch.writes();
+  }
+
+  private void evict(Batch batch) {
+    if (sagaCache != null) {
+      batch.sagaIdentifiers().forEach(sagaCache::remove);
+    }
+    if (associationsCache != null) {
+      batch.associations().forEach(association -> associationsCache.remove(association.cacheKey()));
+    }
+  }
+
+  private void flush(Map<String, Pending> writes) {
+    writes.forEach((sagaIdentifier, write) -> {
+      switch (write.kind()) {
+        case INSERT -> delegate.insertSaga(write.sagaType(), sagaIdentifier, write.saga(),
+            write.associationValues());
+        case UPDATE -> delegate.updateSaga(write.sagaType(), sagaIdentifier, write.saga(),
+            new AssociationValuesImpl(write.associationValues()));
+        case DELETE -> delegate.deleteSaga(write.sagaType(), sagaIdentifier,
+            write.associationValues());
+      }
+      flushedWrites.increment();
+    });
+    writes.clear();
+  }
+
+  @Override
+  public Set<String> findSagas(Class<?> sagaType, AssociationValue associationValue) {
+    Set<String> found = delegate.findSagas(sagaType, associationValue);
+    Map<String, Pending> writes = pending();
+    if (writes == null || writes.isEmpty()) {
+      return found;
+    }
+
+    Set<String> result = new HashSet<>(found);
+    writes.forEach((sagaIdentifier, write) -> {
+      if (write.kind() == Kind.DELETE) {
+        result.remove(sagaIdentifier);
+      } else if (write.kind() == Kind.INSERT && sagaType.equals(write.sagaType())
+          && write.associationValues().contains(associationValue)) {
+        result.add(sagaIdentifier);
+      }
+    });
+    return result;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <S> Entry<S> loadSaga(Class<S> sagaType, String sagaIdentifier) {
+    Map<String, Pending> writes = pending();
+    Pending write = writes == null ? null : writes.get(sagaIdentifier);
+    if (write == null) {
+      return delegate.loadSaga(sagaType, sagaIdentifier);
+    }
+    if (write.kind() == Kind.DELETE) {
+      return null;
+    }
+    return new PendingEntry<>(write.associationValues(), (S) write.saga());
+  }
+
+  @Override
+  public void deleteSaga(Class<?> sagaType, String sagaIdentifier,
+      Set<AssociationValue> associationValues) {
+    Batch batch = batch();
+    if (batch == null) {
+      delegate.deleteSaga(sagaType, sagaIdentifier, associationValues);
+      return;
+    }
+
+    Map<String, Pending> writes = batch.writes();
+    batch.touch(sagaIdentifier, sagaType, associationValues);
+    bufferedWrites.increment();
+    Pending previous = writes.remove(sagaIdentifier);
+    if (previous == null || previous.kind() != Kind.INSERT) {
+      writes.put(sagaIdentifier,
+          new Pending(Kind.DELETE, sagaType, null, Set.copyOf(associationValues)));
+    }
+  }
+
+  @Override
+  public void insertSaga(Class<?> sagaType, String sagaIdentifier, Object saga,
+      Set<AssociationValue> associationValues) {
+    Batch batch = batch();
+    if (batch == null) {
+      delegate.insertSaga(sagaType, sagaIdentifier, saga, associationValues);
+      return;
+    }
+
+    batch.touch(sagaIdentifier, sagaType, associationValues);
+    bufferedWrites.increment();
+    batch.writes().put(sagaIdentifier,
+        new Pending(Kind.INSERT, sagaType, saga, Set.copyOf(associationValues)));
+  }
+
+  @Override
+  public void updateSaga(Class<?> sagaType, String sagaIdentifier, Object saga,
+      AssociationValues associationValues) {
+    Batch batch = batch();
+    if (batch == null) {
+      delegate.updateSaga(sagaType, sagaIdentifier, saga, associationValues);
+      return;
+    }
+
+    // 추가/제거된 연관 값은 앞단 연관 캐시에 이미 반영되어 있으므로 롤백 시 제거 대상
+    batch.touch(sagaIdentifier, sagaType, associationValues.addedAssociations());
+    batch.touch(sagaIdentifier, sagaType, associationValues.removedAssociations());
+    Map<String, Pending> writes = batch.writes();
+    Pending previous = writes.get(sagaIdentifier);
+    boolean associationsChanged = !associationValues.addedAssociations().isEmpty()
+        || !associationValues.removedAssociations().isEmpty();
+
+    if (previous != null && previous.kind() == Kind.INSERT) {
+      // 아직 삽입 전이므로 연관 값 변경도 최종 집합으로 합쳐서 삽입
+      bufferedWrites.increment();
+      writes.put(sagaIdentifier,
+          new Pending(Kind.INSERT, sagaType, saga, Set.copyOf(associationValues.asSet())));
+    } else if (associationsChanged) {
+      writes.remove(sagaIdentifier);
+      delegate.updateSaga(sagaType, sagaIdentifier, saga, associationValues);
+    } else {
+      bufferedWrites.increment();
+      writes.put(sagaIdentifier,
+          new Pending(Kind.UPDATE, sagaType, saga, Set.copyOf(associationValues.asSet())));
+    }
+  }
+}
@@ -0,0 +1,265 @@
+package kr.co.pincoin.study.serializer;
+
+import static kr.co.pincoin.study.serializer.BinaryCodec.readAmount;
+import static kr.co.pincoin.study.serializer.BinaryCodec.readId;
+import static kr.co.pincoin.study.serializer.BinaryCodec.readNullableText;
+import static kr.co.pincoin.study.serializer.BinaryCodec.readText;
+import static kr.co.pincoin.study.serializer.BinaryCodec.writeAmount;
+import static kr.co.pincoin.study.serializer.BinaryCodec.writeId;
+import static kr.co.pincoin.study.serializer.BinaryCodec.writeNullableText;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import kr.co.pincoin.study.command.AccountCommands.CreateAccountCommand;
+import kr.co.pincoin.study.command.AccountCommands.CreditAccountCommand;
+import kr.co.pincoin.study.command.AccountCommands.DebitAccountCommand;
+import kr.co.pincoin.study.event.AccountEvents.AccountCreatedEvent;
+import kr.co.pincoin.study.event.AccountEvents.MoneyCreditedEvent;
+import kr.co.pincoin.study.event.AccountEvents.MoneyDebitedEvent;
+import kr.co.pincoin.study.event.AccountEvents.TransferCompletedEvent;
+import kr.co.pincoin.study.event.AccountEvents.TransferFailedEvent;
+import kr.co.pincoin.study.event.TransferCompensatedEvent;
+import org.axonframework.serialization.ChainingConverter;
+import org.axonframework.serialization.Converter;
+import org.axonframework.serialization.SerializationException;
+import org.axonframework.serialization.SerializedObject;
+import org.axonframework.serialization.SerializedType;
+import org.axonframework.serialization.Serializer;
+import org.axonframework.serialization.SimpleSerializedObject;
+import org.axonframework.serialization.SimpleSerializedType;
+
+/**
+ * 계좌 이벤트/커맨드 전용 바이너리 직렬화기
+ * <p>
+ * 기본 XML/JSON 직렬화는 이벤트마다 클래스 전체 이름, 문자열 UUID, BigDecimal 문자열을 반복해서 기록합니다. 이 직렬화기는 등록된 타입을 다음과 같이
+ * 기록합니다.
+ * <ul>
+ *   <li>타입: 클래스명 대신 짧은 타입 식별자(a:1, a:2 ...)</li>
+ *   <li>UUID 식별자: 두 개의 long (16바이트)</li>
+ *   <li>금액: scale(1바이트) + unscaled long (8바이트)</li>
+ *   <li>스키마 버전: 페이로드 첫 바이트. 이전 버전은 {@link #registerUpcaster}로 등록한 읽기 함수로 현재 객체로 변환</li>
+ * </ul>
+ * 등록되지 않은 타입(메타데이터, 스냅샷, 사가, 토큰 등)은 위임 직렬화기가 처리하며, 위임 직렬화기로 저장된 기존 이벤트도 그대로 읽을 수 있습니다.
+ */
+public class AccountBinarySerializer implements Serializer {
+
+  static final String TYPE_PREFIX = "a:";
+
+  private final Serializer fallback;
+  private final Converter converter = new ChainingConverter();
+
+  private final Map<Class<?>, BinaryCodec<?>> codecsByType = new HashMap<>();
+  private final Map<String, BinaryCodec<?>> codecsByName = new HashMap<>();
+  private final Map<String, BinaryCodec.Reader<?>> upcasters = new ConcurrentHashMap<>();
+
+  public AccountBinarySerializer(Serializer fallback) {
+    this.fallback = fallback;
+
+    register(new BinaryCodec<>(1, AccountCreatedEvent.class, 1,
+        (event, out) -> {
+          writeId(event.getAccountId(), out);
+          writeAmount(event.getInitialBalance(), out);
+        },
+        in -> new AccountCreatedEvent(readId(in), readAmount(in))));
+
+    register(new BinaryCodec<>(2, MoneyDebitedEvent.class, 1,
+        (event, out) -> {
+          writeId(event.getAccountId(), out);
+          writeId(event.getTargetAccountId(), out);
+          writeAmount(event.getAmount(), out);
+          writeId(event.getTransactionId(), out);
+        },
+        in -> new MoneyDebitedEvent(readId(in), readId(in), readAmount(in), readId(in))));
+
+    register(new BinaryCodec<>(3, MoneyCreditedEvent.class, 1,
+        (event, out) -> {
+          writeId(event.getAccountId(), out);
+          writeId(event.getSourceAccountId(), out);
+          writeAmount(event.getAmount(), out);
+          writeId(event.getTransactionId(), out);
+        },
+        in -> new MoneyCreditedEvent(readId(in), readId(in), readAmount(in), readId(in))));
+
+    register(new BinaryCodec<>(4, TransferCompletedEvent.class, 1,
+        (event, out) -> {
+          writeId(event.getSourceAccountId(), out);
+          writeId(event.getTargetAccountId(), out);
+          writeAmount(event.getAmount(), out);
+          writeId(event.getTransactionId(), out);
+        },
+        in -> new TransferCompletedEvent(readId(in), readId(in), readAmount(in), readId(in))));
+
+    // 2: 사유를 null과 구분해 기록 (1은 null 사유를 빈 문자열로 기록)
+    register(new BinaryCodec<>(5, TransferFailedEvent.class, 2,
+        (event, out) -> {
+          writeId(event.getSourceAccountId(), out);
+          writeId(event.getTargetAccountId(), out);
+          writeAmount(event.getAmount(), out);
+          writeId(event.getTransactionId(), out);
+          writeNullableText(event.getReason(), out);
+        },
+        in -> new TransferFailedEvent(readId(in), readId(in), readAmount(in), readId(in),
+            readNullableText(in))));
+    // 1로 저장된 빈 사유는 null에서 기록된 것으로 봄
+    registerUpcaster(TransferFailedEvent.class, 1,
+        in -> {
+          String sourceAccountId = readId(in);
+          String targetAccountId = readId(in);
+          BigDecimal amount = readAmount(in);
+          String transactionId = readId(in);
+          String reason = readText(in);
+          return new TransferFailedEvent(sourceAccountId, targetAccountId, amount, transactionId,
+              reason.isEmpty() ? null : reason);
+        });
+
+    register(new BinaryCodec<>(6, TransferCompensatedEvent.class, 1,
+        (event, out) -> {
+          writeId(event.getTransactionId(), out);
+          writeId(event.getAccountId(), out);
+          writeId(event.getTargetAccountId(), out);
+        },
+        in -> new TransferCompensatedEvent(readId(in), readId(in), readId(in))));
+
+    register(new BinaryCodec<>(101, CreateAccountCommand.class, 1,
+        (command, out) -> {
+          writeId(command.getAccountId(), out);
+          writeAmount(command.getInitialBalance(), out);
+        },
+        in -> new CreateAccountCommand(readId(in), readAmount(in))));
+
+    register(new BinaryCodec<>(102, DebitAccountCommand.class, 1,
+        (command, out) -> {
+          writeId(command.getAccountId(), out);
+          writeId(command.getTargetAccountId(), out);
+          writeAmount(command.getAmount(), out);
+          writeId(command.getTransactionId(), out);
+        },
+        in -> new DebitAccountCommand(readId(in), readId(in), readAmount(in), readId(in))));
+
+    register(new BinaryCodec<>(103, CreditAccountCommand.class, 1,
+        (command, out) -> {
+          writeId(command.getAccountId(), out);
+          writeId(command.getSourceAccountId(), out);
+          writeAmount(command.getAmount(), out);
+          writeId(command.getTransactionId(), out);
+        },
+        in -> new CreditAccountCommand(readId(in), readId(in), readAmount(in), readId(in))));
+  }
+
+  private void register(BinaryCodec<?> codec) {
+    codecsByType.put(codec.type(), codec);
+    codecsByName.put(typeName(codec), codec);
+  }
+
+  private static String typeName(BinaryCodec<?> codec) {
+    return TYPE_PREFIX + codec.typeId();
+  }
+
+  private static String upcasterKey(String typeName, int version) {
+    return typeName + "@" + version;
+  }
+
+  /**
+   * 이전 스키마 버전의 페이로드를 현재 객체로 읽는 함수를 등록합니다.
+   * <p>
+   * 필드가 추가/변경되어 codec의 버전을 올릴 때, 이미 저장된 이전 버전 이벤트를 읽기 위해 사용합니다.
+   *
+   * @param type        페이로드 클래스
+   * @param fromVersion 저장된 페이로드의 스키마 버전
+   * @param reader      해당 버전의 바이트를 현재 객체로 변환하는 함수
+   */
+  public <T> void registerUpcaster(Class<T> type, int fromVersion, BinaryCodec.Reader<T> reader) {
+    BinaryCodec<?> codec = codecsByType.get(type);
+    if (codec == null) {
+      throw new IllegalArgumentException("등록되지 않은 타입입니다: " + type.getName());
+    }
+    upcasters.put(upcasterKey(typeName(codec), fromVersion), reader);
+  }
+
+  @Override
+  public <T> SerializedObject<T> serialize(Object object, Class<T> expectedRepresentation) {
+    BinaryCodec<?> codec = object == null ? null : codecsByType.get(object.getClass());
+    if (codec == null) {
+      return fallback.serialize(object, expectedRepresentation);
+    }
+
+    byte[] bytes = encode(codec, object);
+    T data = converter.convert(bytes, byte[].class, expectedRepresentation);
+    return new SimpleSerializedObject<>(data, expectedRepresentation, typeName(codec),
+        Integer.toString(codec.version()));
+  }
+
+  private <T> byte[] encode(BinaryCodec<T> codec, Object value) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeByte(codec.version());
+      codec.writer().write(codec.type().cast(value), out);
+    } catch (IOException e) {
+      throw new SerializationException("바이너리 직렬화에 실패했습니다: " + codec.type().getName(), e);
+    }
+    return bytes.toByteArray();
+  }
+
+  @Override
+  public <T> boolean canSerializeTo(Class<T> expectedRepresentation) {
+    return converter.canConvert(byte[].class, expectedRepresentation)
+        && fallback.canSerializeTo(expectedRepresentation);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <S, T> T deserialize(SerializedObject<S> serializedObject) {
+    String typeName = serializedObject.getType().getName();
+    BinaryCodec<?> codec = codecsByName.get(typeName);
+    if (codec == null) {
+      return fallback.deserialize(serializedObject);
+    }
+
+    byte[] bytes = converter.convert(serializedObject.getData(),
+        serializedObject.getContentType(), byte[].class);
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+      int version = in.readUnsignedByte();
+      if (version == codec.version()) {
+        return (T) codec.reader().read(in);
+      }
+
+      BinaryCodec.Reader<?> upcaster = upcasters.get(upcasterKey(typeName, version));
+      if (upcaster == null) {
+        throw new SerializationException(String.format(
+            "%s 의 스키마 버전 %d 을(를) 읽을 업캐스터가 없습니다", codec.type().getName(), version));
+      }
+      return (T) upcaster.read(in);
+    } catch (IOException e) {
+      throw new SerializationException("바이너리 역직렬화에 실패했습니다: " + typeName, e);
+    }
+  }
+
+  @Override
+  @SuppressWarnings("rawtypes")
+  public Class classForType(SerializedType type) {
+    BinaryCodec<?> codec = codecsByName.get(type.getName());
+    return codec == null ? fallback.classForType(type) : codec.type();
+  }
+
+  @Override
+  @SuppressWarnings("rawtypes")
+  public SerializedType typeForClass(Class type) {
+    BinaryCodec<?> codec = type == null ? null : codecsByType.get(type);
+    if (codec == null) {
+      return fallback.typeForClass(type);
+    }
+    return new SimpleSerializedType(typeName(codec), Integer.toString(codec.version()));
+  }
+
+  @Override
+  public Converter getConverter() {
+    return converter;
+  }
+}
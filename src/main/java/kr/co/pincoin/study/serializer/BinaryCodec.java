@@ -0,0 +1,152 @@
+package kr.co.pincoin.study.serializer;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * 페이로드 타입 하나의 바이너리 인코딩 정의
+ *
+ * @param typeId  저장소에 클래스명 대신 기록되는 짧은 타입 식별자
+ * @param type    페이로드 클래스
+ * @param version 현재 스키마 버전 (페이로드 첫 바이트에 기록)
+ * @param writer  현재 스키마로 쓰는 함수
+ * @param reader  현재 스키마를 읽는 함수
+ */
+public record BinaryCodec<T>(int typeId, Class<T> type, int version, Writer<T> writer,
+                             Reader<T> reader) {
+
+  private static final byte NULL = 0;
+  private static final byte UUID_BITS = 1;
+  private static final byte SCALED_LONG = 1;
+  private static final byte TEXT = 2;
+
+  @FunctionalInterface
+  public interface Writer<T> {
+
+    void write(T value, DataOutputStream out) throws IOException;
+  }
+
+  @FunctionalInterface
+  public interface Reader<T> {
+
+    T read(DataInputStream in) throws IOException;
+  }
+
+  /**
+   * 식별자 문자열을 기록합니다. UUID 형식이면 두 개의 long(16바이트)으로, 아니면 UTF-8 문자열로 기록합니다.
+   */
+  public static void writeId(String value, DataOutputStream out) throws IOException {
+    if (value == null) {
+      out.writeByte(NULL);
+      return;
+    }
+
+    UUID uuid = parseUuid(value);
+    if (uuid != null) {
+      out.writeByte(UUID_BITS);
+      out.writeLong(uuid.getMostSignificantBits());
+      out.writeLong(uuid.getLeastSignificantBits());
+      return;
+    }
+    out.writeByte(TEXT);
+    writeText(value, out);
+  }
+
+  public static String readId(DataInputStream in) throws IOException {
+    byte tag = in.readByte();
+    return switch (tag) {
+      case NULL -> null;
+      case UUID_BITS -> new UUID(in.readLong(), in.readLong()).toString();
+      case TEXT -> readText(in);
+      default -> throw new IOException("알 수 없는 식별자 태그: " + tag);
+    };
+  }
+
+  /**
+   * 금액을 기록합니다. unscaled 값이 long 범위이면 (scale, long)으로, 아니면 문자열로 기록합니다.
+   */
+  public static void writeAmount(BigDecimal value, DataOutputStream out) throws IOException {
+    if (value == null) {
+      out.writeByte(NULL);
+      return;
+    }
+
+    BigInteger unscaled = value.unscaledValue();
+    if (unscaled.bitLength() < Long.SIZE && value.scale() >= Byte.MIN_VALUE
+        && value.scale() <= Byte.MAX_VALUE) {
+      out.writeByte(SCALED_LONG);
+      out.writeByte(value.scale());
+      out.writeLong(unscaled.longValue());
+      return;
+    }
+    out.writeByte(TEXT);
+    writeText(value.toString(), out);
+  }
+
+  public static BigDecimal readAmount(DataInputStream in) throws IOException {
+    byte tag = in.readByte();
+    return switch (tag) {
+      case NULL -> null;
+      case SCALED_LONG -> {
+        int scale = in.readByte();
+        yield BigDecimal.valueOf(in.readLong(), scale);
+      }
+      case TEXT -> new BigDecimal(readText(in));
+      default -> throw new IOException("알 수 없는 금액 태그: " + tag);
+    };
+  }
+
+  public static void writeText(String value, DataOutputStream out) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    if (bytes.length > 0xFFFF) {
+      throw new IOException("문자열이 너무 깁니다: " + bytes.length + " bytes");
+    }
+    out.writeShort(bytes.length);
+    out.write(bytes);
+  }
+
+  public static String readText(DataInputStream in) throws IOException {
+    byte[] bytes = new byte[in.readUnsignedShort()];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * null일 수 있는 문자열을 기록합니다. 태그 바이트(NULL/TEXT) 뒤에 문자열을 기록하므로 null과 빈 문자열이 구분됩니다.
+   */
+  public static void writeNullableText(String value, DataOutputStream out) throws IOException {
+    if (value == null) {
+      out.writeByte(NULL);
+      return;
+    }
+    out.writeByte(TEXT);
+    writeText(value, out);
+  }
+
+  public static String readNullableText(DataInputStream in) throws IOException {
+    byte tag = in.readByte();
+    return switch (tag) {
+      case NULL -> null;
+      case TEXT -> readText(in);
+      default -> throw new IOException("알 수 없는 문자열 태그: " + tag);
+    };
+  }
+
+  private static UUID parseUuid(String value) {
+    if (value.length() != 36) {
+      return null;
+    }
+    try {
+      UUID uuid = UUID.fromString(value);
+      // 대문자 등 표기가 달라지는 경우는 원문 보존을 위해 문자열로 기록
+      return uuid.toString().equals(value) ? uuid : null;
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+}
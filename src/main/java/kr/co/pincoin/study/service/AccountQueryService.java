@@ -0,0 +1,41 @@
+package kr.co.pincoin.study.service;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import kr.co.pincoin.study.query.AccountQueries.AccountBalance;
+import kr.co.pincoin.study.query.AccountQueries.FindAccountBalanceQuery;
+import lombok.RequiredArgsConstructor;
+import org.axonframework.messaging.responsetypes.ResponseTypes;
+import org.axonframework.queryhandling.QueryGateway;
+import org.axonframework.queryhandling.SubscriptionQueryResult;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+@Service
+@RequiredArgsConstructor
+public class AccountQueryService {
+
+  private final QueryGateway queryGateway;
+
+  public CompletableFuture<Optional<AccountBalance>> findBalance(String accountId) {
+    return queryGateway.query(new FindAccountBalanceQuery(accountId),
+        ResponseTypes.optionalInstanceOf(AccountBalance.class));
+  }
+
+  /**
+   * 현재 잔액을 먼저 보내고, 이후 잔액이 바뀔 때마다 새 잔액을 보냅니다. (폴링 대신 사용)
+   * <p>
+   * 구독을 취소하면 구독 쿼리도 닫힙니다.
+   */
+  public Flux<AccountBalance> subscribeBalance(String accountId) {
+    SubscriptionQueryResult<Optional<AccountBalance>, AccountBalance> result =
+        queryGateway.subscriptionQuery(new FindAccountBalanceQuery(accountId),
+            ResponseTypes.optionalInstanceOf(AccountBalance.class),
+            ResponseTypes.instanceOf(AccountBalance.class));
+
+    return result.initialResult()
+        .flatMapMany(initial -> Flux.fromStream(initial.stream()))
+        .concatWith(result.updates())
+        .doFinally(signal -> result.close());
+  }
+}
@@ -6,6 +6,8 @@ import java.util.concurrent.CompletableFuture;
 import kr.co.pincoin.study.command.AccountCommands.CreateAccountCommand;
 import kr.co.pincoin.study.command.AccountCommands.CreditAccountCommand;
 import kr.co.pincoin.study.command.AccountCommands.DebitAccountCommand;
+import kr.co.pincoin.study.config.TransferProperties;
+import kr.co.pincoin.study.config.TransferProperties.Orchestration;
 import lombok.RequiredArgsConstructor;
 import org.axonframework.commandhandling.gateway.CommandGateway;
 import org.springframework.stereotype.Service;
@@ -15,6 +17,7 @@ import org.springframework.stereotype.Service;
 public class AccountService {
 
   private final CommandGateway commandGateway;
+  private final TransferProperties transferProperties;
 
   public CompletableFuture<String> createAccount(BigDecimal initialBalance) {
     String accountId = UUID.randomUUID().toString();
@@ -26,11 +29,16 @@ public class AccountService {
     String transactionId = UUID.randomUUID().toString();
 
     // 출금 처리
-    return commandGateway.send(new DebitAccountCommand(
-            fromAccountId, toAccountId, amount, transactionId))
-        .thenCompose(r ->
-            // 입금 처리
-            commandGateway.send(new CreditAccountCommand(
-                toAccountId, fromAccountId, amount, transactionId)));
+    CompletableFuture<Object> debited = commandGateway.send(new DebitAccountCommand(
+        fromAccountId, toAccountId, amount, transactionId));
+    if (transferProperties.getOrchestration() != Orchestration.SERVICE) {
+      // 입금은 MoneyDebitedEvent를 받은 사가(또는 이벤트 처리기)가 담당
+      return debited.thenApply(r -> null);
+    }
+
+    return debited.thenCompose(r ->
+        // 입금 처리
+        commandGateway.send(new CreditAccountCommand(
+            toAccountId, fromAccountId, amount, transactionId)));
   }
 }
\ No newline at end of file
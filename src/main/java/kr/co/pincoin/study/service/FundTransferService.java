@@ -1,6 +1,9 @@
 package kr.co.pincoin.study.service;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import kr.co.pincoin.study.config.BalanceLockProperties;
+import kr.co.pincoin.study.config.BalanceLockProperties.Mode;
 import kr.co.pincoin.study.model.MyBalance;
 import kr.co.pincoin.study.repository.MyBalanceRepository;
 import lombok.RequiredArgsConstructor;
@@ -13,19 +16,117 @@ import org.springframework.transaction.annotation.Transactional;
 public class FundTransferService {
 
     private final MyBalanceRepository balanceRepository;
+    private final BalanceLockProperties lockProperties;
+    private final StripedBalanceService stripedBalances;
 
+    /**
+     * 잔액을 읽고 바꾼 뒤 저장합니다.
+     * <p>
+     * optimistic 모드는 잠금 없이 읽고 @Version으로 충돌을 감지합니다. pessimistic 모드는 두 계좌를 쓰기 잠금으로 읽는데, 서로 반대 방향으로
+     * 송금하는 두 트랜잭션이 교착 상태에 빠지지 않도록 항상 accountId 오름차순으로 잠급니다.
+     * <p>
+     * 잔액이 분할된 계좌가 포함되면 {@link #transferWithConditionalUpdate}로 처리합니다. 이 노드가 분할 여부를 모르는 계좌도 출금 계좌의
+     * MyBalance 행 잔액이 부족하면 슬롯 테이블을 확인해 같은 경로로 처리합니다.
+     */
     @Transactional(propagation = Propagation.REQUIRED)
     public void transfer(Long fromAccountId, Long toAccountId, BigDecimal amount) {
-        MyBalance fromAccount = balanceRepository.findByAccountId(fromAccountId)
-            .orElseThrow(() -> new IllegalArgumentException("출금 계좌가 존재하지 않습니다."));
+        if (stripedBalances.isStriped(fromAccountId) || stripedBalances.isStriped(toAccountId)) {
+            transferWithConditionalUpdate(fromAccountId, toAccountId, amount);
+            return;
+        }
 
-        MyBalance toAccount = balanceRepository.findByAccountId(toAccountId)
-            .orElseThrow(() -> new IllegalArgumentException("입금 계좌가 존재하지 않습니다."));
+        MyBalance fromAccount;
+        MyBalance toAccount;
+        if (lockProperties.getMode() == Mode.PESSIMISTIC) {
+            if (fromAccountId.compareTo(toAccountId) <= 0) {
+                fromAccount = lockFromAccount(fromAccountId);
+                toAccount = lockToAccount(toAccountId);
+            } else {
+                toAccount = lockToAccount(toAccountId);
+                fromAccount = lockFromAccount(fromAccountId);
+            }
+        } else {
+            fromAccount = balanceRepository.findByAccountId(fromAccountId)
+                .orElseThrow(() -> new IllegalArgumentException("출금 계좌가 존재하지 않습니다."));
 
+            toAccount = balanceRepository.findByAccountId(toAccountId)
+                .orElseThrow(() -> new IllegalArgumentException("입금 계좌가 존재하지 않습니다."));
+        }
+
+        if (stripedBalances.discoverStriped(fromAccount, amount)) {
+            // 다른 노드가 분할한 계좌
+            transferWithConditionalUpdate(fromAccountId, toAccountId, amount);
+            return;
+        }
         fromAccount.decrease(amount);
         toAccount.increase(amount);
 
         balanceRepository.save(fromAccount);
         balanceRepository.save(toAccount);
     }
+
+    private MyBalance lockFromAccount(Long accountId) {
+        return balanceRepository.findByAccountIdForUpdate(accountId)
+            .orElseThrow(() -> new IllegalArgumentException("출금 계좌가 존재하지 않습니다."));
+    }
+
+    private MyBalance lockToAccount(Long accountId) {
+        return balanceRepository.findByAccountIdForUpdate(accountId)
+            .orElseThrow(() -> new IllegalArgumentException("입금 계좌가 존재하지 않습니다."));
+    }
+
+    /**
+     * 조건부 UPDATE로 송금합니다.
+     * <p>
+     * 잔액을 읽어서 바꾸고 저장하는 대신 출금은 {@code amount >= :x} 조건을 건 UPDATE, 입금은 {@code amount + :x} UPDATE로
+     * 처리합니다. 같은 계좌에 동시에 요청이 몰려도 행 잠금 순서대로 차례로 반영될 뿐 낙관적 락 충돌로 실패하지 않으며, 잔액 부족은 갱신된 행 수로
+     * 판단합니다.
+     * <p>
+     * 서로 반대 방향으로 송금하는 두 트랜잭션이 교착 상태에 빠지지 않도록 두 계좌의 행은 항상 accountId 오름차순으로 갱신합니다. 입금이 먼저
+     * 반영된 뒤 출금이 실패하면 예외로 트랜잭션 전체가 롤백됩니다.
+     * <p>
+     * 잔액이 분할된 계좌는 {@link StripedBalanceService}가 슬롯 행에 입금/출금합니다.
+     */
+    @Transactional(propagation = Propagation.REQUIRED)
+    public void transferWithConditionalUpdate(Long fromAccountId, Long toAccountId,
+        BigDecimal amount) {
+        LocalDateTime now = LocalDateTime.now();
+        if (fromAccountId.compareTo(toAccountId) < 0) {
+            withdraw(fromAccountId, amount, now);
+            deposit(toAccountId, amount, now);
+        } else {
+            deposit(toAccountId, amount, now);
+            withdraw(fromAccountId, amount, now);
+        }
+    }
+
+    private void withdraw(Long accountId, BigDecimal amount, LocalDateTime now) {
+        if (stripedBalances.isStriped(accountId)) {
+            stripedBalances.debit(accountId, amount, now);
+            return;
+        }
+        if (balanceRepository.withdrawIfSufficient(accountId, amount, now) > 0) {
+            return;
+        }
+        // 실패한 경우에만 원인을 구분하기 위해 조회
+        if (!balanceRepository.existsByAccountId(accountId)) {
+            throw new IllegalArgumentException("출금 계좌가 존재하지 않습니다.");
+        }
+        if (stripedBalances.discoverStriped(accountId)) {
+            // 다른 노드가 분할한 계좌
+            stripedBalances.debit(accountId, amount, now);
+            return;
+        }
+        throw new IllegalStateException("잔액이 부족합니다.");
+    }
+
+    private void deposit(Long accountId, BigDecimal amount, LocalDateTime now) {
+        if (stripedBalances.isStriped(accountId)) {
+            stripedBalances.credit(accountId, amount, now);
+            return;
+        }
+        if (balanceRepository.deposit(accountId, amount, now) == 0) {
+            throw new IllegalArgumentException("입금 계좌가 존재하지 않습니다.");
+        }
+    }
 }
@@ -1,8 +1,10 @@
 package kr.co.pincoin.study.service;
 
+import java.math.BigDecimal;
 import kr.co.pincoin.study.model.MyTransaction;
 import kr.co.pincoin.study.repository.MyTransactionRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
@@ -12,9 +14,38 @@ import org.springframework.transaction.annotation.Transactional;
 public class IdempotencyService {
 
     private final MyTransactionRepository transactionRepository;
+    private final TransactionRecordService transactionRecordService;
+
+    /**
+     * 거래 등록 결과
+     *
+     * @param transaction 새로 등록한 거래 또는 같은 transactionId로 이미 등록된 거래
+     * @param created     이번 호출에서 새로 등록했는지 여부
+     */
+    public record Registration(MyTransaction transaction, boolean created) {
+
+    }
 
     @Transactional(propagation = Propagation.REQUIRES_NEW)
     public MyTransaction checkIdempotency(String transactionId) {
         return transactionRepository.findByTransactionId(transactionId).orElse(null);
     }
-}
\ No newline at end of file
+
+    /**
+     * 조회 없이 거래를 먼저 INSERT하고, transactionId 유니크 제약에 걸리면 이미 등록된 거래를 돌려줍니다.
+     * <p>
+     * 조회 후 INSERT하는 방식과 달리 동시에 같은 transactionId로 요청해도 INSERT 한 건만 성공하며, 중복이 아닌 정상 요청은 INSERT 한 번으로
+     * 끝납니다. 기존 거래 조회는 중복일 때만 실행합니다.
+     */
+    public Registration register(String transactionId, Long fromAccountId, Long toAccountId,
+        BigDecimal amount) {
+        try {
+            return new Registration(transactionRecordService.createTransaction(transactionId,
+                fromAccountId, toAccountId, amount), true);
+        } catch (DataIntegrityViolationException e) {
+            MyTransaction existing = transactionRepository.findByTransactionId(transactionId)
+                .orElseThrow(() -> e);
+            return new Registration(existing, false);
+        }
+    }
+}
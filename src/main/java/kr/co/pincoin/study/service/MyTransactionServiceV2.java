@@ -12,6 +12,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Slf4j
 @Service
@@ -20,9 +21,23 @@ public class MyTransactionServiceV2 {
 
     private final MyBalanceRepository myBalanceRepository;
     private final MyTransactionRepository myTransactionRepository;
-
-    @Transactional
+    private final OptimisticLockRetryTemplate retryTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final StripedBalanceService stripedBalances;
+    private final FundTransferService fundTransferService;
+
+    /**
+     * 송금 전체를 트랜잭션 하나로 실행하고, 커밋 시 낙관적 락 충돌이 나면 트랜잭션을 새로 시작해 다시 실행합니다.
+     * <p>
+     * 잔액이 분할된 계좌는 MyBalance 행만 읽어서는 잔액을 알 수 없으므로 조건부 UPDATE 경로로 송금합니다.
+     */
     public void transfer(String transactionId, Long fromAccountId, Long toAccountId,
+        BigDecimal amount) {
+        retryTemplate.run(() -> transactionTemplate.executeWithoutResult(status ->
+            doTransfer(transactionId, fromAccountId, toAccountId, amount)));
+    }
+
+    private void doTransfer(String transactionId, Long fromAccountId, Long toAccountId,
         BigDecimal amount) {
         // 멱등성 체크는 별도 트랜잭션으로 처리
         MyTransaction existingTx = checkIdempotency(transactionId);
@@ -62,12 +77,22 @@ public class MyTransactionServiceV2 {
 
     @Transactional(propagation = Propagation.REQUIRED)
     protected void executeTransfer(Long fromAccountId, Long toAccountId, BigDecimal amount) {
+        if (stripedBalances.isStriped(fromAccountId) || stripedBalances.isStriped(toAccountId)) {
+            fundTransferService.transferWithConditionalUpdate(fromAccountId, toAccountId, amount);
+            return;
+        }
+
         MyBalance fromAccount = myBalanceRepository.findByAccountId(fromAccountId)
             .orElseThrow(() -> new IllegalArgumentException("출금 계좌가 존재하지 않습니다."));
 
         MyBalance toAccount = myBalanceRepository.findByAccountId(toAccountId)
             .orElseThrow(() -> new IllegalArgumentException("입금 계좌가 존재하지 않습니다."));
 
+        if (stripedBalances.discoverStriped(fromAccount, amount)) {
+            // 다른 노드가 분할한 계좌
+            fundTransferService.transferWithConditionalUpdate(fromAccountId, toAccountId, amount);
+            return;
+        }
         fromAccount.decrease(amount);
         toAccount.increase(amount);
 
@@ -0,0 +1,132 @@
+package kr.co.pincoin.study.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * MyBalance 낙관적 락 충돌만 재시도하는 실행기
+ * <p>
+ * 작업 하나를 트랜잭션 하나로 실행하는 호출(트랜잭션 경계)을 감싸서 사용합니다.
+ * <ul>
+ *   <li>원인 체인에 {@link ObjectOptimisticLockingFailureException}이 있을 때만 재시도 (잔액 부족 등은 바로 실패)</li>
+ *   <li>최대 maxAttempts번 실행 (1이면 재시도하지 않음)</li>
+ *   <li>지수 백오프 + 지터: n번째 재시도 전에 [d/2, d) 사이에서 무작위로 대기 (d = initialBackoff * 2^(n-1), 최대 maxBackoff)</li>
+ *   <li>이미 진행 중인 트랜잭션 안에서 호출되면 재시도하지 않음. 바깥 트랜잭션은 롤백 전용으로 표시되고 영속성 컨텍스트에 이전 값이 남아 있어 다시
+ *   실행해도 성공할 수 없기 때문</li>
+ * </ul>
+ */
+@Slf4j
+public class OptimisticLockRetryTemplate {
+
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+
+    /**
+     * 재시도 통계
+     *
+     * @param conflicts 낙관적 락 충돌로 실패한 실행 수
+     * @param retries   다시 실행한 수
+     * @param exhausted 재시도 횟수를 다 써서 포기한 수
+     */
+    public record Statistics(long conflicts, long retries, long exhausted) {
+
+    }
+
+    public OptimisticLockRetryTemplate(int maxAttempts, Duration initialBackoff,
+        Duration maxBackoff) {
+        if (maxAttempts < 1 || initialBackoff.isNegative()
+            || maxBackoff.compareTo(initialBackoff) < 0) {
+            throw new IllegalArgumentException("재시도 횟수와 대기 시간 설정이 올바르지 않습니다.");
+        }
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoff.toMillis();
+        this.maxBackoffMillis = maxBackoff.toMillis();
+    }
+
+    public Statistics statistics() {
+        return new Statistics(conflicts.sum(), retries.sum(), exhausted.sum());
+    }
+
+    /**
+     * 충돌/재실행/포기 수를 지표로 등록합니다.
+     */
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("balance.lock.optimistic.conflicts", conflicts, LongAdder::sum)
+            .description("낙관적 락 충돌로 실패한 실행 수")
+            .register(registry);
+        FunctionCounter.builder("balance.lock.optimistic.retries", retries, LongAdder::sum)
+            .description("낙관적 락 충돌로 다시 실행한 수")
+            .register(registry);
+        FunctionCounter.builder("balance.lock.optimistic.exhausted", exhausted, LongAdder::sum)
+            .description("재시도 횟수를 다 써서 포기한 수")
+            .register(registry);
+    }
+
+    public void run(Runnable action) {
+        execute(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public <T> T execute(Supplier<T> action) {
+        int attempts = TransactionSynchronizationManager.isActualTransactionActive()
+            ? 1 : maxAttempts;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (RuntimeException e) {
+                if (!isOptimisticLockFailure(e)) {
+                    throw e;
+                }
+                conflicts.increment();
+                if (attempt >= attempts) {
+                    exhausted.increment();
+                    throw e;
+                }
+                retries.increment();
+                log.debug("낙관적 락 충돌로 다시 실행합니다. ({}/{})", attempt, attempts);
+                backoff(attempt, e);
+            }
+        }
+    }
+
+    static boolean isOptimisticLockFailure(Throwable throwable) {
+        for (Throwable current = throwable; current != null; current = current.getCause()) {
+            if (current instanceof ObjectOptimisticLockingFailureException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    long backoffMillis(int retry) {
+        long delay = Math.min(maxBackoffMillis,
+            initialBackoffMillis << Math.min(retry - 1, 30));
+        if (delay <= 1) {
+            return delay;
+        }
+        return ThreadLocalRandom.current().nextLong(delay / 2, delay);
+    }
+
+    private void backoff(int retry, RuntimeException conflict) {
+        try {
+            Thread.sleep(backoffMillis(retry));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw conflict;
+        }
+    }
+}
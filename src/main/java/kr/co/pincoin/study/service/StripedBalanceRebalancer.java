@@ -0,0 +1,68 @@
+package kr.co.pincoin.study.service;
+
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * 핫 계좌 분할과 슬롯 잔액 재분배 작업
+ * <p>
+ * 기동 시 지정된 핫 계좌를 분할하고, 이후 주기적으로 분할된 계좌 목록을 다시 읽어 계좌마다 {@link StripedBalanceService#rebalance}를
+ * 실행합니다.
+ */
+@Slf4j
+public class StripedBalanceRebalancer {
+
+    private final StripedBalanceService stripedBalances;
+    private final List<Long> hotAccounts;
+    private final int slots;
+    private final double minShareRatio;
+
+    public StripedBalanceRebalancer(StripedBalanceService stripedBalances, List<Long> hotAccounts,
+        int slots, double minShareRatio) {
+        this.stripedBalances = stripedBalances;
+        this.hotAccounts = List.copyOf(hotAccounts);
+        this.slots = slots;
+        this.minShareRatio = minShareRatio;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void stripeHotAccounts() {
+        for (Long accountId : hotAccounts) {
+            if (stripedBalances.isStriped(accountId)) {
+                continue;
+            }
+            try {
+                stripedBalances.stripe(accountId, slots);
+                log.info("계좌 {} 잔액을 슬롯 {}개로 분할했습니다", accountId, slots);
+            } catch (IllegalArgumentException e) {
+                log.warn("계좌 {} 잔액을 분할하지 못했습니다: {}", accountId, e.getMessage());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${study.balance.striping.rebalance-interval-ms:60000}",
+        initialDelayString = "${study.balance.striping.rebalance-interval-ms:60000}")
+    public void scheduledRebalance() {
+        rebalance();
+    }
+
+    /**
+     * @return 재분배한 계좌 수
+     */
+    public int rebalance() {
+        stripedBalances.refresh();
+        int rebalanced = 0;
+        for (Long accountId : stripedBalances.stripedAccounts()) {
+            if (stripedBalances.rebalance(accountId, minShareRatio)) {
+                rebalanced++;
+            }
+        }
+        if (rebalanced > 0) {
+            log.debug("분할 계좌 {}개의 슬롯 잔액을 재분배했습니다", rebalanced);
+        }
+        return rebalanced;
+    }
+}
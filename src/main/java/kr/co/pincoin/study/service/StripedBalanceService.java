@@ -0,0 +1,322 @@
+package kr.co.pincoin.study.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import kr.co.pincoin.study.model.MyBalance;
+import kr.co.pincoin.study.model.MyBalanceSlot;
+import kr.co.pincoin.study.repository.MyBalanceRepository;
+import kr.co.pincoin.study.repository.MyBalanceSlotRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 핫 계좌 잔액 분할 (opt-in)
+ * <p>
+ * 송금이 몰리는 계좌는 모든 송금이 MyBalance 행 하나의 잠금과 @Version에서 직렬화됩니다. {@link #stripe}로 분할한 계좌는 잔액을 N개의
+ * {@link MyBalanceSlot} 행에 나눠 두고, 논리 잔액은 MyBalance 행과 모든 슬롯의 합으로 봅니다.
+ * <ul>
+ *   <li>입금: 임의의 슬롯 하나에 조건 없는 UPDATE</li>
+ *   <li>출금: 임의의 슬롯부터 차례로 조건부 UPDATE를 시도하고, 한 슬롯으로 부족하면 MyBalance 행과 모든 슬롯을 잠가 합산한 잔액에서
+ *   출금 (통합 경로)</li>
+ *   <li>{@link #rebalance}: 슬롯 사이에 치우친 잔액을 다시 고르게 나눔 (통합 경로로 빠지는 출금을 줄임)</li>
+ * </ul>
+ * 여러 행을 잠그는 경로(분할, 통합 출금, 재분배, 분할 해제)는 항상 MyBalance 행 → 슬롯 오름차순으로 잠급니다. 실패한 조건부 UPDATE는 행
+ * 잠금을 남기지 않는다고 가정합니다. (H2, READ COMMITTED)
+ * <p>
+ * 분할 여부는 노드마다 메모리에 두므로 다른 노드가 분할한 계좌는 모를 수 있습니다. 분할된 계좌의 MyBalance 행은 잔액이 거의 없으므로, 송금
+ * 경로는 MyBalance 행의 잔액으로 출금할 수 없을 때 {@link #discoverStriped}로 슬롯 테이블을 확인하고 분할 경로로 다시 처리합니다. 재분배
+ * 작업도 주기마다 {@link #refresh}로 전체 목록을 다시 읽습니다.
+ * <p>
+ * 슬롯/통합 출금 수와 재분배 횟수는 balance.striped.* 지표로 노출합니다.
+ */
+@Service
+@RequiredArgsConstructor
+public class StripedBalanceService implements MeterBinder {
+
+    private final MyBalanceRepository balanceRepository;
+    private final MyBalanceSlotRepository slotRepository;
+
+    /**
+     * 분할된 계좌의 accountId → 슬롯 수 (처음 조회할 때 슬롯 테이블에서 읽음)
+     */
+    private volatile Map<Long, Integer> slotCounts;
+
+    private final LongAdder slotDebits = new LongAdder();
+    private final LongAdder consolidatedDebits = new LongAdder();
+    private final LongAdder rebalances = new LongAdder();
+
+    /**
+     * 분할 잔액 통계
+     *
+     * @param slotDebits         슬롯 하나에서 처리한 출금 수
+     * @param consolidatedDebits 통합 경로로 처리한 출금 수
+     * @param rebalances         재분배한 횟수
+     */
+    public record Statistics(long slotDebits, long consolidatedDebits, long rebalances) {
+
+    }
+
+    public Statistics statistics() {
+        return new Statistics(slotDebits.sum(), consolidatedDebits.sum(), rebalances.sum());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("balance.striped.debits", slotDebits, LongAdder::sum)
+            .description("분할 계좌 출금 수")
+            .tag("path", "slot")
+            .register(registry);
+        FunctionCounter.builder("balance.striped.debits", consolidatedDebits, LongAdder::sum)
+            .description("분할 계좌 출금 수")
+            .tag("path", "consolidated")
+            .register(registry);
+        FunctionCounter.builder("balance.striped.rebalances", rebalances, LongAdder::sum)
+            .description("분할 계좌 슬롯 재분배 횟수")
+            .register(registry);
+    }
+
+    private Map<Long, Integer> slotCounts() {
+        Map<Long, Integer> counts = slotCounts;
+        if (counts == null) {
+            synchronized (this) {
+                counts = slotCounts;
+                if (counts == null) {
+                    counts = loadSlotCounts();
+                    slotCounts = counts;
+                }
+            }
+        }
+        return counts;
+    }
+
+    private Map<Long, Integer> loadSlotCounts() {
+        Map<Long, Integer> counts = new ConcurrentHashMap<>();
+        for (Object[] row : slotRepository.countSlotsByAccountId()) {
+            counts.put((Long) row[0], ((Long) row[1]).intValue());
+        }
+        return counts;
+    }
+
+    /**
+     * 분할된 계좌 목록을 슬롯 테이블에서 다시 읽습니다. (다른 노드의 분할/분할 해제 반영)
+     */
+    public void refresh() {
+        slotCounts = loadSlotCounts();
+    }
+
+    /**
+     * MyBalance 행의 잔액만으로 출금할 수 없을 때, 다른 노드가 분할한 계좌인지 슬롯 테이블에서 확인합니다.
+     *
+     * @return 분할된 계좌이면 true (분할 목록에도 반영하므로 이후 송금은 바로 분할 경로로 처리됨)
+     */
+    public boolean discoverStriped(MyBalance balance, BigDecimal amount) {
+        if (balance.getAmount().compareTo(amount) >= 0) {
+            return false;
+        }
+        return discoverStriped(balance.getAccountId());
+    }
+
+    /**
+     * @return 슬롯 테이블에 슬롯이 있으면 true
+     */
+    public boolean discoverStriped(Long accountId) {
+        long slots = slotRepository.countByAccountId(accountId);
+        if (slots == 0) {
+            return false;
+        }
+        slotCounts().put(accountId, (int) slots);
+        return true;
+    }
+
+    public boolean isStriped(Long accountId) {
+        return slotCounts().containsKey(accountId);
+    }
+
+    public Set<Long> stripedAccounts() {
+        return Set.copyOf(slotCounts().keySet());
+    }
+
+    /**
+     * 계좌의 잔액을 slotCount개의 슬롯으로 나눕니다. 이미 분할된 계좌는 그대로 둡니다.
+     */
+    @Transactional(propagation = Propagation.REQUIRED)
+    public void stripe(Long accountId, int slotCount) {
+        if (slotCount < 2) {
+            throw new IllegalArgumentException("슬롯은 2개 이상이어야 합니다.");
+        }
+        MyBalance balance = lockBalance(accountId);
+        List<MyBalanceSlot> existing = slotRepository.findAllByAccountIdForUpdate(accountId);
+        if (!existing.isEmpty()) {
+            // 다른 노드가 이미 분할한 계좌
+            slotCounts().put(accountId, existing.size());
+            return;
+        }
+
+        BigDecimal total = balance.getAmount();
+        balance.decrease(total);
+        List<MyBalanceSlot> slots = new ArrayList<>(slotCount);
+        for (int slot = 0; slot < slotCount; slot++) {
+            slots.add(new MyBalanceSlot(accountId, slot, BigDecimal.ZERO));
+        }
+        distribute(total, slots);
+        slotRepository.saveAll(slots);
+
+        afterCommit(() -> slotCounts().put(accountId, slotCount));
+    }
+
+    /**
+     * 슬롯 잔액을 MyBalance 행으로 모으고 슬롯을 삭제합니다.
+     */
+    @Transactional(propagation = Propagation.REQUIRED)
+    public void unstripe(Long accountId) {
+        MyBalance balance = lockBalance(accountId);
+        List<MyBalanceSlot> slots = slotRepository.findAllByAccountIdForUpdate(accountId);
+        balance.increase(sum(slots));
+        slotRepository.deleteAll(slots);
+
+        afterCommit(() -> slotCounts().remove(accountId));
+    }
+
+    /**
+     * 논리 잔액 (MyBalance 행 + 모든 슬롯)
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal balance(Long accountId) {
+        MyBalance balance = balanceRepository.findByAccountId(accountId)
+            .orElseThrow(() -> new IllegalArgumentException("계좌가 존재하지 않습니다."));
+        return balance.getAmount().add(slotRepository.sumByAccountId(accountId));
+    }
+
+    /**
+     * 임의의 슬롯에 입금합니다. 슬롯이 없으면(분할 해제 직후 등) MyBalance 행에 입금합니다.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void credit(Long accountId, BigDecimal amount, LocalDateTime now) {
+        Integer slots = slotCounts().get(accountId);
+        if (slots != null && slotRepository.deposit(accountId,
+            ThreadLocalRandom.current().nextInt(slots), amount, now) > 0) {
+            return;
+        }
+        if (balanceRepository.deposit(accountId, amount, now) == 0) {
+            throw new IllegalArgumentException("입금 계좌가 존재하지 않습니다.");
+        }
+    }
+
+    /**
+     * 임의의 슬롯부터 잔액이 충분한 슬롯을 찾아 출금하고, 없으면 통합 경로로 출금합니다.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void debit(Long accountId, BigDecimal amount, LocalDateTime now) {
+        Integer slots = slotCounts().get(accountId);
+        if (slots != null) {
+            int start = ThreadLocalRandom.current().nextInt(slots);
+            for (int i = 0; i < slots; i++) {
+                if (slotRepository.withdrawIfSufficient(accountId, (start + i) % slots, amount,
+                    now) > 0) {
+                    slotDebits.increment();
+                    return;
+                }
+            }
+        }
+        consolidatedDebit(accountId, amount);
+    }
+
+    private void consolidatedDebit(Long accountId, BigDecimal amount) {
+        MyBalance balance = balanceRepository.findByAccountIdForUpdate(accountId)
+            .orElseThrow(() -> new IllegalArgumentException("출금 계좌가 존재하지 않습니다."));
+        List<MyBalanceSlot> slots = slotRepository.findAllByAccountIdForUpdate(accountId);
+        if (balance.getAmount().add(sum(slots)).compareTo(amount) < 0) {
+            throw new IllegalStateException("잔액이 부족합니다.");
+        }
+
+        // MyBalance 행부터, 그다음 잔액이 많은 슬롯부터 차감
+        BigDecimal remaining = amount;
+        BigDecimal taken = balance.getAmount().min(remaining);
+        balance.decrease(taken);
+        remaining = remaining.subtract(taken);
+        List<MyBalanceSlot> richest = new ArrayList<>(slots);
+        richest.sort(Comparator.comparing(MyBalanceSlot::getAmount).reversed());
+        for (MyBalanceSlot slot : richest) {
+            if (remaining.signum() == 0) {
+                break;
+            }
+            taken = slot.getAmount().min(remaining);
+            slot.decrease(taken);
+            remaining = remaining.subtract(taken);
+        }
+        consolidatedDebits.increment();
+    }
+
+    /**
+     * 가장 적은 슬롯이 고른 몫의 minShareRatio 미만이거나 MyBalance 행에 잔액이 남아 있으면 논리 잔액을 슬롯에 다시 고르게 나눕니다.
+     *
+     * @return 재분배 여부
+     */
+    @Transactional(propagation = Propagation.REQUIRED)
+    public boolean rebalance(Long accountId, double minShareRatio) {
+        MyBalance balance = lockBalance(accountId);
+        List<MyBalanceSlot> slots = slotRepository.findAllByAccountIdForUpdate(accountId);
+        if (slots.isEmpty()) {
+            return false;
+        }
+
+        BigDecimal total = balance.getAmount().add(sum(slots));
+        BigDecimal threshold = total.multiply(BigDecimal.valueOf(minShareRatio))
+            .divide(BigDecimal.valueOf(slots.size()), total.scale(), RoundingMode.DOWN);
+        boolean skewed = slots.stream().anyMatch(slot -> slot.getAmount().compareTo(threshold) < 0);
+        if (!skewed && balance.getAmount().signum() == 0) {
+            return false;
+        }
+
+        balance.decrease(balance.getAmount());
+        distribute(total, slots);
+        rebalances.increment();
+        return true;
+    }
+
+    private MyBalance lockBalance(Long accountId) {
+        return balanceRepository.findByAccountIdForUpdate(accountId)
+            .orElseThrow(() -> new IllegalArgumentException("계좌가 존재하지 않습니다."));
+    }
+
+    /**
+     * total을 슬롯에 고르게 나누고, 나누어떨어지지 않는 나머지는 첫 슬롯에 넣습니다.
+     */
+    private static void distribute(BigDecimal total, List<MyBalanceSlot> slots) {
+        BigDecimal share = total.divide(BigDecimal.valueOf(slots.size()), total.scale(),
+            RoundingMode.DOWN);
+        BigDecimal first = total.subtract(share.multiply(BigDecimal.valueOf(slots.size() - 1)));
+        for (int i = 0; i < slots.size(); i++) {
+            slots.get(i).changeAmount(i == 0 ? first : share);
+        }
+    }
+
+    private static BigDecimal sum(List<MyBalanceSlot> slots) {
+        return slots.stream().map(MyBalanceSlot::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private static void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
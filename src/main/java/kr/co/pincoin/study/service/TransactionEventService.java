@@ -5,7 +5,7 @@ import kr.co.pincoin.study.model.MyTransaction;
 import kr.co.pincoin.study.model.MyTransactionStatus;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 @RequiredArgsConstructor
@@ -14,9 +14,19 @@ public class TransactionEventService {
     private final IdempotencyService idempotencyService;
     private final FundTransferService fundTransferService;
     private final TransactionEventPublisher eventPublisher;
+    private final OptimisticLockRetryTemplate retryTemplate;
+    private final TransactionTemplate transactionTemplate;
 
-    @Transactional
+    /**
+     * 송금 전체를 트랜잭션 하나로 실행하고, 커밋 시 낙관적 락 충돌이 나면 트랜잭션을 새로 시작해 다시 실행합니다.
+     */
     public void transfer(String transactionId, Long fromAccountId, Long toAccountId,
+        BigDecimal amount) {
+        retryTemplate.run(() -> transactionTemplate.executeWithoutResult(status ->
+            doTransfer(transactionId, fromAccountId, toAccountId, amount)));
+    }
+
+    private void doTransfer(String transactionId, Long fromAccountId, Long toAccountId,
         BigDecimal amount) {
         try {
             // 멱등성 체크
@@ -1,11 +1,17 @@
 package kr.co.pincoin.study.service;
 
 import java.math.BigDecimal;
+import kr.co.pincoin.study.config.FacadeProperties;
 import kr.co.pincoin.study.model.MyTransaction;
 import kr.co.pincoin.study.model.MyTransactionStatus;
+import kr.co.pincoin.study.service.IdempotencyService.Registration;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class TransactionFacade {
@@ -14,34 +20,85 @@ public class TransactionFacade {
     private final TransactionRecordService transactionRecordService;
     private final FundTransferService fundTransferService;
     private final NotificationService notificationService;
+    private final OptimisticLockRetryTemplate retryTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final FacadeProperties facadeProperties;
 
     public void transfer(String transactionId, Long fromAccountId, Long toAccountId,
         BigDecimal amount) {
-        // 1. 멱등성 체크
-        MyTransaction existingTx = idempotencyService.checkIdempotency(transactionId);
-        if (existingTx != null) {
-            if (existingTx.getStatus() == MyTransactionStatus.COMPLETED) {
-                return;
-            }
-            throw new IllegalStateException("처리 중인 거래가 있습니다.");
+        if (facadeProperties.isSingleTransaction()) {
+            transferInSingleTransaction(transactionId, fromAccountId, toAccountId, amount);
+            return;
         }
 
-        // 2. 트랜잭션 생성
-        MyTransaction transaction = transactionRecordService.createTransaction(
-            transactionId, fromAccountId, toAccountId, amount);
+        // 1. 트랜잭션 생성 + 멱등성 체크 (INSERT 한 번, 중복이면 유니크 제약 위반으로 감지)
+        Registration registration = idempotencyService.register(transactionId, fromAccountId,
+            toAccountId, amount);
+        MyTransaction transaction = registration.transaction();
+        if (!registration.created()) {
+            checkExisting(transaction);
+            return;
+        }
 
         try {
-            // 3. 송금 실행
-            fundTransferService.transfer(fromAccountId, toAccountId, amount);
+            // 2. 송금 실행 (송금 트랜잭션 단위로 낙관적 락 충돌 재시도)
+            retryTemplate.run(() -> fundTransferService.transfer(fromAccountId, toAccountId,
+                amount));
 
-            // 4. 트랜잭션 완료 처리
+            // 3. 트랜잭션 완료 처리
             transactionRecordService.markAsCompleted(transaction);
 
-            // 5. 알림 발송
+            // 4. 알림 발송
             notificationService.sendTransferNotification(transactionId, amount);
         } catch (Exception e) {
             transactionRecordService.markAsFailed(transaction);
             throw e;
         }
     }
+
+    /**
+     * 완료 상태의 거래 기록 INSERT와 송금을 트랜잭션 하나로 실행합니다. (커넥션 획득과 커밋 한 번)
+     * <p>
+     * 거래 기록을 먼저 INSERT하므로 중복 요청은 잔액을 읽기 전에 transactionId 유니크 제약으로 걸러집니다. 송금이 실패하면 거래 기록도 함께
+     * 롤백되므로, 실패 기록은 롤백 뒤 별도 트랜잭션으로 남깁니다.
+     */
+    private void transferInSingleTransaction(String transactionId, Long fromAccountId,
+        Long toAccountId, BigDecimal amount) {
+        try {
+            retryTemplate.run(() -> transactionTemplate.executeWithoutResult(status -> {
+                transactionRecordService.recordCompleted(transactionId, fromAccountId,
+                    toAccountId, amount);
+                fundTransferService.transfer(fromAccountId, toAccountId, amount);
+            }));
+        } catch (DataIntegrityViolationException e) {
+            MyTransaction existing = idempotencyService.checkIdempotency(transactionId);
+            if (existing == null) {
+                throw e;
+            }
+            checkExisting(existing);
+            return;
+        } catch (RuntimeException e) {
+            recordFailure(transactionId, fromAccountId, toAccountId, amount);
+            throw e;
+        }
+
+        notificationService.sendTransferNotification(transactionId, amount);
+    }
+
+    private static void checkExisting(MyTransaction transaction) {
+        if (transaction.getStatus() != MyTransactionStatus.COMPLETED) {
+            throw new IllegalStateException("처리 중인 거래가 있습니다.");
+        }
+    }
+
+    private void recordFailure(String transactionId, Long fromAccountId, Long toAccountId,
+        BigDecimal amount) {
+        try {
+            transactionRecordService.recordFailed(transactionId, fromAccountId, toAccountId,
+                amount);
+        } catch (DataIntegrityViolationException e) {
+            // 같은 transactionId의 다른 요청이 먼저 기록을 남긴 경우
+            log.warn("거래 {}의 실패 기록을 남기지 못했습니다: 이미 기록이 있습니다", transactionId);
+        }
+    }
 }
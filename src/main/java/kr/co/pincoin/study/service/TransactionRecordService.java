@@ -22,6 +22,30 @@ public class TransactionRecordService {
         return transactionRepository.save(transaction);
     }
 
+    /**
+     * 진행 중인 트랜잭션 안에서 완료 상태의 거래를 기록합니다. 트랜잭션이 롤백되면 기록도 남지 않습니다.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public MyTransaction recordCompleted(String transactionId, Long fromAccountId,
+        Long toAccountId, BigDecimal amount) {
+        MyTransaction transaction = new MyTransaction(transactionId, fromAccountId, toAccountId,
+            amount);
+        transaction.markAsCompleted();
+        return transactionRepository.save(transaction);
+    }
+
+    /**
+     * 롤백된 송금의 실패 기록을 별도 트랜잭션으로 남깁니다.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public MyTransaction recordFailed(String transactionId, Long fromAccountId, Long toAccountId,
+        BigDecimal amount) {
+        MyTransaction transaction = new MyTransaction(transactionId, fromAccountId, toAccountId,
+            amount);
+        transaction.markAsFailed();
+        return transactionRepository.save(transaction);
+    }
+
     @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void markAsCompleted(MyTransaction transaction) {
         transaction.markAsCompleted();
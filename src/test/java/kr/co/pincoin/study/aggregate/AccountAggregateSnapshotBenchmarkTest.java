@@ -0,0 +1,107 @@
+package kr.co.pincoin.study.aggregate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import kr.co.pincoin.study.event.AccountEvents.AccountCreatedEvent;
+import kr.co.pincoin.study.event.AccountEvents.MoneyCreditedEvent;
+import kr.co.pincoin.study.event.AccountEvents.MoneyDebitedEvent;
+import org.axonframework.eventhandling.DomainEventMessage;
+import org.axonframework.eventhandling.GenericDomainEventMessage;
+import org.axonframework.eventsourcing.AggregateSnapshotter;
+import org.axonframework.eventsourcing.EventCountSnapshotTriggerDefinition;
+import org.axonframework.eventsourcing.EventSourcingRepository;
+import org.axonframework.eventsourcing.GenericAggregateFactory;
+import org.axonframework.eventsourcing.eventstore.EmbeddedEventStore;
+import org.axonframework.eventsourcing.eventstore.inmemory.InMemoryEventStorageEngine;
+import org.axonframework.messaging.unitofwork.DefaultUnitOfWork;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@Tag("benchmark")
+@DisplayName("계좌 애그리게잇 스냅샷 로딩 벤치마크")
+class AccountAggregateSnapshotBenchmarkTest {
+
+  private static final String AGGREGATE_TYPE = "AccountAggregate";
+  private static final int SNAPSHOT_THRESHOLD = 100;
+  private static final int[] EVENT_COUNTS = {1_000, 10_000, 100_000};
+  private static final int LOAD_ITERATIONS = 50;
+
+  @Test
+  @DisplayName("스냅샷 사용 시 이벤트 수가 늘어도 로드 시간이 일정해야 한다")
+  void loadTimeStaysFlatWithSnapshots() {
+    System.out.println("events | full replay (us/load) | snapshot (us/load)");
+
+    for (int eventCount : EVENT_COUNTS) {
+      long fullReplayMicros = averageLoadMicros(eventCount, false);
+      long snapshotMicros = averageLoadMicros(eventCount, true);
+
+      System.out.printf("%6d | %21d | %18d%n", eventCount, fullReplayMicros, snapshotMicros);
+    }
+  }
+
+  private long averageLoadMicros(int eventCount, boolean snapshotting) {
+    EmbeddedEventStore eventStore = EmbeddedEventStore.builder()
+        .storageEngine(new InMemoryEventStorageEngine())
+        .build();
+    String accountId = "account-" + eventCount;
+    eventStore.publish(history(accountId, eventCount));
+
+    EventSourcingRepository.Builder<AccountAggregate> builder =
+        EventSourcingRepository.builder(AccountAggregate.class).eventStore(eventStore);
+    if (snapshotting) {
+      AggregateSnapshotter snapshotter = AggregateSnapshotter.builder()
+          .eventStore(eventStore)
+          .aggregateFactories(new GenericAggregateFactory<>(AccountAggregate.class))
+          .build();
+      builder.snapshotTriggerDefinition(
+          new EventCountSnapshotTriggerDefinition(snapshotter, SNAPSHOT_THRESHOLD));
+
+      // 이미 임계값을 한참 넘은 계좌이므로 측정 전에 스냅샷을 한 번 만들어 둠
+      snapshotter.scheduleSnapshot(AccountAggregate.class, accountId);
+    }
+    EventSourcingRepository<AccountAggregate> repository = builder.build();
+
+    // 워밍업
+    load(repository, accountId);
+
+    if (snapshotting) {
+      // 스냅샷 이후에는 "스냅샷 + 이후 이벤트"만 읽어야 함
+      assertThat(eventStore.readEvents(accountId).asStream().count())
+          .isLessThanOrEqualTo(SNAPSHOT_THRESHOLD);
+    }
+
+    long start = System.nanoTime();
+    for (int i = 0; i < LOAD_ITERATIONS; i++) {
+      load(repository, accountId);
+    }
+    return (System.nanoTime() - start) / LOAD_ITERATIONS / 1_000;
+  }
+
+  private void load(EventSourcingRepository<AccountAggregate> repository, String accountId) {
+    DefaultUnitOfWork<?> unitOfWork = DefaultUnitOfWork.startAndGet(null);
+    try {
+      repository.load(accountId);
+    } finally {
+      unitOfWork.commit();
+    }
+  }
+
+  private List<DomainEventMessage<?>> history(String accountId, int eventCount) {
+    List<DomainEventMessage<?>> events = new ArrayList<>(eventCount);
+    events.add(new GenericDomainEventMessage<>(AGGREGATE_TYPE, accountId, 0,
+        new AccountCreatedEvent(accountId, BigDecimal.valueOf(1_000_000))));
+
+    for (long sequence = 1; sequence < eventCount; sequence++) {
+      String transactionId = "tx-" + sequence;
+      Object payload = sequence % 2 == 0
+          ? new MoneyCreditedEvent(accountId, "other-account", BigDecimal.TEN, transactionId)
+          : new MoneyDebitedEvent(accountId, "other-account", BigDecimal.TEN, transactionId);
+      events.add(new GenericDomainEventMessage<>(AGGREGATE_TYPE, accountId, sequence, payload));
+    }
+    return events;
+  }
+}
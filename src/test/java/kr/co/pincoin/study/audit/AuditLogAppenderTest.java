@@ -0,0 +1,147 @@
+package kr.co.pincoin.study.audit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("링 버퍼 감사 로그 기록기 테스트")
+class AuditLogAppenderTest {
+
+  @TempDir
+  Path directory;
+
+  private List<String> lines(Path file) throws Exception {
+    return Files.exists(file) ? Files.readAllLines(file) : List.of();
+  }
+
+  @Test
+  @DisplayName("여러 스레드가 동시에 기록해도 닫을 때 모든 줄이 파일에 남아야 한다")
+  void writeAllLinesFromConcurrentProducers() throws Exception {
+    Path file = directory.resolve("audit.log");
+    // 슬롯보다 기록이 훨씬 많아 기록하는 스레드가 기다리는 경우까지 포함
+    AuditLogAppender appender = new AuditLogAppender(file, 8, 64L * 1024 * 1024, 1);
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    List<Future<?>> results = new ArrayList<>();
+    for (int producer = 0; producer < 4; producer++) {
+      int id = producer;
+      results.add(executor.submit(() -> {
+        StringBuilder batch = new StringBuilder();
+        for (int i = 0; i < 1_000; i++) {
+          batch.setLength(0);
+          batch.append("p").append(id).append('-').append(i).append('\n')
+              .append("p").append(id).append('-').append(i).append("-second");
+          appender.append(batch);
+        }
+        return null;
+      }));
+    }
+    for (Future<?> result : results) {
+      result.get();
+    }
+    executor.shutdown();
+    appender.close();
+
+    List<String> lines = lines(file);
+    assertThat(lines).hasSize(8_000).doesNotHaveDuplicates();
+    // 한 번에 넘긴 줄은 떨어지지 않고 연속으로 기록
+    int first = lines.indexOf("p2-500");
+    assertThat(lines.get(first + 1)).isEqualTo("p2-500-second");
+    assertThat(appender.statistics().lines()).isEqualTo(4_000);
+    assertThat(appender.statistics().backlog()).isZero();
+  }
+
+  @Test
+  @DisplayName("파일 크기를 넘으면 이전 파일로 밀어내고 보관 개수를 넘는 파일은 지워야 한다")
+  void rollFilesBySize() throws Exception {
+    Path file = directory.resolve("audit.log");
+    AuditLogAppender appender = new AuditLogAppender(file, 16, 100, 2);
+
+    // 줄바꿈 포함 10자 → 파일 하나에 10줄
+    for (int i = 0; i < 35; i++) {
+      appender.append(String.format("line-%04d", i));
+    }
+    appender.close();
+
+    assertThat(lines(file)).containsExactly("line-0030", "line-0031", "line-0032",
+        "line-0033", "line-0034");
+    assertThat(lines(directory.resolve("audit.log.1"))).hasSize(10).startsWith("line-0020");
+    assertThat(lines(directory.resolve("audit.log.2"))).hasSize(10).startsWith("line-0010");
+    try (Stream<Path> files = Files.list(directory)) {
+      assertThat(files).hasSize(3);
+    }
+  }
+
+  @Test
+  @DisplayName("파일을 밀어내지 못하면 현재 파일을 다시 열어 기록을 잃지 않고 계속 써야 한다")
+  void keepWritingWhenRollFails() throws Exception {
+    Path file = directory.resolve("audit.log");
+    // audit.log.1 자리에 비어 있지 않은 디렉터리가 있어 밀어내기가 실패함
+    Path blocker = Files.createDirectory(directory.resolve("audit.log.1"));
+    Files.createFile(blocker.resolve("keep"));
+    AuditLogAppender appender = new AuditLogAppender(file, 16, 100, 1);
+
+    for (int i = 0; i < 35; i++) {
+      appender.append(String.format("line-%04d", i));
+    }
+    appender.close();
+
+    assertThat(lines(file)).hasSize(35).startsWith("line-0000").endsWith("line-0034");
+    assertThat(appender.statistics().writeFailures()).isPositive();
+    assertThat(appender.statistics().backlog()).isZero();
+  }
+
+  @Test
+  @DisplayName("파일을 열지 못하는 동안 버퍼가 차면 기록을 버리고, 다시 열리면 남은 기록을 순서대로 써야 한다")
+  void dropWhenBlockedAndRecover() throws Exception {
+    Path file = directory.resolve("audit.log");
+    AtomicBoolean brokenDisk = new AtomicBoolean();
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    // 슬롯 4개, 파일 하나에 10줄
+    AuditLogAppender appender = new AuditLogAppender(file, 4, 100, 1, Duration.ofMillis(200)) {
+      @Override
+      OutputStream openStream(Path path) throws IOException {
+        if (brokenDisk.get()) {
+          throw new IOException("디스크 오류");
+        }
+        return super.openStream(path);
+      }
+    };
+    appender.bindTo(registry);
+    brokenDisk.set(true);
+
+    // 11번째 줄에서 밀어낸 뒤 새 파일을 열지 못해 기록기가 멈추고, 버퍼에 들어가지 못한 7줄은 버려짐 (쓰지 않은 기록은 최대 3개)
+    int accepted = 0;
+    for (int i = 0; i < 20; i++) {
+      if (appender.append(String.format("line-%04d", i))) {
+        accepted++;
+      }
+    }
+    assertThat(accepted).isEqualTo(13);
+    assertThat(appender.statistics().dropped()).isEqualTo(7);
+
+    brokenDisk.set(false);
+    appender.close();
+
+    assertThat(lines(directory.resolve("audit.log.1"))).hasSize(10).startsWith("line-0000");
+    assertThat(lines(file)).containsExactly("line-0010", "line-0011", "line-0012");
+    assertThat(registry.get("audit.log.dropped").functionCounter().count()).isEqualTo(7);
+    assertThat(registry.get("audit.log.write.failures").functionCounter().count()).isPositive();
+    assertThat(registry.get("audit.log.backlog").gauge().value()).isZero();
+  }
+}
@@ -0,0 +1,172 @@
+package kr.co.pincoin.study.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import kr.co.pincoin.study.aggregate.AccountAggregate;
+import kr.co.pincoin.study.command.AccountCommands.DebitAccountCommand;
+import kr.co.pincoin.study.event.AccountEvents.AccountCreatedEvent;
+import org.axonframework.eventhandling.GenericDomainEventMessage;
+import org.axonframework.eventsourcing.EventSourcingRepository;
+import org.axonframework.eventsourcing.eventstore.EmbeddedEventStore;
+import org.axonframework.eventsourcing.eventstore.inmemory.InMemoryEventStorageEngine;
+import org.axonframework.messaging.unitofwork.DefaultUnitOfWork;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("애그리게잇 캐시 테스트")
+class BoundedAggregateCacheTest {
+
+  /**
+   * 테스트에서 시간을 직접 진행시키는 시계
+   */
+  private static class ManualClock extends Clock {
+
+    private long millis;
+
+    void advance(Duration duration) {
+      millis += duration.toMillis();
+    }
+
+    @Override
+    public long millis() {
+      return millis;
+    }
+
+    @Override
+    public Instant instant() {
+      return Instant.ofEpochMilli(millis);
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+  }
+
+  @Test
+  @DisplayName("최대 크기를 넘으면 가장 오래 사용되지 않은 항목이 제거되어야 한다")
+  void evictLeastRecentlyUsed() {
+    BoundedAggregateCache cache = new BoundedAggregateCache(2, Duration.ZERO);
+    cache.put("a", "A");
+    cache.put("b", "B");
+    cache.get("a");
+    cache.put("c", "C");
+
+    assertThat(cache.containsKey("a")).isTrue();
+    assertThat(cache.containsKey("b")).isFalse();
+    assertThat(cache.containsKey("c")).isTrue();
+    assertThat(cache.statistics().evictions()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("유휴 시간이 지난 항목은 만료되고 미스로 집계되어야 한다")
+  void expireIdleEntries() {
+    ManualClock clock = new ManualClock();
+    BoundedAggregateCache cache = new BoundedAggregateCache(10, Duration.ofMinutes(1), clock);
+    cache.put("a", "A");
+
+    clock.advance(Duration.ofSeconds(30));
+    assertThat((Object) cache.get("a")).isEqualTo("A");
+
+    // 조회로 마지막 접근 시간이 갱신되었으므로 다시 30초 뒤에도 유효
+    clock.advance(Duration.ofSeconds(30));
+    assertThat((Object) cache.get("a")).isEqualTo("A");
+
+    clock.advance(Duration.ofMinutes(1));
+    assertThat((Object) cache.get("a")).isNull();
+
+    BoundedAggregateCache.Statistics statistics = cache.statistics();
+    assertThat(statistics.hits()).isEqualTo(2);
+    assertThat(statistics.misses()).isEqualTo(1);
+    assertThat(statistics.expirations()).isEqualTo(1);
+    assertThat(statistics.size()).isZero();
+  }
+
+  @Test
+  @DisplayName("작업 단위가 롤백되면 캐시된 애그리게잇이 무효화되어야 한다")
+  void invalidateOnRollback() {
+    EmbeddedEventStore eventStore = EmbeddedEventStore.builder()
+        .storageEngine(new InMemoryEventStorageEngine())
+        .build();
+    eventStore.publish(new GenericDomainEventMessage<>("AccountAggregate", "acc", 0,
+        new AccountCreatedEvent("acc", new BigDecimal("1000"))));
+
+    BoundedAggregateCache cache = new BoundedAggregateCache(10, Duration.ofMinutes(10));
+    EventSourcingRepository<AccountAggregate> repository =
+        EventSourcingRepository.builder(AccountAggregate.class)
+            .eventStore(eventStore)
+            .cache(cache)
+            .build();
+
+    DefaultUnitOfWork<?> committed = DefaultUnitOfWork.startAndGet(null);
+    repository.load("acc").execute(aggregate -> aggregate.handle(
+        new DebitAccountCommand("acc", "target", new BigDecimal("100"), "tx-1")));
+    committed.commit();
+    assertThat(cache.containsKey("acc")).isTrue();
+
+    DefaultUnitOfWork<?> rolledBack = DefaultUnitOfWork.startAndGet(null);
+    repository.load("acc").execute(aggregate -> aggregate.handle(
+        new DebitAccountCommand("acc", "target", new BigDecimal("100"), "tx-2")));
+    rolledBack.rollback();
+
+    assertThat(cache.containsKey("acc")).isFalse();
+    assertThat(cache.statistics().hits()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("쓰기 기준 만료는 자주 조회되는 항목도 TTL이 지나면 만료시켜야 한다")
+  void expireAfterWriteIgnoresReads() {
+    ManualClock clock = new ManualClock();
+    BoundedAggregateCache cache = new BoundedAggregateCache(10, Duration.ofMinutes(1),
+        BoundedAggregateCache.Expiry.AFTER_WRITE, clock);
+    cache.put("a", "A");
+
+    for (int i = 0; i < 5; i++) {
+      clock.advance(Duration.ofSeconds(10));
+      assertThat((Object) cache.get("a")).isEqualTo("A");
+    }
+
+    clock.advance(Duration.ofSeconds(10));
+    assertThat((Object) cache.get("a")).isNull();
+    assertThat(cache.statistics().expirations()).isEqualTo(1);
+
+    // 다시 쓰면 그 시각부터 TTL 적용
+    cache.put("a", "A2");
+    clock.advance(Duration.ofSeconds(59));
+    assertThat((Object) cache.get("a")).isEqualTo("A2");
+  }
+
+  @Test
+  @DisplayName("적중/미스/제거 횟수가 지표로 노출되어야 한다")
+  void bindStatisticsToMeters() {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    BoundedAggregateCache cache = new BoundedAggregateCache(1, Duration.ZERO);
+    cache.bindTo(registry, "axon.aggregate.cache");
+
+    cache.put("a", "A");
+    cache.get("a");
+    cache.get("b");
+    cache.put("b", "B");
+
+    assertThat(registry.get("axon.aggregate.cache.gets").tag("result", "hit")
+        .functionCounter().count()).isEqualTo(1);
+    assertThat(registry.get("axon.aggregate.cache.gets").tag("result", "miss")
+        .functionCounter().count()).isEqualTo(1);
+    assertThat(registry.get("axon.aggregate.cache.evictions").functionCounter().count())
+        .isEqualTo(1);
+    assertThat(registry.get("axon.aggregate.cache.size").gauge().value()).isEqualTo(1);
+    assertThat(registry.get("axon.aggregate.cache.hit.ratio").gauge().value()).isEqualTo(0.5);
+  }
+}
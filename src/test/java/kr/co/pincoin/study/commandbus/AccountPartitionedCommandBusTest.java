@@ -0,0 +1,309 @@
+package kr.co.pincoin.study.commandbus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import kr.co.pincoin.study.aggregate.AccountAggregate;
+import kr.co.pincoin.study.command.AccountCommands.CreditAccountCommand;
+import kr.co.pincoin.study.command.AccountCommands.DebitAccountCommand;
+import kr.co.pincoin.study.event.AccountEvents.AccountCreatedEvent;
+import kr.co.pincoin.study.event.AccountEvents.MoneyCreditedEvent;
+import org.axonframework.commandhandling.CommandMessage;
+import org.axonframework.commandhandling.CommandResultMessage;
+import org.axonframework.commandhandling.GenericCommandMessage;
+import org.axonframework.commandhandling.SimpleCommandBus;
+import org.axonframework.common.transaction.NoTransactionManager;
+import org.axonframework.eventhandling.EventMessage;
+import org.axonframework.eventhandling.GenericDomainEventMessage;
+import org.axonframework.eventsourcing.EventSourcingRepository;
+import org.axonframework.eventsourcing.eventstore.EmbeddedEventStore;
+import org.axonframework.eventsourcing.eventstore.inmemory.InMemoryEventStorageEngine;
+import org.axonframework.messaging.MetaData;
+import org.axonframework.modelling.command.AggregateAnnotationCommandHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("계좌 분할 커맨드 버스 테스트")
+class AccountPartitionedCommandBusTest {
+
+  private final AccountPartitionedCommandBus commandBus =
+      new AccountPartitionedCommandBus(SimpleCommandBus.builder().build(), 4, 64);
+
+  @AfterEach
+  void tearDown() {
+    commandBus.shutdown();
+  }
+
+  private static CommandMessage<CreditAccountCommand> credit(String accountId, int sequence) {
+    return GenericCommandMessage.asCommandMessage(
+        new CreditAccountCommand(accountId, "source", BigDecimal.ONE, "tx-" + sequence));
+  }
+
+  @Test
+  @DisplayName("같은 계좌의 커맨드는 하나의 스레드에서 보낸 순서대로 처리되어야 한다")
+  void sameAccountRunsOnOneThreadInOrder() throws InterruptedException {
+    Map<String, List<String>> threads = new ConcurrentHashMap<>();
+    Map<String, List<String>> transactions = new ConcurrentHashMap<>();
+    commandBus.subscribe(CreditAccountCommand.class.getName(), message -> {
+      CreditAccountCommand command = (CreditAccountCommand) message.getPayload();
+      threads.computeIfAbsent(command.getAccountId(), k -> new CopyOnWriteArrayList<>())
+          .add(Thread.currentThread().getName());
+      transactions.computeIfAbsent(command.getAccountId(), k -> new CopyOnWriteArrayList<>())
+          .add(command.getTransactionId());
+      return null;
+    });
+
+    int accounts = 8;
+    int perAccount = 100;
+    CountDownLatch done = new CountDownLatch(accounts * perAccount);
+    for (int sequence = 0; sequence < perAccount; sequence++) {
+      for (int account = 0; account < accounts; account++) {
+        commandBus.dispatch(credit("account-" + account, sequence),
+            (command, result) -> done.countDown());
+      }
+    }
+
+    assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+    for (int account = 0; account < accounts; account++) {
+      String accountId = "account-" + account;
+      assertThat(threads.get(accountId)).hasSize(perAccount).containsOnly(
+          threads.get(accountId).get(0));
+      assertThat(transactions.get(accountId)).first().isEqualTo("tx-0");
+      assertThat(transactions.get(accountId)).last().isEqualTo("tx-" + (perAccount - 1));
+      assertThat(transactions.get(accountId)).isSortedAccordingTo(
+          (left, right) -> Integer.compare(Integer.parseInt(left.substring(3)),
+              Integer.parseInt(right.substring(3))));
+    }
+  }
+
+  @Test
+  @DisplayName("디스패치 인터셉터는 레인으로 넘기기 전에 적용되어야 한다")
+  void applyDispatchInterceptors() throws InterruptedException {
+    List<Object> traces = new CopyOnWriteArrayList<>();
+    commandBus.subscribe(CreditAccountCommand.class.getName(), message -> {
+      traces.add(message.getMetaData().get("traceId"));
+      return "ok";
+    });
+    commandBus.registerDispatchInterceptor(
+        messages -> (index, message) -> message.andMetaData(MetaData.with("traceId", "trace-1")));
+
+    CountDownLatch done = new CountDownLatch(1);
+    commandBus.dispatch(credit("account-1", 0), (command, result) -> {
+      assertThat(result.getPayload()).isEqualTo("ok");
+      done.countDown();
+    });
+
+    assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(traces).containsExactly("trace-1");
+  }
+
+  @Test
+  @DisplayName("라우팅 키가 같으면 항상 같은 레인으로 배정되어야 한다")
+  void stableLaneAssignment() {
+    for (int i = 0; i < 100; i++) {
+      String accountId = "account-" + i;
+      assertThat(commandBus.laneIndex(accountId))
+          .isEqualTo(commandBus.laneIndex(accountId))
+          .isBetween(0, commandBus.laneCount() - 1);
+    }
+  }
+
+  private static String accountOnLane(AccountPartitionedCommandBus bus, int lane) {
+    for (int i = 0; ; i++) {
+      if (bus.laneIndex("account-" + i) == lane) {
+        return "account-" + i;
+      }
+    }
+  }
+
+  @Test
+  @DisplayName("종료 중에 보낸 커맨드도 결과 콜백이 빠짐없이 완료되어야 한다")
+  void completeCallbacksDispatchedDuringShutdown() throws InterruptedException {
+    AccountPartitionedCommandBus stopping =
+        new AccountPartitionedCommandBus(SimpleCommandBus.builder().build(), 2, 16);
+    stopping.subscribe(CreditAccountCommand.class.getName(), message -> null);
+
+    int senders = 4;
+    int perSender = 500;
+    CountDownLatch done = new CountDownLatch(senders * perSender);
+    AtomicInteger rejected = new AtomicInteger();
+    List<Thread> threads = new ArrayList<>();
+    for (int sender = 0; sender < senders; sender++) {
+      int offset = sender * perSender;
+      Thread thread = new Thread(() -> {
+        for (int i = 0; i < perSender; i++) {
+          stopping.dispatch(credit("account-" + (offset + i), offset + i), (command, result) -> {
+            if (result.isExceptional()) {
+              rejected.incrementAndGet();
+            }
+            done.countDown();
+          });
+        }
+      });
+      threads.add(thread);
+      thread.start();
+    }
+    stopping.shutdown();
+    for (Thread thread : threads) {
+      thread.join(5_000);
+    }
+
+    assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+
+    CountDownLatch afterShutdown = new CountDownLatch(1);
+    stopping.dispatch(credit("account-1", 0), (command, result) -> {
+      assertThat(result.exceptionResult()).isInstanceOf(IllegalStateException.class);
+      afterShutdown.countDown();
+    });
+    assertThat(afterShutdown.await(1, TimeUnit.SECONDS)).isTrue();
+  }
+
+  @Test
+  @DisplayName("레인 스레드가 다른 레인의 가득 찬 큐로 보내는 커맨드는 계속 기다리지 않고 실패해야 한다")
+  void failCrossLaneDispatchToFullLane() throws InterruptedException {
+    AccountPartitionedCommandBus small =
+        new AccountPartitionedCommandBus(SimpleCommandBus.builder().build(), 2, 1);
+    String first = accountOnLane(small, 0);
+    String second = accountOnLane(small, 1);
+
+    CountDownLatch blocked = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch forwarded = new CountDownLatch(1);
+    List<CommandResultMessage<?>> results = new CopyOnWriteArrayList<>();
+    small.subscribe(CreditAccountCommand.class.getName(), message -> {
+      CreditAccountCommand command = (CreditAccountCommand) message.getPayload();
+      if (command.getTransactionId().equals("block")) {
+        blocked.countDown();
+        release.await(10, TimeUnit.SECONDS);
+      } else if (command.getTransactionId().equals("forward")) {
+        small.dispatch(GenericCommandMessage.asCommandMessage(
+                new CreditAccountCommand(second, first, BigDecimal.ONE, "forwarded")),
+            (forwardedCommand, result) -> {
+              results.add(result);
+              forwarded.countDown();
+            });
+      }
+      return null;
+    });
+
+    // 두 번째 레인의 스레드를 막고 큐(크기 1)를 채움
+    small.dispatch(GenericCommandMessage.asCommandMessage(
+        new CreditAccountCommand(second, "source", BigDecimal.ONE, "block")), (c, r) -> {
+    });
+    assertThat(blocked.await(5, TimeUnit.SECONDS)).isTrue();
+    small.dispatch(GenericCommandMessage.asCommandMessage(
+        new CreditAccountCommand(second, "source", BigDecimal.ONE, "filler")), (c, r) -> {
+    });
+    small.dispatch(GenericCommandMessage.asCommandMessage(
+        new CreditAccountCommand(first, "source", BigDecimal.ONE, "forward")), (c, r) -> {
+    });
+
+    assertThat(forwarded.await(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(results.get(0).exceptionResult()).isInstanceOf(RejectedExecutionException.class);
+    release.countDown();
+    small.shutdown();
+  }
+
+  /**
+   * 이벤트 추가 호출 횟수를 세는 메모리 저장소
+   */
+  private static class CountingStorageEngine extends InMemoryEventStorageEngine {
+
+    private final AtomicInteger appends = new AtomicInteger();
+
+    @Override
+    public void appendEvents(List<? extends EventMessage<?>> events) {
+      appends.incrementAndGet();
+      super.appendEvents(events);
+    }
+  }
+
+  @Test
+  @DisplayName("같은 계좌에 쌓인 입금은 한 번에 저장되고 커맨드별 결과는 유지되어야 한다")
+  void coalesceQueuedCredits() throws InterruptedException {
+    CountingStorageEngine storageEngine = new CountingStorageEngine();
+    EmbeddedEventStore eventStore = EmbeddedEventStore.builder()
+        .storageEngine(storageEngine)
+        .build();
+    eventStore.publish(new GenericDomainEventMessage<>("AccountAggregate", "hot", 0,
+        new AccountCreatedEvent("hot", new BigDecimal("100"))));
+
+    SimpleCommandBus delegate = SimpleCommandBus.builder().build();
+    AccountPartitionedCommandBus coalescing = new AccountPartitionedCommandBus(delegate, 1, 256,
+        NoTransactionManager.INSTANCE, Set.of(CreditAccountCommand.class), 256);
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    coalescing.bindTo(registry);
+    AggregateAnnotationCommandHandler.<AccountAggregate>builder()
+        .aggregateType(AccountAggregate.class)
+        .repository(EventSourcingRepository.builder(AccountAggregate.class)
+            .eventStore(eventStore)
+            .build())
+        .build()
+        .subscribe(coalescing);
+
+    // 레인을 잠시 막아 입금 커맨드가 큐에 쌓이게 함
+    CountDownLatch release = new CountDownLatch(1);
+    delegate.subscribe(String.class.getName(), message -> release.await(5, TimeUnit.SECONDS));
+    coalescing.dispatch(GenericCommandMessage.asCommandMessage("block"), (command, result) -> {
+    });
+
+    int credits = 50;
+    CountDownLatch done = new CountDownLatch(credits + 2);
+    List<CommandResultMessage<?>> results = new CopyOnWriteArrayList<>();
+    for (int i = 0; i < credits; i++) {
+      // 잘못된 금액의 입금은 자기 커맨드만 실패해야 함
+      BigDecimal amount = i == 10 ? BigDecimal.ZERO : BigDecimal.ONE;
+      coalescing.dispatch(GenericCommandMessage.asCommandMessage(
+              new CreditAccountCommand("hot", "source", amount, "tx-" + i)),
+          (command, result) -> {
+            results.add(result);
+            done.countDown();
+          });
+    }
+    // 출금 뒤의 입금은 출금을 앞지르지 않아야 함
+    coalescing.dispatch(GenericCommandMessage.asCommandMessage(
+            new DebitAccountCommand("hot", "target", new BigDecimal("149"), "tx-debit")),
+        (command, result) -> {
+          results.add(result);
+          done.countDown();
+        });
+    coalescing.dispatch(GenericCommandMessage.asCommandMessage(
+            new CreditAccountCommand("hot", "source", BigDecimal.ONE, "tx-after-debit")),
+        (command, result) -> {
+          results.add(result);
+          done.countDown();
+        });
+    int appendsBeforeRelease = storageEngine.appends.get();
+    release.countDown();
+
+    assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+    coalescing.shutdown();
+
+    assertThat(results).filteredOn(CommandResultMessage::isExceptional).hasSize(1);
+    List<Object> payloads = new ArrayList<>();
+    eventStore.readEvents("hot").asStream().forEach(event -> payloads.add(event.getPayload()));
+    // 생성 1 + 입금 49 + 출금 1 + 출금 뒤 입금 1
+    assertThat(payloads).hasSize(52);
+    assertThat(payloads.get(payloads.size() - 1)).isInstanceOf(MoneyCreditedEvent.class)
+        .extracting("transactionId").isEqualTo("tx-after-debit");
+    // 입금 49건은 한 번에, 출금과 그 뒤 입금은 각각 저장
+    assertThat(storageEngine.appends.get() - appendsBeforeRelease).isEqualTo(3);
+    assertThat(coalescing.coalescingStatistics().commands()).isEqualTo(credits);
+    assertThat(registry.get("commandbus.partitioned.coalesced.commands").functionCounter().count())
+        .isEqualTo(credits);
+    assertThat(registry.get("commandbus.partitioned.coalesced.batches").functionCounter().count())
+        .isEqualTo(1);
+  }
+}
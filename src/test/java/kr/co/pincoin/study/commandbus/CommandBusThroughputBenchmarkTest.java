@@ -0,0 +1,118 @@
+package kr.co.pincoin.study.commandbus;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import kr.co.pincoin.study.aggregate.AccountAggregate;
+import kr.co.pincoin.study.cache.BoundedAggregateCache;
+import kr.co.pincoin.study.command.AccountCommands.CreditAccountCommand;
+import kr.co.pincoin.study.event.AccountEvents.AccountCreatedEvent;
+import org.axonframework.commandhandling.CommandBus;
+import org.axonframework.commandhandling.GenericCommandMessage;
+import org.axonframework.commandhandling.SimpleCommandBus;
+import org.axonframework.common.transaction.NoTransactionManager;
+import org.axonframework.eventhandling.DomainEventMessage;
+import org.axonframework.eventhandling.GenericDomainEventMessage;
+import org.axonframework.eventsourcing.EventSourcingRepository;
+import org.axonframework.eventsourcing.eventstore.EmbeddedEventStore;
+import org.axonframework.eventsourcing.eventstore.inmemory.InMemoryEventStorageEngine;
+import org.axonframework.modelling.command.AggregateAnnotationCommandHandler;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * SimpleCommandBus, 계좌 분할 커맨드 버스, 입금 병합 처리를 켠 계좌 분할 커맨드 버스의 처리량을 비교합니다.
+ * <p>
+ * 소수의 핫 계좌에 입금 커맨드가 몰리는 상황을 가정해, 여러 스레드가 HOT_ACCOUNTS개 계좌에 커맨드를 보냅니다. 애그리게잇 재생 비용이 결과를 왜곡하지
+ * 않도록 두 경우 모두 애그리게잇 캐시를 사용합니다. (./gradlew benchmark)
+ */
+@Tag("benchmark")
+@DisplayName("커맨드 버스 처리량 벤치마크")
+class CommandBusThroughputBenchmarkTest {
+
+  private static final int HOT_ACCOUNTS = 32;
+  private static final int PRODUCERS = 16;
+  private static final int COMMANDS = 100_000;
+
+  @Test
+  @DisplayName("핫 계좌 경합 상황에서 두 커맨드 버스의 처리량을 출력한다")
+  void compareThroughput() throws InterruptedException {
+    int lanes = Runtime.getRuntime().availableProcessors();
+
+    // 워밍업
+    run(SimpleCommandBus.builder().build(), COMMANDS / 10);
+    AccountPartitionedCommandBus warmup =
+        new AccountPartitionedCommandBus(SimpleCommandBus.builder().build(), lanes, 1024);
+    run(warmup, COMMANDS / 10);
+    warmup.shutdown();
+
+    System.out.println("command bus | commands/s");
+    System.out.printf("%-11s | %10d%n", "simple", run(SimpleCommandBus.builder().build(), COMMANDS));
+
+    AccountPartitionedCommandBus partitioned =
+        new AccountPartitionedCommandBus(SimpleCommandBus.builder().build(), lanes, 1024);
+    System.out.printf("%-11s | %10d%n", "partitioned", run(partitioned, COMMANDS));
+    partitioned.shutdown();
+
+    AccountPartitionedCommandBus coalesced = new AccountPartitionedCommandBus(
+        SimpleCommandBus.builder().build(), lanes, 1024, NoTransactionManager.INSTANCE,
+        Set.of(CreditAccountCommand.class), 256);
+    System.out.printf("%-11s | %10d%n", "coalesced", run(coalesced, COMMANDS));
+    System.out.println("average coalesced batch: "
+        + coalesced.coalescingStatistics().averageBatchSize());
+    coalesced.shutdown();
+  }
+
+  private long run(CommandBus commandBus, int commands) throws InterruptedException {
+    EmbeddedEventStore eventStore = EmbeddedEventStore.builder()
+        .storageEngine(new InMemoryEventStorageEngine())
+        .build();
+    List<DomainEventMessage<?>> created = new ArrayList<>();
+    for (int i = 0; i < HOT_ACCOUNTS; i++) {
+      created.add(new GenericDomainEventMessage<>("AccountAggregate", "account-" + i, 0,
+          new AccountCreatedEvent("account-" + i, BigDecimal.ZERO)));
+    }
+    eventStore.publish(created);
+
+    EventSourcingRepository<AccountAggregate> repository =
+        EventSourcingRepository.builder(AccountAggregate.class)
+            .eventStore(eventStore)
+            .cache(new BoundedAggregateCache(HOT_ACCOUNTS * 2, Duration.ZERO))
+            .build();
+    AggregateAnnotationCommandHandler.<AccountAggregate>builder()
+        .aggregateType(AccountAggregate.class)
+        .repository(repository)
+        .build()
+        .subscribe(commandBus);
+
+    CountDownLatch done = new CountDownLatch(commands);
+    AtomicInteger sequence = new AtomicInteger();
+    ExecutorService producers = Executors.newFixedThreadPool(PRODUCERS);
+
+    long start = System.nanoTime();
+    for (int p = 0; p < PRODUCERS; p++) {
+      producers.submit(() -> {
+        int i;
+        while ((i = sequence.getAndIncrement()) < commands) {
+          String accountId = "account-" + (i % HOT_ACCOUNTS);
+          commandBus.dispatch(GenericCommandMessage.asCommandMessage(
+                  new CreditAccountCommand(accountId, "source", BigDecimal.ONE, "tx-" + i)),
+              (command, result) -> done.countDown());
+        }
+      });
+    }
+    done.await(5, TimeUnit.MINUTES);
+    long elapsedNanos = System.nanoTime() - start;
+    producers.shutdown();
+
+    return commands * 1_000_000_000L / Math.max(elapsedNanos, 1);
+  }
+}
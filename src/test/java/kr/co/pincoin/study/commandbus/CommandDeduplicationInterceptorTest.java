@@ -0,0 +1,139 @@
+package kr.co.pincoin.study.commandbus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import kr.co.pincoin.study.command.AccountCommands.CreditAccountCommand;
+import kr.co.pincoin.study.command.AccountCommands.DebitAccountCommand;
+import kr.co.pincoin.study.dedup.ShardedDedupWindow;
+import kr.co.pincoin.study.model.ProcessedCommand;
+import kr.co.pincoin.study.repository.ProcessedCommandRepository;
+import org.axonframework.commandhandling.CommandMessage;
+import org.axonframework.commandhandling.SimpleCommandBus;
+import org.axonframework.commandhandling.gateway.CommandGateway;
+import org.axonframework.commandhandling.gateway.DefaultCommandGateway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("커맨드 중복 제거 인터셉터 테스트")
+class CommandDeduplicationInterceptorTest {
+
+  private final ProcessedCommandRepository repository = mock(ProcessedCommandRepository.class);
+  private final AtomicInteger handled = new AtomicInteger();
+  private CommandGateway gateway;
+
+  @BeforeEach
+  void setUp() {
+    gateway = gatewayWith(newInterceptor());
+  }
+
+  private CommandDeduplicationInterceptor newInterceptor() {
+    return new CommandDeduplicationInterceptor(new ShardedDedupWindow(4, 100), repository,
+        Duration.ofDays(7), Clock.systemUTC());
+  }
+
+  private CommandGateway gatewayWith(CommandDeduplicationInterceptor interceptor) {
+    SimpleCommandBus commandBus = SimpleCommandBus.builder().build();
+    commandBus.registerHandlerInterceptor(interceptor);
+    commandBus.subscribe(DebitAccountCommand.class.getName(), this::handle);
+    commandBus.subscribe(CreditAccountCommand.class.getName(), this::handle);
+    return DefaultCommandGateway.builder().commandBus(commandBus).build();
+  }
+
+  private Object handle(CommandMessage<?> command) {
+    handled.incrementAndGet();
+    if (command.getPayload() instanceof CreditAccountCommand credit
+        && credit.getAmount().signum() <= 0) {
+      throw new IllegalArgumentException("입금액은 반드시 양수여야 합니다");
+    }
+    return null;
+  }
+
+  private static DebitAccountCommand debit(String transactionId) {
+    return new DebitAccountCommand("a", "b", BigDecimal.TEN, transactionId);
+  }
+
+  @Test
+  @DisplayName("같은 transactionId의 커맨드는 핸들러를 다시 호출하지 않고 한 번만 기록해야 한다")
+  void shortCircuitDuplicates() {
+    gateway.sendAndWait(debit("tx-1"));
+    gateway.sendAndWait(debit("tx-1"));
+    gateway.sendAndWait(new CreditAccountCommand("b", "a", BigDecimal.TEN, "tx-1"));
+
+    assertThat(handled).hasValue(2);
+    verify(repository, times(2)).save(any(ProcessedCommand.class));
+    verify(repository, times(2)).existsById(anyString());
+  }
+
+  @Test
+  @DisplayName("재기동해 메모리 창이 비어도 영속 인덱스에 있으면 중복으로 판정해야 한다")
+  void duplicateAfterRestart() {
+    when(repository.existsById("debit:a:tx-1")).thenReturn(true);
+    CommandDeduplicationInterceptor restarted = newInterceptor();
+    gateway = gatewayWith(restarted);
+
+    gateway.sendAndWait(debit("tx-1"));
+    gateway.sendAndWait(debit("tx-1"));
+
+    assertThat(handled).hasValue(0);
+    verify(repository, never()).save(any(ProcessedCommand.class));
+    assertThat(restarted.statistics().persistentHits()).isEqualTo(1);
+    assertThat(restarted.statistics().windowHits()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("중복 판정 결과와 메모리 창 크기가 지표로 노출되어야 한다")
+  void bindStatisticsToMeters() {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    CommandDeduplicationInterceptor interceptor = newInterceptor();
+    interceptor.bindTo(registry);
+    gateway = gatewayWith(interceptor);
+
+    gateway.sendAndWait(debit("tx-1"));
+    gateway.sendAndWait(debit("tx-1"));
+
+    assertThat(registry.get("dedup.commands.checks").tag("result", "first_seen")
+        .functionCounter().count()).isEqualTo(1);
+    assertThat(registry.get("dedup.commands.checks").tag("result", "window_hit")
+        .functionCounter().count()).isEqualTo(1);
+    assertThat(registry.get("dedup.commands.persistent.lookups").functionCounter().count())
+        .isEqualTo(1);
+    assertThat(registry.get("dedup.commands.window.size").gauge().value()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("실패한 커맨드는 기록하지 않아 다시 보내면 처리되어야 한다")
+  void failedCommandIsNotRecorded() {
+    CreditAccountCommand invalid = new CreditAccountCommand("b", "a", BigDecimal.ZERO, "tx-2");
+
+    assertThatThrownBy(() -> gateway.sendAndWait(invalid))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> gateway.sendAndWait(invalid))
+        .isInstanceOf(IllegalArgumentException.class);
+
+    assertThat(handled).hasValue(2);
+    verify(repository, never()).save(any(ProcessedCommand.class));
+  }
+
+  @Test
+  @DisplayName("출금과 입금은 같은 transactionId여도 서로 다른 키로 판정해야 한다")
+  void keyPerCommandAndAccount() {
+    assertThat(CommandDeduplicationInterceptor.keyOf(debit("tx-3"))).isEqualTo("debit:a:tx-3");
+    assertThat(CommandDeduplicationInterceptor.keyOf(
+        new CreditAccountCommand("b", "a", BigDecimal.TEN, "tx-3"))).isEqualTo("credit:b:tx-3");
+    assertThat(CommandDeduplicationInterceptor.keyOf("not-a-command")).isNull();
+  }
+}
@@ -0,0 +1,127 @@
+package kr.co.pincoin.study.commandbus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import kr.co.pincoin.study.command.AccountCommands.DebitAccountCommand;
+import org.axonframework.commandhandling.CommandExecutionException;
+import org.axonframework.commandhandling.CommandMessage;
+import org.axonframework.commandhandling.GenericCommandMessage;
+import org.axonframework.modelling.command.ConcurrencyException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("동시성 충돌 재시도 스케줄러 테스트")
+class ConflictRetrySchedulerTest {
+
+  private final ScheduledExecutorService executor = mock(ScheduledExecutorService.class);
+
+  private static CommandMessage<?> debit(String accountId) {
+    return GenericCommandMessage.asCommandMessage(
+        new DebitAccountCommand(accountId, "target", BigDecimal.ONE, "tx-1"));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<Class<? extends Throwable>[]> failures(RuntimeException failure, int count) {
+    List<Class<? extends Throwable>[]> failures = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      failures.add(new Class[]{failure.getClass()});
+    }
+    return failures;
+  }
+
+  @Test
+  @DisplayName("동시성 충돌은 재시도하고 그 외 예외는 재시도하지 않아야 한다")
+  void retryOnlyConflicts() {
+    ConflictRetryScheduler scheduler = new ConflictRetryScheduler(executor, 3,
+        Duration.ofMillis(10), Duration.ofSeconds(1), 100, 100, 100);
+    RuntimeException conflict = new CommandExecutionException("conflict",
+        new ConcurrencyException("version conflict"));
+    RuntimeException insufficient = new IllegalStateException("잔액이 부족합니다");
+
+    assertThat(scheduler.scheduleRetry(debit("a"), conflict, failures(conflict, 1), () -> {
+    })).isTrue();
+    assertThat(scheduler.scheduleRetry(debit("a"), insufficient, failures(insufficient, 1),
+        () -> {
+        })).isFalse();
+
+    verify(executor, times(1)).schedule(any(Runnable.class), anyLong(), eq(TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  @DisplayName("최대 재시도 횟수를 넘으면 포기하고 계좌별로 집계해야 한다")
+  void giveUpAfterMaxRetries() {
+    ConflictRetryScheduler scheduler = new ConflictRetryScheduler(executor, 2,
+        Duration.ofMillis(10), Duration.ofSeconds(1), 100, 100, 100);
+    RuntimeException conflict = new ConcurrencyException("version conflict");
+
+    for (int attempt = 1; attempt <= 3; attempt++) {
+      scheduler.scheduleRetry(debit("hot"), conflict, failures(conflict, attempt), () -> {
+      });
+    }
+    scheduler.scheduleRetry(debit("cold"), conflict, failures(conflict, 1), () -> {
+    });
+
+    assertThat(scheduler.topContended(10)).containsExactly(
+        new ConflictRetryScheduler.AggregateContention("hot", 3, 2, 1),
+        new ConflictRetryScheduler.AggregateContention("cold", 1, 1, 0));
+  }
+
+  @Test
+  @DisplayName("재시도 예산을 다 쓰면 재시도하지 않아야 한다")
+  void respectRetryBudget() {
+    ConflictRetryScheduler scheduler = new ConflictRetryScheduler(executor, 10,
+        Duration.ofMillis(10), Duration.ofSeconds(1), 0.001, 2, 100);
+    RuntimeException conflict = new ConcurrencyException("version conflict");
+
+    int scheduled = 0;
+    for (int i = 0; i < 5; i++) {
+      if (scheduler.scheduleRetry(debit("a" + i), conflict, failures(conflict, 1), () -> {
+      })) {
+        scheduled++;
+      }
+    }
+
+    assertThat(scheduled).isEqualTo(2);
+    assertThat(scheduler.budgetRejections()).isEqualTo(3);
+  }
+
+  @Test
+  @DisplayName("재시도 지연은 지수적으로 늘어나되 지터 범위와 최대 지연을 지켜야 한다")
+  void exponentialBackoffWithJitter() {
+    assertThat(ConflictRetryScheduler.backoffMillis(1, 20, 1000, 0.0)).isEqualTo(10);
+    assertThat(ConflictRetryScheduler.backoffMillis(1, 20, 1000, 0.999)).isBetween(10L, 19L);
+    assertThat(ConflictRetryScheduler.backoffMillis(3, 20, 1000, 0.0)).isEqualTo(40);
+    assertThat(ConflictRetryScheduler.backoffMillis(20, 20, 1000, 0.999)).isBetween(500L, 999L);
+  }
+
+  @Test
+  @DisplayName("집계 대상 수를 넘는 계좌의 충돌은 별도로 세야 한다")
+  void boundTrackedAggregates() {
+    ConflictRetryScheduler scheduler = new ConflictRetryScheduler(executor, 3,
+        Duration.ofMillis(10), Duration.ofSeconds(1), 100, 100, 1);
+    RuntimeException conflict = new ConcurrencyException("version conflict");
+
+    scheduler.scheduleRetry(debit("a"), conflict, failures(conflict, 1), () -> {
+    });
+    scheduler.scheduleRetry(debit("b"), conflict, failures(conflict, 1), () -> {
+    });
+
+    assertThat(scheduler.topContended(10)).hasSize(1);
+    assertThat(scheduler.untrackedConflicts()).isEqualTo(1);
+    verify(executor, times(2)).schedule(any(Runnable.class), anyLong(), eq(TimeUnit.MILLISECONDS));
+    verify(executor, never()).shutdown();
+  }
+}
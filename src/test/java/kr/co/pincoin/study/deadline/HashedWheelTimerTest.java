@@ -0,0 +1,75 @@
+package kr.co.pincoin.study.deadline;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("해시 휠 타이머 테스트")
+class HashedWheelTimerTest {
+
+  // 버킷 8개 x 10ms: 80ms를 넘는 지연은 휠을 한 바퀴 이상 돌아야 만료
+  private final HashedWheelTimer timer =
+      new HashedWheelTimer(Duration.ofMillis(10), 8, Runnable::run);
+
+  @AfterEach
+  void tearDown() {
+    timer.stop();
+  }
+
+  @Test
+  @DisplayName("지연 시간이 지난 뒤에 작업이 실행되어야 한다")
+  void expireAfterDelay() throws InterruptedException {
+    CountDownLatch fired = new CountDownLatch(1);
+    long started = System.nanoTime();
+
+    timer.schedule(fired::countDown, Duration.ofMillis(200));
+
+    assertThat(fired.await(2, TimeUnit.SECONDS)).isTrue();
+    assertThat(Duration.ofNanos(System.nanoTime() - started)).isGreaterThanOrEqualTo(
+        Duration.ofMillis(200));
+    assertThat(timer.pendingTimeouts()).isZero();
+  }
+
+  @Test
+  @DisplayName("취소한 타임아웃은 실행되지 않아야 한다")
+  void cancelledTimeoutNeverFires() throws InterruptedException {
+    AtomicInteger cancelledRuns = new AtomicInteger();
+    CountDownLatch later = new CountDownLatch(1);
+
+    HashedWheelTimer.Timeout timeout =
+        timer.schedule(cancelledRuns::incrementAndGet, Duration.ofMillis(50));
+    timer.schedule(later::countDown, Duration.ofMillis(150));
+
+    assertThat(timeout.cancel()).isTrue();
+    assertThat(timeout.cancel()).isFalse();
+    assertThat(timeout.isCancelled()).isTrue();
+
+    assertThat(later.await(2, TimeUnit.SECONDS)).isTrue();
+    assertThat(cancelledRuns).hasValue(0);
+  }
+
+  @Test
+  @DisplayName("많은 타임아웃을 등록해도 모두 한 번씩 실행되어야 한다")
+  void expireManyTimeouts() throws InterruptedException {
+    int count = 10_000;
+    CountDownLatch fired = new CountDownLatch(count);
+    AtomicInteger runs = new AtomicInteger();
+
+    for (int i = 0; i < count; i++) {
+      timer.schedule(() -> {
+        runs.incrementAndGet();
+        fired.countDown();
+      }, Duration.ofMillis(i % 300));
+    }
+
+    assertThat(fired.await(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(runs).hasValue(count);
+    assertThat(timer.pendingTimeouts()).isZero();
+  }
+}
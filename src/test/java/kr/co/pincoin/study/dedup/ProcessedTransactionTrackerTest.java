@@ -0,0 +1,240 @@
+package kr.co.pincoin.study.dedup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import kr.co.pincoin.study.repository.ProcessedTransactionRepository;
+import org.axonframework.eventhandling.GenericEventMessage;
+import org.axonframework.messaging.unitofwork.DefaultUnitOfWork;
+import org.axonframework.messaging.unitofwork.UnitOfWork;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("처리한 트랜잭션 추적기 테스트")
+class ProcessedTransactionTrackerTest {
+
+  /**
+   * 테스트에서 시간을 직접 진행시키는 시계
+   */
+  private static class ManualClock extends Clock {
+
+    private long millis = 1_000_000;
+
+    void advance(Duration duration) {
+      millis += duration.toMillis();
+    }
+
+    @Override
+    public long millis() {
+      return millis;
+    }
+
+    @Override
+    public Instant instant() {
+      return Instant.ofEpochMilli(millis);
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+  }
+
+  private final ManualClock clock = new ManualClock();
+  private final ProcessedTransactionRepository repository =
+      mock(ProcessedTransactionRepository.class);
+
+  @BeforeEach
+  void setUp() {
+    when(repository.insertIfAbsent(any(), any())).thenReturn(true);
+  }
+
+  private ProcessedTransactionTracker trackerWithBloomFilter() {
+    ProcessedTransactionTracker tracker = new ProcessedTransactionTracker(
+        new TimeBucketedWindow(Duration.ofMinutes(10), 10, 1000, clock),
+        new GenerationalBloomFilter(10_000, 0.01, Duration.ofDays(7), clock),
+        repository, Duration.ofDays(7), clock);
+    tracker.loadBloomFilter();
+    return tracker;
+  }
+
+  @Test
+  @DisplayName("TTL 창 안에서는 저장소 조회 없이 중복으로 판정해야 한다")
+  void duplicateWithinWindow() {
+    ProcessedTransactionTracker tracker = trackerWithBloomFilter();
+
+    assertThat(tracker.markIfFirst("tx-1")).isTrue();
+    assertThat(tracker.markIfFirst("tx-1")).isFalse();
+
+    verify(repository, never()).existsById(any());
+    assertThat(tracker.statistics().windowHits()).isEqualTo(1);
+    assertThat(tracker.statistics().bloomSkips()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("창을 벗어난 트랜잭션은 블룸 필터가 있다고 답할 때 저장소에서 확인해야 한다")
+  void fallbackToRepositoryAfterWindow() {
+    ProcessedTransactionTracker tracker = trackerWithBloomFilter();
+    tracker.markIfFirst("tx-1");
+
+    clock.advance(Duration.ofMinutes(30));
+    when(repository.existsById("tx-1")).thenReturn(true);
+
+    assertThat(tracker.markIfFirst("tx-1")).isFalse();
+    assertThat(tracker.statistics().persistentHits()).isEqualTo(1);
+    // 저장소에서 확인한 뒤에는 다시 창에 기록되어 메모리에서 판정
+    assertThat(tracker.markIfFirst("tx-1")).isFalse();
+    assertThat(tracker.statistics().windowHits()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("블룸 필터는 저장소의 기록을 적재하기 전에는 조회를 생략하지 않아야 한다")
+  void loadBloomFilterBeforeSkippingLookups() {
+    ProcessedTransactionTracker tracker = new ProcessedTransactionTracker(
+        new TimeBucketedWindow(Duration.ofMinutes(10), 10, 1000, clock),
+        new GenerationalBloomFilter(10_000, 0.01, Duration.ofDays(7), clock),
+        repository, Duration.ofDays(7), clock);
+    when(repository.existsById("tx-1")).thenReturn(true);
+
+    // 재시작 직후: 필터는 비어 있지만 저장소에서 확인
+    assertThat(tracker.markIfFirst("tx-1")).isFalse();
+    assertThat(tracker.statistics().bloomSkips()).isZero();
+
+    when(repository.findTransactionIdsAfter(eq(""), any())).thenReturn(List.of("tx-1", "tx-2"));
+    tracker.loadBloomFilter();
+    clock.advance(Duration.ofMinutes(30));
+
+    // 적재한 기록은 필터에 있으므로 저장소에서 확인하고, 적재되지 않은 트랜잭션은 조회를 생략
+    when(repository.existsById("tx-2")).thenReturn(true);
+    assertThat(tracker.markIfFirst("tx-2")).isFalse();
+    assertThat(tracker.markIfFirst("tx-3")).isTrue();
+    assertThat(tracker.statistics().bloomSkips()).isEqualTo(1);
+    verify(repository, never()).existsById("tx-3");
+  }
+
+  @Test
+  @DisplayName("처리 기록이 이미 있어 삽입되지 않으면 중복으로 판정해야 한다")
+  void duplicateWhenInsertConflicts() {
+    ProcessedTransactionTracker tracker = trackerWithBloomFilter();
+    // 적재 뒤 다른 노드가 처리한 트랜잭션: 필터에 없어 조회를 생략하지만 삽입이 기본 키 중복으로 실패
+    when(repository.insertIfAbsent(eq("tx-1"), any())).thenReturn(false);
+
+    assertThat(tracker.markIfFirst("tx-1")).isFalse();
+    assertThat(tracker.statistics().persistentHits()).isEqualTo(1);
+    assertThat(tracker.statistics().firstSeen()).isZero();
+    // 창에 기록되어 다음에는 메모리에서 판정
+    assertThat(tracker.markIfFirst("tx-1")).isFalse();
+    assertThat(tracker.statistics().windowHits()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("실패로 지운 트랜잭션은 다시 처음 보는 트랜잭션으로 판정해야 한다")
+  void forgetFailedTransaction() {
+    ProcessedTransactionTracker tracker = new ProcessedTransactionTracker(
+        new TimeBucketedWindow(Duration.ofMinutes(10), 10, 1000, clock), null,
+        repository, Duration.ofDays(7), clock);
+    tracker.markIfFirst("tx-1");
+
+    tracker.forget("tx-1");
+
+    assertThat(tracker.markIfFirst("tx-1")).isTrue();
+    verify(repository).deleteById("tx-1");
+  }
+
+  @Test
+  @DisplayName("처리 기록이 롤백되면 다시 전달된 트랜잭션을 처음 보는 트랜잭션으로 판정해야 한다")
+  void redeliveryAfterRollback() {
+    ProcessedTransactionTracker tracker = trackerWithBloomFilter();
+
+    UnitOfWork<?> failed = DefaultUnitOfWork.startAndGet(
+        GenericEventMessage.asEventMessage("tx-1"));
+    assertThat(tracker.markIfFirst("tx-1")).isTrue();
+    // 같은 배치 안의 중복은 커밋 전에도 판정
+    assertThat(tracker.markIfFirst("tx-1")).isFalse();
+    failed.rollback();
+
+    UnitOfWork<?> redelivered = DefaultUnitOfWork.startAndGet(
+        GenericEventMessage.asEventMessage("tx-1"));
+    assertThat(tracker.markIfFirst("tx-1")).isTrue();
+    redelivered.commit();
+
+    assertThat(tracker.markIfFirst("tx-1")).isFalse();
+    assertThat(tracker.statistics().firstSeen()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("중복 확인 결과와 중복률이 지표로 노출되어야 한다")
+  void bindStatisticsToMeters() {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    ProcessedTransactionTracker tracker = new ProcessedTransactionTracker(
+        new TimeBucketedWindow(Duration.ofMinutes(10), 10, 1000, clock), null,
+        repository, Duration.ofDays(7), clock);
+    tracker.bindTo(registry);
+
+    tracker.markIfFirst("tx-1");
+    tracker.markIfFirst("tx-1");
+
+    assertThat(registry.get("dedup.transactions.checks").tag("result", "window_hit")
+        .functionCounter().count()).isEqualTo(1);
+    assertThat(registry.get("dedup.transactions.checks").tag("result", "first_seen")
+        .functionCounter().count()).isEqualTo(1);
+    assertThat(registry.get("dedup.transactions.duplicate.rate").gauge().value())
+        .isEqualTo(0.5);
+    assertThat(registry.get("dedup.transactions.window.size").gauge().value()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("수많은 트랜잭션을 기록해도 메모리 창의 크기는 한도를 넘지 않아야 한다")
+  void windowStaysBounded() {
+    TimeBucketedWindow window = new TimeBucketedWindow(Duration.ofMinutes(10), 10, 10_000, clock);
+
+    for (int i = 0; i < 1_000_000; i++) {
+      window.add("tx-" + i);
+      if (i % 1000 == 0) {
+        clock.advance(Duration.ofSeconds(1));
+      }
+      assertThat(window.size()).isLessThanOrEqualTo(10_000);
+    }
+  }
+
+  @Test
+  @DisplayName("블룸 필터는 세대 교체 전까지 기록한 키를 놓치지 않아야 한다")
+  void bloomFilterHasNoFalseNegatives() {
+    GenerationalBloomFilter filter =
+        new GenerationalBloomFilter(10_000, 0.01, Duration.ofHours(1), clock);
+    for (int i = 0; i < 10_000; i++) {
+      filter.put("tx-" + i);
+    }
+
+    clock.advance(Duration.ofMinutes(90));
+    for (int i = 0; i < 10_000; i++) {
+      assertThat(filter.mightContain("tx-" + i)).isTrue();
+    }
+
+    int falsePositives = 0;
+    for (int i = 10_000; i < 20_000; i++) {
+      if (filter.mightContain("tx-" + i)) {
+        falsePositives++;
+      }
+    }
+    assertThat(falsePositives).isLessThan(300);
+  }
+}
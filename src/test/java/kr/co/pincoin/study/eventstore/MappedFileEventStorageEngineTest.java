@@ -0,0 +1,231 @@
+package kr.co.pincoin.study.eventstore;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.axonframework.eventhandling.DomainEventMessage;
+import org.axonframework.eventhandling.EventMessage;
+import org.axonframework.eventhandling.GenericDomainEventMessage;
+import org.axonframework.eventhandling.GlobalSequenceTrackingToken;
+import org.axonframework.eventhandling.TrackedEventMessage;
+import org.axonframework.eventsourcing.eventstore.EventStoreException;
+import org.axonframework.messaging.MetaData;
+import org.axonframework.modelling.command.ConcurrencyException;
+import org.axonframework.serialization.Serializer;
+import org.axonframework.serialization.json.JacksonSerializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("메모리 매핑 이벤트 저장소 테스트")
+class MappedFileEventStorageEngineTest {
+
+  private static final String TYPE = "AccountAggregate";
+  private static final int SEGMENT_SIZE = 4 * 1024;
+
+  private final Serializer serializer = JacksonSerializer.defaultSerializer();
+
+  @TempDir
+  Path directory;
+
+  private MappedFileEventStorageEngine engine;
+
+  // 0보다 크면 그만큼 그룹 커밋 fsync를 실패시킴
+  private final AtomicInteger failingFlushes = new AtomicInteger();
+
+  @BeforeEach
+  void setUp() {
+    engine = open();
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    engine.close();
+  }
+
+  private MappedFileEventStorageEngine open() {
+    return new MappedFileEventStorageEngine(directory, SEGMENT_SIZE, Duration.ofMillis(1),
+        serializer, serializer) {
+      @Override
+      void forceEventLog() {
+        if (failingFlushes.getAndUpdate(left -> Math.max(0, left - 1)) > 0) {
+          throw new IllegalStateException("fsync 실패");
+        }
+        super.forceEventLog();
+      }
+    };
+  }
+
+  private DomainEventMessage<String> event(String aggregateId, long sequence) {
+    return new GenericDomainEventMessage<>(TYPE, aggregateId, sequence,
+        aggregateId + "-" + sequence, MetaData.with("traceId", "trace-" + sequence));
+  }
+
+  private List<Object> payloads(String aggregateId) {
+    return engine.readEvents(aggregateId).asStream()
+        .map(EventMessage::getPayload)
+        .collect(Collectors.toList());
+  }
+
+  @Test
+  @DisplayName("애그리게잇별로 저장한 순서대로 이벤트를 읽어야 한다")
+  void readEventsPerAggregate() {
+    engine.appendEvents(event("a", 0), event("b", 0), event("a", 1));
+    engine.appendEvents(event("a", 2));
+
+    assertThat(payloads("a")).containsExactly("a-0", "a-1", "a-2");
+    assertThat(payloads("b")).containsExactly("b-0");
+    assertThat(engine.readEvents("a", 2).asStream().map(EventMessage::getPayload))
+        .containsExactly("a-2");
+    assertThat(engine.lastSequenceNumberFor("a")).contains(2L);
+    assertThat(engine.readEvents("a").asStream().findFirst().orElseThrow().getMetaData())
+        .containsEntry("traceId", "trace-0");
+  }
+
+  @Test
+  @DisplayName("이미 저장된 순번을 다시 추가하면 동시성 예외가 발생해야 한다")
+  void rejectConflictingSequence() {
+    engine.appendEvents(event("a", 0), event("a", 1));
+
+    assertThatThrownBy(() -> engine.appendEvents(event("a", 1)))
+        .isInstanceOf(ConcurrencyException.class);
+    assertThat(payloads("a")).containsExactly("a-0", "a-1");
+  }
+
+  @Test
+  @DisplayName("추적 토큰 이후의 이벤트만 전역 순서대로 읽어야 한다")
+  void readTrackedEvents() {
+    engine.appendEvents(event("a", 0), event("b", 0), event("a", 1));
+
+    List<? extends TrackedEventMessage<?>> all = engine.readEvents(null, false).toList();
+    assertThat(all).extracting(EventMessage::getPayload).containsExactly("a-0", "b-0", "a-1");
+
+    List<? extends TrackedEventMessage<?>> tail =
+        engine.readEvents(new GlobalSequenceTrackingToken(0), false).toList();
+    assertThat(tail).extracting(EventMessage::getPayload).containsExactly("b-0", "a-1");
+    assertThat(engine.createHeadToken()).isEqualTo(new GlobalSequenceTrackingToken(2));
+  }
+
+  @Test
+  @DisplayName("fsync가 실패하면 해당 추가만 실패하고, 되돌린 이벤트는 인덱스와 로그에 남지 않아야 한다")
+  void rollbackUndurableEventsOnFlushFailure() throws Exception {
+    engine.appendEvents(event("a", 0));
+
+    // 세그먼트(4KB)를 넘기는 배치가 실패하도록 설정
+    List<EventMessage<?>> batch = new ArrayList<>();
+    batch.add(event("a", 1));
+    for (long sequence = 0; sequence < 60; sequence++) {
+      batch.add(event("b", sequence));
+    }
+    failingFlushes.set(1);
+    assertThatThrownBy(() -> engine.appendEvents(batch))
+        .isInstanceOf(EventStoreException.class);
+
+    assertThat(engine.lastSequenceNumberFor("a")).contains(0L);
+    assertThat(engine.lastSequenceNumberFor("b")).isEmpty();
+
+    // 그룹 커밋 스레드가 살아 있어 같은 순번을 다시 추가할 수 있음
+    engine.appendEvents(event("a", 1));
+    assertThat(payloads("a")).containsExactly("a-0", "a-1");
+    assertThat(engine.readEvents(null, false).toList())
+        .extracting(EventMessage::getPayload)
+        .containsExactly("a-0", "a-1");
+
+    engine.close();
+    engine = open();
+
+    assertThat(payloads("a")).containsExactly("a-0", "a-1");
+    assertThat(engine.lastSequenceNumberFor("b")).isEmpty();
+  }
+
+  @Test
+  @DisplayName("재기동하면 세그먼트 파일을 스캔해 인덱스와 스냅샷을 복구해야 한다")
+  void rebuildIndexOnRestart() throws Exception {
+    // 세그먼트(4KB)를 여러 개 넘기도록 기록
+    for (long sequence = 0; sequence < 200; sequence++) {
+      engine.appendEvents(event("a", sequence));
+    }
+    engine.storeSnapshot(new GenericDomainEventMessage<>(TYPE, "a", 199, "snapshot-199"));
+    engine.close();
+
+    engine = open();
+
+    assertThat(engine.lastSequenceNumberFor("a")).contains(199L);
+    assertThat(payloads("a")).hasSize(200).endsWith("a-199");
+    assertThat(engine.readSnapshot("a")).map(EventMessage::getPayload).contains("snapshot-199");
+
+    engine.appendEvents(event("a", 200));
+    assertThat(engine.readEvents(new GlobalSequenceTrackingToken(199), false).toList())
+        .extracting(EventMessage::getPayload)
+        .containsExactly("a-200");
+  }
+
+  @Test
+  @DisplayName("스냅샷 이전 이벤트를 보관하면 이벤트 로그가 줄고, 감사용 이력에서만 읽혀야 한다")
+  void archiveEventsBeforeSnapshot() throws Exception {
+    engine.appendEvents(event("b", 0));
+    for (long sequence = 0; sequence < 200; sequence++) {
+      engine.appendEvents(event("a", sequence));
+    }
+    engine.storeSnapshot(new GenericDomainEventMessage<>(TYPE, "a", 149, "snapshot-149"));
+
+    assertThat(engine.dormantAggregates(TYPE, Instant.now().plusSeconds(60), 10))
+        .containsExactlyInAnyOrder("a", "b");
+
+    TieringResult result = engine.archive(List.of("a", "b"));
+
+    assertThat(result.aggregates()).isEqualTo(1);
+    assertThat(result.archivedEvents()).isEqualTo(150);
+    assertThat(result.compactedSegments()).isPositive();
+    assertThat(result.hotBytesSaved()).isPositive();
+    assertThat(engine.hotBytes()).isEqualTo(result.hotBytesAfter());
+    assertThat(payloads("a")).hasSize(50).startsWith("a-150");
+    assertThat(engine.readEvents(null, false).count()).isEqualTo(51);
+    assertThat(engine.readEventsWithArchive("a").asStream().map(EventMessage::getPayload))
+        .hasSize(200).startsWith("a-0", "a-1").endsWith("a-199");
+
+    engine.close();
+    engine = open();
+
+    assertThat(engine.hotBytes()).isEqualTo(result.hotBytesAfter());
+    assertThat(engine.lastSequenceNumberFor("a")).contains(199L);
+    assertThat(payloads("a")).hasSize(50).startsWith("a-150");
+    assertThat(engine.readEventsWithArchive("a").asStream().map(EventMessage::getPayload))
+        .hasSize(200).startsWith("a-0").endsWith("a-199");
+    assertThat(engine.createHeadToken()).isEqualTo(new GlobalSequenceTrackingToken(200));
+
+    engine.appendEvents(event("a", 200));
+    assertThat(engine.createHeadToken()).isEqualTo(new GlobalSequenceTrackingToken(201));
+    assertThat(engine.archive(List.of("a")).archivedEvents()).isZero();
+  }
+
+  @Test
+  @DisplayName("보관된 이벤트는 재구축용으로 모두 읽을 수 있고, 머리 토큰은 마지막 핫 이벤트를 가리켜야 한다")
+  void readArchivedEventsForRebuild() {
+    for (long sequence = 0; sequence < 5; sequence++) {
+      engine.appendEvents(event("a", sequence));
+    }
+    for (long sequence = 0; sequence < 3; sequence++) {
+      engine.appendEvents(event("b", sequence));
+    }
+    engine.storeSnapshot(new GenericDomainEventMessage<>(TYPE, "b", 2, "snapshot-2"));
+    assertThat(engine.archiveGeneration()).isZero();
+
+    engine.archive(List.of("b"));
+
+    assertThat(engine.archiveGeneration()).isEqualTo(1);
+    assertThat(engine.readArchivedEvents().map(EventMessage::getPayload))
+        .containsExactly("b-0", "b-1", "b-2");
+    // 전역 인덱스 5~7(b)은 보관되어 추적 스트림의 마지막 이벤트는 4
+    assertThat(engine.createHeadToken()).isEqualTo(new GlobalSequenceTrackingToken(4));
+  }
+}
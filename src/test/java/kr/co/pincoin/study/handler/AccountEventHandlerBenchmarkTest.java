@@ -0,0 +1,175 @@
+package kr.co.pincoin.study.handler;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+import java.io.BufferedOutputStream;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import kr.co.pincoin.study.audit.AuditLogAppender;
+import kr.co.pincoin.study.config.TransferProperties;
+import kr.co.pincoin.study.dedup.ProcessedTransactionTracker;
+import kr.co.pincoin.study.event.AccountEvents.MoneyCreditedEvent;
+import kr.co.pincoin.study.event.AccountEvents.MoneyDebitedEvent;
+import kr.co.pincoin.study.event.AccountEvents.TransferCompletedEvent;
+import org.axonframework.commandhandling.gateway.CommandGateway;
+import org.axonframework.eventhandling.AnnotationEventHandlerAdapter;
+import org.axonframework.eventhandling.EventHandler;
+import org.axonframework.eventhandling.EventMessage;
+import org.axonframework.eventhandling.GenericEventMessage;
+import org.axonframework.messaging.unitofwork.DefaultUnitOfWork;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * 계좌 이벤트 처리기의 초당 처리 이벤트 수를 감사 로그 방식별로 비교합니다.
+ * <p>
+ * before: 이벤트마다 문자열을 이어 붙여 System.out.println으로 출력하던 이전 처리기 (자동 flush되는 파일 PrintStream으로 재현)
+ * <p>
+ * after: 배치 단위로 모은 기록을 {@link AuditLogAppender}로 넘기는 현재 처리기
+ * <p>
+ * 풀링 처리기처럼 세그먼트 수만큼의 스레드가 batch-size(100)개씩 하나의 작업 단위로 처리합니다. (./gradlew benchmark)
+ */
+@Tag("benchmark")
+@DisplayName("계좌 이벤트 처리기 감사 로그 벤치마크")
+class AccountEventHandlerBenchmarkTest {
+
+  private static final int SEGMENTS = 8;
+  private static final int BATCH_SIZE = 100;
+  private static final int EVENTS_PER_SEGMENT = 3 * 60_000;
+
+  @TempDir
+  Path directory;
+
+  /**
+   * 이전 처리기의 출력 방식 (System.out과 같이 줄마다 flush)
+   */
+  static class PrintingAccountEventHandler {
+
+    private final PrintStream out;
+
+    PrintingAccountEventHandler(PrintStream out) {
+      this.out = out;
+    }
+
+    @EventHandler
+    public void on(MoneyDebitedEvent event) {
+      out.println("Money debited from account: " + event.getAccountId() +
+          " amount: " + event.getAmount());
+    }
+
+    @EventHandler
+    public void on(MoneyCreditedEvent event) {
+      out.println("Money credited to account: " + event.getAccountId() +
+          " amount: " + event.getAmount());
+      out.println("Transfer completed for transaction: " + event.getTransactionId());
+    }
+
+    @EventHandler
+    public void on(TransferCompletedEvent event) {
+      out.println("Transfer completed from " + event.getSourceAccountId() +
+          " to " + event.getTargetAccountId() +
+          " amount: " + event.getAmount());
+    }
+  }
+
+  @Test
+  @DisplayName("배치 단위 비동기 감사 로그는 이벤트별 콘솔 출력보다 초당 더 많은 이벤트를 처리해야 한다")
+  void compareEventThroughput() throws Exception {
+    List<List<EventMessage<?>>> segments = new ArrayList<>(SEGMENTS);
+    for (int segment = 0; segment < SEGMENTS; segment++) {
+      segments.add(events(segment));
+    }
+
+    PrintStream console = new PrintStream(
+        new BufferedOutputStream(Files.newOutputStream(directory.resolve("console.log"))), true);
+    AnnotationEventHandlerAdapter before =
+        new AnnotationEventHandlerAdapter(new PrintingAccountEventHandler(console));
+
+    AuditLogAppender auditLog = new AuditLogAppender(directory.resolve("audit.log"), 1024,
+        64L * 1024 * 1024, 10);
+    AnnotationEventHandlerAdapter after = new AnnotationEventHandlerAdapter(new AccountEventHandler(
+        mock(CommandGateway.class, withSettings().stubOnly()),
+        mock(ProcessedTransactionTracker.class, withSettings().stubOnly()),
+        new TransferProperties(), auditLog));
+
+    // 워밍업
+    run(before, segments);
+    run(after, segments);
+
+    long beforeRate = run(before, segments);
+    long afterRate = run(after, segments);
+    console.close();
+    auditLog.close();
+
+    System.out.println("handler | events/s");
+    System.out.printf("%-7s | %8d%n", "before", beforeRate);
+    System.out.printf("%-7s | %8d%n", "after", afterRate);
+    System.out.printf("speedup | %7.1fx%n", (double) afterRate / beforeRate);
+
+    assertThat(auditLog.statistics().backlog()).isZero();
+    assertThat(afterRate).isGreaterThan(beforeRate);
+  }
+
+  private static List<EventMessage<?>> events(int segment) {
+    List<EventMessage<?>> events = new ArrayList<>(EVENTS_PER_SEGMENT);
+    BigDecimal amount = new BigDecimal("1000.00");
+    for (int i = 0; events.size() < EVENTS_PER_SEGMENT; i++) {
+      String source = "account-" + segment + "-" + (i % 100);
+      String target = "account-" + segment + "-" + ((i + 1) % 100);
+      String transactionId = UUID.randomUUID().toString();
+      events.add(GenericEventMessage.asEventMessage(
+          new MoneyDebitedEvent(source, target, amount, transactionId)));
+      events.add(GenericEventMessage.asEventMessage(
+          new MoneyCreditedEvent(target, source, amount, transactionId)));
+      events.add(GenericEventMessage.asEventMessage(
+          new TransferCompletedEvent(source, target, amount, transactionId)));
+    }
+    return events;
+  }
+
+  /**
+   * @return 초당 처리 이벤트 수
+   */
+  private static long run(AnnotationEventHandlerAdapter handler,
+      List<List<EventMessage<?>>> segments) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(SEGMENTS);
+    long start = System.nanoTime();
+    List<Future<?>> results = new ArrayList<>(SEGMENTS);
+    for (List<EventMessage<?>> events : segments) {
+      results.add(executor.submit(() -> {
+        for (int from = 0; from < events.size(); from += BATCH_SIZE) {
+          List<EventMessage<?>> batch =
+              events.subList(from, Math.min(from + BATCH_SIZE, events.size()));
+          DefaultUnitOfWork.startAndGet(batch.get(0)).execute(() -> {
+            for (EventMessage<?> event : batch) {
+              try {
+                handler.handle(event);
+              } catch (Exception e) {
+                throw new IllegalStateException(e);
+              }
+            }
+          });
+        }
+        return null;
+      }));
+    }
+    for (Future<?> result : results) {
+      result.get();
+    }
+    long elapsedNanos = System.nanoTime() - start;
+    executor.shutdown();
+    return (long) SEGMENTS * EVENTS_PER_SEGMENT * 1_000_000_000L / Math.max(elapsedNanos, 1);
+  }
+}
@@ -0,0 +1,93 @@
+package kr.co.pincoin.study.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import kr.co.pincoin.study.metrics.TransferMetrics.CompensationReason;
+import kr.co.pincoin.study.metrics.TransferMetrics.Outcome;
+import org.axonframework.eventhandling.GenericEventMessage;
+import org.axonframework.messaging.unitofwork.DefaultUnitOfWork;
+import org.axonframework.messaging.unitofwork.UnitOfWork;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("송금 사가 지표 테스트")
+class TransferMetricsTest {
+
+  private SimpleMeterRegistry registry;
+  private TransferMetrics metrics;
+  // 사가 저장소에 남아 있는 사가 수
+  private final AtomicLong storedSagas = new AtomicLong(3);
+
+  @BeforeEach
+  void setUp() {
+    registry = new SimpleMeterRegistry();
+    metrics = new TransferMetrics(registry, storedSagas::get);
+  }
+
+  private double activeSagas() {
+    return registry.get(TransferMetrics.ACTIVE).gauge().value();
+  }
+
+  private UnitOfWork<?> startUnitOfWork() {
+    return DefaultUnitOfWork.startAndGet(GenericEventMessage.asEventMessage("batch"));
+  }
+
+  @Test
+  @DisplayName("진행 중인 사가 수는 조회할 때마다 사가 저장소에서 읽어야 한다")
+  void readActiveSagasFromStore() {
+    assertThat(activeSagas()).isEqualTo(3);
+
+    // 다른 노드가 시작하거나 끝낸 사가도 저장소 값을 그대로 따름
+    storedSagas.set(5);
+    assertThat(activeSagas()).isEqualTo(5);
+    storedSagas.set(0);
+    assertThat(activeSagas()).isZero();
+  }
+
+  @Test
+  @DisplayName("사가 종료가 완료 지연에 반영되어야 한다")
+  void recordCompletionLatency() {
+    Instant debitedAt = Instant.parse("2024-01-01T00:00:00Z");
+
+    metrics.sagaEnded(Outcome.CREDITED, debitedAt, debitedAt.plusMillis(250));
+    metrics.sagaEnded(Outcome.COMPENSATED, null, debitedAt.plusSeconds(1));
+
+    Timer credited = registry.get(TransferMetrics.COMPLETION).tag("outcome", "credited").timer();
+    assertThat(credited.count()).isEqualTo(1);
+    assertThat(credited.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(250);
+    // 출금 시각을 모르는 사가는 지연을 기록하지 않음
+    assertThat(registry.find(TransferMetrics.COMPLETION).tag("outcome", "compensated").timer())
+        .isNull();
+  }
+
+  @Test
+  @DisplayName("작업 단위 안에서 기록한 값은 커밋된 뒤에만 반영되고 롤백되면 버려져야 한다")
+  void applyOnlyAfterCommit() {
+    Instant debitedAt = Instant.parse("2024-01-01T00:00:00Z");
+
+    UnitOfWork<?> rolledBack = startUnitOfWork();
+    metrics.sagaEnded(Outcome.CREDITED, debitedAt, debitedAt.plusMillis(250));
+    metrics.compensated(CompensationReason.TIMEOUT);
+    rolledBack.rollback();
+
+    assertThat(registry.find(TransferMetrics.COMPLETION).timer()).isNull();
+    assertThat(registry.find(TransferMetrics.COMPENSATIONS).counter()).isNull();
+
+    UnitOfWork<?> committed = startUnitOfWork();
+    metrics.sagaEnded(Outcome.CREDITED, debitedAt, debitedAt.plusMillis(250));
+    metrics.compensated(CompensationReason.TIMEOUT);
+    assertThat(registry.find(TransferMetrics.COMPLETION).timer()).isNull();
+    committed.commit();
+
+    assertThat(registry.get(TransferMetrics.COMPLETION).tag("outcome", "credited").timer()
+        .count()).isEqualTo(1);
+    assertThat(registry.get(TransferMetrics.COMPENSATIONS).tag("reason", "timeout").counter()
+        .count()).isEqualTo(1);
+  }
+}
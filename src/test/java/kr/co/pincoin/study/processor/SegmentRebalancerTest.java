@@ -0,0 +1,52 @@
+package kr.co.pincoin.study.processor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.List;
+import kr.co.pincoin.study.event.AccountEvents.MoneyCreditedEvent;
+import kr.co.pincoin.study.event.AccountEvents.MoneyDebitedEvent;
+import org.axonframework.eventhandling.GenericEventMessage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("세그먼트 분할 및 순서 보장 정책 테스트")
+class SegmentRebalancerTest {
+
+  private static SegmentLag lag(int segmentId, int mask, long lag) {
+    return new SegmentLag(segmentId, mask, 0, lag, lag == 0, false, false);
+  }
+
+  @Test
+  @DisplayName("한 세그먼트에 지연이 몰리면 그 세그먼트를 분할 대상으로 골라야 한다")
+  void splitBusiestSegment() {
+    List<SegmentLag> lags = List.of(lag(0, 3, 100), lag(1, 3, 50_000), lag(2, 3, 80), lag(3, 3, 0));
+
+    assertThat(SegmentRebalancer.selectSegmentToSplit(lags, 32, 4.0, 1000)).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("지연이 고르거나, 작거나, 최대 세그먼트 수에 도달하면 분할하지 않아야 한다")
+  void keepSegmentsWhenBalanced() {
+    assertThat(SegmentRebalancer.selectSegmentToSplit(
+        List.of(lag(0, 1, 10_000), lag(1, 1, 9_000)), 32, 4.0, 1000)).isEqualTo(-1);
+    assertThat(SegmentRebalancer.selectSegmentToSplit(
+        List.of(lag(0, 1, 500), lag(1, 1, 0)), 32, 4.0, 1000)).isEqualTo(-1);
+    assertThat(SegmentRebalancer.selectSegmentToSplit(
+        List.of(lag(0, 15, 50_000), lag(1, 15, 0)), 16, 4.0, 1000)).isEqualTo(-1);
+    assertThat(SegmentRebalancer.selectSegmentToSplit(List.of(), 32, 4.0, 1000)).isEqualTo(-1);
+  }
+
+  @Test
+  @DisplayName("같은 계좌의 출금/입금 이벤트는 같은 순서 식별자를 가져야 한다")
+  void sequenceByAccountId() {
+    AccountSequencingPolicy policy = new AccountSequencingPolicy();
+
+    Object debited = policy.getSequenceIdentifierFor(GenericEventMessage.asEventMessage(
+        new MoneyDebitedEvent("account-1", "account-2", BigDecimal.TEN, "tx-1")));
+    Object credited = policy.getSequenceIdentifierFor(GenericEventMessage.asEventMessage(
+        new MoneyCreditedEvent("account-1", "account-3", BigDecimal.ONE, "tx-2")));
+
+    assertThat(debited).isEqualTo("account-1").isEqualTo(credited);
+  }
+}
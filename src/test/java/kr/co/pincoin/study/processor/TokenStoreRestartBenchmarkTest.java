@@ -0,0 +1,115 @@
+package kr.co.pincoin.study.processor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.axonframework.common.transaction.TransactionManager;
+import org.axonframework.eventhandling.EventHandler;
+import org.axonframework.eventhandling.EventMessage;
+import org.axonframework.eventhandling.GenericEventMessage;
+import org.axonframework.eventhandling.SimpleEventHandlerInvoker;
+import org.axonframework.eventhandling.TrackingEventProcessor;
+import org.axonframework.eventhandling.tokenstore.TokenStore;
+import org.axonframework.eventhandling.tokenstore.jpa.JpaTokenStore;
+import org.axonframework.eventsourcing.eventstore.EmbeddedEventStore;
+import org.axonframework.eventsourcing.eventstore.inmemory.InMemoryEventStorageEngine;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * 토큰 저장소가 있을 때와 없을 때 재시작 후 새 이벤트가 처리되기까지 걸리는 시간을 측정합니다.
+ * <p>
+ * 토큰이 없으면 처리기는 이벤트 저장소의 처음부터 다시 읽으므로 시간이 저장소 크기에 비례하고, 데이터베이스에 저장된 토큰이 있으면 마지막 위치부터 이어서
+ * 처리하므로 저장소 크기와 무관해야 합니다. 애플리케이션에 등록된 토큰 저장소 빈(TokenStoreConfig의 {@link JpaTokenStore})과 트랜잭션
+ * 관리자를 그대로 사용합니다. (./gradlew benchmark)
+ */
+@Tag("benchmark")
+@SpringBootTest
+@DisplayName("토큰 저장소 재시작 벤치마크")
+class TokenStoreRestartBenchmarkTest {
+
+  private static final int[] EVENT_COUNTS = {10_000, 100_000, 500_000};
+
+  @Autowired
+  private TokenStore tokenStore;
+
+  @Autowired
+  private TransactionManager transactionManager;
+
+  public static class Listener {
+
+    private final AtomicLong handled = new AtomicLong();
+    private volatile CountDownLatch marker = new CountDownLatch(1);
+
+    @EventHandler
+    public void on(String payload) {
+      handled.incrementAndGet();
+      if ("marker".equals(payload)) {
+        marker.countDown();
+      }
+    }
+
+    void reset() {
+      handled.set(0);
+      marker = new CountDownLatch(1);
+    }
+  }
+
+  @Test
+  @DisplayName("저장된 토큰으로 재시작하면 이벤트 수와 무관하게 바로 이어서 처리해야 한다")
+  void resumeFromStoredToken() throws Exception {
+    assertThat(tokenStore).isInstanceOf(JpaTokenStore.class);
+    System.out.println("events | first start (ms) | restart (ms) | replayed on restart");
+
+    for (int eventCount : EVENT_COUNTS) {
+      EmbeddedEventStore eventStore = EmbeddedEventStore.builder()
+          .storageEngine(new InMemoryEventStorageEngine())
+          .build();
+      List<EventMessage<?>> history = new ArrayList<>(eventCount);
+      for (int i = 0; i < eventCount; i++) {
+        history.add(GenericEventMessage.asEventMessage("event-" + i));
+      }
+      eventStore.publish(history);
+
+      // 이벤트 수마다 처리기 이름을 달리해 token_entry의 토큰이 섞이지 않게 함
+      String processorName = "restart-benchmark-" + eventCount;
+      Listener listener = new Listener();
+      long firstStartMillis = startAndAwaitMarker(processorName, eventStore, listener);
+      listener.reset();
+      long restartMillis = startAndAwaitMarker(processorName, eventStore, listener);
+
+      System.out.printf("%6d | %16d | %12d | %19d%n", eventCount, firstStartMillis,
+          restartMillis, listener.handled.get() - 1);
+      // 재시작 후에는 새로 추가한 marker 이벤트만 처리해야 한다
+      assertThat(listener.handled.get()).isEqualTo(1);
+    }
+  }
+
+  private long startAndAwaitMarker(String processorName, EmbeddedEventStore eventStore,
+      Listener listener) throws InterruptedException {
+    TrackingEventProcessor processor = TrackingEventProcessor.builder()
+        .name(processorName)
+        .eventHandlerInvoker(SimpleEventHandlerInvoker.builder().eventHandlers(listener).build())
+        .messageSource(eventStore)
+        .tokenStore(tokenStore)
+        .transactionManager(transactionManager)
+        .build();
+
+    long start = System.nanoTime();
+    processor.start();
+    eventStore.publish(GenericEventMessage.asEventMessage("marker"));
+    boolean handled = listener.marker.await(5, TimeUnit.MINUTES);
+    long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    processor.shutDown();
+
+    assertThat(handled).isTrue();
+    return elapsedMillis;
+  }
+}
@@ -0,0 +1,117 @@
+package kr.co.pincoin.study.projection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import kr.co.pincoin.study.cache.BoundedAggregateCache;
+import kr.co.pincoin.study.event.AccountEvents.AccountCreatedEvent;
+import kr.co.pincoin.study.event.AccountEvents.MoneyCreditedEvent;
+import kr.co.pincoin.study.event.AccountEvents.MoneyDebitedEvent;
+import kr.co.pincoin.study.model.AccountBalanceView;
+import kr.co.pincoin.study.query.AccountBalanceNearCache;
+import kr.co.pincoin.study.query.AccountQueries.AccountBalance;
+import kr.co.pincoin.study.repository.AccountBalanceViewRepository;
+import org.axonframework.messaging.unitofwork.DefaultUnitOfWork;
+import org.axonframework.queryhandling.QueryUpdateEmitter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+@DisplayName("계좌 잔액 프로젝션 테스트")
+class AccountBalanceProjectionTest {
+
+  private final AccountBalanceViewRepository repository = mock(AccountBalanceViewRepository.class);
+  private final AccountBalanceNearCache nearCache =
+      new AccountBalanceNearCache(new BoundedAggregateCache(100, Duration.ZERO));
+  private final QueryUpdateEmitter queryUpdateEmitter = mock(QueryUpdateEmitter.class);
+  private final AccountBalanceProjection projection =
+      new AccountBalanceProjection(repository, nearCache, queryUpdateEmitter);
+
+  @SuppressWarnings("unchecked")
+  private List<AccountBalanceView> savedRows() {
+    ArgumentCaptor<List<AccountBalanceView>> saved = ArgumentCaptor.forClass(List.class);
+    verify(repository).saveAll(saved.capture());
+    return saved.getValue();
+  }
+
+  @Test
+  @DisplayName("배치 안의 이벤트는 커밋 시 계좌마다 한 번만 저장되어야 한다")
+  void upsertOncePerAccountPerBatch() {
+    DefaultUnitOfWork<?> unitOfWork = DefaultUnitOfWork.startAndGet(null);
+    projection.on(new AccountCreatedEvent("a", new BigDecimal("1000")), 0);
+    projection.on(new MoneyDebitedEvent("a", "b", new BigDecimal("300"), "tx-1"), 1);
+    projection.on(new AccountCreatedEvent("b", BigDecimal.ZERO), 0);
+    projection.on(new MoneyCreditedEvent("b", "a", new BigDecimal("300"), "tx-1"), 1);
+    projection.on(new MoneyCreditedEvent("a", "c", new BigDecimal("50"), "tx-2"), 2);
+
+    verify(repository, never()).saveAll(anyIterable());
+    unitOfWork.commit();
+
+    verify(repository, times(1)).findAllById(anyIterable());
+    assertThat(savedRows())
+        .extracting(AccountBalanceView::getAccountId, AccountBalanceView::getBalance,
+            AccountBalanceView::getLastSequence)
+        .containsExactly(
+            tuple("a", new BigDecimal("750"), 2L),
+            tuple("b", new BigDecimal("300"), 1L));
+    assertThat(projection.statistics().writtenRows()).isEqualTo(2);
+    assertThat(projection.statistics().appliedEvents()).isEqualTo(5);
+  }
+
+  @Test
+  @DisplayName("커밋되면 바뀐 잔액으로 근접 캐시를 갱신하고 구독자에게 갱신을 보내야 한다")
+  void refreshNearCacheAndEmitUpdatesAfterCommit() {
+    nearCache.offer(new AccountBalance("a", new BigDecimal("1000"), 0));
+
+    DefaultUnitOfWork<?> unitOfWork = DefaultUnitOfWork.startAndGet(null);
+    projection.on(new AccountCreatedEvent("a", new BigDecimal("1000")), 0);
+    projection.on(new MoneyDebitedEvent("a", "b", new BigDecimal("300"), "tx-1"), 1);
+    assertThat(nearCache.get("a").getVersion()).isZero();
+    unitOfWork.commit();
+
+    assertThat(nearCache.get("a")).isEqualTo(new AccountBalance("a", new BigDecimal("700"), 1));
+    verify(queryUpdateEmitter).emit(any(Class.class), any(),
+        eq(new AccountBalance("a", new BigDecimal("700"), 1)));
+  }
+
+  @Test
+  @DisplayName("이미 반영된 순번의 이벤트는 다시 반영하지 않아야 한다")
+  void skipAlreadyAppliedSequence() {
+    AccountBalanceView existing = new AccountBalanceView("a");
+    existing.apply(0, new BigDecimal("1000"), true, LocalDateTime.now());
+    existing.apply(1, new BigDecimal("-300"), false, LocalDateTime.now());
+    when(repository.findAllById(any())).thenReturn(List.of(existing));
+
+    DefaultUnitOfWork<?> unitOfWork = DefaultUnitOfWork.startAndGet(null);
+    projection.on(new MoneyDebitedEvent("a", "b", new BigDecimal("300"), "tx-1"), 1);
+    projection.on(new MoneyCreditedEvent("a", "c", new BigDecimal("50"), "tx-2"), 2);
+    unitOfWork.commit();
+
+    assertThat(savedRows()).containsExactly(existing);
+    assertThat(existing.getBalance()).isEqualByComparingTo("750");
+    assertThat(existing.getLastSequence()).isEqualTo(2);
+    assertThat(projection.statistics().skippedEvents()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("작업 단위가 롤백되면 잔액을 저장하지 않아야 한다")
+  void discardOnRollback() {
+    DefaultUnitOfWork<?> unitOfWork = DefaultUnitOfWork.startAndGet(null);
+    projection.on(new AccountCreatedEvent("a", new BigDecimal("1000")), 0);
+    unitOfWork.rollback();
+
+    verify(repository, never()).saveAll(anyIterable());
+  }
+}
@@ -0,0 +1,141 @@
+package kr.co.pincoin.study.projection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import kr.co.pincoin.study.event.AccountEvents.AccountCreatedEvent;
+import kr.co.pincoin.study.event.AccountEvents.MoneyCreditedEvent;
+import kr.co.pincoin.study.event.AccountEvents.MoneyDebitedEvent;
+import org.axonframework.common.stream.BlockingStream;
+import org.axonframework.eventhandling.DomainEventMessage;
+import org.axonframework.eventhandling.EventMessage;
+import org.axonframework.eventhandling.GenericDomainEventMessage;
+import org.axonframework.eventhandling.TrackedEventMessage;
+import org.axonframework.eventhandling.TrackingToken;
+import org.axonframework.eventsourcing.eventstore.EmbeddedEventStore;
+import org.axonframework.eventsourcing.eventstore.inmemory.InMemoryEventStorageEngine;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/**
+ * 이벤트 하나씩 재생하며 이벤트마다 트랜잭션을 커밋하는 방식과 재구축 모드의 초당 재생 이벤트 수를 비교합니다.
+ * <p>
+ * 이벤트별 재생 쪽은 토큰 저장과 핸들러 호출 비용을 빼고 행 갱신과 커밋만 측정하므로 실제 처리기 재생보다 빠르게 나옵니다. (./gradlew benchmark)
+ */
+@Tag("benchmark")
+@DisplayName("계좌 잔액 재구축 벤치마크")
+class AccountBalanceRebuildBenchmarkTest {
+
+  private static final int ACCOUNTS = 10_000;
+  private static final int[] EVENT_COUNTS = {100_000, 500_000};
+  private static final String CREATE_TABLE = "CREATE TABLE account_balance_view ("
+      + "account_id VARCHAR(255) PRIMARY KEY, balance NUMERIC(38, 2), "
+      + "last_sequence BIGINT NOT NULL, updated_at TIMESTAMP)";
+
+  @Test
+  @DisplayName("재구축 모드는 이벤트별 재생보다 초당 더 많은 이벤트를 재생해야 한다")
+  void compareReplayThroughput() throws Exception {
+    System.out.println("events | per-event (events/s) | rebuild (events/s) | speedup");
+
+    for (int eventCount : EVENT_COUNTS) {
+      EmbeddedEventStore eventStore = EmbeddedEventStore.builder()
+          .storageEngine(new InMemoryEventStorageEngine())
+          .build();
+      eventStore.publish(history(eventCount));
+
+      DriverManagerDataSource dataSource =
+          new DriverManagerDataSource("jdbc:h2:mem:rebuild-" + eventCount + ";DB_CLOSE_DELAY=-1");
+      JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+      jdbcTemplate.execute(CREATE_TABLE);
+
+      long perEvent = replayEventByEvent(eventStore, dataSource);
+      BigDecimal expectedTotal = totalBalance(jdbcTemplate);
+
+      AccountBalanceRebuilder rebuilder = new AccountBalanceRebuilder(eventStore, jdbcTemplate, 8,
+          1000);
+      AccountBalanceRebuilder.Result result = rebuilder.rebuild();
+      rebuilder.publish();
+
+      System.out.printf("%6d | %20d | %18d | %6.1fx%n", eventCount, perEvent,
+          result.eventsPerSecond(), (double) result.eventsPerSecond() / perEvent);
+      assertThat(result.accounts()).isEqualTo(ACCOUNTS);
+      assertThat(totalBalance(jdbcTemplate)).isEqualByComparingTo(expectedTotal);
+      assertThat(result.eventsPerSecond()).isGreaterThan(perEvent);
+      eventStore.shutDown();
+    }
+  }
+
+  private static List<EventMessage<?>> history(int eventCount) {
+    List<EventMessage<?>> events = new ArrayList<>(eventCount);
+    long[] sequences = new long[ACCOUNTS];
+    for (int i = 0; i < ACCOUNTS; i++) {
+      events.add(new GenericDomainEventMessage<>("AccountAggregate", "account-" + i,
+          sequences[i]++, new AccountCreatedEvent("account-" + i, new BigDecimal("1000000"))));
+    }
+    for (int i = ACCOUNTS; i < eventCount; i++) {
+      int account = i % ACCOUNTS;
+      String accountId = "account-" + account;
+      Object payload = i % 2 == 0
+          ? new MoneyDebitedEvent(accountId, "other", BigDecimal.TEN, "tx-" + i)
+          : new MoneyCreditedEvent(accountId, "other", BigDecimal.ONE, "tx-" + i);
+      events.add(new GenericDomainEventMessage<>("AccountAggregate", accountId,
+          sequences[account]++, payload));
+    }
+    return events;
+  }
+
+  /**
+   * 기존 재생 방식: 이벤트마다 행을 삽입/갱신하고 바로 커밋 (autocommit)
+   */
+  private static long replayEventByEvent(EmbeddedEventStore eventStore,
+      DriverManagerDataSource dataSource) throws Exception {
+    TrackingToken head = eventStore.createHeadToken();
+    long events = 0;
+    long start = System.nanoTime();
+    try (Connection connection = dataSource.getConnection();
+        PreparedStatement insert = connection.prepareStatement(
+            AccountBalanceRebuilder.INSERT_SQL);
+        PreparedStatement update = connection.prepareStatement(
+            "UPDATE account_balance_view SET balance = balance + ?, last_sequence = ?, "
+                + "updated_at = CURRENT_TIMESTAMP WHERE account_id = ?");
+        BlockingStream<TrackedEventMessage<?>> stream = eventStore.openStream(null)) {
+      TrackingToken position = null;
+      while (position == null || !position.covers(head)) {
+        TrackedEventMessage<?> event = stream.nextAvailable();
+        position = event.trackingToken();
+        events++;
+        DomainEventMessage<?> domainEvent = (DomainEventMessage<?>) event;
+        if (domainEvent.getPayload() instanceof AccountCreatedEvent created) {
+          insert.setString(1, created.getAccountId());
+          insert.setBigDecimal(2, created.getInitialBalance());
+          insert.setLong(3, domainEvent.getSequenceNumber());
+          insert.setTimestamp(4, null);
+          insert.executeUpdate();
+        } else {
+          BigDecimal delta = domainEvent.getPayload() instanceof MoneyDebitedEvent debited
+              ? debited.getAmount().negate()
+              : ((MoneyCreditedEvent) domainEvent.getPayload()).getAmount();
+          update.setBigDecimal(1, delta);
+          update.setLong(2, domainEvent.getSequenceNumber());
+          update.setString(3, domainEvent.getAggregateIdentifier());
+          update.executeUpdate();
+        }
+      }
+    }
+    long millis = Math.max(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), 1);
+    return events * 1000 / millis;
+  }
+
+  private static BigDecimal totalBalance(JdbcTemplate jdbcTemplate) {
+    return jdbcTemplate.queryForObject("SELECT SUM(balance) FROM account_balance_view",
+        BigDecimal.class);
+  }
+}
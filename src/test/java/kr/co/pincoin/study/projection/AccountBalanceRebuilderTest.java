@@ -0,0 +1,195 @@
+package kr.co.pincoin.study.projection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import kr.co.pincoin.study.event.AccountEvents.AccountCreatedEvent;
+import kr.co.pincoin.study.event.AccountEvents.MoneyCreditedEvent;
+import kr.co.pincoin.study.event.AccountEvents.MoneyDebitedEvent;
+import kr.co.pincoin.study.eventstore.ArchivedEventSource;
+import org.axonframework.eventhandling.DomainEventMessage;
+import org.axonframework.eventhandling.GenericDomainEventMessage;
+import org.axonframework.eventhandling.GenericEventMessage;
+import org.axonframework.eventsourcing.eventstore.EmbeddedEventStore;
+import org.axonframework.eventsourcing.eventstore.inmemory.InMemoryEventStorageEngine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+@DisplayName("계좌 잔액 재구축 테스트")
+class AccountBalanceRebuilderTest {
+
+  private static final String TYPE = "AccountAggregate";
+
+  private EmbeddedEventStore eventStore;
+  private JdbcTemplate jdbcTemplate;
+
+  @BeforeEach
+  void setUp() {
+    eventStore = EmbeddedEventStore.builder()
+        .storageEngine(new InMemoryEventStorageEngine())
+        .build();
+    jdbcTemplate = new JdbcTemplate(
+        new DriverManagerDataSource("jdbc:h2:mem:rebuild-test;DB_CLOSE_DELAY=-1"));
+    jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS account_balance_view ("
+        + "account_id VARCHAR(255) PRIMARY KEY, balance NUMERIC(38, 2), "
+        + "last_sequence BIGINT NOT NULL, updated_at TIMESTAMP)");
+  }
+
+  @AfterEach
+  void tearDown() {
+    jdbcTemplate.execute("DROP TABLE IF EXISTS " + AccountBalanceRebuilder.STAGING_TABLE);
+    jdbcTemplate.execute("DROP TABLE account_balance_view");
+    eventStore.shutDown();
+  }
+
+  private static GenericDomainEventMessage<?> event(String accountId, long sequence,
+      Object payload) {
+    return new GenericDomainEventMessage<>(TYPE, accountId, sequence, payload);
+  }
+
+  @Test
+  @DisplayName("이벤트 저장소 전체를 접어 계좌마다 한 행을 기록하고 마지막 토큰을 돌려주어야 한다")
+  void rebuildBalancesFromEventStore() {
+    jdbcTemplate.update(AccountBalanceRebuilder.INSERT_SQL, "stale", BigDecimal.ONE, 9, null);
+    eventStore.publish(
+        event("a", 0, new AccountCreatedEvent("a", new BigDecimal("1000"))),
+        event("b", 0, new AccountCreatedEvent("b", BigDecimal.ZERO)),
+        event("a", 1, new MoneyDebitedEvent("a", "b", new BigDecimal("300"), "tx-1")),
+        GenericEventMessage.asEventMessage("not-an-account-event"),
+        event("b", 1, new MoneyCreditedEvent("b", "a", new BigDecimal("300"), "tx-1")),
+        event("a", 2, new MoneyCreditedEvent("a", "c", new BigDecimal("50"), "tx-2")));
+
+    AccountBalanceRebuilder rebuilder = new AccountBalanceRebuilder(eventStore, jdbcTemplate, 3, 1);
+    AccountBalanceRebuilder.Result result = rebuilder.rebuild();
+
+    // 게시하기 전까지 조회 모델은 이전 내용 그대로
+    assertThat(jdbcTemplate.queryForList("SELECT account_id FROM account_balance_view",
+        String.class)).containsExactly("stale");
+    rebuilder.publish();
+
+    assertThat(result.events()).isEqualTo(6);
+    assertThat(result.accounts()).isEqualTo(2);
+    assertThat(result.lastToken()).isEqualTo(eventStore.createHeadToken());
+
+    List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+        "SELECT account_id, balance, last_sequence FROM account_balance_view ORDER BY account_id");
+    assertThat(rows)
+        .extracting(row -> row.get("ACCOUNT_ID"),
+            row -> ((BigDecimal) row.get("BALANCE")).setScale(0),
+            row -> row.get("LAST_SEQUENCE"))
+        .containsExactly(
+            tuple("a", new BigDecimal("750"), 2L),
+            tuple("b", new BigDecimal("300"), 1L));
+  }
+
+  @Test
+  @DisplayName("이벤트가 없으면 테이블만 비우고 토큰 없이 끝나야 한다")
+  void rebuildEmptyStore() {
+    jdbcTemplate.update(AccountBalanceRebuilder.INSERT_SQL, "stale", BigDecimal.ONE, 9, null);
+
+    AccountBalanceRebuilder rebuilder = new AccountBalanceRebuilder(eventStore, jdbcTemplate, 2,
+        100);
+    AccountBalanceRebuilder.Result result = rebuilder.rebuild();
+    rebuilder.publish();
+
+    assertThat(result.events()).isZero();
+    assertThat(result.lastToken()).isNull();
+    assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM account_balance_view",
+        Long.class)).isZero();
+  }
+
+  /**
+   * 고정된 보관 이벤트를 돌려주고, 읽을 때마다 지정한 만큼 세대 번호를 올리는 보관 저장소
+   */
+  private static ArchivedEventSource archive(long generationStepOnRead,
+      DomainEventMessage<?>... archived) {
+    AtomicLong generation = new AtomicLong();
+    return new ArchivedEventSource() {
+      @Override
+      public Stream<DomainEventMessage<?>> readArchivedEvents() {
+        generation.addAndGet(generationStepOnRead);
+        return Stream.of(archived);
+      }
+
+      @Override
+      public long archiveGeneration() {
+        return generation.get();
+      }
+    };
+  }
+
+  @Test
+  @DisplayName("보관된 이벤트를 먼저 접어 보관 이전 잔액에 추적 스트림의 이벤트를 더해야 한다")
+  void rebuildWithArchivedEvents() {
+    // a의 순번 0~1과 b의 전부는 보관되어 추적 스트림에 없음
+    ArchivedEventSource archived = archive(0,
+        event("a", 0, new AccountCreatedEvent("a", new BigDecimal("1000"))),
+        event("a", 1, new MoneyDebitedEvent("a", "b", new BigDecimal("300"), "tx-1")),
+        event("b", 0, new AccountCreatedEvent("b", BigDecimal.ZERO)),
+        event("b", 1, new MoneyCreditedEvent("b", "a", new BigDecimal("300"), "tx-1")));
+    eventStore.publish(
+        event("a", 2, new MoneyCreditedEvent("a", "c", new BigDecimal("50"), "tx-2")));
+
+    AccountBalanceRebuilder rebuilder =
+        new AccountBalanceRebuilder(eventStore, archived, jdbcTemplate, 2, 10);
+    AccountBalanceRebuilder.Result result = rebuilder.rebuild();
+    rebuilder.publish();
+
+    assertThat(result.events()).isEqualTo(5);
+    assertThat(result.lastToken()).isEqualTo(eventStore.createHeadToken());
+    List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+        "SELECT account_id, balance, last_sequence FROM account_balance_view ORDER BY account_id");
+    assertThat(rows)
+        .extracting(row -> row.get("ACCOUNT_ID"),
+            row -> ((BigDecimal) row.get("BALANCE")).setScale(0),
+            row -> row.get("LAST_SEQUENCE"))
+        .containsExactly(
+            tuple("a", new BigDecimal("750"), 2L),
+            tuple("b", new BigDecimal("300"), 1L));
+  }
+
+  @Test
+  @DisplayName("모든 이벤트가 보관되어 추적 스트림이 비어 있어도 보관된 잔액을 기록해야 한다")
+  void rebuildFromArchiveOnly() {
+    ArchivedEventSource archived = archive(0,
+        event("a", 0, new AccountCreatedEvent("a", new BigDecimal("1000"))));
+
+    AccountBalanceRebuilder rebuilder =
+        new AccountBalanceRebuilder(eventStore, archived, jdbcTemplate, 2, 10);
+    AccountBalanceRebuilder.Result result = rebuilder.rebuild();
+    rebuilder.publish();
+
+    assertThat(result.accounts()).isEqualTo(1);
+    assertThat(result.lastToken()).isNull();
+    assertThat(jdbcTemplate.queryForObject(
+        "SELECT balance FROM account_balance_view WHERE account_id = 'a'", BigDecimal.class))
+        .isEqualByComparingTo("1000");
+  }
+
+  @Test
+  @DisplayName("재구축 중에 보관이 실행되면 행을 기록하지 않고 실패하며 조회 모델은 그대로 두어야 한다")
+  void failWhenArchivedDuringRebuild() {
+    jdbcTemplate.update(AccountBalanceRebuilder.INSERT_SQL, "live", BigDecimal.ONE, 9, null);
+    ArchivedEventSource archived = archive(1,
+        event("a", 0, new AccountCreatedEvent("a", new BigDecimal("1000"))));
+    eventStore.publish(event("b", 0, new AccountCreatedEvent("b", BigDecimal.ZERO)));
+
+    assertThatThrownBy(
+        () -> new AccountBalanceRebuilder(eventStore, archived, jdbcTemplate, 2, 10).rebuild())
+        .isInstanceOf(IllegalStateException.class);
+    assertThat(jdbcTemplate.queryForList("SELECT account_id FROM account_balance_view",
+        String.class)).containsExactly("live");
+    assertThat(jdbcTemplate.queryForObject(
+        "SELECT COUNT(*) FROM " + AccountBalanceRebuilder.STAGING_TABLE, Long.class)).isZero();
+  }
+}
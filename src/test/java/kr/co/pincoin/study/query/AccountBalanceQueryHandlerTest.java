@@ -0,0 +1,69 @@
+package kr.co.pincoin.study.query;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import kr.co.pincoin.study.cache.BoundedAggregateCache;
+import kr.co.pincoin.study.model.AccountBalanceView;
+import kr.co.pincoin.study.query.AccountQueries.AccountBalance;
+import kr.co.pincoin.study.query.AccountQueries.FindAccountBalanceQuery;
+import kr.co.pincoin.study.repository.AccountBalanceViewRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("계좌 잔액 조회 처리기 테스트")
+class AccountBalanceQueryHandlerTest {
+
+  private final AccountBalanceViewRepository repository = mock(AccountBalanceViewRepository.class);
+  private final AccountBalanceNearCache nearCache =
+      new AccountBalanceNearCache(new BoundedAggregateCache(100, Duration.ZERO));
+  private final AccountBalanceQueryHandler handler =
+      new AccountBalanceQueryHandler(repository, nearCache);
+
+  private static AccountBalanceView view(String accountId, String balance, long sequence) {
+    AccountBalanceView view = new AccountBalanceView(accountId);
+    view.apply(sequence, new BigDecimal(balance), true, LocalDateTime.now());
+    return view;
+  }
+
+  @Test
+  @DisplayName("한 번 읽은 잔액은 근접 캐시에서 반환해야 한다")
+  void serveRepeatedQueriesFromNearCache() {
+    when(repository.findById("a")).thenReturn(Optional.of(view("a", "1000", 3)));
+
+    for (int i = 0; i < 5; i++) {
+      assertThat(handler.handle(new FindAccountBalanceQuery("a")))
+          .contains(new AccountBalance("a", new BigDecimal("1000"), 3));
+    }
+
+    verify(repository, times(1)).findById("a");
+  }
+
+  @Test
+  @DisplayName("없는 계좌는 빈 결과를 반환하고 캐시하지 않아야 한다")
+  void missingAccount() {
+    when(repository.findById("x")).thenReturn(Optional.empty());
+
+    assertThat(handler.handle(new FindAccountBalanceQuery("x"))).isEmpty();
+    assertThat(handler.handle(new FindAccountBalanceQuery("x"))).isEmpty();
+
+    verify(repository, times(2)).findById("x");
+  }
+
+  @Test
+  @DisplayName("근접 캐시는 더 새 버전의 잔액만 받아들여야 한다")
+  void nearCacheKeepsNewestVersion() {
+    assertThat(nearCache.offer(new AccountBalance("a", new BigDecimal("700"), 5))).isTrue();
+    assertThat(nearCache.offer(new AccountBalance("a", new BigDecimal("1000"), 3))).isFalse();
+    assertThat(nearCache.offer(new AccountBalance("a", new BigDecimal("650"), 6))).isTrue();
+
+    assertThat(nearCache.get("a").getBalance()).isEqualByComparingTo("650");
+  }
+}
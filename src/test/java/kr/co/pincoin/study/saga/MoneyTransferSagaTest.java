@@ -1,6 +1,10 @@
 package kr.co.pincoin.study.saga;
 
+import java.math.BigDecimal;
+import java.time.Duration;
 import kr.co.pincoin.study.command.AccountCommands.CreditAccountCommand;
+import kr.co.pincoin.study.commandbus.CreditFence;
+import kr.co.pincoin.study.config.TransferSagaProperties;
 import kr.co.pincoin.study.event.AccountEvents.MoneyCreditedEvent;
 import kr.co.pincoin.study.event.AccountEvents.MoneyDebitedEvent;
 import kr.co.pincoin.study.event.TransferCompensatedEvent;
@@ -9,15 +13,28 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
-import java.math.BigDecimal;
-
 @DisplayName("송금 사가 테스트")
 class MoneyTransferSagaTest {
   private SagaTestFixture<MoneyTransferSaga> fixture;
 
+  // true면 원래 입금이 이미 처리된 것으로 보고 CreditFence가 막기에 실패
+  private boolean creditApplied;
+
   @BeforeEach
   void setUp() {
     fixture = new SagaTestFixture<>(MoneyTransferSaga.class);
+    fixture.registerResource(new TransferSagaProperties());
+    fixture.registerResource((CreditFence) (accountId, transactionId) -> !creditApplied);
+  }
+
+  private void failCredit(String transactionId) {
+    fixture.setCallbackBehavior((payload, metaData) -> {
+      if (payload instanceof CreditAccountCommand command
+          && transactionId.equals(command.getTransactionId())) {
+        throw new IllegalStateException("입금 실패");
+      }
+      return null;
+    });
   }
 
   @Test
@@ -82,6 +99,7 @@ class MoneyTransferSagaTest {
     String targetAccountId = "target-456";
     String transactionId = "tx-789";
     BigDecimal amount = BigDecimal.valueOf(500);
+    failCredit(transactionId);
 
     MoneyDebitedEvent debitedEvent = new MoneyDebitedEvent(
         sourceAccountId,
@@ -99,12 +117,35 @@ class MoneyTransferSagaTest {
 
     fixture.givenAggregate(transactionId)
         .published(debitedEvent)
-        .whenPublishingA(new MoneyCreditedEvent(
-            targetAccountId,
+        .whenTimeElapses(Duration.ofSeconds(1))
+        .expectTriggeredDeadlinesWithName(MoneyTransferSaga.CREDIT_FAILED_DEADLINE)
+        .expectDispatchedCommands(compensationCommand)
+        .expectActiveSagas(1);
+  }
+
+  @Test
+  @DisplayName("입금 실패 후 보상 입금이 확인되면 사가가 종료되어야 한다")
+  void whenCreditFailsAndCompensationCreditedThenSagaShouldEnd() {
+    String sourceAccountId = "source-123";
+    String targetAccountId = "target-456";
+    String transactionId = "tx-789";
+    BigDecimal amount = BigDecimal.valueOf(500);
+    failCredit(transactionId);
+
+    fixture.givenAggregate(transactionId)
+        .published(new MoneyDebitedEvent(
             sourceAccountId,
+            targetAccountId,
             amount,
             transactionId))
-        .expectDispatchedCommands(compensationCommand);
+        .andThenTimeElapses(Duration.ofSeconds(1))
+        .whenPublishingA(new MoneyCreditedEvent(
+            sourceAccountId,
+            targetAccountId,
+            amount,
+            transactionId + "-compensation"))
+        .expectActiveSagas(0)
+        .expectNoScheduledDeadlines();
   }
 
   @Test
@@ -133,4 +174,101 @@ class MoneyTransferSagaTest {
         .whenPublishingA(compensatedEvent)
         .expectActiveSagas(0);
   }
-}
\ No newline at end of file
+
+  @Test
+  @DisplayName("출금 시 송금 타임아웃 데드라인이 예약되어야 한다")
+  void whenMoneyDebitedThenTimeoutDeadlineShouldBeScheduled() {
+    fixture.givenNoPriorActivity()
+        .whenPublishingA(new MoneyDebitedEvent(
+            "source-123",
+            "target-456",
+            BigDecimal.valueOf(500),
+            "tx-789"))
+        .expectScheduledDeadlineWithName(TransferSagaProperties.DEFAULT_TIMEOUT,
+            MoneyTransferSaga.TRANSFER_TIMEOUT_DEADLINE);
+  }
+
+  @Test
+  @DisplayName("입금 확인 시 송금 타임아웃 데드라인이 취소되어야 한다")
+  void whenMoneyCreditedThenTimeoutDeadlineShouldBeCancelled() {
+    fixture.givenAggregate("tx-789")
+        .published(new MoneyDebitedEvent(
+            "source-123",
+            "target-456",
+            BigDecimal.valueOf(500),
+            "tx-789"))
+        .whenPublishingA(new MoneyCreditedEvent(
+            "target-456",
+            "source-123",
+            BigDecimal.valueOf(500),
+            "tx-789"))
+        .expectNoScheduledDeadlines();
+  }
+
+  @Test
+  @DisplayName("송금 타임아웃이 지나면 원래 입금을 막고 출금 계좌로 보상 입금해야 한다")
+  void whenTransferTimesOutThenCompensationShouldBeDispatched() {
+    String sourceAccountId = "source-123";
+    String targetAccountId = "target-456";
+    String transactionId = "tx-789";
+    BigDecimal amount = BigDecimal.valueOf(500);
+
+    fixture.givenAggregate(transactionId)
+        .published(new MoneyDebitedEvent(
+            sourceAccountId,
+            targetAccountId,
+            amount,
+            transactionId))
+        .whenTimeElapses(TransferSagaProperties.DEFAULT_TIMEOUT.plusSeconds(1))
+        .expectTriggeredDeadlinesWithName(MoneyTransferSaga.TRANSFER_TIMEOUT_DEADLINE)
+        .expectDispatchedCommands(new CreditAccountCommand(
+            sourceAccountId,
+            targetAccountId,
+            amount,
+            transactionId + "-compensation"))
+        .expectScheduledDeadlineWithName(TransferSagaProperties.DEFAULT_TIMEOUT,
+            MoneyTransferSaga.TRANSFER_TIMEOUT_DEADLINE)
+        .expectActiveSagas(1);
+  }
+
+  @Test
+  @DisplayName("타임아웃 보상 입금이 확인되면 사가가 종료되어야 한다")
+  void whenTimeoutCompensationCreditedThenSagaShouldEnd() {
+    String sourceAccountId = "source-123";
+    String targetAccountId = "target-456";
+    String transactionId = "tx-789";
+    BigDecimal amount = BigDecimal.valueOf(500);
+
+    fixture.givenAggregate(transactionId)
+        .published(new MoneyDebitedEvent(
+            sourceAccountId,
+            targetAccountId,
+            amount,
+            transactionId))
+        .andThenTimeElapses(TransferSagaProperties.DEFAULT_TIMEOUT.plusSeconds(1))
+        .whenPublishingA(new MoneyCreditedEvent(
+            sourceAccountId,
+            targetAccountId,
+            amount,
+            transactionId + "-compensation"))
+        .expectActiveSagas(0)
+        .expectNoScheduledDeadlines();
+  }
+
+  @Test
+  @DisplayName("타임아웃 시 원래 입금이 이미 처리되었으면 보상하지 않고 입금 확인을 기다려야 한다")
+  void whenTransferTimesOutAfterCreditAppliedThenShouldNotCompensate() {
+    creditApplied = true;
+
+    fixture.givenAggregate("tx-789")
+        .published(new MoneyDebitedEvent(
+            "source-123",
+            "target-456",
+            BigDecimal.valueOf(500),
+            "tx-789"))
+        .whenTimeElapses(TransferSagaProperties.DEFAULT_TIMEOUT.plusSeconds(1))
+        .expectTriggeredDeadlinesWithName(MoneyTransferSaga.TRANSFER_TIMEOUT_DEADLINE)
+        .expectNoDispatchedCommands()
+        .expectActiveSagas(1);
+  }
+}
@@ -0,0 +1,146 @@
+package kr.co.pincoin.study.saga;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import kr.co.pincoin.study.aggregate.AccountAggregate;
+import kr.co.pincoin.study.audit.AuditLogAppender;
+import kr.co.pincoin.study.command.AccountCommands.CreateAccountCommand;
+import kr.co.pincoin.study.config.TransferProperties;
+import kr.co.pincoin.study.config.TransferProperties.Orchestration;
+import kr.co.pincoin.study.config.TransferSagaProperties;
+import kr.co.pincoin.study.dedup.ProcessedTransactionTracker;
+import kr.co.pincoin.study.dedup.TimeBucketedWindow;
+import kr.co.pincoin.study.handler.AccountEventHandler;
+import kr.co.pincoin.study.repository.ProcessedTransactionRepository;
+import kr.co.pincoin.study.service.AccountService;
+import org.axonframework.commandhandling.CommandMessage;
+import org.axonframework.config.Configuration;
+import org.axonframework.config.DefaultConfigurer;
+import org.axonframework.eventsourcing.eventstore.inmemory.InMemoryEventStorageEngine;
+import org.axonframework.messaging.MessageDispatchInterceptor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * 송금 한 건당 커맨드/이벤트 수와 송금 처리량을 입금 담당 방식별로 비교합니다.
+ * <p>
+ * before: AccountService, AccountEventHandler, MoneyTransferSaga가 모두 입금 커맨드를 보내던 이전 동작 (구성 요소마다 다른
+ * orchestration 값을 주어 재현)
+ * <p>
+ * saga / event-handler / service: study.transfer.orchestration으로 한 곳만 입금을 담당
+ * <p>
+ * 실제 애그리게잇, 이벤트 처리기, 사가를 구독 이벤트 처리기와 메모리 이벤트 저장소로 구성해 측정합니다. (./gradlew benchmark)
+ */
+@Tag("benchmark")
+@DisplayName("송금 입금 담당 방식 벤치마크")
+class TransferOrchestrationBenchmarkTest {
+
+  private static final int ACCOUNTS = 64;
+  private static final int TRANSFERS = 20_000;
+
+  @TempDir
+  Path directory;
+
+  private record Result(double commandsPerTransfer, double eventsPerTransfer,
+                        long transfersPerSecond) {
+
+  }
+
+  @Test
+  @DisplayName("입금 담당 방식별 송금당 커맨드/이벤트 수와 처리량을 출력한다")
+  void compareOrchestrationModes() throws IOException {
+    // 워밍업
+    run(Orchestration.SERVICE, Orchestration.EVENT_HANDLER, Orchestration.SAGA, TRANSFERS / 10);
+    run(Orchestration.SAGA, Orchestration.SAGA, Orchestration.SAGA, TRANSFERS / 10);
+
+    System.out.println("mode          | commands/transfer | events/transfer | transfers/s");
+    print("before", run(Orchestration.SERVICE, Orchestration.EVENT_HANDLER, Orchestration.SAGA,
+        TRANSFERS));
+    for (Orchestration mode : Orchestration.values()) {
+      print(mode.name().toLowerCase(), run(mode, mode, mode, TRANSFERS));
+    }
+  }
+
+  private static void print(String mode, Result result) {
+    System.out.printf("%-13s | %17.2f | %15.2f | %11d%n", mode, result.commandsPerTransfer(),
+        result.eventsPerTransfer(), result.transfersPerSecond());
+  }
+
+  private static TransferProperties properties(Orchestration orchestration) {
+    TransferProperties properties = new TransferProperties();
+    properties.setOrchestration(orchestration);
+    return properties;
+  }
+
+  /**
+   * @param serviceMode AccountService가 보는 입금 담당
+   * @param handlerMode AccountEventHandler가 보는 입금 담당
+   * @param sagaMode    MoneyTransferSaga가 보는 입금 담당
+   */
+  private Result run(Orchestration serviceMode, Orchestration handlerMode,
+      Orchestration sagaMode, int transfers) throws IOException {
+    ProcessedTransactionTracker tracker = new ProcessedTransactionTracker(
+        new TimeBucketedWindow(Duration.ofMinutes(10), 10, transfers * 2, Clock.systemUTC()),
+        null,
+        mock(ProcessedTransactionRepository.class, withSettings().stubOnly()),
+        Duration.ofDays(1),
+        Clock.systemUTC());
+    AuditLogAppender auditLog = new AuditLogAppender(directory.resolve("audit.log"), 1024,
+        64L * 1024 * 1024, 1);
+
+    Configuration configuration = DefaultConfigurer.defaultConfiguration()
+        .configureEmbeddedEventStore(c -> new InMemoryEventStorageEngine())
+        .configureAggregate(AccountAggregate.class)
+        .registerComponent(TransferProperties.class, c -> properties(sagaMode))
+        .registerComponent(TransferSagaProperties.class, c -> new TransferSagaProperties())
+        .eventProcessing(processing -> processing
+            .usingSubscribingEventProcessors()
+            .registerSaga(MoneyTransferSaga.class)
+            .registerEventHandler(c -> new AccountEventHandler(c.commandGateway(), tracker,
+                properties(handlerMode), auditLog)))
+        .buildConfiguration();
+    configuration.start();
+
+    LongAdder commands = new LongAdder();
+    LongAdder events = new LongAdder();
+    MessageDispatchInterceptor<CommandMessage<?>> commandCounter = messages -> {
+      commands.add(messages.size());
+      return (index, message) -> message;
+    };
+    configuration.commandBus().registerDispatchInterceptor(commandCounter);
+    configuration.eventBus().subscribe(published -> events.add(published.size()));
+
+    AccountService accountService =
+        new AccountService(configuration.commandGateway(), properties(serviceMode));
+    for (int i = 0; i < ACCOUNTS; i++) {
+      configuration.commandGateway().sendAndWait(
+          new CreateAccountCommand("account-" + i, BigDecimal.valueOf(1_000_000_000L)));
+    }
+    commands.reset();
+    events.reset();
+
+    long start = System.nanoTime();
+    CompletableFuture<?>[] results = new CompletableFuture<?>[transfers];
+    for (int i = 0; i < transfers; i++) {
+      results[i] = accountService.transfer("account-" + (i % ACCOUNTS),
+          "account-" + ((i + 1) % ACCOUNTS), BigDecimal.ONE);
+    }
+    CompletableFuture.allOf(results).join();
+    long elapsedNanos = System.nanoTime() - start;
+
+    configuration.shutdown();
+    auditLog.close();
+    return new Result((double) commands.sum() / transfers, (double) events.sum() / transfers,
+        transfers * 1_000_000_000L / Math.max(elapsedNanos, 1));
+  }
+}
@@ -0,0 +1,124 @@
+package kr.co.pincoin.study.sagastore;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import kr.co.pincoin.study.cache.BoundedAggregateCache;
+import org.axonframework.messaging.unitofwork.DefaultUnitOfWork;
+import org.axonframework.modelling.saga.AssociationValue;
+import org.axonframework.modelling.saga.AssociationValuesImpl;
+import org.axonframework.modelling.saga.repository.CachingSagaStore;
+import org.axonframework.modelling.saga.repository.SagaStore;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("배치 단위 사가 저장소 테스트")
+class WriteBehindSagaStoreTest {
+
+  private static final AssociationValue TRANSACTION = new AssociationValue("transactionId", "tx-1");
+
+  @SuppressWarnings("unchecked")
+  private final SagaStore<Object> delegate = mock(SagaStore.class);
+  private final WriteBehindSagaStore store = new WriteBehindSagaStore(delegate, null, null);
+
+  @Test
+  @DisplayName("배치 안에서 삽입 후 갱신한 사가는 커밋 시 최종 상태로 한 번만 삽입되어야 한다")
+  void coalesceInsertAndUpdates() {
+    DefaultUnitOfWork<?> unitOfWork = DefaultUnitOfWork.startAndGet(null);
+    store.insertSaga(String.class, "saga-1", "v1", Set.of(TRANSACTION));
+    store.updateSaga(String.class, "saga-1", "v2", new AssociationValuesImpl(Set.of(TRANSACTION)));
+    store.updateSaga(String.class, "saga-1", "v3", new AssociationValuesImpl(Set.of(TRANSACTION)));
+
+    assertThat(store.findSagas(String.class, TRANSACTION)).containsExactly("saga-1");
+    assertThat(store.loadSaga(String.class, "saga-1").saga()).isEqualTo("v3");
+    verify(delegate, never()).insertSaga(any(), anyString(), any(), any());
+
+    unitOfWork.commit();
+
+    verify(delegate).insertSaga(String.class, "saga-1", "v3", Set.of(TRANSACTION));
+    verify(delegate, never()).updateSaga(any(), anyString(), any(), any());
+    assertThat(store.savedWrites()).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("배치 안에서 시작하고 끝난 사가는 저장소에 쓰지 않아야 한다")
+  void skipSagaStartedAndEndedInBatch() {
+    DefaultUnitOfWork<?> unitOfWork = DefaultUnitOfWork.startAndGet(null);
+    store.insertSaga(String.class, "saga-1", "v1", Set.of(TRANSACTION));
+    store.deleteSaga(String.class, "saga-1", Set.of(TRANSACTION));
+    unitOfWork.commit();
+
+    verify(delegate, never()).insertSaga(any(), anyString(), any(), any());
+    verify(delegate, never()).deleteSaga(any(), anyString(), any());
+  }
+
+  @Test
+  @DisplayName("작업 단위가 롤백되면 모아 둔 쓰기를 반영하지 않아야 한다")
+  void discardOnRollback() {
+    DefaultUnitOfWork<?> unitOfWork = DefaultUnitOfWork.startAndGet(null);
+    store.updateSaga(String.class, "saga-1", "v2", new AssociationValuesImpl(Set.of(TRANSACTION)));
+    unitOfWork.rollback();
+
+    verify(delegate, never()).updateSaga(any(), anyString(), any(), any());
+  }
+
+  @Test
+  @DisplayName("작업 단위가 롤백되면 배치에서 삽입하거나 삭제한 사가의 연관 캐시 항목을 제거해야 한다")
+  void evictAssociationsOnRollback() {
+    AssociationValue deletedTransaction = new AssociationValue("transactionId", "tx-0");
+    BoundedAggregateCache sagaCache = new BoundedAggregateCache(100, Duration.ofMinutes(1));
+    BoundedAggregateCache associationsCache = new BoundedAggregateCache(100, Duration.ofMinutes(1));
+    CachingSagaStore<Object> cachingStore = CachingSagaStore.builder()
+        .delegateSagaStore(new WriteBehindSagaStore(delegate, sagaCache, associationsCache))
+        .sagaCache(sagaCache)
+        .associationsCache(associationsCache)
+        .build();
+    when(delegate.findSagas(String.class, TRANSACTION)).thenAnswer(i -> new HashSet<>());
+    when(delegate.findSagas(String.class, deletedTransaction))
+        .thenAnswer(i -> new HashSet<>(Set.of("saga-0")));
+    // 두 연관 값을 연관 캐시에 올림 (CachingSagaStore는 캐시에 있는 연관 값만 고침)
+    assertThat(cachingStore.findSagas(String.class, TRANSACTION)).isEmpty();
+    assertThat(cachingStore.findSagas(String.class, deletedTransaction)).containsExactly("saga-0");
+
+    DefaultUnitOfWork<?> unitOfWork = DefaultUnitOfWork.startAndGet(null);
+    cachingStore.insertSaga(String.class, "saga-1", "v1", Set.of(TRANSACTION));
+    cachingStore.deleteSaga(String.class, "saga-0", Set.of(deletedTransaction));
+    unitOfWork.rollback();
+
+    // 삽입이 취소된 사가는 조회되지 않고, 삭제가 취소된 사가는 다시 조회되어야 한다
+    assertThat(cachingStore.findSagas(String.class, TRANSACTION)).isEmpty();
+    assertThat(cachingStore.findSagas(String.class, deletedTransaction)).containsExactly("saga-0");
+  }
+
+  @Test
+  @DisplayName("연관 값이 바뀌는 갱신과 작업 단위 밖의 쓰기는 바로 반영되어야 한다")
+  void writeThroughWhenNeeded() {
+    store.insertSaga(String.class, "saga-0", "v0", Set.of(TRANSACTION));
+    verify(delegate).insertSaga(String.class, "saga-0", "v0", Set.of(TRANSACTION));
+
+    DefaultUnitOfWork<?> unitOfWork = DefaultUnitOfWork.startAndGet(null);
+    AssociationValuesImpl associationValues = new AssociationValuesImpl(Set.of(TRANSACTION));
+    associationValues.add(new AssociationValue("accountId", "account-1"));
+    store.updateSaga(String.class, "saga-1", "v2", associationValues);
+
+    verify(delegate).updateSaga(eq(String.class), eq("saga-1"), eq("v2"), any());
+    unitOfWork.commit();
+  }
+
+  @Test
+  @DisplayName("작업 단위가 없으면 조회는 위임 저장소로 바로 전달되어야 한다")
+  void readThroughWithoutUnitOfWork() {
+    store.findSagas(String.class, TRANSACTION);
+
+    verify(delegate).findSagas(String.class, TRANSACTION);
+  }
+}
@@ -0,0 +1,142 @@
+package kr.co.pincoin.study.serializer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.thoughtworks.xstream.XStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.math.BigDecimal;
+import java.util.UUID;
+import kr.co.pincoin.study.command.AccountCommands.DebitAccountCommand;
+import kr.co.pincoin.study.event.AccountEvents.AccountCreatedEvent;
+import kr.co.pincoin.study.event.AccountEvents.MoneyDebitedEvent;
+import kr.co.pincoin.study.event.AccountEvents.TransferFailedEvent;
+import kr.co.pincoin.study.event.TransferCompensatedEvent;
+import org.axonframework.messaging.MetaData;
+import org.axonframework.serialization.SerializationException;
+import org.axonframework.serialization.SerializedObject;
+import org.axonframework.serialization.Serializer;
+import org.axonframework.serialization.SimpleSerializedObject;
+import org.axonframework.serialization.xml.XStreamSerializer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("계좌 바이너리 직렬화 테스트")
+class AccountBinarySerializerTest {
+
+  private final Serializer fallback = xStreamSerializer();
+  private final AccountBinarySerializer serializer = new AccountBinarySerializer(fallback);
+
+  static Serializer xStreamSerializer() {
+    XStream xStream = new XStream();
+    xStream.allowTypesByWildcard(
+        new String[]{"kr.co.pincoin.**", "org.axonframework.**", "java.math.**"});
+    return XStreamSerializer.builder().xStream(xStream).build();
+  }
+
+  private static String uuid() {
+    return UUID.randomUUID().toString();
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> T roundTrip(T value) {
+    SerializedObject<byte[]> serialized = serializer.serialize(value, byte[].class);
+    return (T) serializer.deserialize(serialized);
+  }
+
+  @Test
+  @DisplayName("등록된 이벤트와 커맨드는 짧은 타입 식별자로 직렬화되고 원래 값으로 복원되어야 한다")
+  void roundTripRegisteredTypes() {
+    MoneyDebitedEvent debited =
+        new MoneyDebitedEvent(uuid(), uuid(), new BigDecimal("1234.50"), uuid());
+    SerializedObject<byte[]> serialized = serializer.serialize(debited, byte[].class);
+
+    assertThat(serialized.getType().getName()).startsWith(AccountBinarySerializer.TYPE_PREFIX);
+    assertThat(serialized.getType().getRevision()).isEqualTo("1");
+    // 버전(1) + UUID 3개(17 * 3) + 금액(10)
+    assertThat(serialized.getData()).hasSize(1 + 17 * 3 + 10);
+    assertThat(serializer.classForType(serialized.getType())).isEqualTo(MoneyDebitedEvent.class);
+    assertThat((Object) serializer.deserialize(serialized)).isEqualTo(debited);
+
+    AccountCreatedEvent created = new AccountCreatedEvent(uuid(), new BigDecimal("1000"));
+    assertThat(roundTrip(created)).isEqualTo(created);
+    assertThat(roundTrip(new TransferCompensatedEvent(uuid(), uuid(), uuid())))
+        .extracting(TransferCompensatedEvent::getTargetAccountId).isNotNull();
+    assertThat(roundTrip(new DebitAccountCommand(uuid(), uuid(), BigDecimal.TEN, uuid())))
+        .extracting(DebitAccountCommand::getAmount).isEqualTo(BigDecimal.TEN);
+  }
+
+  @Test
+  @DisplayName("UUID가 아닌 식별자, 큰 금액, null 값도 그대로 복원되어야 한다")
+  void roundTripIrregularValues() {
+    TransferFailedEvent failed = new TransferFailedEvent("ACC-001", null,
+        new BigDecimal("123456789012345678901234567890.123"), UUID.randomUUID().toString()
+        .toUpperCase(), "잔액 부족");
+
+    assertThat(roundTrip(failed)).isEqualTo(failed);
+
+    TransferFailedEvent withoutReason = new TransferFailedEvent(uuid(), uuid(), BigDecimal.ONE,
+        uuid(), null);
+    assertThat(roundTrip(withoutReason).getReason()).isNull();
+    TransferFailedEvent emptyReason = new TransferFailedEvent(uuid(), uuid(), BigDecimal.ONE,
+        uuid(), "");
+    assertThat(roundTrip(emptyReason).getReason()).isEmpty();
+  }
+
+  @Test
+  @DisplayName("스키마 1로 저장된 송금 실패 이벤트의 빈 사유는 null로 읽어야 한다")
+  void upcastTransferFailedWithoutReason() throws Exception {
+    String transactionId = uuid();
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeByte(1);
+      BinaryCodec.writeId("ACC-001", out);
+      BinaryCodec.writeId("ACC-002", out);
+      BinaryCodec.writeAmount(BigDecimal.TEN, out);
+      BinaryCodec.writeId(transactionId, out);
+      BinaryCodec.writeText("", out);
+    }
+    SerializedObject<byte[]> stored = new SimpleSerializedObject<>(bytes.toByteArray(),
+        byte[].class, serializer.typeForClass(TransferFailedEvent.class));
+
+    assertThat((Object) serializer.deserialize(stored)).isEqualTo(
+        new TransferFailedEvent("ACC-001", "ACC-002", BigDecimal.TEN, transactionId, null));
+  }
+
+  @Test
+  @DisplayName("등록되지 않은 타입은 위임 직렬화기가 처리해야 한다")
+  void delegateUnregisteredTypes() {
+    MetaData metaData = MetaData.with("traceId", "trace-1");
+    SerializedObject<byte[]> serialized = serializer.serialize(metaData, byte[].class);
+
+    assertThat(serialized.getType()).isEqualTo(fallback.typeForClass(MetaData.class));
+    assertThat((Object) serializer.deserialize(serialized)).isEqualTo(metaData);
+
+    // 기존 직렬화기로 저장된 계좌 이벤트도 읽을 수 있어야 한다
+    AccountCreatedEvent created = new AccountCreatedEvent(uuid(), BigDecimal.ONE);
+    assertThat((Object) serializer.deserialize(fallback.serialize(created, byte[].class)))
+        .isEqualTo(created);
+  }
+
+  @Test
+  @DisplayName("이전 스키마 버전은 등록된 업캐스터로 읽고, 없으면 예외가 발생해야 한다")
+  void upcastOlderVersion() {
+    String accountId = uuid();
+    // 가상의 0번 스키마: 금액 없이 식별자만 기록
+    byte[] legacy = serializer.serialize(new AccountCreatedEvent(accountId, null), byte[].class)
+        .getData();
+    legacy[0] = 0;
+    SerializedObject<byte[]> stored = new SimpleSerializedObject<>(legacy, byte[].class,
+        serializer.typeForClass(AccountCreatedEvent.class));
+
+    assertThatThrownBy(() -> serializer.deserialize(stored))
+        .isInstanceOf(SerializationException.class);
+
+    serializer.registerUpcaster(AccountCreatedEvent.class, 0,
+        in -> new AccountCreatedEvent(BinaryCodec.readId(in), BigDecimal.ZERO));
+
+    assertThat((Object) serializer.deserialize(stored))
+        .isEqualTo(new AccountCreatedEvent(accountId, BigDecimal.ZERO));
+  }
+}
@@ -0,0 +1,107 @@
+package kr.co.pincoin.study.serializer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import kr.co.pincoin.study.event.AccountEvents.MoneyCreditedEvent;
+import kr.co.pincoin.study.event.AccountEvents.MoneyDebitedEvent;
+import kr.co.pincoin.study.event.AccountEvents.TransferCompletedEvent;
+import org.axonframework.serialization.SerializedObject;
+import org.axonframework.serialization.Serializer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 이벤트당 바이트 수와 직렬화/역직렬화 시간을 기존 XStream 직렬화기와 비교합니다.
+ * <p>
+ * JIT 워밍업 후 같은 이벤트 묶음을 반복 처리한 평균값을 출력합니다. (./gradlew benchmark)
+ */
+@Tag("benchmark")
+@DisplayName("계좌 이벤트 직렬화 벤치마크")
+class AccountSerializerBenchmarkTest {
+
+  private static final int EVENT_COUNT = 10_000;
+  private static final int WARMUP_ROUNDS = 5;
+  private static final int MEASURE_ROUNDS = 10;
+
+  @Test
+  @DisplayName("바이너리 직렬화는 기존 직렬화기보다 이벤트당 바이트 수가 작아야 한다")
+  void compareWithXStream() {
+    Serializer xStream = AccountBinarySerializerTest.xStreamSerializer();
+    Serializer binary = new AccountBinarySerializer(xStream);
+    List<Object> events = events();
+
+    System.out.println("serializer | bytes/event | serialize (ns/event) | deserialize (ns/event)");
+    Result baseline = measure("xstream", xStream, events);
+    Result compact = measure("binary", binary, events);
+
+    assertThat(compact.bytesPerEvent()).isLessThan(baseline.bytesPerEvent());
+  }
+
+  private Result measure(String name, Serializer serializer, List<Object> events) {
+    for (int round = 0; round < WARMUP_ROUNDS; round++) {
+      deserializeAll(serializer, serializeAll(serializer, events));
+    }
+
+    long serializeNanos = 0;
+    long deserializeNanos = 0;
+    long bytes = 0;
+    for (int round = 0; round < MEASURE_ROUNDS; round++) {
+      long start = System.nanoTime();
+      List<SerializedObject<byte[]>> serialized = serializeAll(serializer, events);
+      serializeNanos += System.nanoTime() - start;
+
+      start = System.nanoTime();
+      deserializeAll(serializer, serialized);
+      deserializeNanos += System.nanoTime() - start;
+
+      bytes = serialized.stream().mapToLong(object -> object.getData().length).sum();
+    }
+
+    long operations = (long) MEASURE_ROUNDS * events.size();
+    Result result = new Result(bytes / events.size(), serializeNanos / operations,
+        deserializeNanos / operations);
+    System.out.printf("%-10s | %11d | %20d | %22d%n", name, result.bytesPerEvent(),
+        result.serializeNanos(), result.deserializeNanos());
+    return result;
+  }
+
+  private List<SerializedObject<byte[]>> serializeAll(Serializer serializer,
+      List<Object> events) {
+    List<SerializedObject<byte[]>> serialized = new ArrayList<>(events.size());
+    for (Object event : events) {
+      serialized.add(serializer.serialize(event, byte[].class));
+    }
+    return serialized;
+  }
+
+  private void deserializeAll(Serializer serializer, List<SerializedObject<byte[]>> serialized) {
+    for (SerializedObject<byte[]> object : serialized) {
+      serializer.deserialize(object);
+    }
+  }
+
+  private List<Object> events() {
+    List<Object> events = new ArrayList<>(EVENT_COUNT);
+    for (int i = 0; i < EVENT_COUNT; i++) {
+      String source = UUID.randomUUID().toString();
+      String target = UUID.randomUUID().toString();
+      String transactionId = UUID.randomUUID().toString();
+      BigDecimal amount = BigDecimal.valueOf(i % 10_000 + 1, 2);
+      events.add(switch (i % 3) {
+        case 0 -> new MoneyDebitedEvent(source, target, amount, transactionId);
+        case 1 -> new MoneyCreditedEvent(target, source, amount, transactionId);
+        default -> new TransferCompletedEvent(source, target, amount, transactionId);
+      });
+    }
+    return events;
+  }
+
+  private record Result(long bytesPerEvent, long serializeNanos, long deserializeNanos) {
+
+  }
+}
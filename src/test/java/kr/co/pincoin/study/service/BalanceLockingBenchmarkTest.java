@@ -0,0 +1,133 @@
+package kr.co.pincoin.study.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import kr.co.pincoin.study.config.BalanceLockProperties;
+import kr.co.pincoin.study.config.BalanceLockProperties.Mode;
+import kr.co.pincoin.study.model.MyBalance;
+import kr.co.pincoin.study.repository.MyBalanceRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * 동시 스레드 수(50/200/1000)별로 MyBalance 송금의 성공률과 p99 지연을 동시성 제어 방식별로 비교합니다.
+ * <p>
+ * no-retry: 낙관적 락 충돌 시 바로 실패 (이전 동작), optimistic-retry: {@link OptimisticLockRetryTemplate}로 재시도,
+ * pessimistic: accountId 오름차순으로 쓰기 잠금
+ * <p>
+ * 스레드 절반은 1 → 2, 나머지 절반은 2 → 1로 송금해 반대 방향 송금이 섞이도록 합니다. 지연에는 커넥션 풀 대기 시간이 포함됩니다.
+ * (./gradlew benchmark)
+ */
+@Tag("benchmark")
+@SpringBootTest
+@DisplayName("MyBalance 송금 동시성 제어 벤치마크")
+class BalanceLockingBenchmarkTest {
+
+    private static final int[] THREADS = {50, 200, 1000};
+    private static final int TRANSFERS_PER_THREAD = 5;
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000000.00");
+    private static final BigDecimal AMOUNT = new BigDecimal("1.00");
+
+    @Autowired
+    private FundTransferService fundTransferService;
+
+    @Autowired
+    private OptimisticLockRetryTemplate retryTemplate;
+
+    @Autowired
+    private BalanceLockProperties lockProperties;
+
+    @Autowired
+    private MyBalanceRepository myBalanceRepository;
+
+    private record Result(double successRate, double p99Millis) {
+
+    }
+
+    @Test
+    @DisplayName("스레드 수별 성공률과 p99 지연을 출력한다")
+    void compareLockingModes() throws Exception {
+        Mode original = lockProperties.getMode();
+        try {
+            System.out.println("threads | mode             | success rate | p99 (ms)");
+            for (int threads : THREADS) {
+                lockProperties.setMode(Mode.OPTIMISTIC);
+                print(threads, "no-retry", run(threads, false));
+                print(threads, "optimistic-retry", run(threads, true));
+
+                lockProperties.setMode(Mode.PESSIMISTIC);
+                Result pessimistic = run(threads, false);
+                print(threads, "pessimistic", pessimistic);
+                assertThat(pessimistic.successRate()).isEqualTo(1.0);
+            }
+        } finally {
+            lockProperties.setMode(original);
+        }
+    }
+
+    private static void print(int threads, String mode, Result result) {
+        System.out.printf("%7d | %-16s | %11.1f%% | %8.1f%n", threads, mode,
+            result.successRate() * 100, result.p99Millis());
+    }
+
+    private Result run(int threads, boolean retry) throws Exception {
+        myBalanceRepository.deleteAll();
+        myBalanceRepository.saveAll(List.of(new MyBalance(1L, INITIAL_BALANCE),
+            new MyBalance(2L, INITIAL_BALANCE)));
+
+        LongAdder succeeded = new LongAdder();
+        long[] latencies = new long[threads * TRANSFERS_PER_THREAD];
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>(threads);
+        for (int thread = 0; thread < threads; thread++) {
+            int id = thread;
+            long from = thread % 2 == 0 ? 1L : 2L;
+            long to = 3L - from;
+            results.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    long begin = System.nanoTime();
+                    try {
+                        if (retry) {
+                            retryTemplate.run(() -> fundTransferService.transfer(from, to, AMOUNT));
+                        } else {
+                            fundTransferService.transfer(from, to, AMOUNT);
+                        }
+                        succeeded.increment();
+                    } catch (RuntimeException e) {
+                        // 실패도 지연에 포함
+                    }
+                    latencies[id * TRANSFERS_PER_THREAD + i] = System.nanoTime() - begin;
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get();
+        }
+        executor.shutdown();
+
+        BigDecimal total = myBalanceRepository.findAll().stream()
+            .map(MyBalance::getAmount)
+            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertThat(total).isEqualByComparingTo(INITIAL_BALANCE.multiply(BigDecimal.TWO));
+
+        Arrays.sort(latencies);
+        long p99 = latencies[(int) Math.ceil(latencies.length * 0.99) - 1];
+        return new Result((double) succeeded.sum() / latencies.length, p99 / 1_000_000.0);
+    }
+}
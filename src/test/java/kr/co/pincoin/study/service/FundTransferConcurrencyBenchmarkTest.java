@@ -0,0 +1,121 @@
+package kr.co.pincoin.study.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import kr.co.pincoin.study.model.MyBalance;
+import kr.co.pincoin.study.repository.MyBalanceRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * 소수의 계좌에 송금이 몰릴 때 읽고-바꾸고-저장하는 송금({@link FundTransferService#transfer})과 조건부 UPDATE
+ * 송금({@link FundTransferService#transferWithConditionalUpdate})의 성공 수, 충돌 수, 초당 성공 송금 수를 비교합니다.
+ * <p>
+ * 충돌로 실패한 송금은 재시도하지 않습니다. (./gradlew benchmark)
+ */
+@Tag("benchmark")
+@SpringBootTest
+@DisplayName("계좌 잔액 송금 경합 벤치마크")
+class FundTransferConcurrencyBenchmarkTest {
+
+    private static final int ACCOUNTS = 4;
+    private static final int THREADS = 16;
+    private static final int TRANSFERS_PER_THREAD = 500;
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000000.00");
+    private static final BigDecimal AMOUNT = new BigDecimal("1.00");
+
+    @Autowired
+    private FundTransferService fundTransferService;
+
+    @Autowired
+    private MyBalanceRepository myBalanceRepository;
+
+    private record Result(long succeeded, long failed, long transfersPerSecond) {
+
+    }
+
+    @FunctionalInterface
+    private interface Transfer {
+
+        void transfer(Long fromAccountId, Long toAccountId, BigDecimal amount);
+    }
+
+    @Test
+    @DisplayName("조건부 UPDATE 송금은 경합 상황에서 충돌 없이 더 많은 송금을 처리해야 한다")
+    void compareContendedTransfers() throws Exception {
+        // 워밍업
+        run(fundTransferService::transfer);
+        run(fundTransferService::transferWithConditionalUpdate);
+
+        Result readModifyWrite = run(fundTransferService::transfer);
+        Result conditionalUpdate = run(fundTransferService::transferWithConditionalUpdate);
+
+        System.out.println("path               | succeeded | failed | transfers/s");
+        print("read-modify-write", readModifyWrite);
+        print("conditional-update", conditionalUpdate);
+
+        assertThat(conditionalUpdate.failed()).isZero();
+        assertThat(conditionalUpdate.succeeded()).isEqualTo((long) THREADS * TRANSFERS_PER_THREAD);
+        assertThat(conditionalUpdate.transfersPerSecond())
+            .isGreaterThan(readModifyWrite.transfersPerSecond());
+    }
+
+    private static void print(String path, Result result) {
+        System.out.printf("%-18s | %9d | %6d | %11d%n", path, result.succeeded(), result.failed(),
+            result.transfersPerSecond());
+    }
+
+    private Result run(Transfer transfer) throws Exception {
+        myBalanceRepository.deleteAll();
+        List<MyBalance> balances = new ArrayList<>();
+        for (long accountId = 1; accountId <= ACCOUNTS; accountId++) {
+            balances.add(new MyBalance(accountId, INITIAL_BALANCE));
+        }
+        myBalanceRepository.saveAll(balances);
+
+        LongAdder succeeded = new LongAdder();
+        LongAdder failed = new LongAdder();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> results = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int thread = 0; thread < THREADS; thread++) {
+            int offset = thread;
+            results.add(executor.submit(() -> {
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    long from = (offset + i) % ACCOUNTS + 1;
+                    long to = (offset + i + 1) % ACCOUNTS + 1;
+                    try {
+                        transfer.transfer(from, to, AMOUNT);
+                        succeeded.increment();
+                    } catch (RuntimeException e) {
+                        failed.increment();
+                    }
+                }
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        executor.shutdown();
+
+        BigDecimal total = myBalanceRepository.findAll().stream()
+            .map(MyBalance::getAmount)
+            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertThat(total)
+            .isEqualByComparingTo(INITIAL_BALANCE.multiply(BigDecimal.valueOf(ACCOUNTS)));
+
+        return new Result(succeeded.sum(), failed.sum(),
+            succeeded.sum() * 1_000_000_000L / Math.max(elapsedNanos, 1));
+    }
+}
@@ -0,0 +1,101 @@
+package kr.co.pincoin.study.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import kr.co.pincoin.study.model.MyBalance;
+import kr.co.pincoin.study.repository.MyBalanceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+@DisplayName("조건부 UPDATE 송금 테스트")
+class FundTransferServiceTest {
+
+    private static final Long ACCOUNT_1_ID = 1L;
+    private static final Long ACCOUNT_2_ID = 2L;
+    private static final BigDecimal TRANSFER_AMOUNT = new BigDecimal("10.00");
+
+    @Autowired
+    private FundTransferService fundTransferService;
+
+    @Autowired
+    private MyBalanceRepository myBalanceRepository;
+
+    @BeforeEach
+    void setUp() {
+        myBalanceRepository.deleteAll();
+        myBalanceRepository.saveAll(List.of(
+            new MyBalance(ACCOUNT_1_ID, new BigDecimal("100.00")),
+            new MyBalance(ACCOUNT_2_ID, new BigDecimal("100.00"))));
+    }
+
+    private BigDecimal balance(Long accountId) {
+        return myBalanceRepository.findByAccountId(accountId).orElseThrow().getAmount();
+    }
+
+    @Test
+    @DisplayName("동시에 송금해도 잔액이 허용하는 만큼은 모두 성공하고, 나머지는 잔액 부족으로 실패해야 한다")
+    void concurrentTransfersStopAtZero() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        AtomicInteger insufficient = new AtomicInteger();
+        List<Future<?>> results = new ArrayList<>();
+        // 잔액 100.00에서 10.00씩 15번 → 10번 성공, 5번 잔액 부족
+        for (int i = 0; i < 15; i++) {
+            results.add(executor.submit(() -> {
+                try {
+                    fundTransferService.transferWithConditionalUpdate(ACCOUNT_1_ID, ACCOUNT_2_ID,
+                        TRANSFER_AMOUNT);
+                } catch (IllegalStateException e) {
+                    insufficient.incrementAndGet();
+                }
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+        executor.shutdown();
+
+        assertThat(insufficient).hasValue(5);
+        assertThat(balance(ACCOUNT_1_ID)).isEqualByComparingTo("0");
+        assertThat(balance(ACCOUNT_2_ID)).isEqualByComparingTo("200");
+    }
+
+    @Test
+    @DisplayName("출금이 실패하면 먼저 반영된 입금도 롤백되어야 한다")
+    void rollbackDepositWhenWithdrawFails() {
+        // accountId가 큰 계좌에서 출금하면 입금을 먼저 반영
+        assertThatThrownBy(() -> fundTransferService.transferWithConditionalUpdate(ACCOUNT_2_ID,
+            ACCOUNT_1_ID, new BigDecimal("100.01")))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("잔액이 부족합니다.");
+
+        assertThat(balance(ACCOUNT_1_ID)).isEqualByComparingTo("100");
+        assertThat(balance(ACCOUNT_2_ID)).isEqualByComparingTo("100");
+    }
+
+    @Test
+    @DisplayName("존재하지 않는 계좌는 잔액 부족과 구분해야 한다")
+    void rejectUnknownAccounts() {
+        assertThatThrownBy(() -> fundTransferService.transferWithConditionalUpdate(99L,
+            ACCOUNT_2_ID, TRANSFER_AMOUNT))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("출금 계좌가 존재하지 않습니다.");
+        assertThatThrownBy(() -> fundTransferService.transferWithConditionalUpdate(ACCOUNT_1_ID,
+            99L, TRANSFER_AMOUNT))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("입금 계좌가 존재하지 않습니다.");
+
+        assertThat(balance(ACCOUNT_1_ID)).isEqualByComparingTo("100");
+    }
+}
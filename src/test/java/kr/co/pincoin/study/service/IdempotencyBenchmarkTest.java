@@ -0,0 +1,122 @@
+package kr.co.pincoin.study.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import kr.co.pincoin.study.model.MyBalance;
+import kr.co.pincoin.study.model.MyTransaction;
+import kr.co.pincoin.study.repository.MyBalanceRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * 퍼사드 송금 한 건의 DB 왕복(SQL 문, 트랜잭션 커밋)과 지연을 멱등성 처리 방식별로 비교합니다.
+ * <p>
+ * select-then-insert: {@link IdempotencyService#checkIdempotency} 조회 트랜잭션 후
+ * {@link TransactionRecordService#createTransaction} INSERT 트랜잭션, insert-first: {@link IdempotencyService#register}
+ * INSERT 트랜잭션 하나. 두 경우 모두 이후 송금과 완료 처리는 같습니다. (./gradlew benchmark)
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@DisplayName("멱등성 처리 방식별 송금 왕복 수 벤치마크")
+class IdempotencyBenchmarkTest {
+
+    private static final int TRANSFERS = 2_000;
+    private static final Long ACCOUNT_1_ID = 1L;
+    private static final Long ACCOUNT_2_ID = 2L;
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000000.00");
+    private static final BigDecimal AMOUNT = new BigDecimal("1.00");
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private TransactionRecordService transactionRecordService;
+
+    @Autowired
+    private FundTransferService fundTransferService;
+
+    @Autowired
+    private MyBalanceRepository myBalanceRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private record Result(double statementsPerTransfer, double transactionsPerTransfer,
+                          double averageMicros, double p99Micros) {
+
+    }
+
+    @FunctionalInterface
+    private interface Registrar {
+
+        MyTransaction register(String transactionId);
+    }
+
+    @Test
+    @DisplayName("insert-first는 송금마다 조회 한 번과 트랜잭션 한 번을 줄여야 한다")
+    void compareIdempotencyChecks() {
+        Registrar selectThenInsert = transactionId -> {
+            MyTransaction existing = idempotencyService.checkIdempotency(transactionId);
+            assertThat(existing).isNull();
+            return transactionRecordService.createTransaction(transactionId, ACCOUNT_1_ID,
+                ACCOUNT_2_ID, AMOUNT);
+        };
+        Registrar insertFirst = transactionId -> idempotencyService.register(transactionId,
+            ACCOUNT_1_ID, ACCOUNT_2_ID, AMOUNT).transaction();
+
+        // 워밍업
+        run(selectThenInsert);
+        run(insertFirst);
+
+        Result before = run(selectThenInsert);
+        Result after = run(insertFirst);
+
+        System.out.println("path               | statements/transfer | transactions/transfer "
+            + "| avg (us) | p99 (us)");
+        print("select-then-insert", before);
+        print("insert-first", after);
+
+        assertThat(after.statementsPerTransfer()).isLessThan(before.statementsPerTransfer());
+        assertThat(after.transactionsPerTransfer()).isLessThan(before.transactionsPerTransfer());
+    }
+
+    private static void print(String path, Result result) {
+        System.out.printf("%-18s | %19.2f | %21.2f | %8.1f | %8.1f%n", path,
+            result.statementsPerTransfer(), result.transactionsPerTransfer(),
+            result.averageMicros(), result.p99Micros());
+    }
+
+    private Result run(Registrar registrar) {
+        myBalanceRepository.deleteAll();
+        myBalanceRepository.saveAll(List.of(new MyBalance(ACCOUNT_1_ID, INITIAL_BALANCE),
+            new MyBalance(ACCOUNT_2_ID, INITIAL_BALANCE)));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        long[] latencies = new long[TRANSFERS];
+        for (int i = 0; i < TRANSFERS; i++) {
+            long begin = System.nanoTime();
+            MyTransaction transaction = registrar.register(UUID.randomUUID().toString());
+            fundTransferService.transfer(ACCOUNT_1_ID, ACCOUNT_2_ID, AMOUNT);
+            transactionRecordService.markAsCompleted(transaction);
+            latencies[i] = System.nanoTime() - begin;
+        }
+
+        long total = Arrays.stream(latencies).sum();
+        Arrays.sort(latencies);
+        return new Result((double) statistics.getPrepareStatementCount() / TRANSFERS,
+            (double) statistics.getTransactionCount() / TRANSFERS,
+            total / 1_000.0 / TRANSFERS,
+            latencies[(int) Math.ceil(TRANSFERS * 0.99) - 1] / 1_000.0);
+    }
+}
@@ -0,0 +1,80 @@
+package kr.co.pincoin.study.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import kr.co.pincoin.study.model.MyTransactionStatus;
+import kr.co.pincoin.study.repository.MyTransactionRepository;
+import kr.co.pincoin.study.service.IdempotencyService.Registration;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+@DisplayName("insert-first 멱등성 테스트")
+class IdempotencyServiceTest {
+
+    private static final BigDecimal AMOUNT = new BigDecimal("10.00");
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private MyTransactionRepository myTransactionRepository;
+
+    private long rows(String transactionId) {
+        return myTransactionRepository.findAll().stream()
+            .filter(transaction -> transaction.getTransactionId().equals(transactionId))
+            .count();
+    }
+
+    @Test
+    @DisplayName("같은 transactionId로 다시 등록하면 새로 INSERT하지 않고 기존 거래를 돌려줘야 한다")
+    void detectDuplicateOnInsert() {
+        String transactionId = UUID.randomUUID().toString();
+
+        Registration first = idempotencyService.register(transactionId, 1L, 2L, AMOUNT);
+        Registration second = idempotencyService.register(transactionId, 1L, 2L, AMOUNT);
+
+        assertThat(first.created()).isTrue();
+        assertThat(first.transaction().getStatus()).isEqualTo(MyTransactionStatus.PENDING);
+        assertThat(second.created()).isFalse();
+        assertThat(second.transaction().getId()).isEqualTo(first.transaction().getId());
+        assertThat(rows(transactionId)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("동시에 같은 transactionId로 등록해도 한 요청만 INSERT에 성공해야 한다")
+    void concurrentRegistrations() throws Exception {
+        String transactionId = UUID.randomUUID().toString();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Registration>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return idempotencyService.register(transactionId, 1L, 2L, AMOUNT);
+            }));
+        }
+        start.countDown();
+
+        int created = 0;
+        for (Future<Registration> result : results) {
+            if (result.get().created()) {
+                created++;
+            }
+        }
+        executor.shutdown();
+
+        assertThat(created).isEqualTo(1);
+        assertThat(rows(transactionId)).isEqualTo(1);
+    }
+}
@@ -0,0 +1,114 @@
+package kr.co.pincoin.study.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import kr.co.pincoin.study.model.MyBalance;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@DisplayName("낙관적 락 재시도 실행기 테스트")
+class OptimisticLockRetryTemplateTest {
+
+    private final OptimisticLockRetryTemplate retryTemplate =
+        new OptimisticLockRetryTemplate(3, Duration.ofMillis(1), Duration.ofMillis(4));
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    private static RuntimeException conflict() {
+        return new ObjectOptimisticLockingFailureException(MyBalance.class, 1L);
+    }
+
+    @Test
+    @DisplayName("낙관적 락 충돌은 성공할 때까지 다시 실행해야 한다")
+    void retryOptimisticLockFailures() {
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = retryTemplate.execute(() -> {
+            if (calls.incrementAndGet() < 3) {
+                // 커밋 시점 충돌처럼 다른 예외에 감싸여 있어도 원인으로 판단
+                throw new TransactionSystemException("commit failed", conflict());
+            }
+            return "done";
+        });
+
+        assertThat(result).isEqualTo("done");
+        assertThat(calls).hasValue(3);
+        assertThat(retryTemplate.statistics())
+            .isEqualTo(new OptimisticLockRetryTemplate.Statistics(2, 2, 0));
+    }
+
+    @Test
+    @DisplayName("최대 실행 횟수를 넘으면 마지막 충돌 예외를 그대로 던져야 한다")
+    void giveUpAfterMaxAttempts() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThatThrownBy(() -> retryTemplate.run(() -> {
+            calls.incrementAndGet();
+            throw conflict();
+        })).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+
+        assertThat(calls).hasValue(3);
+        assertThat(retryTemplate.statistics().exhausted()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("충돌이 아닌 예외와 진행 중인 트랜잭션 안의 충돌은 재시도하지 않아야 한다")
+    void doNotRetryOtherFailures() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThatThrownBy(() -> retryTemplate.run(() -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("잔액이 부족합니다.");
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(calls).hasValue(1);
+
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        assertThatThrownBy(() -> retryTemplate.run(() -> {
+            calls.incrementAndGet();
+            throw conflict();
+        })).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("재시도 통계가 지표로 노출되어야 한다")
+    void bindStatisticsToMeters() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        retryTemplate.bindTo(registry);
+
+        assertThatThrownBy(() -> retryTemplate.run(() -> {
+            throw conflict();
+        })).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+
+        assertThat(registry.get("balance.lock.optimistic.conflicts").functionCounter().count())
+            .isEqualTo(3);
+        assertThat(registry.get("balance.lock.optimistic.retries").functionCounter().count())
+            .isEqualTo(2);
+        assertThat(registry.get("balance.lock.optimistic.exhausted").functionCounter().count())
+            .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("대기 시간은 재시도마다 두 배로 늘되 최대값을 넘지 않아야 한다")
+    void exponentialBackoffWithJitter() {
+        OptimisticLockRetryTemplate template =
+            new OptimisticLockRetryTemplate(10, Duration.ofMillis(10), Duration.ofMillis(100));
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(template.backoffMillis(1)).isBetween(5L, 9L);
+            assertThat(template.backoffMillis(3)).isBetween(20L, 39L);
+            assertThat(template.backoffMillis(8)).isBetween(50L, 99L);
+        }
+    }
+}
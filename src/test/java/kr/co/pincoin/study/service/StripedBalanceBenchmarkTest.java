@@ -0,0 +1,115 @@
+package kr.co.pincoin.study.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import kr.co.pincoin.study.model.MyBalance;
+import kr.co.pincoin.study.repository.MyBalanceRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * 송금이 한 가맹점 계좌로 몰릴 때 슬롯 수(1 = 분할하지 않음)별 초당 송금 수를 비교합니다.
+ * <p>
+ * 고객 계좌마다 스레드 하나가 가맹점으로 송금하고, 10건 중 1건은 가맹점에서 고객으로 환불합니다. 모두 조건부 UPDATE 송금
+ * ({@link FundTransferService#transferWithConditionalUpdate})으로 처리합니다. (./gradlew benchmark)
+ */
+@Tag("benchmark")
+@SpringBootTest
+@DisplayName("핫 계좌 잔액 분할 벤치마크")
+class StripedBalanceBenchmarkTest {
+
+    private static final int[] SLOTS = {1, 2, 4, 8, 16};
+    private static final Long MERCHANT_ID = 1L;
+    private static final int THREADS = 32;
+    private static final int TRANSFERS_PER_THREAD = 500;
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000000.00");
+    private static final BigDecimal AMOUNT = new BigDecimal("1.00");
+
+    @Autowired
+    private FundTransferService fundTransferService;
+
+    @Autowired
+    private StripedBalanceService stripedBalanceService;
+
+    @Autowired
+    private MyBalanceRepository myBalanceRepository;
+
+    private record Result(long transfersPerSecond, long consolidatedDebits) {
+
+    }
+
+    @Test
+    @DisplayName("슬롯 수별 초당 송금 수를 출력한다")
+    void compareSlotCounts() throws Exception {
+        // 워밍업
+        run(1);
+
+        System.out.println("slots | transfers/s | consolidated debits");
+        for (int slots : SLOTS) {
+            Result result = run(slots);
+            System.out.printf("%5d | %11d | %19d%n", slots, result.transfersPerSecond(),
+                result.consolidatedDebits());
+        }
+    }
+
+    private Result run(int slots) throws Exception {
+        myBalanceRepository.deleteAll();
+        List<MyBalance> balances = new ArrayList<>();
+        balances.add(new MyBalance(MERCHANT_ID, INITIAL_BALANCE));
+        for (int thread = 0; thread < THREADS; thread++) {
+            balances.add(new MyBalance(customer(thread), INITIAL_BALANCE));
+        }
+        myBalanceRepository.saveAll(balances);
+        if (slots > 1) {
+            stripedBalanceService.stripe(MERCHANT_ID, slots);
+        }
+
+        long consolidated = stripedBalanceService.statistics().consolidatedDebits();
+        LongAdder succeeded = new LongAdder();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> results = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int thread = 0; thread < THREADS; thread++) {
+            Long customerId = customer(thread);
+            results.add(executor.submit(() -> {
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    if (i % 10 == 9) {
+                        fundTransferService.transferWithConditionalUpdate(MERCHANT_ID, customerId,
+                            AMOUNT);
+                    } else {
+                        fundTransferService.transferWithConditionalUpdate(customerId, MERCHANT_ID,
+                            AMOUNT);
+                    }
+                    succeeded.increment();
+                }
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        executor.shutdown();
+
+        // 입금 450건 - 환불 50건 = 스레드당 가맹점 +400.00
+        assertThat(stripedBalanceService.balance(MERCHANT_ID)).isEqualByComparingTo(
+            INITIAL_BALANCE.add(BigDecimal.valueOf(400L * THREADS)));
+        stripedBalanceService.unstripe(MERCHANT_ID);
+
+        return new Result(succeeded.sum() * 1_000_000_000L / Math.max(elapsedNanos, 1),
+            stripedBalanceService.statistics().consolidatedDebits() - consolidated);
+    }
+
+    private static Long customer(int thread) {
+        return 100L + thread;
+    }
+}
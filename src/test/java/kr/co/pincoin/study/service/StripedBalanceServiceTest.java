@@ -0,0 +1,234 @@
+package kr.co.pincoin.study.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import kr.co.pincoin.study.model.MyBalance;
+import kr.co.pincoin.study.model.MyBalanceSlot;
+import kr.co.pincoin.study.repository.MyBalanceRepository;
+import kr.co.pincoin.study.repository.MyBalanceSlotRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest
+@DisplayName("핫 계좌 잔액 분할 테스트")
+class StripedBalanceServiceTest {
+
+    private static final Long MERCHANT_ID = 1L;
+    private static final Long CUSTOMER_ID = 2L;
+    private static final Long PAYEE_ID = 3L;
+    private static final int SLOTS = 4;
+
+    @Autowired
+    private StripedBalanceService stripedBalanceService;
+
+    @Autowired
+    private FundTransferService fundTransferService;
+
+    @Autowired
+    private MyTransactionServiceV1 myTransactionServiceV1;
+
+    @Autowired
+    private MyTransactionServiceV2 myTransactionServiceV2;
+
+    @Autowired
+    private MyBalanceRepository myBalanceRepository;
+
+    @Autowired
+    private MyBalanceSlotRepository myBalanceSlotRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        myBalanceRepository.deleteAll();
+        myBalanceRepository.saveAll(List.of(
+            new MyBalance(MERCHANT_ID, new BigDecimal("100.00")),
+            new MyBalance(CUSTOMER_ID, new BigDecimal("1000.00")),
+            new MyBalance(PAYEE_ID, BigDecimal.ZERO)));
+        stripedBalanceService.stripe(MERCHANT_ID, SLOTS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        stripedBalanceService.unstripe(MERCHANT_ID);
+        stripedBalanceService.unstripe(CUSTOMER_ID);
+    }
+
+    private List<BigDecimal> slotAmounts() {
+        return myBalanceSlotRepository.findAll().stream()
+            .filter(slot -> slot.getAccountId().equals(MERCHANT_ID))
+            .map(MyBalanceSlot::getAmount)
+            .toList();
+    }
+
+    @Test
+    @DisplayName("분할하면 잔액이 슬롯에 고르게 나뉘고, 해제하면 MyBalance 행으로 모여야 한다")
+    void stripeAndUnstripe() {
+        assertThat(stripedBalanceService.isStriped(MERCHANT_ID)).isTrue();
+        assertThat(slotAmounts()).hasSize(SLOTS)
+            .allSatisfy(amount -> assertThat(amount).isEqualByComparingTo("25"));
+        assertThat(stripedBalanceService.balance(MERCHANT_ID)).isEqualByComparingTo("100");
+
+        stripedBalanceService.unstripe(MERCHANT_ID);
+
+        assertThat(stripedBalanceService.isStriped(MERCHANT_ID)).isFalse();
+        assertThat(slotAmounts()).isEmpty();
+        assertThat(myBalanceRepository.findByAccountId(MERCHANT_ID).orElseThrow().getAmount())
+            .isEqualByComparingTo("100");
+    }
+
+    @Test
+    @DisplayName("동시에 입금/출금해도 논리 잔액은 슬롯 합으로 정확히 유지되어야 한다")
+    void concurrentTransfersKeepLogicalBalance() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            boolean credit = i % 4 != 0;
+            results.add(executor.submit(() -> {
+                if (credit) {
+                    fundTransferService.transfer(CUSTOMER_ID, MERCHANT_ID, new BigDecimal("2.00"));
+                } else {
+                    fundTransferService.transfer(MERCHANT_ID, CUSTOMER_ID, new BigDecimal("1.00"));
+                }
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+        executor.shutdown();
+
+        // 입금 150 × 2.00, 출금 50 × 1.00
+        assertThat(stripedBalanceService.balance(MERCHANT_ID)).isEqualByComparingTo("350");
+        assertThat(stripedBalanceService.balance(CUSTOMER_ID)).isEqualByComparingTo("750");
+    }
+
+    @Test
+    @DisplayName("한 슬롯으로 부족한 출금은 통합 경로로 처리하고, 논리 잔액을 넘으면 실패해야 한다")
+    void consolidatedDebit() {
+        long consolidated = stripedBalanceService.statistics().consolidatedDebits();
+
+        fundTransferService.transferWithConditionalUpdate(MERCHANT_ID, CUSTOMER_ID,
+            new BigDecimal("60.00"));
+
+        assertThat(stripedBalanceService.statistics().consolidatedDebits())
+            .isEqualTo(consolidated + 1);
+        assertThat(stripedBalanceService.balance(MERCHANT_ID)).isEqualByComparingTo("40");
+        assertThatThrownBy(() -> fundTransferService.transferWithConditionalUpdate(MERCHANT_ID,
+            CUSTOMER_ID, new BigDecimal("40.01")))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("잔액이 부족합니다.");
+        assertThat(stripedBalanceService.balance(MERCHANT_ID)).isEqualByComparingTo("40");
+        assertThat(stripedBalanceService.balance(CUSTOMER_ID)).isEqualByComparingTo("1060");
+    }
+
+    @Test
+    @DisplayName("MyTransactionServiceV1/V2도 분할된 계좌의 논리 잔액에서 출금/입금해야 한다")
+    void transferServicesUseStripedBalance() {
+        // MyBalance 행의 잔액은 0이고 잔액은 모두 슬롯에 있음
+        myTransactionServiceV1.transfer(UUID.randomUUID().toString(), MERCHANT_ID, CUSTOMER_ID,
+            new BigDecimal("60.00"));
+        myTransactionServiceV2.transfer(UUID.randomUUID().toString(), MERCHANT_ID, CUSTOMER_ID,
+            new BigDecimal("30.00"));
+        myTransactionServiceV2.transfer(UUID.randomUUID().toString(), CUSTOMER_ID, MERCHANT_ID,
+            new BigDecimal("5.00"));
+
+        assertThat(stripedBalanceService.balance(MERCHANT_ID)).isEqualByComparingTo("15");
+        assertThat(stripedBalanceService.balance(CUSTOMER_ID)).isEqualByComparingTo("1085");
+        assertThatThrownBy(() -> myTransactionServiceV1.transfer(UUID.randomUUID().toString(),
+            MERCHANT_ID, CUSTOMER_ID, new BigDecimal("15.01")))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("잔액이 부족합니다.");
+        assertThat(stripedBalanceService.balance(MERCHANT_ID)).isEqualByComparingTo("15");
+    }
+
+    @Test
+    @DisplayName("다른 노드가 분할한 계좌도 모든 송금 경로에서 슬롯 잔액으로 출금해야 한다")
+    void debitAccountStripedByAnotherNode() {
+        // 분할 목록을 따로 가진 다른 노드
+        StripedBalanceService otherNode = new StripedBalanceService(myBalanceRepository,
+            myBalanceSlotRepository);
+        List<Consumer<BigDecimal>> paths = List.of(
+            amount -> fundTransferService.transfer(CUSTOMER_ID, PAYEE_ID, amount),
+            amount -> fundTransferService.transferWithConditionalUpdate(CUSTOMER_ID, PAYEE_ID,
+                amount),
+            amount -> myTransactionServiceV1.transfer(UUID.randomUUID().toString(), CUSTOMER_ID,
+                PAYEE_ID, amount),
+            amount -> myTransactionServiceV2.transfer(UUID.randomUUID().toString(), CUSTOMER_ID,
+                PAYEE_ID, amount));
+
+        for (Consumer<BigDecimal> path : paths) {
+            transactionTemplate.executeWithoutResult(status -> otherNode.stripe(CUSTOMER_ID, 2));
+            assertThat(stripedBalanceService.isStriped(CUSTOMER_ID)).isFalse();
+
+            path.accept(new BigDecimal("10.00"));
+
+            assertThat(stripedBalanceService.isStriped(CUSTOMER_ID)).isTrue();
+            stripedBalanceService.unstripe(CUSTOMER_ID);
+        }
+
+        assertThat(stripedBalanceService.balance(CUSTOMER_ID)).isEqualByComparingTo("960");
+        assertThat(stripedBalanceService.balance(PAYEE_ID)).isEqualByComparingTo("40");
+    }
+
+    @Test
+    @DisplayName("이미 다른 노드가 분할한 계좌를 분할하면 분할 목록에 반영해야 한다")
+    void stripeAccountStripedByAnotherNode() {
+        StripedBalanceService otherNode = new StripedBalanceService(myBalanceRepository,
+            myBalanceSlotRepository);
+        transactionTemplate.executeWithoutResult(status -> otherNode.stripe(CUSTOMER_ID, 2));
+
+        stripedBalanceService.stripe(CUSTOMER_ID, 2);
+
+        assertThat(stripedBalanceService.isStriped(CUSTOMER_ID)).isTrue();
+        assertThat(stripedBalanceService.balance(CUSTOMER_ID)).isEqualByComparingTo("1000");
+    }
+
+    @Test
+    @DisplayName("출금 경로별 수와 재분배 횟수가 지표로 노출되어야 한다")
+    void bindStatisticsToMeters() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        stripedBalanceService.bindTo(registry);
+        StripedBalanceService.Statistics before = stripedBalanceService.statistics();
+
+        fundTransferService.transferWithConditionalUpdate(MERCHANT_ID, CUSTOMER_ID,
+            new BigDecimal("10.00"));
+        fundTransferService.transferWithConditionalUpdate(MERCHANT_ID, CUSTOMER_ID,
+            new BigDecimal("60.00"));
+        stripedBalanceService.rebalance(MERCHANT_ID, 0.5);
+
+        assertThat(registry.get("balance.striped.debits").tag("path", "slot").functionCounter()
+            .count()).isEqualTo(before.slotDebits() + 1);
+        assertThat(registry.get("balance.striped.debits").tag("path", "consolidated")
+            .functionCounter().count()).isEqualTo(before.consolidatedDebits() + 1);
+        assertThat(registry.get("balance.striped.rebalances").functionCounter().count())
+            .isEqualTo(before.rebalances() + 1);
+    }
+
+    @Test
+    @DisplayName("슬롯 잔액이 치우치면 재분배로 다시 고르게 나눠야 한다")
+    void rebalanceSkewedSlots() {
+        fundTransferService.transferWithConditionalUpdate(MERCHANT_ID, CUSTOMER_ID,
+            new BigDecimal("20.00"));
+        assertThat(stripedBalanceService.rebalance(MERCHANT_ID, 0.5)).isTrue();
+
+        assertThat(slotAmounts())
+            .allSatisfy(amount -> assertThat(amount).isEqualByComparingTo("20"));
+        assertThat(stripedBalanceService.rebalance(MERCHANT_ID, 0.5)).isFalse();
+    }
+}
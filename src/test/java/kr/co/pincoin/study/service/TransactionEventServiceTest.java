@@ -25,6 +25,7 @@ import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
 @SpringBootTest
+@WithoutOptimisticLockRetry
 class TransactionEventServiceTest {
 
     private static final Long ACCOUNT_1_ID = 1L;
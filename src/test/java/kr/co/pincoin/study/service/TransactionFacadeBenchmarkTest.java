@@ -0,0 +1,120 @@
+package kr.co.pincoin.study.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import kr.co.pincoin.study.config.FacadeProperties;
+import kr.co.pincoin.study.model.MyBalance;
+import kr.co.pincoin.study.repository.MyBalanceRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * {@link TransactionFacade} 송금 한 건의 커밋 수와 초당 송금 수를 단계별 트랜잭션(기본)과 단일 트랜잭션 모드로 비교합니다.
+ * <p>
+ * 스레드마다 서로 다른 계좌 쌍을 사용해 낙관적 락 충돌 없이 트랜잭션 경계 비용만 비교합니다. (./gradlew benchmark)
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@DisplayName("퍼사드 단일 트랜잭션 송금 벤치마크")
+class TransactionFacadeBenchmarkTest {
+
+    private static final int THREADS = 8;
+    private static final int TRANSFERS_PER_THREAD = 500;
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000000.00");
+    private static final BigDecimal AMOUNT = new BigDecimal("1.00");
+
+    @Autowired
+    private TransactionFacade transactionFacade;
+
+    @Autowired
+    private FacadeProperties facadeProperties;
+
+    @Autowired
+    private MyBalanceRepository myBalanceRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private record Result(double commitsPerTransfer, long transfersPerSecond) {
+
+    }
+
+    @Test
+    @DisplayName("단일 트랜잭션 모드는 송금마다 커밋을 한 번만 해야 한다")
+    void compareFacadeModes() throws Exception {
+        boolean original = facadeProperties.isSingleTransaction();
+        try {
+            // 워밍업
+            run(false);
+            run(true);
+
+            Result separate = run(false);
+            Result single = run(true);
+
+            System.out.println("mode                | commits/transfer | transfers/s");
+            print("separate-tx", separate);
+            print("single-transaction", single);
+
+            assertThat(single.commitsPerTransfer()).isLessThan(separate.commitsPerTransfer());
+        } finally {
+            facadeProperties.setSingleTransaction(original);
+        }
+    }
+
+    private static void print(String mode, Result result) {
+        System.out.printf("%-19s | %16.2f | %11d%n", mode, result.commitsPerTransfer(),
+            result.transfersPerSecond());
+    }
+
+    private Result run(boolean singleTransaction) throws Exception {
+        facadeProperties.setSingleTransaction(singleTransaction);
+        myBalanceRepository.deleteAll();
+        List<MyBalance> balances = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            balances.add(new MyBalance(from(thread), INITIAL_BALANCE));
+            balances.add(new MyBalance(from(thread) + 1, INITIAL_BALANCE));
+        }
+        myBalanceRepository.saveAll(balances);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> results = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int thread = 0; thread < THREADS; thread++) {
+            Long fromAccountId = from(thread);
+            results.add(executor.submit(() -> {
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    transactionFacade.transfer(UUID.randomUUID().toString(), fromAccountId,
+                        fromAccountId + 1, AMOUNT);
+                }
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        executor.shutdown();
+
+        long transfers = (long) THREADS * TRANSFERS_PER_THREAD;
+        return new Result((double) statistics.getSuccessfulTransactionCount() / transfers,
+            transfers * 1_000_000_000L / Math.max(elapsedNanos, 1));
+    }
+
+    private static Long from(int thread) {
+        return 1_000L + thread * 2L;
+    }
+}
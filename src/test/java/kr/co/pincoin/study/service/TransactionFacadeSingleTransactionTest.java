@@ -0,0 +1,88 @@
+package kr.co.pincoin.study.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import kr.co.pincoin.study.model.MyBalance;
+import kr.co.pincoin.study.model.MyTransaction;
+import kr.co.pincoin.study.model.MyTransactionStatus;
+import kr.co.pincoin.study.repository.MyBalanceRepository;
+import kr.co.pincoin.study.repository.MyTransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+@SpringBootTest
+@TestPropertySource(properties = "study.facade.single-transaction=true")
+@DisplayName("퍼사드 단일 트랜잭션 송금 테스트")
+class TransactionFacadeSingleTransactionTest {
+
+    private static final Long ACCOUNT_1_ID = 1L;
+    private static final Long ACCOUNT_2_ID = 2L;
+    private static final BigDecimal TRANSFER_AMOUNT = new BigDecimal("10.00");
+
+    @Autowired
+    private TransactionFacade transactionFacade;
+
+    @Autowired
+    private MyBalanceRepository myBalanceRepository;
+
+    @Autowired
+    private MyTransactionRepository myTransactionRepository;
+
+    @BeforeEach
+    void setUp() {
+        myBalanceRepository.deleteAll();
+        myBalanceRepository.saveAll(List.of(
+            new MyBalance(ACCOUNT_1_ID, new BigDecimal("100.00")),
+            new MyBalance(ACCOUNT_2_ID, new BigDecimal("100.00"))));
+    }
+
+    private BigDecimal balance(Long accountId) {
+        return myBalanceRepository.findByAccountId(accountId).orElseThrow().getAmount();
+    }
+
+    private MyTransaction record(String transactionId) {
+        return myTransactionRepository.findByTransactionId(transactionId).orElseThrow();
+    }
+
+    @Test
+    @DisplayName("송금과 완료 기록이 함께 반영되고, 같은 transactionId는 다시 송금하지 않아야 한다")
+    void transferOnceAndRecordCompletion() {
+        String transactionId = UUID.randomUUID().toString();
+
+        transactionFacade.transfer(transactionId, ACCOUNT_1_ID, ACCOUNT_2_ID, TRANSFER_AMOUNT);
+        transactionFacade.transfer(transactionId, ACCOUNT_1_ID, ACCOUNT_2_ID, TRANSFER_AMOUNT);
+
+        assertThat(record(transactionId).getStatus()).isEqualTo(MyTransactionStatus.COMPLETED);
+        assertThat(balance(ACCOUNT_1_ID)).isEqualByComparingTo("90");
+        assertThat(balance(ACCOUNT_2_ID)).isEqualByComparingTo("110");
+    }
+
+    @Test
+    @DisplayName("송금이 실패하면 잔액은 그대로이고 실패 기록은 남아야 한다")
+    void recordFailureAfterRollback() {
+        String transactionId = UUID.randomUUID().toString();
+
+        assertThatThrownBy(() -> transactionFacade.transfer(transactionId, ACCOUNT_1_ID,
+            ACCOUNT_2_ID, new BigDecimal("100.01")))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("잔액이 부족합니다.");
+
+        assertThat(record(transactionId).getStatus()).isEqualTo(MyTransactionStatus.FAILED);
+        assertThat(balance(ACCOUNT_1_ID)).isEqualByComparingTo("100");
+        assertThat(balance(ACCOUNT_2_ID)).isEqualByComparingTo("100");
+
+        // 실패한 거래 번호로 다시 요청하면 기존 퍼사드와 같이 거부
+        assertThatThrownBy(() -> transactionFacade.transfer(transactionId, ACCOUNT_1_ID,
+            ACCOUNT_2_ID, TRANSFER_AMOUNT))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("처리 중인 거래가 있습니다.");
+    }
+}
@@ -23,6 +23,7 @@ import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
 @SpringBootTest
+@WithoutOptimisticLockRetry
 class TransactionFacadeTest {
 
     private static final Long ACCOUNT_1_ID = 1L;
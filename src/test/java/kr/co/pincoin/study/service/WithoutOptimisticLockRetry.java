@@ -0,0 +1,22 @@
+package kr.co.pincoin.study.service;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * {@link OptimisticLockRetryTemplate}가 재시도하지 않도록 실행 횟수를 1로 설정합니다.
+ * <p>
+ * 동시 송금에서 {@code ObjectOptimisticLockingFailureException}이 호출자에게 그대로 전달되는지 검증하는 테스트에 사용합니다. 재시도하면
+ * 충돌이 흡수되어 검증할 수 없습니다. 재시도 동작은 OptimisticLockRetryTemplateTest에서 검증합니다.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Inherited
+@TestPropertySource(properties = "study.balance.lock.max-attempts=1")
+public @interface WithoutOptimisticLockRetry {
+
+}